@@ -0,0 +1,82 @@
+package io.station.response.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math3.complex.Complex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.station.response.EvalRespUtil;
+import io.station.response.FrequencySpacing;
+import io.station.response.Motion;
+import io.station.response.ResponseSpectrum;
+import io.station.response.util.FrequencySet;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AmpPhaseBenchmark {
+
+	@Param({ "200", "2000", "20000" })
+	public int size;
+
+	private double[] real;
+	private double[] imaginary;
+	private Complex[] spectrum;
+	private ResponseSpectrum responseSpectrum;
+	private double[] amplitude;
+	private double[] phase;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		real = new double[size];
+		imaginary = new double[size];
+		spectrum = new Complex[size];
+		for (int i = 0; i < size; i++) {
+			real[i] = random.nextGaussian();
+			imaginary[i] = random.nextGaussian();
+			spectrum[i] = new Complex(real[i], imaginary[i]);
+		}
+		double[] frequencies = new double[size];
+		for (int i = 0; i < size; i++) {
+			frequencies[i] = 0.001 + i * 0.01;
+		}
+		responseSpectrum = new ResponseSpectrum("XX", "TEST", "00", "BHZ", null, null, null,
+				FrequencySet.valueOf(frequencies, FrequencySpacing.LINEAR));
+		for (int i = 0; i < size; i++) {
+			responseSpectrum.add(0, null, i, real[i], imaginary[i]);
+		}
+		amplitude = new double[size];
+		phase = new double[size];
+	}
+
+	@Benchmark
+	public double[][] complex() {
+		return EvalRespUtil.ampPase(spectrum, true);
+	}
+
+	@Benchmark
+	public double[][] primitive() {
+		return EvalRespUtil.ampPase(real, imaginary, true);
+	}
+
+	@Benchmark
+	public double[] fused() {
+		responseSpectrum.ampPhase(Motion.VELOCITY, false, false, true, amplitude, phase);
+		return phase;
+	}
+}
@@ -0,0 +1,70 @@
+package io.station.response.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.station.response.CompiledResponse;
+import io.station.response.EvalResp;
+import io.station.response.EvalRespUtil;
+import io.station.response.EvaluationMode;
+import io.station.response.FrequencySpacing;
+import io.station.response.NormalizedResponse;
+import io.station.response.ResponseSpectrum;
+import io.station.response.util.FrequencySet;
+
+/**
+ * Evaluation of a whole channel, either from the normalized response
+ * (compile and evaluate) or from an already compiled response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluateBenchmark {
+
+	@Param({ "iu.anmo.bhz.one.epoch.resp", "1E.AXF.FIR.odd.resp", "3A.L001.HHE.FIR.even.resp" })
+	public String resource;
+
+	@Param({ "200", "2000", "20000" })
+	public int frequencies;
+
+	@Param({ "LOGARITHMIC", "LINEAR" })
+	public FrequencySpacing spacing;
+
+	@Param({ "DIRECT", "RECURRENCE", "AUTO" })
+	public EvaluationMode mode;
+
+	private NormalizedResponse normalizedResponse;
+	private CompiledResponse compiledResponse;
+	private FrequencySet frequencySet;
+
+	@Setup
+	public void setup() throws Exception {
+		normalizedResponse = EvalResp.normalize(Resources.firstChannel(resource));
+		compiledResponse = CompiledResponse.compile(normalizedResponse, mode);
+		frequencySet = EvalRespUtil.createFrequency(0.001, 20, frequencies, spacing);
+	}
+
+	@Benchmark
+	public ResponseSpectrum calculate() throws Exception {
+		return EvalResp.calculate(normalizedResponse, frequencySet, mode);
+	}
+
+	@Benchmark
+	public ResponseSpectrum evaluate() {
+		return compiledResponse.evaluate(frequencySet);
+	}
+}
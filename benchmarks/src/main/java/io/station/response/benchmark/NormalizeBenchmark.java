@@ -0,0 +1,44 @@
+package io.station.response.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.station.model.Channel;
+import io.station.response.InvalidResponseException;
+import io.station.response.NormalizedResponse;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NormalizeBenchmark {
+
+	@Param({ "iu.anmo.bhz.one.epoch.resp", "1E.AXF.FIR.odd.resp", "3A.L001.HHE.FIR.even.resp" })
+	public String resource;
+
+	private Channel channel;
+
+	@Setup
+	public void setup() throws IOException {
+		channel = Resources.firstChannel(resource);
+	}
+
+	@Benchmark
+	public NormalizedResponse wrap() throws InvalidResponseException {
+		return NormalizedResponse.wrap(channel);
+	}
+}
@@ -0,0 +1,59 @@
+package io.station.response.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.station.model.Channel;
+import io.station.model.FDSNStationXML;
+import io.station.response.RespIO;
+import io.station.response.util.RespChannelReader;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+	@Param({ "IU.ANMO.resp", "1E.AXF.FIR.odd.resp", "3A.L001.HHE.FIR.even.resp" })
+	public String resource;
+
+	private byte[] bytes;
+
+	@Setup
+	public void setup() throws IOException {
+		bytes = Resources.bytes(resource);
+	}
+
+	@Benchmark
+	public FDSNStationXML read(ByteCounter counter) throws IOException {
+		counter.bytes += bytes.length;
+		return RespIO.read(new ByteArrayInputStream(bytes));
+	}
+
+	@Benchmark
+	public void readChannels(ByteCounter counter, Blackhole blackhole) throws Exception {
+		counter.bytes += bytes.length;
+		try (RespChannelReader reader = new RespChannelReader(new ByteArrayInputStream(bytes))) {
+			Channel channel;
+			while ((channel = reader.readNext()) != null) {
+				blackhole.consume(channel);
+			}
+		}
+	}
+}
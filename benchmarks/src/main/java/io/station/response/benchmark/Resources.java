@@ -0,0 +1,49 @@
+package io.station.response.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+
+import io.station.model.Channel;
+import io.station.model.FDSNStationXML;
+import io.station.model.Network;
+import io.station.model.Station;
+import io.station.response.RespIO;
+
+/**
+ * Loads the RESP files bundled with the tests.
+ */
+final class Resources {
+
+	private Resources() {
+	}
+
+	static byte[] bytes(String name) throws IOException {
+		try (InputStream inputStream = Resources.class.getClassLoader().getResourceAsStream(name)) {
+			if (inputStream == null) {
+				throw new IOException("Resource not found: " + name);
+			}
+			return IOUtils.toByteArray(inputStream);
+		}
+	}
+
+	static FDSNStationXML document(String name) throws IOException {
+		return RespIO.read(new ByteArrayInputStream(bytes(name)));
+	}
+
+	static Channel firstChannel(String name) throws IOException {
+		FDSNStationXML document = document(name);
+		for (Network network : document.getNetwork()) {
+			for (Station station : network.getStations()) {
+				List<Channel> channels = station.getChannels();
+				if (channels != null && !channels.isEmpty()) {
+					return channels.get(0);
+				}
+			}
+		}
+		throw new IOException("No channel found in " + name);
+	}
+}
@@ -0,0 +1,100 @@
+package io.station.response.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.station.model.FDSNStationXML;
+import io.station.response.writer.RespBulkWriter;
+import io.station.response.writer.RespWriter;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBenchmark {
+
+	@Param({ "IU.ANMO.resp", "1E.AXF.FIR.odd.resp", "3A.L001.HHE.FIR.even.resp" })
+	public String resource;
+
+	private FDSNStationXML document;
+	private RespBulkWriter bulkWriter;
+
+	@Setup
+	public void setup() throws IOException {
+		document = Resources.document(resource);
+		bulkWriter = new RespBulkWriter(new CountingChannel());
+	}
+
+	@Benchmark
+	public long write(ByteCounter counter) {
+		CountingOutputStream outputStream = new CountingOutputStream();
+		RespWriter writer = new RespWriter(outputStream);
+		writer.write(document);
+		writer.flush();
+		counter.bytes += outputStream.count;
+		return outputStream.count;
+	}
+
+	@Benchmark
+	public long bulk(ByteCounter counter) throws IOException {
+		long start = bulkWriter.getBytes();
+		bulkWriter.write(document);
+		bulkWriter.flush();
+		long count = bulkWriter.getBytes() - start;
+		counter.bytes += count;
+		return count;
+	}
+
+	/**
+	 * Discards the output, keeping only its size.
+	 */
+	static class CountingOutputStream extends OutputStream {
+		long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+
+	static class CountingChannel implements WritableByteChannel {
+
+		@Override
+		public int write(ByteBuffer src) {
+			int n = src.remaining();
+			src.position(src.limit());
+			return n;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
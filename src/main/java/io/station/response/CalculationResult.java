@@ -0,0 +1,54 @@
+package io.station.response;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.station.model.Channel;
+
+/**
+ * The outcome of evaluating a whole document: the spectra of every channel
+ * that could be evaluated, in document order, and the channels that could not.
+ */
+public class CalculationResult {
+
+	private final List<ResponseSpectrum> spectra;
+	private final List<Failure> failures;
+
+	CalculationResult(List<ResponseSpectrum> spectra, List<Failure> failures) {
+		this.spectra = Collections.unmodifiableList(spectra);
+		this.failures = Collections.unmodifiableList(failures);
+	}
+
+	public List<ResponseSpectrum> getSpectra() {
+		return spectra;
+	}
+
+	public List<Failure> getFailures() {
+		return failures;
+	}
+
+	public boolean hasFailures() {
+		return !failures.isEmpty();
+	}
+
+	public static class Failure {
+		private final Channel channel;
+		private final InvalidResponseException exception;
+
+		Failure(Channel channel, InvalidResponseException exception) {
+			this.channel = channel;
+			this.exception = exception;
+		}
+
+		public Channel getChannel() {
+			return channel;
+		}
+
+		/**
+		 * @return the exception raised for the invalid response of the channel.
+		 */
+		public InvalidResponseException getException() {
+			return exception;
+		}
+	}
+}
@@ -0,0 +1,747 @@
+package io.station.response;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.measure.Unit;
+
+import org.apache.commons.math3.complex.Complex;
+
+import io.station.model.CfTransferFunctionType;
+import io.station.model.Coefficients;
+import io.station.model.Denominator;
+import io.station.model.Gain;
+import io.station.model.Numerator;
+import io.station.model.PoleZero;
+import io.station.model.PolesZeros;
+import io.station.model.Polynomial;
+import io.station.model.PzTransferFunctionType;
+import io.station.model.ResponseList;
+import io.station.model.ResponseListElement;
+import io.station.model.SampleRate;
+import io.station.model.Sensitivity;
+import io.station.model.StageGain;
+import io.station.model.Symmetry;
+import io.station.response.ResponseSpectrum.StageSpectrum;
+import io.station.response.kernel.ConstantKernel;
+import io.station.response.kernel.DigitalPolesZerosKernel;
+import io.station.response.kernel.FirKernel;
+import io.station.response.kernel.IirKernel;
+import io.station.response.kernel.InterpolatedResponseListKernel;
+import io.station.response.kernel.KernelCodec;
+import io.station.response.kernel.LaplaceKernel;
+import io.station.response.kernel.ResponseListKernel;
+import io.station.response.kernel.StageKernel;
+import io.station.response.util.FrequencySet;
+import io.station.uom.Describable;
+import io.station.uom.StationUnitFormat;
+
+/**
+ * An immutable evaluation plan for a {@link NormalizedResponse}. Every stage is
+ * resolved once into a {@link StageKernel} holding primitive poles, zeros,
+ * coefficients, sampling interval and normalization factor, so that the plan
+ * can be evaluated against any number of {@link FrequencySet}s without going
+ * back to the station model.
+ */
+public class CompiledResponse {
+
+	private static final byte NO_GAIN = 0;
+	private static final byte STAGE_GAIN = 1;
+	private static final byte SENSITIVITY = 2;
+
+	private final String network;
+	private final String station;
+	private final String location;
+	private final String channel;
+	private final ZonedDateTime start;
+	private final ZonedDateTime end;
+	private final SampleRate sampleRate;
+
+	private final int[] stageNumbers;
+	private final StageKernel[] kernels;
+	private final double[] normalizationFactors;
+	private final Gain[] gains;
+	private final double[] scales;
+	private final Gain sensitivity;
+	private final double sensitivityScale;
+
+	private final boolean useEstDelayFlag;
+	private final boolean listInterpInFlag;
+	private final boolean totalSensitFlag;
+	private final EvaluationMode mode;
+
+	private CompiledResponse(NormalizedResponse normalizedResponse, int[] stageNumbers, StageKernel[] kernels,
+			double[] normalizationFactors, Gain[] gains, double[] scales, Gain sensitivity, double sensitivityScale,
+			boolean useEstDelayFlag, boolean listInterpInFlag, boolean totalSensitFlag, EvaluationMode mode) {
+		this(normalizedResponse.getNetwork(), normalizedResponse.getStation(), normalizedResponse.getLocation(),
+				normalizedResponse.getChannel(), normalizedResponse.getStart(), normalizedResponse.getEnd(),
+				normalizedResponse.getSampleRate(), stageNumbers, kernels, normalizationFactors, gains, scales,
+				sensitivity, sensitivityScale, useEstDelayFlag, listInterpInFlag, totalSensitFlag, mode);
+	}
+
+	private CompiledResponse(String network, String station, String location, String channel, ZonedDateTime start,
+			ZonedDateTime end, SampleRate sampleRate, int[] stageNumbers, StageKernel[] kernels,
+			double[] normalizationFactors, Gain[] gains, double[] scales, Gain sensitivity, double sensitivityScale,
+			boolean useEstDelayFlag, boolean listInterpInFlag, boolean totalSensitFlag, EvaluationMode mode) {
+		this.network = network;
+		this.station = station;
+		this.location = location;
+		this.channel = channel;
+		this.start = start;
+		this.end = end;
+		this.sampleRate = sampleRate;
+		this.stageNumbers = stageNumbers;
+		this.kernels = kernels;
+		this.normalizationFactors = normalizationFactors;
+		this.gains = gains;
+		this.scales = scales;
+		this.sensitivity = sensitivity;
+		this.sensitivityScale = sensitivityScale;
+		this.useEstDelayFlag = useEstDelayFlag;
+		this.listInterpInFlag = listInterpInFlag;
+		this.totalSensitFlag = totalSensitFlag;
+		this.mode = mode;
+	}
+
+	public static CompiledResponse compile(NormalizedResponse normalizedResponse) throws InvalidResponseException {
+		Objects.requireNonNull(normalizedResponse, "normalizedResponse cannot be null.");
+		return compile(normalizedResponse, 1, normalizedResponse.size() + 1, false, false, false);
+	}
+
+	public static CompiledResponse compile(NormalizedResponse normalizedResponse, EvaluationMode mode)
+			throws InvalidResponseException {
+		Objects.requireNonNull(normalizedResponse, "normalizedResponse cannot be null.");
+		return compile(normalizedResponse, 1, normalizedResponse.size() + 1, false, false, false, mode);
+	}
+
+	/**
+	 * Compiles stages startStageNum (inclusive) to stopStageNum (exclusive).
+	 * Stage 0 is never compiled, it always holds the product of the compiled
+	 * stages.
+	 */
+	public static CompiledResponse compile(NormalizedResponse normalizedResponse, int startStageNum,
+			int stopStageNum, boolean useEstDelayFlag, boolean listInterpInFlag, boolean totalSensitFlag)
+			throws InvalidResponseException {
+		return compile(normalizedResponse, startStageNum, stopStageNum, useEstDelayFlag, listInterpInFlag,
+				totalSensitFlag, EvaluationMode.DIRECT);
+	}
+
+	/**
+	 * @param mode how coefficient stages compute their unit circle terms.
+	 */
+	public static CompiledResponse compile(NormalizedResponse normalizedResponse, int startStageNum,
+			int stopStageNum, boolean useEstDelayFlag, boolean listInterpInFlag, boolean totalSensitFlag,
+			EvaluationMode mode) throws InvalidResponseException {
+		Objects.requireNonNull(normalizedResponse, "normalizedResponse cannot be null.");
+		Objects.requireNonNull(mode, "mode cannot be null.");
+		if (stopStageNum < startStageNum) {
+			throw new IllegalArgumentException(
+					"stopStageNum:[" + stopStageNum + "] cannot be less than startStageNum[" + startStageNum + "]");
+		}
+
+		int first = Math.max(startStageNum, 1);
+		int count = Math.max(stopStageNum - first, 0);
+		int[] stageNumbers = new int[count];
+		StageKernel[] kernels = new StageKernel[count];
+		double[] normalizationFactors = new double[count];
+		for (int i = 0; i < count; i++) {
+			int stageNum = first + i;
+			stageNumbers[i] = stageNum;
+			normalizationFactors[i] = normalizationFactor(normalizedResponse, stageNum);
+			kernels[i] = compileStage(normalizedResponse, stageNum, normalizationFactors[i], useEstDelayFlag,
+					listInterpInFlag, mode);
+		}
+		return link(normalizedResponse, stageNumbers, kernels, normalizationFactors, useEstDelayFlag,
+				listInterpInFlag, totalSensitFlag, mode);
+	}
+
+	/**
+	 * Reads the gains of the compiled stages and of stage 0.
+	 */
+	private static CompiledResponse link(NormalizedResponse normalizedResponse, int[] stageNumbers,
+			StageKernel[] kernels, double[] normalizationFactors, boolean useEstDelayFlag, boolean listInterpInFlag,
+			boolean totalSensitFlag, EvaluationMode mode) throws InvalidResponseException {
+		Gain sensitivity = normalizedResponse.getStageGain(0);
+		double totalSensitVal = 1.0;
+		if (totalSensitFlag && sensitivity != null) {
+			totalSensitVal = sensitivity.getValue();
+		}
+		double sensitivityScale = totalSensitFlag ? totalSensitVal
+				: (sensitivity != null ? sensitivity.getValue() : 1.0);
+
+		Gain[] gains = new Gain[stageNumbers.length];
+		double[] scales = new double[stageNumbers.length];
+		for (int i = 0; i < stageNumbers.length; i++) {
+			gains[i] = normalizedResponse.getStageGain(stageNumbers[i]);
+			if (totalSensitFlag) {
+				scales[i] = totalSensitVal;
+			} else {
+				scales[i] = gains[i] != null ? gains[i].getValue() : 1.0;
+			}
+		}
+		return new CompiledResponse(normalizedResponse, stageNumbers, kernels, normalizationFactors, gains, scales,
+				sensitivity, sensitivityScale, useEstDelayFlag, listInterpInFlag, totalSensitFlag, mode);
+	}
+
+	/**
+	 * Recompiles a single stage after an edit. normalizedResponse is the
+	 * response this plan was compiled from, re-wrapped after changing stage
+	 * stageNumber only; the other stages keep their kernels unless the edit
+	 * changed their normalization factor. The plan covers the same stage numbers
+	 * as this one.
+	 * 
+	 * @return a plan to pass to {@link #reevaluate(CompiledResponse, ResponseSpectrum)}
+	 *         along with this plan and its spectrum.
+	 */
+	public CompiledResponse withStage(NormalizedResponse normalizedResponse, int stageNumber)
+			throws InvalidResponseException {
+		Objects.requireNonNull(normalizedResponse, "normalizedResponse cannot be null.");
+		StageKernel[] kernels = this.kernels.clone();
+		double[] normalizationFactors = new double[stageNumbers.length];
+		for (int i = 0; i < stageNumbers.length; i++) {
+			int stageNum = stageNumbers[i];
+			normalizationFactors[i] = normalizationFactor(normalizedResponse, stageNum);
+			if (stageNum == stageNumber
+					|| Double.compare(normalizationFactors[i], this.normalizationFactors[i]) != 0) {
+				kernels[i] = compileStage(normalizedResponse, stageNum, normalizationFactors[i], useEstDelayFlag,
+						listInterpInFlag, mode);
+			}
+		}
+		return link(normalizedResponse, stageNumbers, kernels, normalizationFactors, useEstDelayFlag,
+				listInterpInFlag, totalSensitFlag, mode);
+	}
+
+	private static StageKernel compileStage(NormalizedResponse normalizedResponse, int stageNum,
+			double normalizationFactor, boolean useEstDelayFlag, boolean listInterpInFlag, EvaluationMode mode)
+			throws InvalidResponseException {
+		if (normalizedResponse.getFilterType(stageNum) == FilterType.NONE) {
+			// gain only stage
+			return null;
+		}
+		if (normalizationFactor == 0) {
+			normalizationFactor = 1.0;
+		}
+		StageKernel kernel = null;
+		PolesZeros polesZeros = normalizedResponse.getPolesZeros(stageNum);
+		if (polesZeros != null) {
+			PzTransferFunctionType functionType = polesZeros.getPzTransferFunctionType();
+			double[][] zeros = toArrays(polesZeros.getZero());
+			double[][] poles = toArrays(polesZeros.getPole());
+			if (functionType == PzTransferFunctionType.LAPLACE_HERTZ
+					|| functionType == PzTransferFunctionType.LAPLACE_RADIANS_SECOND) {
+				kernel = new LaplaceKernel(zeros[0], zeros[1], poles[0], poles[1], normalizationFactor,
+						functionType == PzTransferFunctionType.LAPLACE_RADIANS_SECOND);
+			} else if (functionType == PzTransferFunctionType.DIGITAL_Z_TRANSFORM) {
+				double samplingInterval = samplingInterval(normalizedResponse, stageNum);
+				kernel = new DigitalPolesZerosKernel(zeros[0], zeros[1], poles[0], poles[1], normalizationFactor,
+						samplingInterval);
+			} else {
+				throw new InvalidResponseException(
+						"Invalid transfer type for poles/zeros " + "filter in stage #" + stageNum);
+			}
+		}
+		Coefficients coefficients = normalizedResponse.getCoefficients(stageNum);
+		if (coefficients != null) {
+			if ((coefficients.getDenominators() != null && !coefficients.getDenominators().isEmpty())
+					|| (coefficients.getNumerators() != null && !coefficients.getNumerators().isEmpty())) {
+				kernel = compileCoefficients(coefficients, normalizationFactor,
+						normalizedResponse.getResolvedDecimation(stageNum),
+						samplingInterval(normalizedResponse, stageNum), useEstDelayFlag, mode, stageNum);
+			}
+		}
+		ResponseList responseList = normalizedResponse.getResponseList(stageNum);
+		if (responseList != null) {
+			List<ResponseListElement> elements = responseList.getResponseListElement();
+			double[] amplitude = new double[elements.size()];
+			double[] phase = new double[elements.size()];
+			for (int i = 0; i < elements.size(); i++) {
+				ResponseListElement element = elements.get(i);
+				amplitude[i] = element.getAmplitude().getValue();
+				phase[i] = element.getPhase().getValue();
+			}
+			if (listInterpInFlag) {
+				kernel = compileResponseList(elements, amplitude, phase, stageNum);
+			} else {
+				kernel = new ResponseListKernel(amplitude, phase);
+			}
+		}
+		Polynomial polynomial = normalizedResponse.getPolynomial(stageNum);
+		if (polynomial != null) {
+			kernel = new ConstantKernel(EvalRespUtil.polynomial(polynomial, 0));
+		}
+		return kernel;
+	}
+
+	private static StageKernel compileResponseList(List<ResponseListElement> elements, double[] amplitude,
+			double[] phase, int stageNum) throws InvalidResponseException {
+		double[] frequency = new double[elements.size()];
+		for (int i = 0; i < elements.size(); i++) {
+			ResponseListElement element = elements.get(i);
+			if (element.getFrequency() == null || element.getFrequency().getValue() == null) {
+				throw new InvalidResponseException("Missing frequency in response list of stage #" + stageNum);
+			}
+			frequency[i] = element.getFrequency().getValue();
+		}
+		try {
+			return new InterpolatedResponseListKernel(frequency, amplitude, EvalRespUtil.unwrapPhaseArray(phase));
+		} catch (IllegalArgumentException e) {
+			// includes the non monotonic frequency errors of commons-math
+			throw new InvalidResponseException(
+					"Cannot interpolate response list of stage #" + stageNum + ": " + e.getMessage());
+		}
+	}
+
+	private static StageKernel compileCoefficients(Coefficients coefficients, double normalizationFactor,
+			ResolvedDecimation decimation, double samplingInterval, boolean useEstDelayFlag, EvaluationMode mode,
+			int stageNum) throws InvalidResponseException {
+		if (coefficients.getCfTransferFunctionType() != CfTransferFunctionType.DIGITAL) {
+			throw new InvalidResponseException("Invalid coefficients transfer type in stage #" + stageNum);
+		}
+		List<Denominator> denominators = coefficients.getDenominators();
+		List<Numerator> numerators = coefficients.getNumerators();
+		if (denominators == null || denominators.isEmpty()) {
+			double[] values = new double[numerators.size()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = numerators.get(i).getValue();
+			}
+			Symmetry symmetry = EvalRespUtil.determineFirTypeVal(coefficients);
+			double deltaVal = 0;
+			if (symmetry == Symmetry.NONE) {
+				double delay = decimation.getDelay(useEstDelayFlag);
+				if (Double.isNaN(delay)) {
+					throw new InvalidResponseException(
+							"Required delay correction not found in " + "stage #" + stageNum);
+				}
+				deltaVal = delay - ((((double) (values.length - 1)) / 2) * samplingInterval);
+			}
+			return new FirKernel(values, normalizationFactor, samplingInterval, symmetry, deltaVal, mode);
+		} else if (numerators != null && !numerators.isEmpty()) {
+			double[] nums = new double[numerators.size()];
+			for (int i = 0; i < nums.length; i++) {
+				nums[i] = numerators.get(i).getValue();
+			}
+			double[] dens = new double[denominators.size()];
+			for (int i = 0; i < dens.length; i++) {
+				dens[i] = denominators.get(i).getValue();
+			}
+			return new IirKernel(nums, dens, normalizationFactor, samplingInterval, mode);
+		}
+		return null;
+	}
+
+	private static double samplingInterval(NormalizedResponse normalizedResponse, int stageNum)
+			throws InvalidResponseException {
+		ResolvedDecimation decimation = normalizedResponse.getResolvedDecimation(stageNum);
+		if (decimation == null || !decimation.hasSamplingInterval()) {
+			if (decimation == null) {
+				throw new InvalidResponseException("Required decimation not found in " + "stage #" + stageNum);
+			}
+			throw new InvalidResponseException("Invalid decimation object in stage #" + stageNum);
+		}
+		return decimation.getSamplingInterval();
+	}
+
+	private static double normalizationFactor(NormalizedResponse normalizedResponse, int stageNum)
+			throws InvalidResponseException {
+		try {
+			return normalizedResponse.getNormalizationFactor(stageNum);
+		} catch (StageNotFoundException | EmptyStageException e) {
+			throw new InvalidResponseException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the plan in the binary form read by {@link #read(ByteBuffer)}, see
+	 * {@link ResponseStore}.
+	 */
+	void write(DataOutput out) throws IOException {
+		KernelCodec.writeString(network, out);
+		KernelCodec.writeString(station, out);
+		KernelCodec.writeString(location, out);
+		KernelCodec.writeString(channel, out);
+		writeDateTime(start, out);
+		writeDateTime(end, out);
+		writeSampleRate(sampleRate, out);
+		out.writeBoolean(useEstDelayFlag);
+		out.writeBoolean(listInterpInFlag);
+		out.writeBoolean(totalSensitFlag);
+		KernelCodec.writeString(mode.name(), out);
+		writeGain(sensitivity, out);
+		out.writeDouble(sensitivityScale);
+		out.writeInt(kernels.length);
+		for (int i = 0; i < kernels.length; i++) {
+			out.writeInt(stageNumbers[i]);
+			out.writeDouble(normalizationFactors[i]);
+			out.writeDouble(scales[i]);
+			writeGain(gains[i], out);
+			KernelCodec.write(kernels[i], out);
+		}
+	}
+
+	/**
+	 * Reads a plan at the position of buffer and moves past it.
+	 */
+	static CompiledResponse read(ByteBuffer buffer) throws IOException {
+		String network = KernelCodec.readString(buffer);
+		String station = KernelCodec.readString(buffer);
+		String location = KernelCodec.readString(buffer);
+		String channel = KernelCodec.readString(buffer);
+		ZonedDateTime start = readDateTime(buffer);
+		ZonedDateTime end = readDateTime(buffer);
+		SampleRate sampleRate = readSampleRate(buffer);
+		boolean useEstDelayFlag = buffer.get() != 0;
+		boolean listInterpInFlag = buffer.get() != 0;
+		boolean totalSensitFlag = buffer.get() != 0;
+		EvaluationMode mode = EvaluationMode.valueOf(KernelCodec.readString(buffer));
+		Gain sensitivity = readGain(buffer);
+		double sensitivityScale = buffer.getDouble();
+		int count = buffer.getInt();
+		int[] stageNumbers = new int[count];
+		StageKernel[] kernels = new StageKernel[count];
+		double[] normalizationFactors = new double[count];
+		Gain[] gains = new Gain[count];
+		double[] scales = new double[count];
+		for (int i = 0; i < count; i++) {
+			stageNumbers[i] = buffer.getInt();
+			normalizationFactors[i] = buffer.getDouble();
+			scales[i] = buffer.getDouble();
+			gains[i] = readGain(buffer);
+			kernels[i] = KernelCodec.read(buffer);
+		}
+		return new CompiledResponse(network, station, location, channel, start, end, sampleRate, stageNumbers,
+				kernels, normalizationFactors, gains, scales, sensitivity, sensitivityScale, useEstDelayFlag,
+				listInterpInFlag, totalSensitFlag, mode);
+	}
+
+	private static void writeDateTime(ZonedDateTime dateTime, DataOutput out) throws IOException {
+		out.writeBoolean(dateTime != null);
+		if (dateTime != null) {
+			out.writeLong(dateTime.toEpochSecond());
+			out.writeInt(dateTime.getNano());
+			KernelCodec.writeString(dateTime.getZone().getId(), out);
+		}
+	}
+
+	private static ZonedDateTime readDateTime(ByteBuffer buffer) {
+		if (buffer.get() == 0) {
+			return null;
+		}
+		Instant instant = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+		return ZonedDateTime.ofInstant(instant, ZoneId.of(KernelCodec.readString(buffer)));
+	}
+
+	/**
+	 * Sample rates are written as their value only, StationXML fixes their unit
+	 * to samples per second.
+	 */
+	private static void writeSampleRate(SampleRate sampleRate, DataOutput out) throws IOException {
+		out.writeBoolean(sampleRate != null);
+		if (sampleRate != null) {
+			writeNullable(sampleRate.getValue(), out);
+		}
+	}
+
+	private static SampleRate readSampleRate(ByteBuffer buffer) {
+		if (buffer.get() == 0) {
+			return null;
+		}
+		SampleRate sampleRate = new SampleRate();
+		if (buffer.get() != 0) {
+			sampleRate.setValue(buffer.getDouble());
+		}
+		return sampleRate;
+	}
+
+	/**
+	 * Gains are written as their value and frequency, sensitivities with their
+	 * units as name and description, the way RESP files spell them.
+	 */
+	private static void writeGain(Gain gain, DataOutput out) throws IOException {
+		if (gain == null) {
+			out.writeByte(NO_GAIN);
+			return;
+		}
+		out.writeByte(gain instanceof Sensitivity ? SENSITIVITY : STAGE_GAIN);
+		writeNullable(gain.getValue(), out);
+		writeNullable(gain.getFrequency(), out);
+		if (gain instanceof Sensitivity) {
+			writeUnit(((Sensitivity) gain).getInputUnits(), out);
+			writeUnit(((Sensitivity) gain).getOutputUnits(), out);
+		}
+	}
+
+	private static Gain readGain(ByteBuffer buffer) {
+		byte type = buffer.get();
+		if (type == NO_GAIN) {
+			return null;
+		}
+		// unset values stay null
+		boolean hasValue = buffer.get() != 0;
+		double value = hasValue ? buffer.getDouble() : 0;
+		boolean hasFrequency = buffer.get() != 0;
+		double frequency = hasFrequency ? buffer.getDouble() : 0;
+		if (type == SENSITIVITY) {
+			Sensitivity sensitivity = new Sensitivity();
+			if (hasValue) {
+				sensitivity.setValue(value);
+			}
+			if (hasFrequency) {
+				sensitivity.setFrequency(frequency);
+			}
+			sensitivity.setInputUnits(readUnit(buffer));
+			sensitivity.setOutputUnits(readUnit(buffer));
+			return sensitivity;
+		}
+		StageGain stageGain = new StageGain();
+		if (hasValue) {
+			stageGain.setValue(value);
+		}
+		if (hasFrequency) {
+			stageGain.setFrequency(frequency);
+		}
+		return stageGain;
+	}
+
+	private static void writeNullable(Double value, DataOutput out) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeDouble(value);
+		}
+	}
+
+	private static void writeUnit(Unit<?> unit, DataOutput out) throws IOException {
+		KernelCodec.writeString(unit == null ? null : unit.getName(), out);
+		KernelCodec.writeString(unit instanceof Describable ? ((Describable) unit).getDescription() : null, out);
+	}
+
+	private static Unit<?> readUnit(ByteBuffer buffer) {
+		String name = KernelCodec.readString(buffer);
+		String description = KernelCodec.readString(buffer);
+		return name == null || name.isEmpty() ? null : StationUnitFormat.getInstance().parse(name, description);
+	}
+
+	private static double[][] toArrays(List<PoleZero> list) {
+		int size = list == null ? 0 : list.size();
+		double[][] array = new double[2][size];
+		for (int i = 0; i < size; i++) {
+			Complex c = EvalRespUtil.createComplex(list.get(i));
+			array[0][i] = c.getReal();
+			array[1][i] = c.getImaginary();
+		}
+		return array;
+	}
+
+	public String getNetwork() {
+		return network;
+	}
+
+	public String getStation() {
+		return station;
+	}
+
+	public String getLocation() {
+		return location;
+	}
+
+	public String getChannel() {
+		return channel;
+	}
+
+	public ZonedDateTime getStart() {
+		return start;
+	}
+
+	public ZonedDateTime getEnd() {
+		return end;
+	}
+
+	public SampleRate getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * @return the number of compiled stages, stage 0 excluded.
+	 */
+	public int size() {
+		return kernels.length;
+	}
+
+	public ResponseSpectrum evaluate(FrequencySet frequencySet) {
+		return evaluate(frequencySet, null);
+	}
+
+	/**
+	 * @param shared the values of kernels already evaluated over frequencySet,
+	 *               kernels found there are copied instead of transformed and
+	 *               the others are added to it. May be null.
+	 */
+	ResponseSpectrum evaluate(FrequencySet frequencySet, Map<StageKernel, double[][]> shared) {
+		Objects.requireNonNull(frequencySet, "frequencySet cannot be null.");
+		ResponseSpectrum responseSpectrum = new ResponseSpectrum(network, station, location, channel, start, end,
+				sampleRate, frequencySet);
+
+		// stage by stage over the whole array, the product is accumulated in
+		// the same order as a frequency by frequency evaluation
+		final double[] frequencies = frequencySet.getValues();
+		final int n = frequencies.length;
+		double[] real = new double[n];
+		double[] imaginary = new double[n];
+		double[] totalReal = new double[n];
+		double[] totalImaginary = new double[n];
+		Arrays.fill(totalReal, 1);
+		for (int i = 0; i < kernels.length; i++) {
+			if (kernels[i] == null) {
+				Arrays.fill(real, 1);
+				Arrays.fill(imaginary, 0);
+			} else if (shared == null) {
+				kernels[i].transform(frequencies, real, imaginary);
+			} else {
+				double[][] values = shared.get(kernels[i]);
+				if (values == null) {
+					kernels[i].transform(frequencies, real, imaginary);
+					shared.put(kernels[i], new double[][] { real.clone(), imaginary.clone() });
+				} else {
+					System.arraycopy(values[0], 0, real, 0, n);
+					System.arraycopy(values[1], 0, imaginary, 0, n);
+				}
+			}
+			for (int fIdx = 0; fIdx < n; fIdx++) {
+				double re = real[fIdx], im = imaginary[fIdx];
+				double t = totalReal[fIdx] * re - totalImaginary[fIdx] * im;
+				totalImaginary[fIdx] = totalReal[fIdx] * im + totalImaginary[fIdx] * re;
+				totalReal[fIdx] = t;
+				responseSpectrum.add(stageNumbers[i], gains[i], fIdx, re * scales[i], im * scales[i]);
+			}
+		}
+		for (int fIdx = 0; fIdx < n; fIdx++) {
+			responseSpectrum.add(0, sensitivity, fIdx, totalReal[fIdx] * sensitivityScale,
+					totalImaginary[fIdx] * sensitivityScale);
+		}
+		return responseSpectrum;
+	}
+
+	/**
+	 * Same as {@link #evaluate(FrequencySet)} over the first length frequencies
+	 * but written to the given planes, stage 0 to the first one and the compiled
+	 * stages to the following ones, without allocating. Kernels are evaluated one
+	 * frequency at a time.
+	 */
+	void evaluate(double[] frequencies, int length, double[][] real, double[][] imaginary) {
+		final double[] totalReal = real[0];
+		final double[] totalImaginary = imaginary[0];
+		Arrays.fill(totalReal, 0, length, 1);
+		Arrays.fill(totalImaginary, 0, length, 0);
+		for (int i = 0; i < kernels.length; i++) {
+			final double[] sr = real[i + 1];
+			final double[] si = imaginary[i + 1];
+			for (int fIdx = 0; fIdx < length; fIdx++) {
+				if (kernels[i] == null || !kernels[i].transform(frequencies[fIdx], fIdx, sr, si, fIdx)) {
+					sr[fIdx] = 1;
+					si[fIdx] = 0;
+				}
+				double re = sr[fIdx], im = si[fIdx];
+				double t = totalReal[fIdx] * re - totalImaginary[fIdx] * im;
+				totalImaginary[fIdx] = totalReal[fIdx] * im + totalImaginary[fIdx] * re;
+				totalReal[fIdx] = t;
+				sr[fIdx] = re * scales[i];
+				si[fIdx] = im * scales[i];
+			}
+		}
+		for (int fIdx = 0; fIdx < length; fIdx++) {
+			totalReal[fIdx] *= sensitivityScale;
+			totalImaginary[fIdx] *= sensitivityScale;
+		}
+	}
+
+	int getStageNumber(int index) {
+		return stageNumbers[index];
+	}
+
+	Gain getStageGain(int index) {
+		return gains[index];
+	}
+
+	Gain getSensitivity() {
+		return sensitivity;
+	}
+
+	/**
+	 * Same as {@link #evaluate(FrequencySet)} over the frequencies of previous,
+	 * but only the stages whose kernel differs from previousPlan are
+	 * transformed. Unchanged stages share the arrays of previous, or are
+	 * rescaled when their gain changed, and stage 0 is recombined from them.
+	 * 
+	 * @param previousPlan the plan this one was derived from with
+	 *                     {@link #withStage(NormalizedResponse, int)}
+	 * @param previous     the spectrum previousPlan evaluated, it is not modified
+	 */
+	public ResponseSpectrum reevaluate(CompiledResponse previousPlan, ResponseSpectrum previous) {
+		Objects.requireNonNull(previousPlan, "previousPlan cannot be null.");
+		Objects.requireNonNull(previous, "previous cannot be null.");
+		FrequencySet frequencySet = previous.getFrequencySet();
+		if (!Arrays.equals(stageNumbers, previousPlan.stageNumbers)) {
+			return evaluate(frequencySet);
+		}
+		ResponseSpectrum responseSpectrum = new ResponseSpectrum(network, station, location, channel, start, end,
+				sampleRate, frequencySet);
+
+		final double[] frequencies = frequencySet.getValues();
+		final int n = frequencies.length;
+		double[] real = new double[n];
+		double[] imaginary = new double[n];
+		double[] totalReal = new double[n];
+		double[] totalImaginary = new double[n];
+		Arrays.fill(totalReal, 1);
+		for (int i = 0; i < kernels.length; i++) {
+			StageSpectrum stageSpectrum = previous.get(stageNumbers[i]);
+			double previousScale = previousPlan.scales[i];
+			if (kernels[i] != previousPlan.kernels[i] || stageSpectrum == null || previousScale == 0
+					|| !Double.isFinite(previousScale)) {
+				if (kernels[i] == null) {
+					Arrays.fill(real, 1);
+					Arrays.fill(imaginary, 0);
+				} else {
+					kernels[i].transform(frequencies, real, imaginary);
+				}
+				for (int fIdx = 0; fIdx < n; fIdx++) {
+					double re = real[fIdx], im = imaginary[fIdx];
+					double t = totalReal[fIdx] * re - totalImaginary[fIdx] * im;
+					totalImaginary[fIdx] = totalReal[fIdx] * im + totalImaginary[fIdx] * re;
+					totalReal[fIdx] = t;
+					responseSpectrum.add(stageNumbers[i], gains[i], fIdx, re * scales[i], im * scales[i]);
+				}
+				continue;
+			}
+			// the kernel is unchanged, previous holds its values times the old scale
+			double[] sr = stageSpectrum.real;
+			double[] si = stageSpectrum.imaginary;
+			for (int fIdx = 0; fIdx < n; fIdx++) {
+				double re = sr[fIdx] / previousScale, im = si[fIdx] / previousScale;
+				double t = totalReal[fIdx] * re - totalImaginary[fIdx] * im;
+				totalImaginary[fIdx] = totalReal[fIdx] * im + totalImaginary[fIdx] * re;
+				totalReal[fIdx] = t;
+			}
+			if (scales[i] == previousScale) {
+				responseSpectrum.put(stageNumbers[i], gains[i], sr, si);
+			} else {
+				double ratio = scales[i] / previousScale;
+				for (int fIdx = 0; fIdx < n; fIdx++) {
+					responseSpectrum.add(stageNumbers[i], gains[i], fIdx, sr[fIdx] * ratio, si[fIdx] * ratio);
+				}
+			}
+		}
+		for (int fIdx = 0; fIdx < n; fIdx++) {
+			responseSpectrum.add(0, sensitivity, fIdx, totalReal[fIdx] * sensitivityScale,
+					totalImaginary[fIdx] * sensitivityScale);
+		}
+		return responseSpectrum;
+	}
+}
@@ -0,0 +1,125 @@
+package io.station.response;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.station.model.Channel;
+import io.station.model.FDSNStationXML;
+import io.station.model.Network;
+import io.station.model.Station;
+import io.station.response.kernel.StageKernel;
+import io.station.response.util.FrequencySet;
+
+/**
+ * Evaluates the epochs of a channel together. Consecutive epochs usually
+ * differ in a single stage or gain, every epoch is compiled on its own but
+ * stage kernels that are equal across epochs are transformed once per
+ * {@link FrequencySet} and their values are reused for the other epochs.
+ */
+public class EpochBatchEvaluator {
+
+	private final EvaluationMode mode;
+	private final LongAdder stages = new LongAdder();
+	private final LongAdder transforms = new LongAdder();
+
+	public EpochBatchEvaluator() {
+		this(EvaluationMode.DIRECT);
+	}
+
+	public EpochBatchEvaluator(EvaluationMode mode) {
+		this.mode = Objects.requireNonNull(mode, "mode cannot be null.");
+	}
+
+	/**
+	 * @param epochs the epochs of a single channel.
+	 * @return one spectrum per epoch, in the same order.
+	 */
+	public List<ResponseSpectrum> evaluate(List<NormalizedResponse> epochs, FrequencySet frequencySet)
+			throws InvalidResponseException {
+		Objects.requireNonNull(epochs, "epochs cannot be null.");
+		Objects.requireNonNull(frequencySet, "frequencySet cannot be null.");
+		Map<StageKernel, double[][]> shared = new HashMap<>();
+		List<ResponseSpectrum> list = new ArrayList<>(epochs.size());
+		for (NormalizedResponse normalizedResponse : epochs) {
+			CompiledResponse compiledResponse = CompiledResponse.compile(normalizedResponse, mode);
+			list.add(compiledResponse.evaluate(frequencySet, shared));
+			stages.add(compiledResponse.size());
+		}
+		transforms.add(shared.size());
+		return list;
+	}
+
+	/**
+	 * Groups the channels of the station by location and channel code and
+	 * evaluates each group as the epochs of one channel.
+	 *
+	 * @return one spectrum per channel, in the order of the station.
+	 */
+	public List<ResponseSpectrum> evaluate(Station station, FrequencySet frequencySet)
+			throws InvalidResponseException {
+		Objects.requireNonNull(station, "station cannot be null.");
+		List<Channel> channels = station.getChannels();
+		if (channels == null || channels.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Map<String, List<Integer>> groups = new LinkedHashMap<>();
+		for (int i = 0; i < channels.size(); i++) {
+			Channel channel = channels.get(i);
+			groups.computeIfAbsent(channel.getLocationCode() + "." + channel.getCode(), k -> new ArrayList<>())
+					.add(i);
+		}
+		ResponseSpectrum[] spectra = new ResponseSpectrum[channels.size()];
+		for (List<Integer> group : groups.values()) {
+			List<NormalizedResponse> epochs = new ArrayList<>(group.size());
+			for (int index : group) {
+				epochs.add(NormalizedResponse.wrap(channels.get(index)));
+			}
+			List<ResponseSpectrum> list = evaluate(epochs, frequencySet);
+			for (int i = 0; i < group.size(); i++) {
+				spectra[group.get(i)] = list.get(i);
+			}
+		}
+		List<ResponseSpectrum> list = new ArrayList<>(spectra.length);
+		for (ResponseSpectrum responseSpectrum : spectra) {
+			list.add(responseSpectrum);
+		}
+		return list;
+	}
+
+	public List<ResponseSpectrum> evaluate(FDSNStationXML document, FrequencySet frequencySet)
+			throws InvalidResponseException {
+		Objects.requireNonNull(document, "document cannot be null.");
+		List<ResponseSpectrum> list = new ArrayList<>();
+		if (document.getNetwork() == null) {
+			return list;
+		}
+		for (Network network : document.getNetwork()) {
+			if (network.getStations() == null) {
+				continue;
+			}
+			for (Station station : network.getStations()) {
+				list.addAll(evaluate(station, frequencySet));
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * @return the number of stages evaluated so far, gain only stages included.
+	 */
+	public long getStages() {
+		return stages.sum();
+	}
+
+	/**
+	 * @return the number of distinct stage kernels transformed so far.
+	 */
+	public long getTransforms() {
+		return transforms.sum();
+	}
+}
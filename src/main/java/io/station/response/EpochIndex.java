@@ -0,0 +1,283 @@
+package io.station.response;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+import io.station.model.Channel;
+import io.station.model.FDSNStationXML;
+import io.station.model.Network;
+import io.station.model.Station;
+
+/**
+ * Finds the epoch of a channel valid at a given time. The epochs of every
+ * NET.STA.LOC.CHA are flattened into disjoint ranges searched with a binary
+ * search, an epoch is valid from its start date (inclusive) to its end date
+ * (exclusive), epochs without end date never end. When epochs overlap the one
+ * with the latest start date wins.
+ * <p>
+ * Responses are normalized and compiled on first use and kept with their
+ * epoch, normalization goes through a {@link NormalizedResponseCache} so that
+ * channels sharing a response are normalized once. An index is thread safe.
+ */
+public class EpochIndex {
+
+	private final Map<String, Epochs> channels;
+	private final NormalizedResponseCache cache;
+	private final EvaluationMode mode;
+
+	private EpochIndex(Map<String, List<Epoch>> epochs, NormalizedResponseCache cache, EvaluationMode mode) {
+		this.channels = new HashMap<>(2 * epochs.size());
+		for (Map.Entry<String, List<Epoch>> entry : epochs.entrySet()) {
+			channels.put(entry.getKey(), new Epochs(entry.getValue()));
+		}
+		this.cache = cache;
+		this.mode = mode;
+	}
+
+	public static EpochIndex of(FDSNStationXML document) {
+		return of(document, new NormalizedResponseCache(1024), EvaluationMode.DIRECT);
+	}
+
+	/**
+	 * @param cache normalizes the responses, may be shared with other indexes.
+	 * @param mode  the mode responses are compiled with.
+	 */
+	public static EpochIndex of(FDSNStationXML document, NormalizedResponseCache cache, EvaluationMode mode) {
+		Objects.requireNonNull(document, "document cannot be null.");
+		Map<String, List<Epoch>> epochs = new HashMap<>();
+		if (document.getNetwork() != null) {
+			for (Network network : document.getNetwork()) {
+				if (network.getStations() == null) {
+					continue;
+				}
+				for (Station station : network.getStations()) {
+					if (station.getChannels() == null) {
+						continue;
+					}
+					for (Channel channel : station.getChannels()) {
+						add(epochs, network.getCode(), station.getCode(), channel);
+					}
+				}
+			}
+		}
+		return new EpochIndex(epochs, Objects.requireNonNull(cache, "cache cannot be null."),
+				Objects.requireNonNull(mode, "mode cannot be null."));
+	}
+
+	/**
+	 * Indexes channels as they are read, for instance from
+	 * {@link RespIO#iterateChannels(java.io.InputStream)}. The network and
+	 * station codes are read from the station of every channel.
+	 *
+	 * @throws IllegalArgumentException if a channel has no station or network.
+	 */
+	public static EpochIndex of(Iterator<Channel> iterator) {
+		return of(iterator, new NormalizedResponseCache(1024), EvaluationMode.DIRECT);
+	}
+
+	public static EpochIndex of(Iterator<Channel> iterator, NormalizedResponseCache cache, EvaluationMode mode) {
+		Objects.requireNonNull(iterator, "iterator cannot be null.");
+		Map<String, List<Epoch>> epochs = new HashMap<>();
+		while (iterator.hasNext()) {
+			Channel channel = iterator.next();
+			Station station = channel.getStation();
+			Network network = station == null ? null : station.getNetwork();
+			add(epochs, network == null ? null : network.getCode(), station == null ? null : station.getCode(),
+					channel);
+		}
+		return new EpochIndex(epochs, Objects.requireNonNull(cache, "cache cannot be null."),
+				Objects.requireNonNull(mode, "mode cannot be null."));
+	}
+
+	private static void add(Map<String, List<Epoch>> epochs, String network, String station, Channel channel) {
+		if (network == null) {
+			// responses cannot be normalized without network code
+			throw new IllegalArgumentException("Channel " + channel.getLocationCode() + "." + channel.getCode()
+					+ " of station " + station + " has no network");
+		}
+		epochs.computeIfAbsent(key(network, station, channel.getLocationCode(), channel.getCode()),
+				k -> new ArrayList<>()).add(new Epoch(network, station, channel));
+	}
+
+	/**
+	 * The key channels are looked up by, here and in {@link ResponseStore}.
+	 *
+	 * @return NET.STA.LOC.CHA, LOC is empty for null, blank and ?? location
+	 *         codes, other null codes are empty.
+	 */
+	static String key(String network, String station, String location, String channel) {
+		if (location == null || "??".equals(location.trim())) {
+			location = "";
+		}
+		return (network == null ? "" : network) + "." + (station == null ? "" : station) + "." + location.trim()
+				+ "." + (channel == null ? "" : channel);
+	}
+
+	/**
+	 * @return the number of channels, epochs of the same channel counted once.
+	 */
+	public int size() {
+		return channels.size();
+	}
+
+	/**
+	 * @return the channel epoch valid at time, null if none.
+	 */
+	public Channel getChannel(String network, String station, String location, String channel, ZonedDateTime time) {
+		Epoch epoch = find(network, station, location, channel, time);
+		return epoch == null ? null : epoch.channel;
+	}
+
+	/**
+	 * @return the normalized response of the epoch valid at time, null if none.
+	 */
+	public NormalizedResponse getNormalizedResponse(String network, String station, String location, String channel,
+			ZonedDateTime time) throws InvalidResponseException {
+		Epoch epoch = find(network, station, location, channel, time);
+		return epoch == null ? null : normalize(epoch);
+	}
+
+	/**
+	 * @return the compiled response of the epoch valid at time, compiled over all
+	 *         its stages, null if none.
+	 */
+	public CompiledResponse getCompiledResponse(String network, String station, String location, String channel,
+			ZonedDateTime time) throws InvalidResponseException {
+		Epoch epoch = find(network, station, location, channel, time);
+		if (epoch == null) {
+			return null;
+		}
+		CompiledResponse compiledResponse = epoch.compiledResponse;
+		if (compiledResponse == null) {
+			// two threads may both compile, either plan is kept
+			compiledResponse = CompiledResponse.compile(normalize(epoch), mode);
+			epoch.compiledResponse = compiledResponse;
+		}
+		return compiledResponse;
+	}
+
+	private NormalizedResponse normalize(Epoch epoch) throws InvalidResponseException {
+		NormalizedResponse normalizedResponse = epoch.normalizedResponse;
+		if (normalizedResponse == null) {
+			Channel channel = epoch.channel;
+			normalizedResponse = cache.wrap(epoch.network, epoch.station, channel.getLocationCode(),
+					channel.getCode(), channel.getStartDate(), channel.getEndDate(), channel.getSampleRate(),
+					channel.getResponse());
+			epoch.normalizedResponse = normalizedResponse;
+		}
+		return normalizedResponse;
+	}
+
+	private Epoch find(String network, String station, String location, String channel, ZonedDateTime time) {
+		Objects.requireNonNull(time, "time cannot be null.");
+		Epochs epochs = channels.get(key(network, station, location, channel));
+		return epochs == null ? null : epochs.find(time.toInstant().toEpochMilli());
+	}
+
+	private static long millis(ZonedDateTime time, long defaultValue) {
+		return time == null ? defaultValue : time.toInstant().toEpochMilli();
+	}
+
+	private static class Epoch {
+		final String network;
+		final String station;
+		final Channel channel;
+		final long start;
+		final long end;
+		volatile NormalizedResponse normalizedResponse;
+		volatile CompiledResponse compiledResponse;
+
+		Epoch(String network, String station, Channel channel) {
+			this.network = network;
+			this.station = station;
+			this.channel = channel;
+			this.start = millis(channel.getStartDate(), Long.MIN_VALUE);
+			this.end = millis(channel.getEndDate(), Long.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * The epochs of a channel flattened into disjoint ranges, each holding the
+	 * epoch that wins over it. Built in O(n log n) with a sweep over the start
+	 * and end dates, a lookup is a binary search whatever the overlaps.
+	 */
+	private static class Epochs {
+		final long[] starts;
+		final long[] ends;
+		final Epoch[] epochs;
+
+		Epochs(List<Epoch> list) {
+			// stable, of two epochs starting together the later one in the list wins
+			list.sort(Comparator.comparingLong(epoch -> epoch.start));
+			long[] points = new long[2 * list.size()];
+			for (int i = 0; i < list.size(); i++) {
+				points[2 * i] = list.get(i).start;
+				points[2 * i + 1] = list.get(i).end;
+			}
+			Arrays.sort(points);
+
+			long[] starts = new long[points.length];
+			long[] ends = new long[points.length];
+			Epoch[] epochs = new Epoch[points.length];
+			int size = 0;
+			// the epochs started so far, the latest first, ended ones are dropped when on top
+			PriorityQueue<Integer> valid = new PriorityQueue<>(Comparator.reverseOrder());
+			int next = 0;
+			for (int k = 0; k + 1 < points.length; k++) {
+				long from = points[k];
+				long to = points[k + 1];
+				if (from == to) {
+					continue;
+				}
+				while (next < list.size() && list.get(next).start <= from) {
+					valid.add(next++);
+				}
+				while (!valid.isEmpty() && list.get(valid.peek()).end <= from) {
+					valid.poll();
+				}
+				if (valid.isEmpty()) {
+					continue;
+				}
+				Epoch epoch = list.get(valid.peek());
+				if (size > 0 && epochs[size - 1] == epoch && ends[size - 1] == from) {
+					ends[size - 1] = to;
+				} else {
+					starts[size] = from;
+					ends[size] = to;
+					epochs[size] = epoch;
+					size++;
+				}
+			}
+			this.starts = Arrays.copyOf(starts, size);
+			this.ends = Arrays.copyOf(ends, size);
+			this.epochs = Arrays.copyOf(epochs, size);
+		}
+
+		/**
+		 * @return the epoch with the latest start date valid at time, null if
+		 *         none.
+		 */
+		Epoch find(long time) {
+			int low = 0;
+			int high = starts.length - 1;
+			// the last range starting at or before time
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				if (starts[middle] <= time) {
+					low = middle + 1;
+				} else {
+					high = middle - 1;
+				}
+			}
+			return high >= 0 && time < ends[high] ? epochs[high] : null;
+		}
+	}
+}
@@ -1,39 +1,51 @@
 package io.station.response;
 
-import java.math.BigInteger;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-
-import javax.measure.Quantity;
-import javax.measure.quantity.Time;
-
-import org.apache.commons.math3.complex.Complex;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import io.station.model.Channel;
-import io.station.model.Coefficients;
-import io.station.model.Decimation;
 import io.station.model.FDSNStationXML;
-import io.station.model.Gain;
 import io.station.model.Network;
-import io.station.model.PolesZeros;
-import io.station.model.Polynomial;
-import io.station.model.PzTransferFunctionType;
 import io.station.model.Response;
-import io.station.model.ResponseList;
-import io.station.model.ResponseListElement;
-import io.station.model.ResponseStage;
 import io.station.model.SampleRate;
 import io.station.model.Station;
-import io.station.response.ResponseSpectrum.StageSpectrum;
+import io.station.response.CalculationResult.Failure;
 import io.station.response.util.FrequencySet;
+import io.station.response.util.RespChannelReader;
 import io.station.uom.StationUnits;
 import io.station.validation.ErrorHandler;
 import io.station.validation.Validator;
 
 public class EvalResp {
 
+	private static final AtomicInteger PARSER_COUNT = new AtomicInteger();
+
+	/**
+	 * Runs the parsers of {@link #stream(InputStream, FrequencySet, Consumer, int)}
+	 * on named daemon threads, idle threads are released after a minute.
+	 */
+	private static final Executor PARSERS = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "resp-stream-parser-" + PARSER_COUNT.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
 	private EvalResp() {
 	}
 	/*
@@ -175,6 +187,203 @@ public class EvalResp {
 		return list;
 	}
 
+	public static CalculationResult calculate(FDSNStationXML document, FrequencySet frequencySet, ForkJoinPool pool)
+			throws InterruptedException {
+		Objects.requireNonNull(pool, "pool cannot be null.");
+		return calculate(document, frequencySet, pool, pool.getParallelism());
+	}
+
+	/**
+	 * Evaluates the channels of the document as independent tasks on the given
+	 * executor. Spectra are returned in the same order as
+	 * {@link #calculate(FDSNStationXML, FrequencySet)}, a channel with an invalid
+	 * response is reported as a failure and does not stop the others. Any other
+	 * exception fails the call.
+	 * 
+	 * @param parallelism the number of threads expected to work on the document,
+	 *                    used to size the tasks.
+	 */
+	public static CalculationResult calculate(FDSNStationXML document, FrequencySet frequencySet, Executor executor,
+			int parallelism) throws InterruptedException {
+		Objects.requireNonNull(document, "document cannot be null.");
+		Objects.requireNonNull(frequencySet, "frequencySet cannot be null.");
+		Objects.requireNonNull(executor, "executor cannot be null.");
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism:[" + parallelism + "] must be greater than 0");
+		}
+		final List<Channel> channels = channels(document);
+		final ResponseSpectrum[] spectra = new ResponseSpectrum[channels.size()];
+		final InvalidResponseException[] exceptions = new InvalidResponseException[channels.size()];
+
+		// a few tasks per thread so that expensive channels do not leave threads idle
+		int tasks = Math.min(channels.size(), parallelism * 4);
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+		for (int t = 0; t < tasks; t++) {
+			final int from = (int) ((long) channels.size() * t / tasks);
+			final int to = (int) ((long) channels.size() * (t + 1) / tasks);
+			futures[t] = CompletableFuture.runAsync(() -> {
+				for (int i = from; i < to; i++) {
+					try {
+						spectra[i] = calculate(channels.get(i), frequencySet);
+					} catch (InvalidResponseException e) {
+						exceptions[i] = e;
+					} catch (RuntimeException e) {
+						throw e;
+					} catch (Exception e) {
+						throw new CompletionException(e);
+					}
+				}
+			}, executor);
+		}
+		try {
+			CompletableFuture.allOf(futures).get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+
+		List<ResponseSpectrum> list = new ArrayList<>();
+		List<Failure> failures = new ArrayList<>();
+		for (int i = 0; i < spectra.length; i++) {
+			if (exceptions[i] != null) {
+				failures.add(new Failure(channels.get(i), exceptions[i]));
+			} else if (spectra[i] != null) {
+				list.add(spectra[i]);
+			}
+		}
+		return new CalculationResult(list, failures);
+	}
+
+	public static void stream(InputStream inputStream, FrequencySet frequencySet, Consumer<ResponseSpectrum> consumer)
+			throws Exception {
+		stream(inputStream, frequencySet, consumer, 16);
+	}
+
+	/**
+	 * Same as {@link #stream(InputStream, FrequencySet, Consumer, int, Executor)}
+	 * with the parser running on a daemon thread of a shared pool.
+	 */
+	public static void stream(InputStream inputStream, FrequencySet frequencySet, Consumer<ResponseSpectrum> consumer,
+			int capacity) throws Exception {
+		stream(inputStream, frequencySet, consumer, capacity, PARSERS);
+	}
+
+	/**
+	 * Evaluates every channel of a RESP stream without reading the whole stream
+	 * into a document. Channels are parsed by a task of the given executor and
+	 * handed over through a queue of the given capacity, the parser blocks while
+	 * the queue is full so memory use does not depend on the size of the stream.
+	 * Evaluation and the consumer run on the calling thread, in stream order.
+	 * <p>
+	 * The input stream is closed when this method returns, whether it completes
+	 * or fails, closing it is also how a parser blocked on a read is stopped
+	 * when the consumer fails.
+	 * 
+	 * @param capacity the number of parsed channels allowed to wait for
+	 *                 evaluation.
+	 * @param executor runs the parser, it must be able to run it alongside the
+	 *                 calling thread.
+	 */
+	public static void stream(InputStream inputStream, FrequencySet frequencySet, Consumer<ResponseSpectrum> consumer,
+			int capacity, Executor executor) throws Exception {
+		Objects.requireNonNull(inputStream, "inputStream cannot be null.");
+		Objects.requireNonNull(frequencySet, "frequencySet cannot be null.");
+		Objects.requireNonNull(consumer, "consumer cannot be null.");
+		Objects.requireNonNull(executor, "executor cannot be null.");
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity:[" + capacity + "] must be greater than 0");
+		}
+		final BlockingQueue<Channel> queue = new ArrayBlockingQueue<>(capacity);
+		final Channel end = new Channel();
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		// the parser checks it after every put, once set the queue is cleared so
+		// that a blocked put returns, pooled threads are never interrupted
+		final AtomicBoolean stopped = new AtomicBoolean();
+
+		Runnable parser = () -> {
+			boolean interrupted = false;
+			try (RespChannelReader reader = new RespChannelReader(inputStream)) {
+				Channel channel;
+				while (!stopped.get() && (channel = reader.readNext()) != null) {
+					queue.put(channel);
+				}
+			} catch (InterruptedException e) {
+				interrupted = true;
+				failure.set(e);
+			} catch (Throwable e) {
+				failure.set(e);
+			}
+			// the caller waits for the end marker
+			while (!stopped.get()) {
+				try {
+					queue.put(end);
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		try {
+			executor.execute(parser);
+			while (true) {
+				Channel channel = queue.take();
+				if (channel == end) {
+					break;
+				}
+				consumer.accept(calculate(channel, frequencySet));
+			}
+		} finally {
+			stopped.set(true);
+			queue.clear();
+			try {
+				inputStream.close();
+			} catch (IOException e) {
+				// the parser reports its own read errors
+			}
+		}
+		Throwable e = failure.get();
+		if (e != null) {
+			// RespChannelReader wraps its exceptions
+			if (e instanceof RuntimeException && e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			if (e instanceof Error) {
+				throw (Error) e;
+			}
+			throw (Exception) e;
+		}
+	}
+
+	private static List<Channel> channels(FDSNStationXML document) {
+		List<Channel> list = new ArrayList<>();
+		List<Network> networks = document.getNetwork();
+		if (networks == null) {
+			return list;
+		}
+		for (Network network : networks) {
+			List<Station> stations = network.getStations();
+			if (stations == null) {
+				continue;
+			}
+			for (Station station : stations) {
+				List<Channel> channels = station.getChannels();
+				if (channels != null) {
+					list.addAll(channels);
+				}
+			}
+		}
+		return list;
+	}
+
 	public static List<ResponseSpectrum> calculate(Network network, FrequencySet frequencySet) throws Exception {
 		Objects.requireNonNull(network, "network cannot be null.");
 		List<Station> stations = network.getStations();
@@ -242,147 +451,23 @@ public class EvalResp {
 				0, false, false, 0);
 	}
 
+	/**
+	 * @param mode how coefficient stages are evaluated, {@link EvaluationMode#AUTO}
+	 *             picks a transform for long FIR stages over linear frequency
+	 *             sets.
+	 */
+	public static ResponseSpectrum calculate(NormalizedResponse normalizedResponse, FrequencySet frequencySet,
+			EvaluationMode mode) throws Exception {
+		Objects.requireNonNull(normalizedResponse, "normalizedResponse cannot be null.");
+		return CompiledResponse.compile(normalizedResponse, mode).evaluate(frequencySet);
+	}
+
 	public static ResponseSpectrum calculate(NormalizedResponse normalizedResponse, FrequencySet frequencySet,
 			boolean logSpacingFlag, int startStageNum, int stopStageNum, boolean useEstDelayFlag,
 			boolean listInterpOutFlag, boolean listInterpInFlag, double listInterpTension, boolean unwrapPhaseFlag,
 			boolean totalSensitFlag, double b62XValue) throws Exception {
 		Objects.requireNonNull(normalizedResponse, "normalizedResponse cannot be null.");
-		double phaseConvVal = 1;
-
-		if (!normalizedResponse.isEmpty()) {
-			ResponseStage stage = normalizedResponse.getStage(1);
-			if (stage != null) {
-				ResponseList responseList = stage.getResponseList();
-				if (responseList != null) {
-
-				}
-			}
-		}
-
-		if (stopStageNum < startStageNum) {
-			throw new IllegalArgumentException(
-					"stopStageNum:[" + stopStageNum + "] cannot be less than startStageNum[" + startStageNum + "]");
-		}
-		Complex cNum = null;
-		// Complex dfNum = null;
-		ResponseSpectrum responseSpectra = new ResponseSpectrum(normalizedResponse, frequencySet);
-
-		for (int fIdx = 0; fIdx < frequencySet.size(); ++fIdx) { // for each frequency value
-			double freqVal = frequencySet.get(fIdx);
-			double wVal = 2 * Math.PI * freqVal;
-			for (int stageNum = startStageNum; stageNum < stopStageNum; stageNum++) {
-				double normalizationFactor = normalizedResponse.getNormalizationFactor(stageNum);
-				if (normalizationFactor == 0) {
-					normalizationFactor = 1.0;
-				}
-				Complex ofNum = null;
-				cNum = new Complex(1, 0);
-				PolesZeros polesZeros = normalizedResponse.getPolesZeros(stageNum);
-				if (polesZeros != null) {
-					PzTransferFunctionType functionType = polesZeros.getPzTransferFunctionType();
-					// A single character describing the type of stage:
-					// A — Laplace transform analog response, in rad/sec
-					// B — Analog response, in Hz
-					// C — Composite (currently undefined)
-					// D — Digital (Z - transform)
-					if (functionType == PzTransferFunctionType.LAPLACE_HERTZ
-							|| functionType == PzTransferFunctionType.LAPLACE_RADIANS_SECOND) {
-						ofNum = EvalRespUtil.analogTrans(polesZeros, normalizationFactor,
-								((functionType == PzTransferFunctionType.LAPLACE_RADIANS_SECOND) ? 2 * Math.PI * freqVal
-										: freqVal));
-					} else if (functionType == PzTransferFunctionType.DIGITAL_Z_TRANSFORM) {
-						Decimation decimation = normalizedResponse.getDecimation(stageNum);
-						if (decimation == null) {
-							throw new InvalidResponseException(
-									"Required decimation not found in " + "stage #" + stageNum);
-						}
-						Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-						if (samplingInterval == null) {
-							throw new InvalidResponseException("Invalid decimation object in stage #" + stageNum);
-						}
-						ofNum = EvalRespUtil.iirPzTrans(polesZeros, normalizationFactor,
-								samplingInterval.getValue().doubleValue(), 2 * Math.PI * freqVal);
-					} else {
-						throw new InvalidResponseException(
-								"Invalid transfer type for poles/zeros " + "filter in stage #" + stageNum);
-					}
-				}
-				Coefficients coefficients = normalizedResponse.getCoefficients(stageNum);
-				if (coefficients != null) {
-					if ((coefficients.getDenominators() != null && !coefficients.getDenominators().isEmpty())
-							|| (coefficients.getNumerators() != null && !coefficients.getNumerators().isEmpty())) {
-
-						ofNum = EvalRespUtil.calculateSpectrum(coefficients, normalizationFactor,
-								normalizedResponse.getDecimation(stageNum), wVal, useEstDelayFlag);
-					}
-				}
-				ResponseList responseList = normalizedResponse.getResponseList(stageNum);
-				if (responseList != null) {
-					double[] splineInterpolatedAmplitude = EvalRespUtil.splineInterpolatePhase(frequencySet.getValues(),
-							responseList);
-					double[] splineInterpolatedPhase = EvalRespUtil.splineInterpolateAmplitude(frequencySet.getValues(),
-							responseList);
-					double amp = 0;
-					double phase = 0;
-					if (listInterpInFlag) {
-						amp = splineInterpolatedAmplitude[fIdx];
-						phase = splineInterpolatedPhase[fIdx] * phaseConvVal;
-					} else {
-						ResponseListElement element = responseList.getElement(fIdx);
-						amp = element.getAmplitude().getValue(); // get amplitude value
-						// get phase value, convert degrees to radians (if nec):
-						phase = element.getPhase().getValue() * phaseConvVal;
-					}
-					ofNum = new Complex(amp * Math.cos(phase), amp * Math.sin(phase));
-				}
-
-				Polynomial polynomial = normalizedResponse.getPolynomial(stageNum);
-				if (polynomial != null) {
-					ofNum = EvalRespUtil.polynomial(polynomial, 0);
-				}
-				responseSpectra.add(stageNum, normalizedResponse.getStageGain(stageNum), fIdx,
-						ofNum == null ? cNum : cNum.multiply(ofNum));
-			}
-
-			// calculate response value for all stages put together:
-			Complex c = new Complex(1, 0);
-			for (int stageNumber = 1; stageNumber < responseSpectra.size(); stageNumber++) {
-				Complex sComplex = responseSpectra.get(stageNumber, fIdx);
-				if (sComplex != null) {
-					c = c.multiply(sComplex);
-				}
-			}
-			responseSpectra.add(0, normalizedResponse.getStageGain(BigInteger.valueOf(0)), fIdx, c);
-
-			double totalSensitVal = 1.0;
-			Gain sensitivity = normalizedResponse.getStageGain(BigInteger.valueOf(0));
-			if (totalSensitFlag && sensitivity != null) {
-				totalSensitVal = sensitivity.getValue();
-			}
-
-			for (int stageNumber = 0; stageNumber < stopStageNum; stageNumber++) {
-				double calcSensVal = 1.0;
-				StageSpectrum stageSpectrum = responseSpectra.get(stageNumber);
-				if (stageSpectrum != null) {
-					c = stageSpectrum.get(fIdx);
-					if (c != null) {
-						if (totalSensitFlag) { // using stage 0 (total) sensitivity
-							// multiply in sensitivity and unit conv scale factor:
-							c = c.multiply(totalSensitVal);
-						} else { // using computed sensitivity from each stage
-									// get calculated sensitivity value for stage index:
-							Gain stageGain = normalizedResponse.getStageGain(stageNumber);
-							if (stageGain != null) {
-								calcSensVal = stageGain.getValue();
-							}
-							// multiply in sensitivity and unit conv scale factor:
-							c = c.multiply(calcSensVal);
-						}
-						stageSpectrum.add(fIdx, c);
-					}
-				}
-			}
-		}
-		return responseSpectra;
+		return CompiledResponse.compile(normalizedResponse, startStageNum, stopStageNum, useEstDelayFlag,
+				listInterpInFlag, totalSensitFlag).evaluate(frequencySet);
 	}
 }
@@ -3,8 +3,6 @@ package io.station.response;
 import java.util.List;
 import java.util.Objects;
 
-import javax.measure.Quantity;
-import javax.measure.quantity.Time;
 
 import org.apache.commons.math3.analysis.interpolation.SplineInterpolator;
 import org.apache.commons.math3.analysis.polynomials.PolynomialSplineFunction;
@@ -15,7 +13,6 @@ import io.station.model.CfTransferFunctionType;
 import io.station.model.Coefficients;
 import io.station.model.Decimation;
 import io.station.model.FloatNoUnitType;
-import io.station.model.FloatType;
 import io.station.model.Gain;
 import io.station.model.PoleZero;
 import io.station.model.PolesZeros;
@@ -31,13 +28,23 @@ import io.station.model.Denominator;
 import io.station.model.Numerator;
 import io.station.model.Polynomial.Coefficient;
 import io.station.response.util.FrequencySet;
-import tech.units.indriya.quantity.Quantities;
 
 @Slf4j
 public class EvalRespUtil {
 
 	public static Complex calculateSpectrum(Coefficients coefficients, double normalizationFactor,
 			Decimation decimation, double wVal, boolean useEstDelayFlag) throws Exception {
+		Objects.requireNonNull(decimation, "decimation cannot be null!");
+		return calculateSpectrum(coefficients, normalizationFactor, ResolvedDecimation.of(decimation), wVal,
+				useEstDelayFlag);
+	}
+
+	/**
+	 * Same as {@link #calculateSpectrum(Coefficients, double, Decimation, double, boolean)}
+	 * with a decimation resolved once for the stage.
+	 */
+	public static Complex calculateSpectrum(Coefficients coefficients, double normalizationFactor,
+			ResolvedDecimation decimation, double wVal, boolean useEstDelayFlag) throws Exception {
 		Objects.requireNonNull(coefficients, "coefficients cannot be null!");
 		Objects.requireNonNull(decimation, "decimation cannot be null!");
 
@@ -48,10 +55,10 @@ public class EvalRespUtil {
 
 		Complex ofNum = null;
 
-		Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-		if (samplingInterval == null) {
+		if (!decimation.hasSamplingInterval()) {
 			throw new InvalidResponseException("Invalid decimation object");
 		}
+		double samplingInterval = decimation.getSamplingInterval();
 		List<Denominator> denominators = coefficients.getDenominators();
 		List<Numerator> numerators = coefficients.getNumerators();
 		if (denominators == null || denominators.isEmpty()) { // no denominators, process as FIR filter
@@ -60,34 +67,26 @@ public class EvalRespUtil {
 																// FIR:
 				Symmetry symmetry = determineFirTypeVal(coefficients);
 				// final int firTypeVal = determineFirTypeVal(coefficients);
-				ofNum = firTrans(coefficients, normalizationFactor, samplingInterval.getValue().doubleValue(), wVal,
-						symmetry);
+				ofNum = firTrans(coefficients, normalizationFactor, samplingInterval, wVal, symmetry);
 				if (symmetry == Symmetry.NONE) { // asymmetric FIR; requires delay correction
 
-					FloatType floatType = null;
-					if (useEstDelayFlag) {
-						floatType = decimation.getDelay();
-					} else {
-						floatType = decimation.getCorrection();
+					double delay = decimation.getDelay(useEstDelayFlag);
+					if (Double.isNaN(delay)) {
+						throw new InvalidResponseException("Required delay correction not found");
 					}
-
-					Quantity<?> quantity = Quantities.getQuantity(floatType.getValue(), floatType.getUnit())
-							.toSystemUnit();
-
-					Number number = quantity.getValue();
-					double deltaVal = number.doubleValue() - ((((double) (coefficients.getNumerators().size() - 1)) / 2)
-							* samplingInterval.getValue().doubleValue());
+					double deltaVal = delay
+							- ((((double) (coefficients.getNumerators().size() - 1)) / 2) * samplingInterval);
 					ofNum = ofNum.multiply(new Complex(Math.cos(wVal * deltaVal), Math.sin(wVal * deltaVal)));
 				}
 			}
 		} else if (numerators != null && !numerators.isEmpty()) { // process as coefficients filter
-			ofNum = iirTrans(coefficients, normalizationFactor, samplingInterval.getValue().doubleValue(), wVal);
+			ofNum = iirTrans(coefficients, normalizationFactor, samplingInterval, wVal);
 		}
 		return ofNum;
 	}
 
-	static Complex[] normalize(Coefficients coefficients, StageGain stageGain, Decimation decimation, double wVal)
-			throws InvalidResponseException {
+	static Complex[] normalize(Coefficients coefficients, StageGain stageGain, ResolvedDecimation decimation,
+			double wVal) throws InvalidResponseException {
 		Objects.requireNonNull(coefficients, "coefficients cannot be null!");
 		Objects.requireNonNull(decimation, "decimation cannot be null!");
 
@@ -98,10 +97,10 @@ public class EvalRespUtil {
 			throw new InvalidResponseException("Invalid transfer type for coefficients");
 		}
 
-		Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-		if (samplingInterval == null) {
+		if (!decimation.hasSamplingInterval()) {
 			throw new InvalidResponseException("Invalid decimation object");
 		}
+		double samplingInterval = decimation.getSamplingInterval();
 		List<Denominator> denominators = coefficients.getDenominators();
 		List<Numerator> numerators = coefficients.getNumerators();
 
@@ -116,16 +115,15 @@ public class EvalRespUtil {
 				if (firTypeVal == Symmetry.NONE) { // (only if ASYM type)
 					checkFixFirFreq0Norm(coefficients);
 				}
-				dfNum = firTrans(coefficients, 1.0, samplingInterval.getValue().doubleValue(),
-						2 * Math.PI * stageGain.getFrequency(), firTypeVal);
-				ofNum = firTrans(coefficients, 1.0, samplingInterval.getValue().doubleValue(), wVal, firTypeVal);
+				dfNum = firTrans(coefficients, 1.0, samplingInterval, 2 * Math.PI * stageGain.getFrequency(),
+						firTypeVal);
+				ofNum = firTrans(coefficients, 1.0, samplingInterval, wVal, firTypeVal);
 			} else { // empty FIR filter; ignore it
 				dfNum = ofNum = null; // setup to not change gain, etc}
 			}
 		} else {
-			dfNum = iirTrans(coefficients, 1.0, samplingInterval.getValue().doubleValue(),
-					2 * Math.PI * stageGain.getFrequency());
-			ofNum = iirTrans(coefficients, 1.0, samplingInterval.getValue().doubleValue(), wVal);
+			dfNum = iirTrans(coefficients, 1.0, samplingInterval, 2 * Math.PI * stageGain.getFrequency());
+			ofNum = iirTrans(coefficients, 1.0, samplingInterval, wVal);
 		}
 
 		return new Complex[] { ofNum, dfNum };
@@ -203,9 +201,6 @@ public class EvalRespUtil {
 	 * @return A 'ComplexBlk' object containing the response.
 	 */
 	public static Complex analogTrans(PolesZeros filterObj, double normFact, double frequency) {
-		System.out.println("normFact:" + normFact + " freq:" + frequency);
-		//Complex omega = new Complex(0.0, frequency);
-		
 		Complex omega = new Complex(0.0, frequency);
 		Complex num = new Complex(1.0, 1.0);
 		Complex denom = new Complex(1.0, 1.0);
@@ -231,8 +226,65 @@ public class EvalRespUtil {
 		return temp.divide(modSquared).multiply(normFact);
 	}
 
+	/**
+	 * Calculates the response of an analog poles/zeros filter from pre-extracted
+	 * pole and zero values.
+	 *
+	 * @param zeroReal      real parts of the zeros.
+	 * @param zeroImaginary imaginary parts of the zeros.
+	 * @param poleReal      real parts of the poles.
+	 * @param poleImaginary imaginary parts of the poles.
+	 * @param normFact      the normalization factor to use.
+	 * @param frequency     the frequency value to use. If a Laplace filter then the
+	 *                      frequency should be multplied by 2*pi.
+	 * @return the response.
+	 */
+	public static Complex analogTrans(double[] zeroReal, double[] zeroImaginary, double[] poleReal,
+			double[] poleImaginary, double normFact, double frequency) {
+		double[] real = new double[1];
+		double[] imaginary = new double[1];
+		analogTrans(zeroReal, zeroImaginary, poleReal, poleImaginary, normFact, frequency, real, imaginary, 0);
+		return new Complex(real[0], imaginary[0]);
+	}
+
+	/**
+	 * Same as
+	 * {@link #analogTrans(double[], double[], double[], double[], double, double)}
+	 * but the response is written to real[index] and imaginary[index] and no
+	 * object is allocated.
+	 */
+	public static void analogTrans(double[] zeroReal, double[] zeroImaginary, double[] poleReal,
+			double[] poleImaginary, double normFact, double frequency, double[] real, double[] imaginary,
+			int index) {
+		// omega = (0, frequency), num = denom = (1, 1)
+		double numRe = 1.0, numIm = 1.0;
+		double denRe = 1.0, denIm = 1.0;
+		double dRe, dIm, t;
+		for (int i = 0; i < zeroReal.length; i++) {
+			dRe = 0.0 - zeroReal[i];
+			dIm = frequency - zeroImaginary[i];
+			t = numRe * dRe - numIm * dIm;
+			numIm = numRe * dIm + numIm * dRe;
+			numRe = t;
+		}
+		for (int i = 0; i < poleReal.length; i++) {
+			dRe = 0.0 - poleReal[i];
+			dIm = frequency - poleImaginary[i];
+			t = denRe * dRe - denIm * dIm;
+			denIm = denRe * dIm + denIm * dRe;
+			denRe = t;
+		}
+		// conj(denom) * num / |denom|^2 * normFact
+		final double tempRe = denRe * numRe - (-denIm) * numIm;
+		final double tempIm = denRe * numIm + (-denIm) * numRe;
+		final double modSquared = denRe * denRe + denIm * denIm;
+		real[index] = tempRe / modSquared * normFact;
+		imaginary[index] = tempIm / modSquared * normFact;
+	}
+
 	// this is the same as analogTrans
-	static Complex[] polesZeros(PolesZeros polesZeros, Decimation decimation, Gain stageGain, double cSenseFreq)
+	static Complex[] polesZeros(PolesZeros polesZeros, ResolvedDecimation decimation, Gain stageGain,
+			double cSenseFreq)
 			throws InvalidResponseException {
 		Objects.requireNonNull(polesZeros, "polesZeros cannot be null!");
 
@@ -257,14 +309,13 @@ public class EvalRespUtil {
 			if (decimation == null) {
 				throw new InvalidResponseException("Required decimation not found");
 			}
-			Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-			if (samplingInterval == null) {
+			if (!decimation.hasSamplingInterval()) {
 				throw new InvalidResponseException("Invalid decimation object");
 			}
 
-			dfNum = iirPzTrans(polesZeros, 1.0, samplingInterval.getValue().doubleValue(),
+			dfNum = iirPzTrans(polesZeros, 1.0, decimation.getSamplingInterval(),
 					2 * Math.PI * stageGain.getFrequency());
-			ofNum = iirPzTrans(polesZeros, 1.0, samplingInterval.getValue().doubleValue(), wVal);
+			ofNum = iirPzTrans(polesZeros, 1.0, decimation.getSamplingInterval(), wVal);
 		} else {
 			throw new InvalidResponseException("Invalid transfer type for poles/zeros");
 		}
@@ -317,6 +368,59 @@ public class EvalRespUtil {
 		return new Complex(mod * Math.cos(pha) * normFact, mod * Math.sin(pha) * normFact);
 	}
 
+	/**
+	 * Calculates the response of a "Digital (Z - transform)" IIR poles/zeros
+	 * filter from pre-extracted pole and zero values.
+	 *
+	 * @param zeroReal      real parts of the zeros.
+	 * @param zeroImaginary imaginary parts of the zeros.
+	 * @param poleReal      real parts of the poles.
+	 * @param poleImaginary imaginary parts of the poles.
+	 * @param normFact      the normalization factor to use.
+	 * @param sIntervalTime the sample interval time to use.
+	 * @param wVal          the frequency value to use.
+	 * @return the response.
+	 */
+	public static Complex iirPzTrans(double[] zeroReal, double[] zeroImaginary, double[] poleReal,
+			double[] poleImaginary, double normFact, double sIntervalTime, double wVal) {
+		double[] real = new double[1];
+		double[] imaginary = new double[1];
+		iirPzTrans(zeroReal, zeroImaginary, poleReal, poleImaginary, normFact, sIntervalTime, wVal, real, imaginary,
+				0);
+		return new Complex(real[0], imaginary[0]);
+	}
+
+	/**
+	 * Same as
+	 * {@link #iirPzTrans(double[], double[], double[], double[], double, double, double)}
+	 * but the response is written to real[index] and imaginary[index] and no
+	 * object is allocated.
+	 */
+	public static void iirPzTrans(double[] zeroReal, double[] zeroImaginary, double[] poleReal,
+			double[] poleImaginary, double normFact, double sIntervalTime, double wVal, double[] real,
+			double[] imaginary, int index) {
+		final double wsint = wVal * sIntervalTime;
+		final double cosWsint = Math.cos(wsint);
+		final double sinWsint = Math.sin(wsint);
+		double rVal, iVal, mod = 1.0, pha = 0.0;
+		for (int i = 0; i < zeroReal.length; i++) {
+			rVal = cosWsint - zeroReal[i];
+			iVal = sinWsint - zeroImaginary[i];
+			mod *= Math.sqrt(rVal * rVal + iVal * iVal);
+			if (rVal != 0.0 || iVal != 0.0)
+				pha += Math.atan2(iVal, rVal);
+		}
+		for (int i = 0; i < poleReal.length; i++) {
+			rVal = cosWsint - poleReal[i];
+			iVal = sinWsint - poleImaginary[i];
+			mod /= Math.sqrt(rVal * rVal + iVal * iVal);
+			if (rVal != 0.0 || iVal != 0.0)
+				pha -= Math.atan2(iVal, rVal);
+		}
+		real[index] = mod * Math.cos(pha) * normFact;
+		imaginary[index] = mod * Math.sin(pha) * normFact;
+	}
+
 	/**
 	 * Calculates the response of a digital IIR filter. It evaluates phase directly
 	 * from imaginary and real parts of IIR filter coefficients.
@@ -372,6 +476,60 @@ public class EvalRespUtil {
 		return new Complex(amp * Math.cos(phase) * normFact, amp * Math.sin(phase) * normFact);
 	}
 
+	/**
+	 * Calculates the response of a digital IIR filter from pre-extracted
+	 * coefficient values.
+	 *
+	 * @param numerators    numerator coefficients.
+	 * @param denominators  denominator coefficients.
+	 * @param normFact      the normalization factor to use.
+	 * @param sIntervalTime the sample interval time to use.
+	 * @param wVal          the frequency value to use.
+	 * @return the response.
+	 */
+	public static Complex iirTrans(double[] numerators, double[] denominators, double normFact, double sIntervalTime,
+			double wVal) {
+		double[] real = new double[1];
+		double[] imaginary = new double[1];
+		iirTrans(numerators, denominators, normFact, sIntervalTime, wVal, real, imaginary, 0);
+		return new Complex(real[0], imaginary[0]);
+	}
+
+	/**
+	 * Same as {@link #iirTrans(double[], double[], double, double, double)} but the
+	 * response is written to real[index] and imaginary[index] and no object is
+	 * allocated.
+	 */
+	public static void iirTrans(double[] numerators, double[] denominators, double normFact, double sIntervalTime,
+			double wVal, double[] real, double[] imaginary, int index) {
+		final double wsint = wVal * sIntervalTime;
+
+		double xre, xim, phase, amp;
+		if (numerators.length > 0) {
+			xre = numerators[0];
+			xim = 0.0;
+			for (int i = 1; i < numerators.length; ++i) {
+				xre += numerators[i] * Math.cos(-(i * wsint));
+				xim += numerators[i] * Math.sin(-(i * wsint));
+			}
+			amp = Math.sqrt(xre * xre + xim * xim);
+			phase = Math.atan2(xim, xre);
+		} else
+			amp = phase = 0.0;
+		if (denominators.length > 0) {
+			xre = denominators[0];
+			xim = 0.0;
+			for (int i = 1; i < denominators.length; ++i) {
+				xre += denominators[i] * Math.cos(-(i * wsint));
+				xim += denominators[i] * Math.sin(-(i * wsint));
+			}
+			amp /= Math.sqrt(xre * xre + xim * xim);
+			phase -= Math.atan2(xim, xre);
+		}
+		real[index] = amp * Math.cos(phase) * normFact;
+		imaginary[index] = amp * Math.sin(phase) * normFact;
+	}
+
 	/**
 	 * Calculates the response of a digital FIR filter. Only the numerators of the
 	 * given filter object are used.
@@ -439,6 +597,197 @@ public class EvalRespUtil {
 		}
 	}
 
+	/**
+	 * Calculates the response of a digital FIR filter from pre-extracted
+	 * coefficient values.
+	 *
+	 * @param coefficients  FIR coefficients (numerators).
+	 * @param normFact      the normalization factor to use.
+	 * @param sIntervalTime the sample interval time to use.
+	 * @param wVal          the frequency value to use.
+	 * @param firTypeVal    the symmetry of the coefficients.
+	 * @return the response.
+	 */
+	public static Complex firTrans(double[] coefficients, double normFact, double sIntervalTime, double wVal,
+			Symmetry firTypeVal) {
+		double[] real = new double[1];
+		double[] imaginary = new double[1];
+		firTrans(coefficients, normFact, sIntervalTime, wVal, firTypeVal, real, imaginary, 0);
+		return new Complex(real[0], imaginary[0]);
+	}
+
+	/**
+	 * Same as {@link #firTrans(double[], double, double, double, Symmetry)} but the
+	 * response is written to real[index] and imaginary[index] and no object is
+	 * allocated.
+	 */
+	public static void firTrans(double[] coefficients, double normFact, double sIntervalTime, double wVal,
+			Symmetry firTypeVal, double[] real, double[] imaginary, int index) {
+		final int numCoeffs = coefficients.length;
+		final double wsint = wVal * sIntervalTime;
+		if (numCoeffs <= 0) {
+			real[index] = 0.0;
+			imaginary[index] = 0.0;
+			return;
+		}
+		if (firTypeVal == Symmetry.ODD) {
+			final int numNumerators = (numCoeffs + 1) / 2;
+			int i, factVal;
+			double rVal = 0.0;
+			for (i = 0; i < (numNumerators - 1); ++i) {
+				factVal = numNumerators - (i + 1);
+				rVal += coefficients[i] * Math.cos(wsint * factVal);
+			}
+			real[index] = (coefficients[i] + (2.0 * rVal)) * normFact;
+			imaginary[index] = 0.0;
+		} else if (firTypeVal == Symmetry.EVEN) {
+			final int numNumerators = numCoeffs / 2;
+			int i, factVal;
+			double rVal = 0.0;
+			for (i = 0; i < numNumerators; ++i) {
+				factVal = numNumerators - (i + 1);
+				rVal += coefficients[i] * Math.cos(wsint * ((double) factVal + 0.5));
+			}
+			real[index] = 2.0 * rVal * normFact;
+			imaginary[index] = 0.0;
+		} else {
+			double val = coefficients[0];
+			int i = 0;
+			do {
+				if (++i >= numCoeffs) {
+					real[index] = (wsint == 0.0) ? 1.0
+							: ((Math.sin(wsint / 2.0 * numCoeffs) / Math.sin(wsint / 2.0)) * val);
+					imaginary[index] = 0.0;
+					return;
+				}
+			} while (coefficients[i] == val);
+			double rVal = 0.0, iVal = 0.0;
+			for (i = 0; i < numCoeffs; ++i) {
+				val = wsint * i;
+				rVal += coefficients[i] * Math.cos(val);
+				iVal += coefficients[i] * -Math.sin(val);
+			}
+			final double mod = Math.sqrt(rVal * rVal + iVal * iVal);
+			double pha = Math.atan2(iVal, rVal) + (wVal * (double) ((numCoeffs - 1) / 2.0) * sIntervalTime);
+			real[index] = mod * Math.cos(pha) * normFact;
+			imaginary[index] = mod * Math.sin(pha) * normFact;
+		}
+	}
+
+	/**
+	 * Number of coefficients after which {@link EvaluationMode#RECURRENCE}
+	 * recomputes the rotation from Math.cos and Math.sin.
+	 */
+	public static final int RECURRENCE_ANCHOR = 64;
+
+	/**
+	 * Same as
+	 * {@link #iirTrans(double[], double[], double, double, double, double[], double[], int)}
+	 * with the unit circle terms computed as given by the mode.
+	 */
+	public static void iirTrans(double[] numerators, double[] denominators, double normFact, double sIntervalTime,
+			double wVal, EvaluationMode mode, double[] real, double[] imaginary, int index) {
+		if (mode != EvaluationMode.RECURRENCE) {
+			iirTrans(numerators, denominators, normFact, sIntervalTime, wVal, real, imaginary, index);
+			return;
+		}
+		final double wsint = wVal * sIntervalTime;
+
+		double xre, xim, phase, amp;
+		if (numerators.length > 0) {
+			rotationSum(numerators, 0, numerators.length, 0.0, -wsint, real, imaginary, index);
+			xre = real[index];
+			xim = imaginary[index];
+			amp = Math.sqrt(xre * xre + xim * xim);
+			phase = Math.atan2(xim, xre);
+		} else
+			amp = phase = 0.0;
+		if (denominators.length > 0) {
+			rotationSum(denominators, 0, denominators.length, 0.0, -wsint, real, imaginary, index);
+			xre = real[index];
+			xim = imaginary[index];
+			amp /= Math.sqrt(xre * xre + xim * xim);
+			phase -= Math.atan2(xim, xre);
+		}
+		real[index] = amp * Math.cos(phase) * normFact;
+		imaginary[index] = amp * Math.sin(phase) * normFact;
+	}
+
+	/**
+	 * Same as
+	 * {@link #firTrans(double[], double, double, double, Symmetry, double[], double[], int)}
+	 * with the unit circle terms computed as given by the mode.
+	 */
+	public static void firTrans(double[] coefficients, double normFact, double sIntervalTime, double wVal,
+			Symmetry firTypeVal, EvaluationMode mode, double[] real, double[] imaginary, int index) {
+		if (mode != EvaluationMode.RECURRENCE || coefficients.length <= 0) {
+			firTrans(coefficients, normFact, sIntervalTime, wVal, firTypeVal, real, imaginary, index);
+			return;
+		}
+		final int numCoeffs = coefficients.length;
+		final double wsint = wVal * sIntervalTime;
+		if (firTypeVal == Symmetry.ODD) {
+			final int numNumerators = (numCoeffs + 1) / 2;
+			// cos(wsint * (numNumerators - (i + 1))) for i < numNumerators - 1
+			rotationSum(coefficients, 0, numNumerators - 1, wsint * (numNumerators - 1), -wsint, real, imaginary,
+					index);
+			real[index] = (coefficients[numNumerators - 1] + (2.0 * real[index])) * normFact;
+			imaginary[index] = 0.0;
+		} else if (firTypeVal == Symmetry.EVEN) {
+			final int numNumerators = numCoeffs / 2;
+			// cos(wsint * (numNumerators - (i + 1) + 0.5)) for i < numNumerators
+			rotationSum(coefficients, 0, numNumerators, wsint * (numNumerators - 0.5), -wsint, real, imaginary,
+					index);
+			real[index] = 2.0 * real[index] * normFact;
+			imaginary[index] = 0.0;
+		} else {
+			double val = coefficients[0];
+			int i = 0;
+			do {
+				if (++i >= numCoeffs) {
+					real[index] = (wsint == 0.0) ? 1.0
+							: ((Math.sin(wsint / 2.0 * numCoeffs) / Math.sin(wsint / 2.0)) * val);
+					imaginary[index] = 0.0;
+					return;
+				}
+			} while (coefficients[i] == val);
+			rotationSum(coefficients, 0, numCoeffs, 0.0, -wsint, real, imaginary, index);
+			double rVal = real[index], iVal = imaginary[index];
+			final double mod = Math.sqrt(rVal * rVal + iVal * iVal);
+			double pha = Math.atan2(iVal, rVal) + (wVal * (double) ((numCoeffs - 1) / 2.0) * sIntervalTime);
+			real[index] = mod * Math.cos(pha) * normFact;
+			imaginary[index] = mod * Math.sin(pha) * normFact;
+		}
+	}
+
+	/**
+	 * Writes the sum of c[k] * e^(i(start + (k - from) * step)) for k in [from,
+	 * to) to real[index] and imaginary[index]. The exponential is advanced by a
+	 * complex rotation and recomputed every {@link #RECURRENCE_ANCHOR} terms.
+	 */
+	static void rotationSum(double[] c, int from, int to, double start, double step, double[] real,
+			double[] imaginary, int index) {
+		final double cosStep = Math.cos(step);
+		final double sinStep = Math.sin(step);
+		double sumRe = 0.0, sumIm = 0.0;
+		double zRe = 0.0, zIm = 0.0;
+		for (int k = from, j = 0; k < to; k++, j++) {
+			if (j % RECURRENCE_ANCHOR == 0) {
+				double angle = start + j * step;
+				zRe = Math.cos(angle);
+				zIm = Math.sin(angle);
+			} else {
+				double t = zRe * cosStep - zIm * sinStep;
+				zIm = zRe * sinStep + zIm * cosStep;
+				zRe = t;
+			}
+			sumRe += c[k] * zRe;
+			sumIm += c[k] * zIm;
+		}
+		real[index] = sumRe;
+		imaginary[index] = sumIm;
+	}
+
 	/**
 	 * Generates an array of frequency values.
 	 * 
@@ -931,6 +1280,33 @@ public class EvalRespUtil {
 		}
 		return result;
 	}
+
+	/**
+	 * Same as {@link #ampPase(Complex[], boolean)} for a spectrum held as
+	 * separate real and imaginary arrays.
+	 */
+	public static double[][] ampPase(double[] real, double[] imaginary, boolean unwrapPhaseFlag) {
+		Objects.requireNonNull(real, "real cannot be null.");
+		Objects.requireNonNull(imaginary, "imaginary cannot be null.");
+		if (log.isDebugEnabled()) {
+			log.debug("ampPase({})", unwrapPhaseFlag);
+		}
+
+		final int length = real.length;
+		double[][] result = new double[2][length];
+		final double[] amplitude = result[0];
+		final double[] phase = result[1];
+		for (int i = 0; i < length; i++) {
+			amplitude[i] = Math.sqrt(real[i] * real[i] + imaginary[i] * imaginary[i]);
+		}
+		for (int i = 0; i < length; i++) {
+			phase[i] = Math.atan2(imaginary[i], real[i] + 1.0e-200) * 180.0 / Math.PI;
+		}
+		if (unwrapPhaseFlag) {
+			result[1] = unwrapPhaseArray(phase, true);
+		}
+		return result;
+	}
 	/*
 	 * public static double[] createFrequency() { return createFrequency(0.00001,
 	 * 2E01, 200); }
@@ -0,0 +1,206 @@
+package io.station.response;
+
+import java.util.Objects;
+
+import javax.measure.Unit;
+
+import io.station.model.Gain;
+import io.station.model.Sensitivity;
+import io.station.response.util.FrequencySet;
+
+/**
+ * Scratch buffers for evaluating {@link CompiledResponse}s without allocating.
+ * The workspace holds a frequency buffer, one real and one imaginary plane per
+ * stage and amplitude and phase buffers, they grow to the largest response
+ * and frequency count seen and are reused from one evaluation to the next, so
+ * that a long running evaluator stops allocating once warmed up.
+ * <p>
+ * Slot 0 holds stage 0, the product of the compiled stages, and slot i the
+ * i-th compiled stage. The arrays returned by the getters are the buffers
+ * themselves, only the first {@link #getLength()} values are meaningful and
+ * they are overwritten by the next evaluation. A workspace is not thread safe,
+ * use one per thread, {@link #local()} gives the calling thread its own.
+ * <p>
+ * Kernels are evaluated one frequency at a time, FIR stages compiled with
+ * {@link EvaluationMode#TRANSFORM} are therefore computed directly as the chirp-z
+ * transform needs buffers of its own.
+ */
+public class EvalWorkspace {
+
+	private static final ThreadLocal<EvalWorkspace> LOCAL = ThreadLocal.withInitial(EvalWorkspace::new);
+
+	private double[] frequencies;
+	private double[][] real;
+	private double[][] imaginary;
+	private double[] amplitude;
+	private double[] phase;
+
+	private CompiledResponse compiledResponse;
+	// motion of the input unit of compiledResponse, resolved once per response
+	private Motion inputMotion;
+	private int length;
+	private int stages;
+
+	public EvalWorkspace() {
+		this(8, 200);
+	}
+
+	/**
+	 * @param stages      initial number of stages, stage 0 excluded.
+	 * @param frequencies initial number of frequencies.
+	 */
+	public EvalWorkspace(int stages, int frequencies) {
+		if (stages < 0 || frequencies < 0) {
+			throw new IllegalArgumentException(
+					"stages and frequencies cannot be negative but were " + stages + " and " + frequencies);
+		}
+		allocate(stages + 1, frequencies);
+	}
+
+	/**
+	 * @return the workspace of the calling thread.
+	 */
+	public static EvalWorkspace local() {
+		return LOCAL.get();
+	}
+
+	private void allocate(int slots, int capacity) {
+		frequencies = new double[capacity];
+		real = new double[slots][capacity];
+		imaginary = new double[slots][capacity];
+		amplitude = new double[capacity];
+		phase = new double[capacity];
+	}
+
+	private void ensureCapacity(int slots, int capacity) {
+		if (slots <= real.length && capacity <= frequencies.length) {
+			return;
+		}
+		double[] previous = frequencies;
+		allocate(Math.max(slots, real.length), Math.max(capacity, frequencies.length));
+		System.arraycopy(previous, 0, frequencies, 0, previous.length);
+	}
+
+	/**
+	 * @return the frequency buffer, with room for at least length values, for
+	 *         the caller to fill before {@link #evaluate(CompiledResponse, int)}.
+	 */
+	public double[] frequencies(int length) {
+		if (length < 0) {
+			throw new IllegalArgumentException("length cannot be negative but was " + length);
+		}
+		ensureCapacity(real.length, length);
+		return frequencies;
+	}
+
+	public void evaluate(CompiledResponse compiledResponse, FrequencySet frequencySet) {
+		Objects.requireNonNull(frequencySet, "frequencySet cannot be null.");
+		double[] values = frequencySet.getValues();
+		System.arraycopy(values, 0, frequencies(values.length), 0, values.length);
+		evaluate(compiledResponse, values.length);
+	}
+
+	/**
+	 * Evaluates compiledResponse over the first length values of the frequency
+	 * buffer.
+	 */
+	public void evaluate(CompiledResponse compiledResponse, int length) {
+		Objects.requireNonNull(compiledResponse, "compiledResponse cannot be null.");
+		if (length < 0 || length > frequencies.length) {
+			throw new IllegalArgumentException(
+					"length must be between 0 and " + frequencies.length + " but was " + length);
+		}
+		ensureCapacity(compiledResponse.size() + 1, length);
+		compiledResponse.evaluate(frequencies, length, real, imaginary);
+		if (compiledResponse != this.compiledResponse) {
+			this.compiledResponse = compiledResponse;
+			this.inputMotion = Motion.of(getInputUnit());
+		}
+		this.length = length;
+		this.stages = compiledResponse.size() + 1;
+	}
+
+	/**
+	 * Writes the amplitude and phase of the given slot, converted to motion, to
+	 * the amplitude and phase buffers. See
+	 * {@link ResponseSpectrum#ampPhase(Motion, boolean, boolean, boolean, double[], double[])}.
+	 */
+	public void ampPhase(int slot, Motion motion, boolean decibels, boolean radians, boolean unwrapPhaseFlag) {
+		checkSlot(slot);
+		ResponseSpectrum.ampPhase(real, imaginary, slot, slot + 1, frequencies, length, power(motion), decibels,
+				radians, unwrapPhaseFlag, amplitude, phase);
+	}
+
+	/**
+	 * Same as {@link ResponseSpectrum#power(Unit, Motion)} without going through
+	 * the units of measure API.
+	 */
+	private int power(Motion motion) {
+		Objects.requireNonNull(motion, "motion cannot be null.");
+		return inputMotion.ordinal() - motion.ordinal();
+	}
+
+	private Unit<?> getInputUnit() {
+		Gain sensitivity = compiledResponse == null ? null : compiledResponse.getSensitivity();
+		return sensitivity instanceof Sensitivity ? ((Sensitivity) sensitivity).getInputUnits() : null;
+	}
+
+	private void checkSlot(int slot) {
+		if (slot < 0 || slot >= stages) {
+			throw new IndexOutOfBoundsException("slot " + slot + " but found " + stages + " stages");
+		}
+	}
+
+	/**
+	 * @return the response last evaluated, null if none.
+	 */
+	public CompiledResponse getCompiledResponse() {
+		return compiledResponse;
+	}
+
+	/**
+	 * @return the number of frequencies last evaluated.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @return the number of slots last evaluated, stage 0 included.
+	 */
+	public int getStages() {
+		return stages;
+	}
+
+	public int getStageNumber(int slot) {
+		checkSlot(slot);
+		return slot == 0 ? 0 : compiledResponse.getStageNumber(slot - 1);
+	}
+
+	public Gain getStageGain(int slot) {
+		checkSlot(slot);
+		return slot == 0 ? compiledResponse.getSensitivity() : compiledResponse.getStageGain(slot - 1);
+	}
+
+	public double[] getFrequencies() {
+		return frequencies;
+	}
+
+	public double[] getReal(int slot) {
+		checkSlot(slot);
+		return real[slot];
+	}
+
+	public double[] getImaginary(int slot) {
+		checkSlot(slot);
+		return imaginary[slot];
+	}
+
+	public double[] getAmplitude() {
+		return amplitude;
+	}
+
+	public double[] getPhase() {
+		return phase;
+	}
+}
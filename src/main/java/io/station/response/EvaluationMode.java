@@ -0,0 +1,31 @@
+package io.station.response;
+
+/**
+ * How the unit circle terms e^(-iωTk) of coefficient (FIR/IIR) stages are
+ * computed.
+ */
+public enum EvaluationMode {
+
+	/**
+	 * Math.cos and Math.sin for every coefficient.
+	 */
+	DIRECT,
+	/**
+	 * A complex rotation by e^(-iωT) from one coefficient to the next, re-anchored
+	 * with Math.cos and Math.sin every {@link EvalRespUtil#RECURRENCE_ANCHOR}
+	 * coefficients to bound the drift.
+	 */
+	RECURRENCE,
+	/**
+	 * FIR stages evaluated over an equally spaced frequency array are computed
+	 * with a chirp-z transform of the taps, O((N + M) log(N + M)) instead of
+	 * O(N * M). Other stages and frequency arrays are evaluated as
+	 * {@link #DIRECT}.
+	 */
+	TRANSFORM,
+	/**
+	 * {@link #TRANSFORM} when the frequencies are equally spaced and the filter
+	 * is long enough for the transform to be cheaper, {@link #DIRECT} otherwise.
+	 */
+	AUTO;
+}
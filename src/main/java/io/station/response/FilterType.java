@@ -0,0 +1,9 @@
+package io.station.response;
+
+/**
+ * The filter of a response stage, {@link #NONE} for gain only stages.
+ */
+public enum FilterType {
+
+	NONE, POLES_ZEROS, COEFFICIENTS, FIR, RESPONSE_LIST, POLYNOMIAL;
+}
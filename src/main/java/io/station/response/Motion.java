@@ -0,0 +1,28 @@
+package io.station.response;
+
+import javax.measure.Unit;
+
+import io.station.uom.StationUnits;
+
+/**
+ * The ground motion a spectrum is expressed against, the response to one is
+ * the response to the next multiplied by iω.
+ */
+public enum Motion {
+
+	DISPLACEMENT, VELOCITY, ACCELERATION;
+
+	/**
+	 * @return the motion of unit, velocity when it is neither a displacement
+	 *         nor an acceleration.
+	 */
+	public static Motion of(Unit<?> unit) {
+		if (StationUnits.isDisplacement(unit)) {
+			return DISPLACEMENT;
+		}
+		if (StationUnits.isAcceleration(unit)) {
+			return ACCELERATION;
+		}
+		return VELOCITY;
+	}
+}
@@ -2,9 +2,7 @@ package io.station.response;
 
 import java.math.BigInteger;
 import java.time.ZonedDateTime;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
 import org.apache.commons.math3.complex.Complex;
@@ -27,8 +25,19 @@ import io.station.model.Sensitivity;
 import io.station.model.StageGain;
 import io.station.model.Station;
 
+/**
+ * A {@link Response} with its stages indexed and its gains and normalizations
+ * computed once by wrap. The response must not be modified once wrapped, the
+ * tables and the {@link ResponseFingerprint} are not updated.
+ */
 public class NormalizedResponse {
 
+	/**
+	 * The largest stage number accepted, the stage tables are sized by the
+	 * largest number of a response.
+	 */
+	public static final int MAXIMUM_STAGE_NUMBER = 9999;
+
 	private String network;
 	private String station;
 	private String location;
@@ -38,8 +47,18 @@ public class NormalizedResponse {
 	private SampleRate sampleRate;
 	private final Response response;
 
-	private Map<BigInteger, Normalized> normalization = new HashMap<>();
-	private Map<BigInteger, Gain> gainMap = new HashMap<>();
+	/*
+	 * Dense tables indexed by stage number, 0 being the instrument sensitivity.
+	 * The stage, filter type and decimation tables follow the response,
+	 * the gain and normalization tables are filled by wrap and shared by rebind.
+	 */
+	private final ResponseStage[] stages;
+	private final FilterType[] filterTypes;
+	private final ResolvedDecimation[] decimations;
+	private Gain[] gains;
+	private Normalized[] normalizations;
+	private double[] normalizationFactors;
+	private volatile ResponseFingerprint fingerprint;
 
 	public NormalizedResponse(String network, String station, Channel channel) {
 		Objects.requireNonNull(channel, "channel cannot be null.");
@@ -52,6 +71,11 @@ public class NormalizedResponse {
 		this.sampleRate = channel.getSampleRate();
 
 		this.response = channel.getResponse();
+
+		this.stages = index(response);
+		this.filterTypes = filterTypes(stages);
+		this.decimations = decimations(stages);
+		initialize();
 	}
 
 	public NormalizedResponse(String network, String station, String location, String channel, ZonedDateTime start,
@@ -66,6 +90,105 @@ public class NormalizedResponse {
 		this.sampleRate = sampleRate;
 
 		this.response = response;
+
+		this.stages = index(response);
+		this.filterTypes = filterTypes(stages);
+		this.decimations = decimations(stages);
+		initialize();
+	}
+
+	private void initialize() {
+		this.gains = new Gain[stages.length];
+		this.normalizations = new Normalized[stages.length];
+		this.normalizationFactors = new double[stages.length];
+	}
+
+	/**
+	 * @return the stages indexed by number, the first of duplicate numbers wins
+	 *         and negative numbers are not indexed.
+	 * @throws IllegalArgumentException if a stage number is larger than
+	 *                                  {@link #MAXIMUM_STAGE_NUMBER}.
+	 */
+	private static ResponseStage[] index(Response response) {
+		List<ResponseStage> list = response == null ? null : response.getStages();
+		if (list == null || list.isEmpty()) {
+			return new ResponseStage[1];
+		}
+		int maximum = 0;
+		for (ResponseStage stage : list) {
+			int number = number(stage.getNumber());
+			if (number > MAXIMUM_STAGE_NUMBER) {
+				throw new IllegalArgumentException(tooLarge(stage));
+			}
+			if (number > maximum) {
+				maximum = number;
+			}
+		}
+		ResponseStage[] stages = new ResponseStage[maximum + 1];
+		for (ResponseStage stage : list) {
+			int number = number(stage.getNumber());
+			if (number >= 0 && stages[number] == null) {
+				stages[number] = stage;
+			}
+		}
+		return stages;
+	}
+
+	/**
+	 * @return -1 for null and negative numbers, {@link Integer#MAX_VALUE} for
+	 *         numbers that do not fit an int.
+	 */
+	private static int number(BigInteger stageNumber) {
+		if (stageNumber == null || stageNumber.signum() < 0) {
+			return -1;
+		}
+		return stageNumber.bitLength() > 31 ? Integer.MAX_VALUE : stageNumber.intValue();
+	}
+
+	private static String tooLarge(ResponseStage stage) {
+		return "Stage number " + stage.getNumber() + " is larger than " + MAXIMUM_STAGE_NUMBER;
+	}
+
+	/**
+	 * Same precedence as {@link CompiledResponse}, the last filter found wins.
+	 */
+	private static FilterType[] filterTypes(ResponseStage[] stages) {
+		FilterType[] filterTypes = new FilterType[stages.length];
+		for (int i = 0; i < stages.length; i++) {
+			ResponseStage stage = stages[i];
+			FilterType filterType = FilterType.NONE;
+			if (stage != null) {
+				if (stage.getPolesZeros() != null) {
+					filterType = FilterType.POLES_ZEROS;
+				}
+				if (stage.getCoefficients() != null) {
+					filterType = FilterType.COEFFICIENTS;
+				}
+				if (stage.getFIR() != null) {
+					filterType = FilterType.FIR;
+				}
+				if (stage.getResponseList() != null) {
+					filterType = FilterType.RESPONSE_LIST;
+				}
+				if (stage.getPolynomial() != null) {
+					filterType = FilterType.POLYNOMIAL;
+				}
+			}
+			filterTypes[i] = filterType;
+		}
+		return filterTypes;
+	}
+
+	private static ResolvedDecimation[] decimations(ResponseStage[] stages) {
+		ResolvedDecimation[] decimations = new ResolvedDecimation[stages.length];
+		for (int i = 0; i < stages.length; i++) {
+			decimations[i] = stages[i] == null ? null : ResolvedDecimation.of(stages[i].getDecimation());
+		}
+		return decimations;
+	}
+
+	private boolean isIndexed(int stageNumber) {
+		return stageNumber >= 0 && stageNumber < stages.length;
 	}
 
 	public String getNetwork() {
@@ -96,16 +219,46 @@ public class NormalizedResponse {
 		return sampleRate;
 	}
 
+	public Response getResponse() {
+		return response;
+	}
+
+	/**
+	 * @return the fingerprint of the response, computed on first use or taken
+	 *         from the {@link NormalizedResponseCache} that wrapped it. Like the
+	 *         other tables it does not follow changes made to the response
+	 *         after wrap.
+	 */
+	public ResponseFingerprint getFingerprint() {
+		ResponseFingerprint result = fingerprint;
+		if (result == null) {
+			result = ResponseFingerprint.of(response);
+			fingerprint = result;
+		}
+		return result;
+	}
+
+	void setFingerprint(ResponseFingerprint fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+
 	private void putNormalization(BigInteger stageNumber, Normalized normalized) {
 		Objects.requireNonNull(stageNumber, "stageNumber cannot be null.");
 		Objects.requireNonNull(normalized, "normalized cannot be null.");
 		normalized.validate();
-		normalization.put(stageNumber, normalized);
+		int number = number(stageNumber);
+		if (isIndexed(number)) {
+			normalizations[number] = normalized;
+			normalizationFactors[number] = normalized.getValue();
+		}
 	}
 
 	private void putGain(BigInteger stageNumber, Gain gain) {
 		Objects.requireNonNull(stageNumber, "stageNumber cannot be null.");
-		gainMap.put(stageNumber, gain);
+		int number = number(stageNumber);
+		if (isIndexed(number)) {
+			gains[number] = gain;
+		}
 	}
 
 	private static boolean isValid(Gain gain) {
@@ -141,6 +294,13 @@ public class NormalizedResponse {
 		Objects.requireNonNull(response, "response cannot be null.");
 		Objects.requireNonNull(network, "network cannot be null.");
 	
+		if (response.getStages() != null) {
+			for (ResponseStage stage : response.getStages()) {
+				if (stage != null && number(stage.getNumber()) > MAXIMUM_STAGE_NUMBER) {
+					throw new InvalidResponseException(tooLarge(stage));
+				}
+			}
+		}
 		EvalResp.check(response);
 
 		NormalizedResponse normalizedResponse = new NormalizedResponse(network, station, location, channel, start, end,
@@ -221,12 +381,12 @@ public class NormalizedResponse {
 							} else {
 								normalizedResponse.putNormalization(stage.getNumber(), new Normalized(
 										polesZeros.getNormalizationFactor(), polesZeros.getNormalizationFrequency()));
-								System.out.println("111Setting normalization: " + stage.getNumber());
 							}
 						} else if (filter instanceof Coefficients) {
 							Coefficients coefficients = (Coefficients) filter;
 							Complex[] array = EvalRespUtil.normalize(coefficients, stage.getStageGain(),
-									stage.getDecimation(), calculatedFrequency.toAngular());
+									normalizedResponse.getResolvedDecimation(stage.getNumber().intValue()),
+									calculatedFrequency.toAngular());
 							dfNum = array[0];
 							ofNum = array[1];
 						} else {
@@ -239,9 +399,7 @@ public class NormalizedResponse {
 							normalizedResponse.putGain(stage.getNumber(), stageGain);
 							normalizedResponse.putNormalization(stage.getNumber(),
 									new Normalized(1.0 / ofSqVal, calculatedFrequency));
-							System.out.println("Setting normalization: " + stage.getNumber());
 						} else {
-							System.out.println(":::Setting normalization: " + stage.getNumber());
 							normalizedResponse.putGain(stage.getNumber(),
 									StageGain.valueOf(stageGain.getValue(), calculatedFrequency));
 						}
@@ -259,6 +417,24 @@ public class NormalizedResponse {
 		return normalizedResponse;
 	}
 
+	/**
+	 * @return a response for another channel sharing this one's normalization
+	 *         and gains, response must have the same
+	 *         {@link ResponseFingerprint}.
+	 */
+	NormalizedResponse rebind(String network, String station, String location, String channel,
+			ZonedDateTime start, ZonedDateTime end, SampleRate sampleRate, Response response) {
+		NormalizedResponse normalizedResponse = new NormalizedResponse(network, station, location, channel, start,
+				end, sampleRate, response);
+		if (normalizedResponse.stages.length != this.stages.length) {
+			throw new IllegalArgumentException("response does not have the same stages.");
+		}
+		normalizedResponse.gains = this.gains;
+		normalizedResponse.normalizations = this.normalizations;
+		normalizedResponse.normalizationFactors = this.normalizationFactors;
+		return normalizedResponse;
+	}
+
 	private double getSensitivity() {
 		if (this.response == null) {
 			throw new NullPointerException();
@@ -344,33 +520,46 @@ public class NormalizedResponse {
 	}
 
 	public ResponseStage getStage(int stageNumber) {
-		List<ResponseStage> stages = response.getStages();
-		if (stages == null || stages.isEmpty()) {
-			return null;
-		}
-		for (ResponseStage stage : stages) {
-			if (stage.getNumber().intValue() == stageNumber) {
-				return stage;
-			}
-		}
-		return null;
+		return isIndexed(stageNumber) ? stages[stageNumber] : null;
+	}
+
+	/**
+	 * @return the filter type of the stage, {@link FilterType#NONE} for gain only
+	 *         or unknown stages.
+	 */
+	public FilterType getFilterType(int stageNumber) {
+		return isIndexed(stageNumber) ? filterTypes[stageNumber] : FilterType.NONE;
+	}
+
+	/**
+	 * @return the input sampling interval in seconds of the stage decimation,
+	 *         NaN if the stage has none.
+	 */
+	public double getSamplingInterval(int stageNumber) {
+		ResolvedDecimation decimation = getResolvedDecimation(stageNumber);
+		return decimation == null ? Double.NaN : decimation.getSamplingInterval();
+	}
+
+	/**
+	 * @return the stage decimation in SI units, null if the stage has none.
+	 */
+	public ResolvedDecimation getResolvedDecimation(int stageNumber) {
+		return isIndexed(stageNumber) ? decimations[stageNumber] : null;
 	}
 
 	public Normalized getStageNormalization(BigInteger stageNumber) {
-		return this.normalization.get(stageNumber);
+		int number = number(stageNumber);
+		return isIndexed(number) ? normalizations[number] : null;
 	}
 
 	public Gain getStageGain(BigInteger stageNumber) {
-		return this.gainMap.get(stageNumber);
+		int number = number(stageNumber);
+		return isIndexed(number) ? gains[number] : null;
 	}
 
 	public double getNormalizationFactor(int stageNumber)
 			throws StageNotFoundException, EmptyStageException, InvalidResponseException {
-		Normalized normalized = this.normalization.get(BigInteger.valueOf(stageNumber));
-		if (normalized == null) {
-			return 0;
-		}
-		return normalized.getValue();
+		return isIndexed(stageNumber) ? normalizationFactors[stageNumber] : 0;
 	}
 
 	/*
@@ -380,7 +569,7 @@ public class NormalizedResponse {
 	 */
 
 	public Frequency getNormalizationFrequency(int stageNumber) throws InvalidResponseException {
-		Normalized normalized = this.normalization.get(BigInteger.valueOf(stageNumber));
+		Normalized normalized = isIndexed(stageNumber) ? normalizations[stageNumber] : null;
 		if (normalized == null) {
 			return null;
 		}
@@ -420,7 +609,7 @@ public class NormalizedResponse {
 	}
 
 	public Gain getStageGain(int stageNumber) throws InvalidResponseException {
-		return gainMap.get(BigInteger.valueOf(stageNumber));
+		return isIndexed(stageNumber) ? gains[stageNumber] : null;
 	}
 
 	public Polynomial getPolynomial(int stageNumber) {
@@ -432,12 +621,7 @@ public class NormalizedResponse {
 	}
 
 	public BaseFilter getStageFilter(int stageNumber) throws InvalidResponseException {
-		List<ResponseStage> stages = response.getStages();
-		if (stages == null || stages.isEmpty()) {
-			return null;
-		}
-		ResponseStage stage = stages.get(stageNumber);
-
+		ResponseStage stage = getStage(stageNumber);
 		if (stage == null) {
 			return null;
 		}
@@ -450,7 +634,7 @@ public class NormalizedResponse {
 	}
 
 	public boolean isStagePolynomial(int stageNumber) {
-		ResponseStage stage = response.getStage(stageNumber);
+		ResponseStage stage = getStage(stageNumber);
 		if (stage == null) {
 			return false;
 		}
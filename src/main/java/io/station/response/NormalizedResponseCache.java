@@ -0,0 +1,125 @@
+package io.station.response;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.station.model.Channel;
+import io.station.model.Network;
+import io.station.model.Response;
+import io.station.model.SampleRate;
+import io.station.model.Station;
+
+/**
+ * Bounded, thread safe cache of {@link NormalizedResponse} keyed by
+ * {@link ResponseFingerprint}. Channels sharing a response (same sensor and
+ * datalogger) are validated and normalized once, later channels get a
+ * {@link NormalizedResponse} bound to their own identity and {@link Response}
+ * that shares the normalization and gains of the first one. The least recently
+ * used entry is evicted once the cache holds maximumSize responses.
+ * <p>
+ * The fingerprint is computed on every call, so a response modified after an
+ * earlier wrap is looked up by its current values. The returned responses
+ * carry that fingerprint.
+ */
+public class NormalizedResponseCache {
+
+	private final int maximumSize;
+	private final Map<ResponseFingerprint, NormalizedResponse> entries;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	public NormalizedResponseCache(int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("maximumSize must be at least 1 but was " + maximumSize);
+		}
+		this.maximumSize = maximumSize;
+		this.entries = new LinkedHashMap<ResponseFingerprint, NormalizedResponse>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ResponseFingerprint, NormalizedResponse> eldest) {
+				return size() > NormalizedResponseCache.this.maximumSize;
+			}
+		};
+	}
+
+	/**
+	 * Same as {@link NormalizedResponse#wrap(Channel)}.
+	 */
+	public NormalizedResponse wrap(Channel channel) throws InvalidResponseException {
+		Objects.requireNonNull(channel, "channel cannot be null.");
+		Station station = channel.getStation();
+		String stationCode = null;
+		String networkCode = null;
+		if (station != null) {
+			stationCode = station.getCode();
+			Network network = station.getNetwork();
+			if (network != null) {
+				networkCode = network.getCode();
+			}
+		}
+		return wrap(networkCode, stationCode, channel.getLocationCode(), channel.getCode(), channel.getStartDate(),
+				channel.getEndDate(), channel.getSampleRate(), channel.getResponse());
+	}
+
+	/**
+	 * Same as
+	 * {@link NormalizedResponse#wrap(String, String, String, String, ZonedDateTime, ZonedDateTime, SampleRate, Response)},
+	 * invalid responses are not cached.
+	 */
+	public NormalizedResponse wrap(String network, String station, String location, String channel,
+			ZonedDateTime start, ZonedDateTime end, SampleRate sampleRate, Response response)
+			throws InvalidResponseException {
+		Objects.requireNonNull(response, "response cannot be null.");
+		Objects.requireNonNull(network, "network cannot be null.");
+		ResponseFingerprint fingerprint = ResponseFingerprint.of(response);
+		NormalizedResponse cached;
+		synchronized (entries) {
+			cached = entries.get(fingerprint);
+		}
+		if (cached != null) {
+			hits.increment();
+			NormalizedResponse normalizedResponse = cached.rebind(network, station, location, channel, start, end,
+					sampleRate, response);
+			normalizedResponse.setFingerprint(fingerprint);
+			return normalizedResponse;
+		}
+		misses.increment();
+		// computed outside of the lock, two threads missing on the same response
+		// both compute it and the last one is kept
+		NormalizedResponse normalizedResponse = NormalizedResponse.wrap(network, station, location, channel, start,
+				end, sampleRate, response);
+		normalizedResponse.setFingerprint(fingerprint);
+		synchronized (entries) {
+			entries.put(fingerprint, normalizedResponse);
+		}
+		return normalizedResponse;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+}
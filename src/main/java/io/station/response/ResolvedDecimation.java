@@ -0,0 +1,154 @@
+package io.station.response;
+
+import java.math.BigInteger;
+import java.util.Objects;
+
+import javax.measure.Quantity;
+import javax.measure.quantity.Time;
+
+import io.station.model.Decimation;
+import io.station.model.FloatType;
+import tech.units.indriya.quantity.Quantities;
+
+/**
+ * A {@link Decimation} with its values converted once to plain doubles in SI
+ * units, so that evaluators do not go through the units of measure API for
+ * every frequency. Missing values are NaN.
+ */
+public final class ResolvedDecimation {
+
+	private final double inputSampleRate;
+	private final double samplingInterval;
+	private final int factor;
+	private final int offset;
+	private final double delay;
+	private final double correction;
+
+	public ResolvedDecimation(double inputSampleRate, double samplingInterval, int factor, int offset, double delay,
+			double correction) {
+		this.inputSampleRate = inputSampleRate;
+		this.samplingInterval = samplingInterval;
+		this.factor = factor;
+		this.offset = offset;
+		this.delay = delay;
+		this.correction = correction;
+	}
+
+	/**
+	 * @return the resolved decimation, null if decimation is null.
+	 */
+	public static ResolvedDecimation of(Decimation decimation) {
+		if (decimation == null) {
+			return null;
+		}
+		double inputSampleRate = Double.NaN;
+		double samplingInterval = Double.NaN;
+		if (decimation.getInputSampleRate() != null) {
+			if (decimation.getInputSampleRate().getValue() != null) {
+				inputSampleRate = decimation.getInputSampleRate().getValue();
+			}
+			Quantity<Time> quantity = decimation.getInputSampleRate().calculateSamplingInterval();
+			if (quantity != null) {
+				samplingInterval = quantity.getValue().doubleValue();
+			}
+		}
+		return new ResolvedDecimation(inputSampleRate, samplingInterval, intValue(decimation.getFactor(), 1),
+				intValue(decimation.getOffset(), 0), toSystemUnit(decimation.getDelay()),
+				toSystemUnit(decimation.getCorrection()));
+	}
+
+	private static int intValue(BigInteger value, int defaultValue) {
+		return value == null ? defaultValue : value.intValue();
+	}
+
+	private static double toSystemUnit(FloatType floatType) {
+		if (floatType == null || floatType.getValue() == null) {
+			return Double.NaN;
+		}
+		if (floatType.getUnit() == null) {
+			return floatType.getValue();
+		}
+		Quantity<?> quantity = Quantities.getQuantity(floatType.getValue(), floatType.getUnit()).toSystemUnit();
+		return quantity.getValue().doubleValue();
+	}
+
+	/**
+	 * @return the input sample rate in Hz.
+	 */
+	public double getInputSampleRate() {
+		return inputSampleRate;
+	}
+
+	/**
+	 * @return the input sampling interval in seconds.
+	 */
+	public double getSamplingInterval() {
+		return samplingInterval;
+	}
+
+	public boolean hasSamplingInterval() {
+		return !Double.isNaN(samplingInterval);
+	}
+
+	/**
+	 * @return the decimation factor, 1 if missing.
+	 */
+	public int getFactor() {
+		return factor;
+	}
+
+	/**
+	 * @return the decimation offset, 0 if missing.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * @return the estimated delay in seconds.
+	 */
+	public double getDelay() {
+		return delay;
+	}
+
+	/**
+	 * @return the correction applied in seconds.
+	 */
+	public double getCorrection() {
+		return correction;
+	}
+
+	/**
+	 * @return the estimated delay if useEstDelayFlag, the correction applied
+	 *         otherwise.
+	 */
+	public double getDelay(boolean useEstDelayFlag) {
+		return useEstDelayFlag ? delay : correction;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(inputSampleRate, samplingInterval, factor, offset, delay, correction);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ResolvedDecimation)) {
+			return false;
+		}
+		ResolvedDecimation other = (ResolvedDecimation) obj;
+		return Double.compare(inputSampleRate, other.inputSampleRate) == 0
+				&& Double.compare(samplingInterval, other.samplingInterval) == 0 && factor == other.factor
+				&& offset == other.offset && Double.compare(delay, other.delay) == 0
+				&& Double.compare(correction, other.correction) == 0;
+	}
+
+	@Override
+	public String toString() {
+		return "ResolvedDecimation [inputSampleRate=" + inputSampleRate + ", samplingInterval=" + samplingInterval
+				+ ", factor=" + factor + ", offset=" + offset + ", delay=" + delay + ", correction=" + correction + "]";
+	}
+}
@@ -5,18 +5,34 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
 
+import io.station.model.Channel;
 import io.station.model.FDSNStationXML;
+import io.station.model.Network;
+import io.station.model.Station;
 import io.station.util.ChannelIterator;
 
 public class RespFile {
 
+	private static final byte[] STATION_MARKER = "\nB050F03".getBytes();
+	private static final long MINIMUM_CHUNK_SIZE = 1 << 20;
+	private static final int SCAN_WINDOW = 1 << 16;
+
 	public String extension() {
 		return "resp";
 	}
@@ -47,6 +63,190 @@ public class RespFile {
 		}
 	}
 	
+	/**
+	 * Memory maps the file, splits it into ranges starting at a B050F03 (station)
+	 * line and parses the ranges concurrently. Every channel block of a RESP file
+	 * repeats its station and network lines, so the ranges are independent. The
+	 * parsed ranges are merged in file order, consecutive networks and stations
+	 * with the same code are combined.
+	 * 
+	 * @param parallelism the number of parsing threads, 1 reads the file as
+	 *                    {@link #read(Path)} does.
+	 */
+	public static FDSNStationXML read(Path path, int parallelism) throws IOException {
+		return read(path, parallelism, MINIMUM_CHUNK_SIZE);
+	}
+
+	static FDSNStationXML read(Path path, int parallelism, long minimumChunkSize) throws IOException {
+		Objects.requireNonNull(path, "path cannot be null.");
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be at least 1 but was " + parallelism);
+		}
+		if (parallelism == 1) {
+			return read(path);
+		}
+		validateFile(path.toFile());
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			final long chunkSize = Math.max(minimumChunkSize, size / (4L * parallelism));
+			List<Long> boundaries = boundaries(channel, size, chunkSize);
+			if (boundaries.size() == 1) {
+				return parse(channel, 0, size);
+			}
+
+			ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, boundaries.size()));
+			try {
+				List<Future<FDSNStationXML>> futures = new ArrayList<>(boundaries.size());
+				for (int i = 0; i < boundaries.size(); i++) {
+					final long from = boundaries.get(i);
+					final long to = (i + 1 < boundaries.size()) ? boundaries.get(i + 1) : size;
+					futures.add(executor.submit(() -> parse(channel, from, to)));
+				}
+				FDSNStationXML document = null;
+				for (Future<FDSNStationXML> future : futures) {
+					FDSNStationXML part = get(future);
+					if (document == null) {
+						document = part;
+					} else {
+						merge(document, part);
+					}
+				}
+				return document;
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * @return the offsets of the ranges, the first one is always 0 and every
+	 *         other one is the start of a B050F03 line.
+	 */
+	static List<Long> boundaries(FileChannel channel, long size, long chunkSize) throws IOException {
+		List<Long> boundaries = new ArrayList<>();
+		boundaries.add(0L);
+		long position = chunkSize;
+		while (position < size) {
+			long boundary = find(channel, size, position - 1);
+			if (boundary < 0) {
+				break;
+			}
+			boundaries.add(boundary);
+			position = Math.max(position, boundary) + chunkSize;
+		}
+		return boundaries;
+	}
+
+	/**
+	 * @return the offset of the first B050F03 line after from, or -1.
+	 */
+	private static long find(FileChannel channel, long size, long from) throws IOException {
+		final int overlap = STATION_MARKER.length - 1;
+		long start = from;
+		while (start + STATION_MARKER.length <= size) {
+			int length = (int) Math.min(SCAN_WINDOW, size - start);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+			for (int i = 0; i + STATION_MARKER.length <= length; i++) {
+				int j = 0;
+				while (j < STATION_MARKER.length && buffer.get(i + j) == STATION_MARKER[j]) {
+					j++;
+				}
+				if (j == STATION_MARKER.length) {
+					return start + i + 1;
+				}
+			}
+			if (start + length >= size) {
+				break;
+			}
+			start += length - overlap;
+		}
+		return -1;
+	}
+
+	private static FDSNStationXML parse(FileChannel channel, long from, long to) throws IOException {
+		if (to - from > Integer.MAX_VALUE) {
+			throw new IOException("Range " + from + "-" + to + " is too large to be mapped, no station found within "
+					+ Integer.MAX_VALUE + " bytes");
+		}
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+		return RespIO.read(new ByteBufferInputStream(buffer));
+	}
+
+	private static FDSNStationXML get(Future<FDSNStationXML> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Appends the networks of part to document, the first network and station of
+	 * part are combined with the last ones of document if their codes match.
+	 */
+	static void merge(FDSNStationXML document, FDSNStationXML part) {
+		List<Network> networks = document.getNetwork();
+		for (Network network : part.getNetwork()) {
+			Network last = networks.isEmpty() ? null : networks.get(networks.size() - 1);
+			if (last == null || !Objects.equals(last.getCode(), network.getCode())) {
+				networks.add(network);
+				continue;
+			}
+			for (Station station : network.getStations()) {
+				List<Station> stations = last.getStations();
+				Station lastStation = stations.isEmpty() ? null : stations.get(stations.size() - 1);
+				if (lastStation == null || !Objects.equals(lastStation.getCode(), station.getCode())) {
+					last.addStation(station);
+					continue;
+				}
+				for (Channel channel : station.getChannels()) {
+					lastStation.addChannel(channel);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a mapped range, the buffer is not copied.
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? (buffer.get() & 0xff) : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int n = Math.min(len, buffer.remaining());
+			buffer.get(b, off, n);
+			return n;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+
 	public static FDSNStationXML read(File file) throws IOException {
 		validateFile(file);
 		try (InputStream inputStream = new FileInputStream(file);) {
@@ -9,9 +9,7 @@ import java.io.OutputStream;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 
 import io.station.model.Channel;
 import io.station.model.FDSNStationXML;
@@ -23,6 +21,7 @@ import io.station.model.ResponseType;
 import io.station.model.Sensitivity;
 import io.station.model.StageGain;
 import io.station.model.Station;
+import io.station.response.reader.RespLineTokenizer;
 import io.station.response.reader.RespReader;
 import io.station.response.reader.ResponseTypeReaderFactory;
 import io.station.response.util.RespChannelReader;
@@ -63,6 +62,7 @@ public class RespIO {
 			fdsnStationXML.setSender("");
 			fdsnStationXML.setSource("");
 
+			RespLineTokenizer tokenizer = new RespLineTokenizer();
 			String line = null;// 2002,323,21:07:00
 			Network network = null;
 			Station station = null;
@@ -78,12 +78,11 @@ public class RespIO {
 					continue;
 				}
 				if (line.startsWith("B050F03")) {
-					String[] array = line.split("\\s+");
-					if (array.length < 3) {
+					if (tokenizer.reset(line).size() < 3) {
 						throw new IOException(
 								"Invalid Resp format, expected to find a station code at index 2 but found none");
 					}
-					String stationCode = array[2];
+					String stationCode = tokenizer.token(2);
 					if (station == null || !stationCode.equals(station.getCode())) {
 						station = new Station();
 						station.setCode(stationCode);
@@ -91,12 +90,11 @@ public class RespIO {
 					continue;
 				}
 				if (line.startsWith("B050F16")) {
-					String[] array = line.split("\\s+");
-					if (array.length < 3) {
+					if (tokenizer.reset(line).size() < 3) {
 						throw new IOException(
 								"Invalid Resp format, expected to find a network code at index 2 but found none");
 					}
-					String networkCode = array[2];
+					String networkCode = tokenizer.token(2);
 					if (network == null || !networkCode.equals(network.getCode())) {
 						network = new Network();
 						network.setCode(networkCode);
@@ -108,7 +106,7 @@ public class RespIO {
 
 				if (line.startsWith("B052")) {
 					it.rewind();
-					Channel temp = readChannel(it);
+					Channel temp = readChannel(it, tokenizer);
 					if (temp == null) {
 						throw new IOException(
 								"Error reading channel information, expected a channel but received null");
@@ -133,12 +131,13 @@ public class RespIO {
 					channel.setResponse(response);
 				}
 
-				String value = line.substring(2, 4).trim();
-				int type = 0;
+				int type = tokenizer.reset(line).blockette();
+				if (type < 0) {
+					throw new IOException("Invalid Resp format, expected B0XX but was " + line);
+				}
 				try {
 					it.rewind();
-					type = Integer.parseInt(value);
-					RespReader respReader = ResponseTypeReaderFactory.create(type);
+					RespReader respReader = ResponseTypeReaderFactory.create(type, tokenizer);
 					ResponseType responseType = respReader.read(it);
 					if (responseType == null) {
 						throw new IOException("Failed to read response of type:" + type);
@@ -174,13 +173,12 @@ public class RespIO {
 
 	}
 
-	private static Channel readChannel(Iterator<String> it) throws IOException {
-		String B052F03 = "B052F03";
-		String B052F04 = "B052F04";
-		String B052F22 = "B052F22";
-		String B052F23 = "B052F23";
+	private static Channel readChannel(Iterator<String> it, RespLineTokenizer tokenizer) throws IOException {
 		try {
-			Map<String, String> pairs = new HashMap<>();
+			String location = null;
+			String code = null;
+			String start = null;
+			String end = null;
 			int expectedNUmberOfLines = 4;
 
 			int index = 0;
@@ -189,64 +187,56 @@ public class RespIO {
 				if (line == null || line.startsWith("#")) {
 					throw new IOException();
 				}
-				String[] array = line.split(":", 2);
-				if (array.length < 2) {
-					throw new IOException("Invalid Resp format, expected startDate but was empty");
-				}
-				String value = null;
-				if (array.length == 2) {
-					value = array[1];
-				}
-				array = array[0].split("\\s+");
-				if (array.length < 1) {
-					throw new IOException();
+				tokenizer.reset(line);
+				switch (tokenizer.field(52)) {
+				case 3:
+					location = tokenizer.value();
+					break;
+				case 4:
+					code = tokenizer.value();
+					break;
+				case 22:
+					start = tokenizer.value();
+					break;
+				case 23:
+					end = tokenizer.value();
+					break;
+				default:
+					break;
 				}
-				pairs.put(array[0], value);
 				index++;
 			}
 
 			Channel channel = new Channel();
-			String value = pairs.get(B052F03);
-			if (value == null || value.trim().isEmpty()) {
+			if (location == null) {
 				throw new IOException("Couldn't determine location");
 			}
-			value = value.trim();
-			if ("??".equalsIgnoreCase(value)) {
-				value = "";
+			if ("??".equalsIgnoreCase(location)) {
+				location = "";
 			}
-			channel.setLocationCode(value);
-			value = extractValue(pairs.get(B052F04));
-			if (value == null || value.trim().isEmpty()) {
+			channel.setLocationCode(location);
+			if (code == null) {
 				throw new IOException("Couldn't determine code");
 			}
-			channel.setCode(value);
-			value = extractValue(pairs.get(B052F22));
-			if (value.isEmpty()) {
+			channel.setCode(code);
+			if (start == null) {
 				throw new IOException("Invalid Resp format, expected startDate but was empty");
 			}
-			ZonedDateTime start = parseDateTime(value);
-			if (start == null) {
+			ZonedDateTime startDate = parseDateTime(start);
+			if (startDate == null) {
 				throw new IOException("Expected a valid starttime but was null or empty");
 			}
-			channel.setStartDate(start);
-			value = pairs.get(B052F23);
-			if (value == null || value.trim().isEmpty()) {
+			channel.setStartDate(startDate);
+			if (end == null) {
 				throw new IOException("Couldn't determine stage sequence number");
 			}
-			channel.setEndDate(parseDateTime(value));
+			channel.setEndDate(parseDateTime(end));
 			return channel;
 		} catch (NumberFormatException e) {
 			throw new IOException(e);
 		}
 	}
 
-	static String extractValue(String value) throws IOException {
-		if (value == null) {
-			return null;
-		}
-		return value.trim();
-	}
-
 	static ZonedDateTime parseDateTime(String value) {
 		if (value == null) {
 			return null;
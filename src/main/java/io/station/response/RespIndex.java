@@ -0,0 +1,520 @@
+package io.station.response;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import io.station.model.Channel;
+import io.station.model.Network;
+import io.station.model.Station;
+import io.station.response.reader.RespLineTokenizer;
+import io.station.response.util.RespChannelReader;
+
+/**
+ * The byte ranges of the channel epochs of a RESP file, keyed by
+ * NET.STA.LOC.CHA. The file is scanned once, looking only at the B050 and B052
+ * lines, and a lookup then reads and parses the matching epochs only, with
+ * {@link RespChannelReader}. An epoch starts at its B050F03 line, or at its
+ * first B052 line when the station lines are not repeated, and ends where the
+ * next one starts.
+ * <p>
+ * The index can be saved to a sidecar file, {@link #open(Path)} loads it
+ * instead of scanning as long as the size and modification time of the RESP
+ * file did not change.
+ * <p>
+ * An index keeps the RESP file open until closed, lookups are thread safe.
+ */
+public class RespIndex implements Closeable {
+
+	private static final int MAGIC = 0x52494458; // RIDX
+	private static final int VERSION = 1;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final Path path;
+	private final FileChannel fileChannel;
+	private final long size;
+	private final long lastModified;
+	private final List<Entry> entries;
+	private final Map<String, List<Entry>> keys = new HashMap<>();
+
+	private RespIndex(Path path, FileChannel fileChannel, long size, long lastModified, List<Entry> entries) {
+		this.path = path;
+		this.fileChannel = fileChannel;
+		this.size = size;
+		this.lastModified = lastModified;
+		this.entries = Collections.unmodifiableList(entries);
+		for (Entry entry : entries) {
+			keys.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(entry);
+		}
+	}
+
+	/**
+	 * Opens the index of path from its sidecar file, see {@link #sidecar(Path)}.
+	 */
+	public static RespIndex open(Path path) throws IOException {
+		Objects.requireNonNull(path, "path cannot be null.");
+		return open(path, sidecar(path));
+	}
+
+	/**
+	 * Loads the index of path from sidecar, or scans path and saves the index to
+	 * sidecar when sidecar is missing or out of date.
+	 */
+	public static RespIndex open(Path path, Path sidecar) throws IOException {
+		Objects.requireNonNull(path, "path cannot be null.");
+		Objects.requireNonNull(sidecar, "sidecar cannot be null.");
+		if (Files.isReadable(sidecar)) {
+			RespIndex index = load(path, sidecar);
+			if (index != null) {
+				return index;
+			}
+		}
+		RespIndex index = scan(path);
+		try {
+			index.save(sidecar);
+		} catch (IOException | RuntimeException e) {
+			index.close();
+			throw e;
+		}
+		return index;
+	}
+
+	/**
+	 * @return path with .idx appended to its file name.
+	 */
+	public static Path sidecar(Path path) {
+		Objects.requireNonNull(path, "path cannot be null.");
+		return path.resolveSibling(path.getFileName() + ".idx");
+	}
+
+	/**
+	 * Indexes path without looking for or writing a sidecar file.
+	 */
+	public static RespIndex scan(Path path) throws IOException {
+		Objects.requireNonNull(path, "path cannot be null.");
+		RespFile.validateFile(path.toFile());
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return new RespIndex(path, fileChannel, attributes.size(), attributes.lastModifiedTime().toMillis(),
+					new Scanner().scan(fileChannel));
+		} catch (IOException | RuntimeException e) {
+			fileChannel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the index read from sidecar, null if sidecar was written for a
+	 *         different version of path.
+	 */
+	private static RespIndex load(Path path, Path sidecar) throws IOException {
+		RespFile.validateFile(path.toFile());
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		List<Entry> entries;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != attributes.size()
+					|| in.readLong() != attributes.lastModifiedTime().toMillis()) {
+				return null;
+			}
+			String[][] codes = new String[in.readInt()][];
+			for (int i = 0; i < codes.length; i++) {
+				codes[i] = new String[] { in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF() };
+			}
+			int count = in.readInt();
+			entries = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				String[] c = codes[in.readInt()];
+				long offset = in.readLong();
+				int length = in.readInt();
+				entries.add(new Entry(c[0], c[1], c[2], c[3], offset, length, in.readLong(), in.readLong()));
+			}
+		}
+		return new RespIndex(path, FileChannel.open(path, StandardOpenOption.READ), attributes.size(),
+				attributes.lastModifiedTime().toMillis(), entries);
+	}
+
+	/**
+	 * Writes the index to sidecar, through a temporary file moved in place so
+	 * that readers never see a partial index.
+	 */
+	public void save(Path sidecar) throws IOException {
+		Objects.requireNonNull(sidecar, "sidecar cannot be null.");
+		Map<String, Integer> ids = new LinkedHashMap<>();
+		List<Entry> first = new ArrayList<>();
+		for (Entry entry : entries) {
+			if (ids.putIfAbsent(entry.getKey(), ids.size()) == null) {
+				first.add(entry);
+			}
+		}
+		Path temp = Files.createTempFile(sidecar.toAbsolutePath().getParent(), sidecar.getFileName().toString(),
+				".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(size);
+				out.writeLong(lastModified);
+				out.writeInt(first.size());
+				for (Entry entry : first) {
+					out.writeUTF(entry.network);
+					out.writeUTF(entry.station);
+					out.writeUTF(entry.location);
+					out.writeUTF(entry.channel);
+				}
+				out.writeInt(entries.size());
+				for (Entry entry : entries) {
+					out.writeInt(ids.get(entry.getKey()));
+					out.writeLong(entry.offset);
+					out.writeInt(entry.length);
+					out.writeLong(entry.start);
+					out.writeLong(entry.end);
+				}
+			}
+			Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * @return the epochs in file order.
+	 */
+	public List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * @param location null, empty or ?? for channels without location code.
+	 * @return the epochs of the channel in file order, empty if none.
+	 */
+	public List<Entry> getEntries(String network, String station, String location, String channel) {
+		List<Entry> list = keys.get(key(network, station, location, channel));
+		return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Reads every epoch of the channel.
+	 */
+	public List<Channel> find(String network, String station, String location, String channel) throws IOException {
+		List<Channel> channels = new ArrayList<>();
+		for (Entry entry : getEntries(network, station, location, channel)) {
+			channels.add(read(entry));
+		}
+		return channels;
+	}
+
+	/**
+	 * Reads the epochs of the channel active at time.
+	 */
+	public List<Channel> find(String network, String station, String location, String channel, ZonedDateTime time)
+			throws IOException {
+		Objects.requireNonNull(time, "time cannot be null.");
+		long millis = time.toInstant().toEpochMilli();
+		List<Channel> channels = new ArrayList<>();
+		for (Entry entry : getEntries(network, station, location, channel)) {
+			if (entry.isActive(millis)) {
+				channels.add(read(entry));
+			}
+		}
+		return channels;
+	}
+
+	/**
+	 * Reads and parses the byte range of entry.
+	 */
+	public Channel read(Entry entry) throws IOException {
+		Objects.requireNonNull(entry, "entry cannot be null.");
+		ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+		while (buffer.hasRemaining()) {
+			if (fileChannel.read(buffer, entry.offset + buffer.position()) < 0) {
+				throw new EOFException("Expected " + entry.length + " bytes at " + entry.offset + " in " + path
+						+ " but found " + buffer.position() + ", the file changed since it was indexed");
+			}
+		}
+		Channel channel;
+		try {
+			channel = new RespChannelReader(new ByteArrayInputStream(buffer.array())).readNext();
+		} catch (RuntimeException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw e;
+		}
+		if (channel == null) {
+			throw new IOException("Expected a channel at " + entry.offset + " in " + path + " but found none");
+		}
+		if (channel.getStation() == null) {
+			Network network = new Network();
+			network.setCode(entry.network);
+			Station station = new Station();
+			station.setCode(entry.station);
+			station.setNetwork(network);
+			network.addStation(station);
+			channel.setStation(station);
+		}
+		return channel;
+	}
+
+	private static String key(String network, String station, String location, String channel) {
+		if (location == null || "??".equals(location)) {
+			location = "";
+		}
+		return network + "." + station + "." + location + "." + channel;
+	}
+
+	@Override
+	public void close() throws IOException {
+		fileChannel.close();
+	}
+
+	/**
+	 * The byte range of a channel epoch.
+	 */
+	public static final class Entry {
+		private final String network;
+		private final String station;
+		private final String location;
+		private final String channel;
+		private final long offset;
+		private final int length;
+		private final long start;
+		private final long end;
+
+		Entry(String network, String station, String location, String channel, long offset, int length, long start,
+				long end) {
+			this.network = network;
+			this.station = station;
+			this.location = location;
+			this.channel = channel;
+			this.offset = offset;
+			this.length = length;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * @return NET.STA.LOC.CHA, LOC is empty for channels without location
+		 *         code.
+		 */
+		public String getKey() {
+			return key(network, station, location, channel);
+		}
+
+		public String getNetwork() {
+			return network;
+		}
+
+		public String getStation() {
+			return station;
+		}
+
+		public String getLocation() {
+			return location;
+		}
+
+		public String getChannel() {
+			return channel;
+		}
+
+		public long getOffset() {
+			return offset;
+		}
+
+		public int getLength() {
+			return length;
+		}
+
+		public ZonedDateTime getStartDate() {
+			return ZonedDateTime.ofInstant(Instant.ofEpochMilli(start), ZoneOffset.UTC);
+		}
+
+		/**
+		 * @return null for open epochs.
+		 */
+		public ZonedDateTime getEndDate() {
+			return end == Long.MAX_VALUE ? null : ZonedDateTime.ofInstant(Instant.ofEpochMilli(end), ZoneOffset.UTC);
+		}
+
+		/**
+		 * @return true if start <= millis < end.
+		 */
+		boolean isActive(long millis) {
+			return start <= millis && millis < end;
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + " " + getStartDate() + " " + getEndDate() + " [" + offset + "+" + length + "]";
+		}
+	}
+
+	/**
+	 * Finds the epochs of a file, reading it in blocks and decoding the B050 and
+	 * B052 lines only.
+	 */
+	private static class Scanner {
+		private final List<Entry> entries = new ArrayList<>();
+		private final RespLineTokenizer tokenizer = new RespLineTokenizer();
+		private byte[] line = new byte[256];
+		private int lineLength;
+
+		private String network;
+		private String station;
+		// the B050 line starting the next epoch, -1 if none
+		private long headerStart = -1;
+		private boolean header;
+
+		// the open epoch, offset is -1 if none
+		private long offset = -1;
+		private String epochNetwork;
+		private String epochStation;
+		private String location;
+		private String channel;
+		private String startDate;
+		private String endDate;
+
+		List<Entry> scan(FileChannel fileChannel) throws IOException {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			long position = 0;
+			long lineStart = 0;
+			while (fileChannel.read(buffer, position) > 0) {
+				buffer.flip();
+				byte[] bytes = buffer.array();
+				int limit = buffer.limit();
+				for (int i = 0; i < limit; i++) {
+					byte b = bytes[i];
+					if (b == '\n') {
+						line(lineStart);
+						lineStart = position + i + 1;
+						lineLength = 0;
+					} else {
+						if (lineLength == line.length) {
+							byte[] temp = new byte[2 * line.length];
+							System.arraycopy(line, 0, temp, 0, lineLength);
+							line = temp;
+						}
+						line[lineLength++] = b;
+					}
+				}
+				position += limit;
+				buffer.clear();
+			}
+			if (lineLength > 0) {
+				line(lineStart);
+			}
+			close(position);
+			return entries;
+		}
+
+		private void line(long lineStart) throws IOException {
+			int i = 0;
+			while (i < lineLength && line[i] <= ' ') {
+				i++;
+			}
+			if (i == lineLength || line[i] == '#') {
+				return;
+			}
+			boolean b05 = i + 3 < lineLength && line[i] == 'B' && line[i + 1] == '0' && line[i + 2] == '5';
+			if (b05 && line[i + 3] == '0') {
+				header = false;
+				if (headerStart < 0) {
+					headerStart = lineStart;
+				}
+				tokenizer.reset(new String(line, 0, lineLength, StandardCharsets.ISO_8859_1));
+				int field = tokenizer.field(50);
+				if ((field == 3 || field == 16) && tokenizer.size() < 3) {
+					throw new IOException("Invalid Resp format, expected to find a code at index 2 but found none");
+				}
+				if (field == 3) {
+					station = tokenizer.token(2);
+				} else if (field == 16) {
+					network = tokenizer.token(2);
+				}
+				return;
+			}
+			if (b05 && line[i + 3] == '2') {
+				if (!header) {
+					long start = headerStart < 0 ? lineStart : headerStart;
+					close(start);
+					offset = start;
+					epochNetwork = network == null ? "" : network;
+					epochStation = station == null ? "" : station;
+					location = channel = startDate = endDate = null;
+					header = true;
+				}
+				tokenizer.reset(new String(line, 0, lineLength, StandardCharsets.ISO_8859_1));
+				switch (tokenizer.field(52)) {
+				case 3:
+					location = tokenizer.value();
+					break;
+				case 4:
+					channel = tokenizer.value();
+					break;
+				case 22:
+					startDate = tokenizer.value();
+					break;
+				case 23:
+					endDate = tokenizer.value();
+					break;
+				default:
+					break;
+				}
+				return;
+			}
+			header = false;
+			headerStart = -1;
+		}
+
+		private void close(long end) throws IOException {
+			if (offset < 0) {
+				return;
+			}
+			if (location == null) {
+				throw new IOException("Couldn't determine location at " + offset);
+			}
+			if (channel == null) {
+				throw new IOException("Couldn't determine code at " + offset);
+			}
+			ZonedDateTime start = RespIO.parseDateTime(startDate);
+			if (start == null) {
+				throw new IOException("Invalid Resp format, expected startDate at " + offset + " but was empty");
+			}
+			if (end - offset > Integer.MAX_VALUE) {
+				throw new IOException("Epoch at " + offset + " is longer than " + Integer.MAX_VALUE + " bytes");
+			}
+			ZonedDateTime stop = RespIO.parseDateTime(endDate);
+			entries.add(new Entry(epochNetwork, epochStation, "??".equals(location) ? "" : location, channel,
+					offset, (int) (end - offset), start.toInstant().toEpochMilli(),
+					stop == null ? Long.MAX_VALUE : stop.toInstant().toEpochMilli()));
+			offset = -1;
+		}
+	}
+}
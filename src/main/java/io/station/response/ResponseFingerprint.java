@@ -0,0 +1,287 @@
+package io.station.response;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import io.station.model.Coefficients;
+import io.station.model.Decimation;
+import io.station.model.Denominator;
+import io.station.model.FIR;
+import io.station.model.FloatType;
+import io.station.model.Gain;
+import io.station.model.Numerator;
+import io.station.model.PoleZero;
+import io.station.model.PolesZeros;
+import io.station.model.Polynomial;
+import io.station.model.Polynomial.Coefficient;
+import io.station.model.Response;
+import io.station.model.ResponseList;
+import io.station.model.ResponseListElement;
+import io.station.model.ResponseStage;
+import io.station.model.Sensitivity;
+
+/**
+ * SHA-256 of the values a {@link NormalizedResponse} is computed from: the
+ * instrument sensitivity and polynomial and, for every stage, its gain,
+ * decimation, filter values and units. Two responses with the same
+ * fingerprint normalize to the same gains and normalization factors whatever
+ * channel they belong to.
+ */
+public final class ResponseFingerprint {
+
+	private final byte[] digest;
+	private final int hashCode;
+
+	private ResponseFingerprint(byte[] digest) {
+		this.digest = digest;
+		this.hashCode = Arrays.hashCode(digest);
+	}
+
+	public static ResponseFingerprint of(Response response) {
+		Objects.requireNonNull(response, "response cannot be null.");
+		Hasher hasher = new Hasher();
+		hasher.add('S');
+		add(hasher, response.getInstrumentSensitivity());
+		hasher.add('Y');
+		add(hasher, response.getInstrumentPolynomial());
+		List<ResponseStage> stages = response.getStages();
+		if (stages != null) {
+			for (ResponseStage stage : stages) {
+				hasher.add('#');
+				hasher.add(stage.getNumber());
+				hasher.add('G');
+				add(hasher, stage.getStageGain());
+				hasher.add('D');
+				add(hasher, stage.getDecimation());
+				hasher.add('P');
+				add(hasher, stage.getPolesZeros());
+				hasher.add('C');
+				add(hasher, stage.getCoefficients());
+				hasher.add('L');
+				add(hasher, stage.getResponseList());
+				hasher.add('F');
+				add(hasher, stage.getFIR());
+				hasher.add('Y');
+				add(hasher, stage.getPolynomial());
+			}
+		}
+		return new ResponseFingerprint(hasher.digest.digest());
+	}
+
+	private static void add(Hasher hasher, Gain gain) {
+		if (hasher.isNull(gain)) {
+			return;
+		}
+		hasher.add(gain.getValue());
+		hasher.add(gain.getFrequency());
+		if (gain instanceof Sensitivity) {
+			hasher.add('U');
+			hasher.add(((Sensitivity) gain).getInputUnits());
+			hasher.add(((Sensitivity) gain).getOutputUnits());
+		}
+	}
+
+	private static void add(Hasher hasher, Decimation decimation) {
+		if (hasher.isNull(decimation)) {
+			return;
+		}
+		add(hasher, decimation.getInputSampleRate());
+		hasher.add(decimation.getFactor());
+		hasher.add(decimation.getOffset());
+		add(hasher, decimation.getDelay());
+		add(hasher, decimation.getCorrection());
+	}
+
+	private static void add(Hasher hasher, PolesZeros polesZeros) {
+		if (hasher.isNull(polesZeros)) {
+			return;
+		}
+		hasher.add(polesZeros.getPzTransferFunctionType());
+		hasher.add(polesZeros.getInputUnits());
+		hasher.add(polesZeros.getOutputUnits());
+		hasher.add(polesZeros.getNormalizationFactor());
+		add(hasher, polesZeros.getNormalizationFrequency());
+		addPoleZeros(hasher, polesZeros.getZero());
+		addPoleZeros(hasher, polesZeros.getPole());
+	}
+
+	private static void addPoleZeros(Hasher hasher, List<PoleZero> list) {
+		if (hasher.isNull(list)) {
+			return;
+		}
+		hasher.add(list.size());
+		for (PoleZero poleZero : list) {
+			hasher.add(poleZero.getReal());
+			hasher.add(poleZero.getImaginary());
+		}
+	}
+
+	private static void add(Hasher hasher, Coefficients coefficients) {
+		if (hasher.isNull(coefficients)) {
+			return;
+		}
+		hasher.add(coefficients.getCfTransferFunctionType());
+		hasher.add(coefficients.getInputUnits());
+		hasher.add(coefficients.getOutputUnits());
+		addNumerators(hasher, coefficients.getNumerators());
+		List<Denominator> denominators = coefficients.getDenominators();
+		if (hasher.isNull(denominators)) {
+			return;
+		}
+		hasher.add(denominators.size());
+		for (Denominator denominator : denominators) {
+			hasher.add(denominator.getValue());
+		}
+	}
+
+	private static void addNumerators(Hasher hasher, List<Numerator> numerators) {
+		if (hasher.isNull(numerators)) {
+			return;
+		}
+		hasher.add(numerators.size());
+		for (Numerator numerator : numerators) {
+			hasher.add(numerator.getValue());
+		}
+	}
+
+	private static void add(Hasher hasher, ResponseList responseList) {
+		if (hasher.isNull(responseList)) {
+			return;
+		}
+		hasher.add(responseList.getInputUnits());
+		hasher.add(responseList.getOutputUnits());
+		List<ResponseListElement> elements = responseList.getResponseListElement();
+		if (hasher.isNull(elements)) {
+			return;
+		}
+		hasher.add(elements.size());
+		for (ResponseListElement element : elements) {
+			hasher.add(element.getFrequency() == null ? null : element.getFrequency().getValue());
+			hasher.add(element.getAmplitude() == null ? null : element.getAmplitude().getValue());
+			hasher.add(element.getPhase() == null ? null : element.getPhase().getValue());
+		}
+	}
+
+	private static void add(Hasher hasher, FIR fir) {
+		if (hasher.isNull(fir)) {
+			return;
+		}
+		hasher.add(fir.getSymmetry());
+		hasher.add(fir.getInputUnits());
+		hasher.add(fir.getOutputUnits());
+		addNumerators(hasher, fir.getNumerators());
+	}
+
+	private static void add(Hasher hasher, Polynomial polynomial) {
+		if (hasher.isNull(polynomial)) {
+			return;
+		}
+		hasher.add(polynomial.getInputUnits());
+		hasher.add(polynomial.getOutputUnits());
+		add(hasher, polynomial.getFrequencyLowerBound());
+		add(hasher, polynomial.getFrequencyUpperBound());
+		hasher.add(polynomial.getApproximationLowerBound());
+		hasher.add(polynomial.getApproximationUpperBound());
+		hasher.add(polynomial.getMaximumError());
+		List<Coefficient> coefficients = polynomial.getCoefficient();
+		if (hasher.isNull(coefficients)) {
+			return;
+		}
+		hasher.add(coefficients.size());
+		for (Coefficient coefficient : coefficients) {
+			hasher.add(coefficient.getValue());
+		}
+	}
+
+	private static void add(Hasher hasher, FloatType floatType) {
+		if (hasher.isNull(floatType)) {
+			return;
+		}
+		hasher.add(floatType.getValue());
+		hasher.add(floatType.getUnit());
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ResponseFingerprint)) {
+			return false;
+		}
+		return Arrays.equals(digest, ((ResponseFingerprint) obj).digest);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%064x", new BigInteger(1, digest));
+	}
+
+	/**
+	 * Feeds tagged values to the digest, null is hashed as a single 0 byte and
+	 * non null values are preceded by a 1 so that a missing value never
+	 * collides with a present one.
+	 */
+	private static class Hasher {
+
+		private final MessageDigest digest;
+		private final byte[] buffer = new byte[8];
+
+		Hasher() {
+			try {
+				this.digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				// every Java platform is required to support SHA-256
+				throw new IllegalStateException(e);
+			}
+		}
+
+		boolean isNull(Object value) {
+			digest.update((byte) (value == null ? 0 : 1));
+			return value == null;
+		}
+
+		void add(char tag) {
+			digest.update((byte) tag);
+		}
+
+		void add(int value) {
+			for (int i = 0; i < 4; i++) {
+				buffer[i] = (byte) (value >>> (24 - 8 * i));
+			}
+			digest.update(buffer, 0, 4);
+		}
+
+		void add(double value) {
+			long bits = Double.doubleToLongBits(value);
+			for (int i = 0; i < 8; i++) {
+				buffer[i] = (byte) (bits >>> (56 - 8 * i));
+			}
+			digest.update(buffer, 0, 8);
+		}
+
+		void add(Number value) {
+			if (!isNull(value)) {
+				add(value.doubleValue());
+			}
+		}
+
+		void add(Object value) {
+			if (!isNull(value)) {
+				byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+				add(bytes.length);
+				digest.update(bytes);
+			}
+		}
+	}
+}
@@ -1,7 +1,9 @@
 package io.station.response;
 
+import java.nio.DoubleBuffer;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -109,11 +111,19 @@ public class ResponseSpectrum {
 		return map.values().stream().collect(Collectors.toCollection(ArrayList::new));
 	}
 
-	public void add(int stageNumber, Gain stageGain, int index, Complex c) {
+	void add(int stageNumber, Gain stageGain, int index, Complex c) {
 		Objects.requireNonNull(c, "complex cannot be null");
-		if (c.isNaN()) {
+		add(stageNumber, stageGain, index, c.getReal(), c.getImaginary());
+	}
+
+	void add(int stageNumber, Gain stageGain, int index, double real, double imaginary) {
+		if (Double.isNaN(real) || Double.isNaN(imaginary)) {
 			throw new IllegalArgumentException("stageNumber:" + stageNumber + ", at index:" + index + " cannot be NaN");
 		}
+		getOrCreate(stageNumber, stageGain).add(index, real, imaginary);
+	}
+
+	StageSpectrum getOrCreate(int stageNumber, Gain stageGain) {
 		StageSpectrum stageSpectrum = map.get(stageNumber);
 		if (stageSpectrum == null) {
 			if (stageGain == null) {
@@ -122,7 +132,17 @@ public class ResponseSpectrum {
 			stageSpectrum = new StageSpectrum(this, stageNumber, stageGain);
 			map.put(stageNumber, stageSpectrum);
 		}
-		stageSpectrum.add(index, c);
+		return stageSpectrum;
+	}
+
+	/**
+	 * Adds a stage spectrum holding the given arrays, which are not copied.
+	 */
+	void put(int stageNumber, Gain stageGain, double[] real, double[] imaginary) {
+		if (stageGain == null) {
+			stageGain = StageGain.valueOf(1, 0);
+		}
+		map.put(stageNumber, new StageSpectrum(this, stageNumber, stageGain, real, imaginary));
 	}
 
 	public Unit<?> getInputUnit() {
@@ -163,30 +183,90 @@ public class ResponseSpectrum {
 		return stageSpectrum.get(index);
 	}
 
+	/**
+	 * @return a read-only view of the real parts of the stage spectrum, or null
+	 *         if there is no such stage.
+	 */
+	public DoubleBuffer getReal(int stageNumber) {
+		StageSpectrum stageSpectrum = map.get(stageNumber);
+		if (stageSpectrum == null) {
+			return null;
+		}
+		return stageSpectrum.getReal();
+	}
+
+	/**
+	 * @return a read-only view of the imaginary parts of the stage spectrum, or
+	 *         null if there is no such stage.
+	 */
+	public DoubleBuffer getImaginary(int stageNumber) {
+		StageSpectrum stageSpectrum = map.get(stageNumber);
+		if (stageSpectrum == null) {
+			return null;
+		}
+		return stageSpectrum.getImaginary();
+	}
+
 	public int size() {
 		return this.map.size();
 	}
 
+	/**
+	 * @return a spectrum for the channel of normalizedResponse sharing the stage
+	 *         arrays of this one until either is written to, normalizedResponse
+	 *         must have the same {@link ResponseFingerprint} and frequencySet the
+	 *         same values.
+	 */
+	ResponseSpectrum rebind(NormalizedResponse normalizedResponse, FrequencySet frequencySet) {
+		ResponseSpectrum responseSpectrum = new ResponseSpectrum(normalizedResponse, frequencySet);
+		for (StageSpectrum stageSpectrum : map.values()) {
+			StageSpectrum view = responseSpectrum.new StageSpectrum(responseSpectrum, stageSpectrum.stageNumber,
+					stageSpectrum.stageGain, stageSpectrum.real, stageSpectrum.imaginary);
+			view.shared = true;
+			stageSpectrum.shared = true;
+			responseSpectrum.map.put(stageSpectrum.stageNumber, view);
+		}
+		return responseSpectrum;
+	}
+
 	public Complex[] calculateTotalSpectrum() {
-		Complex[] array = new Complex[frequencySet.size()];
+		double[] real = new double[frequencySet.size()];
+		double[] imaginary = new double[frequencySet.size()];
+		calculateTotalSpectrum(real, imaginary);
+		return toComplex(real, imaginary);
+	}
 
-		for (int i = 0; i < array.length; i++) {
-			Complex c = new Complex(1, 0);
-			for (StageSpectrum stageSpectra : map.values()) {
-				c = c.multiply(stageSpectra.get(i));
+	/**
+	 * Multiplies all stage spectra into the given arrays, which must hold at
+	 * least one value per frequency.
+	 */
+	public void calculateTotalSpectrum(double[] real, double[] imaginary) {
+		int length = frequencySet.size();
+		Arrays.fill(real, 0, length, 1.0);
+		Arrays.fill(imaginary, 0, length, 0.0);
+		for (StageSpectrum stageSpectra : map.values()) {
+			double[] sr = stageSpectra.real;
+			double[] si = stageSpectra.imaginary;
+			for (int i = 0; i < length; i++) {
+				double r = real[i];
+				double m = imaginary[i];
+				real[i] = r * sr[i] - m * si[i];
+				imaginary[i] = r * si[i] + m * sr[i];
 			}
-			array[i] = c;
 		}
-		return array;
 	}
 
 	public Complex calculateStageSpectrum(int index) {
-		Complex c = new Complex(1, 0);
-
+		double r = 1.0;
+		double m = 0.0;
 		for (StageSpectrum stageSpectra : map.values()) {
-			c = c.multiply(stageSpectra.get(index));
+			double sr = stageSpectra.real[index];
+			double si = stageSpectra.imaginary[index];
+			double t = r * sr - m * si;
+			m = r * si + m * sr;
+			r = t;
 		}
-		return c;
+		return new Complex(r, m);
 	}
 
 	public Complex[][] asDisplacement() {
@@ -208,6 +288,20 @@ public class ResponseSpectrum {
 		return stageSpectrum.asDisplacement();
 	}
 
+	/**
+	 * Writes the displacement spectrum of the given stage into the given arrays.
+	 * 
+	 * @return false if there is no such stage.
+	 */
+	public boolean asDisplacement(int stageNumber, double[] real, double[] imaginary) {
+		StageSpectrum stageSpectrum = map.get(stageNumber);
+		if (stageSpectrum == null) {
+			return false;
+		}
+		stageSpectrum.asDisplacement(real, imaginary);
+		return true;
+	}
+
 	public Complex[] asAcceleration(int stageNumber) {
 		StageSpectrum stageSpectrum = map.get(stageNumber);
 		if (stageSpectrum == null) {
@@ -216,17 +310,175 @@ public class ResponseSpectrum {
 		return stageSpectrum.asAcceleration();
 	}
 
+	/**
+	 * Writes the acceleration spectrum of the given stage into the given arrays.
+	 * 
+	 * @return false if there is no such stage.
+	 */
+	public boolean asAcceleration(int stageNumber, double[] real, double[] imaginary) {
+		StageSpectrum stageSpectrum = map.get(stageNumber);
+		if (stageSpectrum == null) {
+			return false;
+		}
+		stageSpectrum.asAcceleration(real, imaginary);
+		return true;
+	}
+
+	/**
+	 * Writes the amplitude and phase of the total spectrum, converted to motion,
+	 * into the given arrays without building the complex spectrum. Same values as
+	 * {@link EvalRespUtil#ampPase(Complex[], boolean)} of the converted
+	 * {@link #calculateTotalSpectrum()}.
+	 *
+	 * @param decibels        if true amplitudes are written as 20 log10(amplitude).
+	 * @param radians         if true phases are written in radians, degrees
+	 *                        otherwise.
+	 * @param unwrapPhaseFlag if true phases are unwrapped, the first one being
+	 *                        made non negative.
+	 * @param amplitude       must hold at least one value per frequency.
+	 * @param phase           must hold at least one value per frequency.
+	 */
+	public void ampPhase(Motion motion, boolean decibels, boolean radians, boolean unwrapPhaseFlag,
+			double[] amplitude, double[] phase) {
+		double[][] reals = new double[map.size()][];
+		double[][] imaginaries = new double[map.size()][];
+		int i = 0;
+		for (StageSpectrum stageSpectrum : map.values()) {
+			reals[i] = stageSpectrum.real;
+			imaginaries[i] = stageSpectrum.imaginary;
+			i++;
+		}
+		ampPhase(reals, imaginaries, 0, reals.length, frequencySet.getValues(), frequencySet.size(),
+				power(getInputUnit(), motion), decibels, radians, unwrapPhaseFlag, amplitude, phase);
+	}
+
+	/**
+	 * Same as {@link #ampPhase(Motion, boolean, boolean, boolean, double[], double[])}
+	 * for a single stage.
+	 *
+	 * @return false if there is no such stage.
+	 */
+	public boolean ampPhase(int stageNumber, Motion motion, boolean decibels, boolean radians,
+			boolean unwrapPhaseFlag, double[] amplitude, double[] phase) {
+		StageSpectrum stageSpectrum = map.get(stageNumber);
+		if (stageSpectrum == null) {
+			return false;
+		}
+		ampPhase(new double[][] { stageSpectrum.real }, new double[][] { stageSpectrum.imaginary }, 0, 1,
+				frequencySet.getValues(), frequencySet.size(), power(getInputUnit(), motion), decibels, radians,
+				unwrapPhaseFlag, amplitude, phase);
+		return true;
+	}
+
+	/**
+	 * @return the power of iω the response to inputUnit is multiplied by to
+	 *         express it against motion.
+	 */
+	static int power(Unit<?> inputUnit, Motion motion) {
+		Objects.requireNonNull(motion, "motion cannot be null.");
+		return Motion.of(inputUnit).ordinal() - motion.ordinal();
+	}
+
+	/**
+	 * Writes amplitude and phase of the product of planes from (inclusive) to to
+	 * (exclusive), multiplied by (iω)^power, for the first length frequencies.
+	 * Does not allocate.
+	 */
+	static void ampPhase(double[][] reals, double[][] imaginaries, int from, int to, double[] frequencies,
+			int length, int power, boolean decibels, boolean radians, boolean unwrapPhaseFlag, double[] amplitude,
+			double[] phase) {
+		Objects.requireNonNull(amplitude, "amplitude cannot be null.");
+		Objects.requireNonNull(phase, "phase cannot be null.");
+		if (amplitude.length < length || phase.length < length) {
+			throw new IllegalArgumentException("Expected buffers of at least " + length + " values but found "
+					+ amplitude.length + " and " + phase.length);
+		}
+		double offset = 0.0;
+		double previous = 0.0;
+		for (int i = 0; i < length; i++) {
+			double r = 1.0;
+			double m = 0.0;
+			for (int s = from; s < to; s++) {
+				double sr = reals[s][i];
+				double si = imaginaries[s][i];
+				double t = r * sr - m * si;
+				m = r * si + m * sr;
+				r = t;
+			}
+			double w = 2 * Math.PI * frequencies[i];
+			if (power == 1) {
+				double t = -m * w;
+				m = r * w;
+				r = t;
+			} else if (power == 2) {
+				r *= -w * w;
+				m *= -w * w;
+			} else if (power < 0 && w == 0.0) {
+				r = m = 0;
+			} else if (power == -1) {
+				double t = m / w;
+				m = -r / w;
+				r = t;
+			} else if (power == -2) {
+				r /= -w * w;
+				m /= -w * w;
+			}
+			double a = Math.sqrt(r * r + m * m);
+			amplitude[i] = decibels ? 20 * Math.log10(a) : a;
+			double degrees = Math.atan2(m, r + 1.0e-200) * 180.0 / Math.PI;
+			if (unwrapPhaseFlag) {
+				// same as EvalRespUtil.unwrapPhaseArray(phase, true) without the copy
+				degrees += offset;
+				if (i == 0) {
+					if (degrees < 0.0) {
+						degrees += 360.0;
+						offset = 360.0;
+					}
+				} else if (degrees - previous > 180.0) {
+					offset -= 360.0;
+					degrees -= 360.0;
+				} else if (degrees - previous < -180.0) {
+					offset += 360.0;
+					degrees += 360.0;
+				}
+				previous = degrees;
+			}
+			phase[i] = radians ? Math.toRadians(degrees) : degrees;
+		}
+	}
+
+	private static Complex[] toComplex(double[] real, double[] imaginary) {
+		Complex[] array = new Complex[real.length];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = new Complex(real[i], imaginary[i]);
+		}
+		return array;
+	}
+
 	class StageSpectrum {
 		private ResponseSpectrum response;
 		int stageNumber;
 		Gain stageGain;
-		Complex[] array;
+		double[] real;
+		double[] imaginary;
+		// set once the arrays are shared with a rebound spectrum, copied on write
+		boolean shared;
 
 		StageSpectrum(ResponseSpectrum response, int stageNumber, Gain stageGain) {
 			this.response = response;
 			this.stageNumber = stageNumber;
 			this.stageGain = stageGain;
-			array = new Complex[response.frequencySet.size()];
+			real = new double[response.frequencySet.size()];
+			imaginary = new double[response.frequencySet.size()];
+		}
+
+		StageSpectrum(ResponseSpectrum response, int stageNumber, Gain stageGain, double[] real,
+				double[] imaginary) {
+			this.response = response;
+			this.stageNumber = stageNumber;
+			this.stageGain = stageGain;
+			this.real = real;
+			this.imaginary = imaginary;
 		}
 
 		Gain getStageGain() {
@@ -235,15 +487,33 @@ public class ResponseSpectrum {
 
 		void add(int index, Complex element) {
 			Objects.requireNonNull(element, "Complex element cannot be null.");
-			array[index] = element;
+			add(index, element.getReal(), element.getImaginary());
+		}
+
+		void add(int index, double real, double imaginary) {
+			if (shared) {
+				this.real = this.real.clone();
+				this.imaginary = this.imaginary.clone();
+				shared = false;
+			}
+			this.real[index] = real;
+			this.imaginary[index] = imaginary;
 		}
 
 		Complex get(int index) {
-			return array[index];
+			return new Complex(real[index], imaginary[index]);
 		}
 
 		Complex[] getAll() {
-			return array;
+			return toComplex(real, imaginary);
+		}
+
+		DoubleBuffer getReal() {
+			return DoubleBuffer.wrap(real).asReadOnlyBuffer();
+		}
+
+		DoubleBuffer getImaginary() {
+			return DoubleBuffer.wrap(imaginary).asReadOnlyBuffer();
 		}
 
 		int getStageNumber() {
@@ -251,7 +521,7 @@ public class ResponseSpectrum {
 		}
 
 		int size() {
-			return array == null ? 0 : array.length;
+			return real == null ? 0 : real.length;
 		}
 
 		/**
@@ -266,15 +536,9 @@ public class ResponseSpectrum {
 		protected double[][] calculatePhase(double listInterpTension, boolean listInterpOutFlag,
 				boolean unwrapPhaseFlag) throws Exception {
 
-			double[][] phaseArray = new double[2][];
-			for (int i = 0; i < array.length; i++) {
-				Complex complex = this.array[i];
-				phaseArray[1][i] = complex.abs();
-				phaseArray[1][i] = Math
-						.sqrt(complex.getReal() * complex.getReal() + complex.getImaginary() * complex.getImaginary());
-				// ampPhaseArray[1][i] = Math.atan2(complex.getImaginary(), complex.getReal() +
-				// 1.0e-200) * 180.0
-				// / Math.PI;
+			double[][] phaseArray = new double[2][size()];
+			for (int i = 0; i < phaseArray[1].length; i++) {
+				phaseArray[1][i] = Math.sqrt(real[i] * real[i] + imaginary[i] * imaginary[i]);
 			}
 
 			if (listInterpOutFlag) { // interpolate amp/phase values generated via List blockette
@@ -322,56 +586,78 @@ public class ResponseSpectrum {
 		}
 
 		public Complex[] asDisplacement() {
-			Complex[] array = new Complex[size()];
-			for (int index = 0; index < array.length; index++) {
-				Complex ofNum = this.array[index];
+			double[] re = new double[size()];
+			double[] im = new double[size()];
+			asDisplacement(re, im);
+			return toComplex(re, im);
+		}
+
+		void asDisplacement(double[] outReal, double[] outImaginary) {
+			Unit<?> inputUnit = response.getInputUnit();
+			boolean displacement = StationUnits.isDisplacement(inputUnit);
+			boolean acceleration = !displacement && StationUnits.isAcceleration(inputUnit);
+			for (int index = 0; index < real.length; index++) {
+				double r = real[index];
+				double m = imaginary[index];
 				double wVal = 2 * Math.PI * frequencySet.get(index);
-				if (StationUnits.isDisplacement(response.getInputUnit())) {
+				if (displacement) {
 					// convert to velocity
 					if (wVal != 0.0) {
-						ofNum = ofNum.multiply(new Complex(0, -1 / wVal));
+						double f = -1 / wVal;
+						double t = r * 0 - m * f;
+						m = r * f + m * 0;
+						r = t;
 					} else {
-						ofNum = new Complex(0, 0);// .real = ofNum.imag = 0.0;
+						r = m = 0;
 					}
-				} else if (StationUnits.isAcceleration(response.getInputUnit())) {
-					// convert to velocity
+				} else if (acceleration) {
 					// if input unit is 'accel' then convert to 'velocity':
-					ofNum = new Complex(0, wVal);
+					r = 0;
+					m = wVal;
 				}
-
-				ofNum = ofNum.multiply(new Complex(0, wVal));
-				array[index] = ofNum;
+				outReal[index] = r * 0 - m * wVal;
+				outImaginary[index] = r * wVal + m * 0;
 			}
-			return array;
 		}
 
 		public Complex[] asAcceleration() {
-			Complex[] array = new Complex[size()];
-			for (int index = 0; index < map.size(); index++) {
-				Complex ofNum = array[index];
+			double[] re = new double[size()];
+			double[] im = new double[size()];
+			asAcceleration(re, im);
+			return toComplex(re, im);
+		}
+
+		void asAcceleration(double[] outReal, double[] outImaginary) {
+			Unit<?> inputUnit = response.getInputUnit();
+			boolean displacement = StationUnits.isDisplacement(inputUnit);
+			boolean acceleration = !displacement && StationUnits.isAcceleration(inputUnit);
+			for (int index = 0; index < real.length; index++) {
+				double r = real[index];
+				double m = imaginary[index];
 				double wVal = 2 * Math.PI * frequencySet.get(index);
-				if (StationUnits.isDisplacement(response.getInputUnit())) {
+				if (displacement) {
 					// convert to velocity
 					if (wVal != 0.0) {
-						ofNum = ofNum.multiply(new Complex(0, -1 / wVal));
+						double f = -1 / wVal;
+						double t = r * 0 - m * f;
+						m = r * f + m * 0;
+						r = t;
 					} else {
-						ofNum = new Complex(0, 0);// .real = ofNum.imag = 0.0;
+						r = m = 0;
 					}
-				} else if (StationUnits.isAcceleration(response.getInputUnit())) {
-					// convert to velocity
+				} else if (acceleration) {
 					// if input unit is 'accel' then convert to 'velocity':
-					ofNum = new Complex(0, wVal);
+					r = 0;
+					m = wVal;
 				}
-
 				if (wVal != 0.0) {
-					ofNum = ofNum.multiply(new Complex(0.0, -1.0 / wVal));
+					double f = -1.0 / wVal;
+					outReal[index] = r * 0 - m * f;
+					outImaginary[index] = r * f + m * 0;
 				} else {
-					ofNum = new Complex(0, 0);
+					outReal[index] = outImaginary[index] = 0;
 				}
-
-				array[index] = ofNum;
 			}
-			return array;
 		}
 	}
 }
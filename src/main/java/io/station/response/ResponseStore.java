@@ -0,0 +1,214 @@
+package io.station.response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import io.station.response.kernel.KernelCodec;
+
+/**
+ * A file of {@link CompiledResponse}s in binary form, written once in bulk and
+ * memory mapped to be read. Opening a store maps the file and reads its
+ * header, a response is decoded from the mapping when it is asked for. The
+ * decoded plans evaluate to the same bits as the plans written.
+ * <p>
+ * The file starts with a magic number, the format version and the number of
+ * responses, followed by the offset of every response and the responses
+ * themselves, see {@link CompiledResponse#write(java.io.DataOutput)}. Files are
+ * limited to 2GB, the size of a single mapping.
+ * <p>
+ * A store is thread safe.
+ */
+public class ResponseStore {
+
+	private static final int MAGIC = 0x5253544f; // RSTO
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 12;
+
+	private final Path path;
+	private final ByteBuffer buffer;
+	private final int size;
+	private volatile Map<String, int[]> keys;
+
+	private ResponseStore(Path path, ByteBuffer buffer, int size) {
+		this.path = path;
+		this.buffer = buffer;
+		this.size = size;
+	}
+
+	/**
+	 * Writes responses to path, replacing it. The file is deleted if writing
+	 * fails.
+	 *
+	 * @return the number of responses written.
+	 */
+	public static int write(Path path, Iterable<CompiledResponse> responses) throws IOException {
+		Objects.requireNonNull(path, "path cannot be null.");
+		Objects.requireNonNull(responses, "responses cannot be null.");
+		List<CompiledResponse> list = new ArrayList<>();
+		for (CompiledResponse response : responses) {
+			list.add(Objects.requireNonNull(response, "response cannot be null."));
+		}
+		FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try (FileChannel channel = fileChannel) {
+			ByteBuffer offsets = ByteBuffer.allocate(HEADER_SIZE + 8 * list.size());
+			offsets.putInt(MAGIC).putInt(VERSION).putInt(list.size());
+			long position = offsets.capacity();
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+			DataOutputStream out = new DataOutputStream(bytes);
+			for (CompiledResponse response : list) {
+				bytes.reset();
+				response.write(out);
+				out.flush();
+				if (position + bytes.size() > Integer.MAX_VALUE) {
+					throw new IOException("Store is larger than " + Integer.MAX_VALUE + " bytes");
+				}
+				offsets.putLong(position);
+				position += writeFully(channel, ByteBuffer.wrap(bytes.toByteArray()), position);
+			}
+			offsets.flip();
+			writeFully(channel, offsets, 0);
+		} catch (IOException | RuntimeException e) {
+			// without its header the file is no store
+			Files.deleteIfExists(path);
+			throw e;
+		}
+		return list.size();
+	}
+
+	private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		int length = buffer.remaining();
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+		return length;
+	}
+
+	public static ResponseStore open(Path path) throws IOException {
+		Objects.requireNonNull(path, "path cannot be null.");
+		RespFile.validateFile(path.toFile());
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long length = channel.size();
+			if (length > Integer.MAX_VALUE) {
+				throw new IOException("Store " + path + " of " + length + " bytes is larger than " + Integer.MAX_VALUE);
+			}
+			if (length < HEADER_SIZE) {
+				throw new IOException("Expected a response store but " + path + " has " + length + " bytes");
+			}
+			// the mapping stays valid once the channel is closed
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+			if (buffer.getInt(0) != MAGIC) {
+				throw new IOException("Expected a response store but " + path + " has no magic number");
+			}
+			if (buffer.getInt(4) != VERSION) {
+				throw new IOException("Expected version " + VERSION + " but " + path + " is version "
+						+ buffer.getInt(4));
+			}
+			int size = buffer.getInt(8);
+			if (size < 0 || HEADER_SIZE + 8L * size > length) {
+				throw new IOException("Invalid response count " + size + " in " + path);
+			}
+			return new ResponseStore(path, buffer, size);
+		}
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * @return the number of responses.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Decodes the response at index, every call decodes it again.
+	 *
+	 * @throws IOException if the response is corrupt.
+	 */
+	public CompiledResponse get(int index) throws IOException {
+		ByteBuffer record = record(index);
+		try {
+			return CompiledResponse.read(record);
+		} catch (IOException | RuntimeException e) {
+			throw new IOException("Invalid response " + index + " in " + path, e);
+		}
+	}
+
+	private ByteBuffer record(int index) throws IOException {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + " but found " + size + " responses");
+		}
+		long offset = buffer.getLong(HEADER_SIZE + 8 * index);
+		if (offset < HEADER_SIZE + 8L * size || offset >= buffer.limit()) {
+			throw new IOException("Invalid response " + index + " in " + path + ", offset " + offset
+					+ " is out of the file");
+		}
+		ByteBuffer record = buffer.duplicate();
+		record.position((int) offset);
+		return record;
+	}
+
+	/**
+	 * Decodes the epochs of the channel, in store order. The network, station,
+	 * location and channel codes of every response are read on the first call.
+	 *
+	 * @param location null, blank or ?? for channels without location code.
+	 */
+	public List<CompiledResponse> find(String network, String station, String location, String channel)
+			throws IOException {
+		int[] indexes = keys().get(EpochIndex.key(network, station, location, channel));
+		if (indexes == null) {
+			return Collections.emptyList();
+		}
+		List<CompiledResponse> responses = new ArrayList<>(indexes.length);
+		for (int index : indexes) {
+			responses.add(get(index));
+		}
+		return responses;
+	}
+
+	private Map<String, int[]> keys() throws IOException {
+		Map<String, int[]> result = keys;
+		if (result == null) {
+			result = new HashMap<>();
+			for (int i = 0; i < size; i++) {
+				ByteBuffer record = record(i);
+				String key;
+				try {
+					key = EpochIndex.key(KernelCodec.readString(record), KernelCodec.readString(record),
+							KernelCodec.readString(record), KernelCodec.readString(record));
+				} catch (RuntimeException e) {
+					throw new IOException("Invalid response " + i + " in " + path, e);
+				}
+				int[] indexes = result.get(key);
+				if (indexes == null) {
+					indexes = new int[] { i };
+				} else {
+					indexes = Arrays.copyOf(indexes, indexes.length + 1);
+					indexes[indexes.length - 1] = i;
+				}
+				result.put(key, indexes);
+			}
+			keys = result;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,212 @@
+package io.station.response;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.station.response.util.FrequencySet;
+
+/**
+ * Memoizes {@link ResponseSpectrum} by {@link ResponseFingerprint},
+ * {@link EvaluationMode} and frequency values. Lookups do not lock, every call
+ * returns a spectrum bound to the caller's channel and {@link FrequencySet}
+ * that shares its stage arrays with the cached one until it is written to, the
+ * cached spectrum itself is never handed out.
+ * <p>
+ * The cache is bounded by an estimate of the bytes held by the stage arrays,
+ * once over budget the least recently used entries are evicted. With soft
+ * values the spectra can also be reclaimed by the garbage collector under
+ * memory pressure.
+ */
+public class SpectrumCache {
+
+	private final long maximumBytes;
+	private final boolean softValues;
+	private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong bytes = new AtomicLong();
+	private final AtomicLong clock = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public SpectrumCache(long maximumBytes) {
+		this(maximumBytes, false);
+	}
+
+	/**
+	 * @param maximumBytes budget for the stage arrays of the cached spectra.
+	 * @param softValues   if true spectra are held through
+	 *                     {@link SoftReference}s.
+	 */
+	public SpectrumCache(long maximumBytes, boolean softValues) {
+		if (maximumBytes < 1) {
+			throw new IllegalArgumentException("maximumBytes must be positive but was " + maximumBytes);
+		}
+		this.maximumBytes = maximumBytes;
+		this.softValues = softValues;
+	}
+
+	public ResponseSpectrum get(NormalizedResponse normalizedResponse, FrequencySet frequencySet)
+			throws InvalidResponseException {
+		return get(normalizedResponse, frequencySet, EvaluationMode.DIRECT);
+	}
+
+	/**
+	 * Same as {@link EvalResp#calculate(NormalizedResponse, FrequencySet, EvaluationMode)}.
+	 */
+	public ResponseSpectrum get(NormalizedResponse normalizedResponse, FrequencySet frequencySet,
+			EvaluationMode mode) throws InvalidResponseException {
+		Objects.requireNonNull(normalizedResponse, "normalizedResponse cannot be null.");
+		Objects.requireNonNull(frequencySet, "frequencySet cannot be null.");
+		Objects.requireNonNull(mode, "mode cannot be null.");
+		Key key = new Key(normalizedResponse.getFingerprint(), mode, frequencySet.getValues());
+		Entry entry = entries.get(key);
+		if (entry != null) {
+			ResponseSpectrum cached = entry.get();
+			if (cached != null) {
+				entry.lastAccess = clock.incrementAndGet();
+				hits.increment();
+				return cached.rebind(normalizedResponse, frequencySet);
+			}
+			// cleared soft reference
+			remove(key, entry);
+		}
+		misses.increment();
+		ResponseSpectrum responseSpectrum = CompiledResponse.compile(normalizedResponse, mode).evaluate(frequencySet);
+		long weight = weigh(responseSpectrum);
+		if (weight <= maximumBytes) {
+			entry = new Entry(responseSpectrum, weight);
+			entry.lastAccess = clock.incrementAndGet();
+			// the key keeps its own copy, the caller may reuse its array
+			Entry previous = entries.put(new Key(key.fingerprint, mode, key.frequencies.clone()), entry);
+			if (previous != null) {
+				bytes.addAndGet(-previous.weight);
+			}
+			if (bytes.addAndGet(weight) > maximumBytes) {
+				evict();
+			}
+		}
+		return responseSpectrum.rebind(normalizedResponse, frequencySet);
+	}
+
+	private void remove(Key key, Entry entry) {
+		if (entries.remove(key, entry)) {
+			bytes.addAndGet(-entry.weight);
+		}
+	}
+
+	/**
+	 * Removes the least recently used entries until the cache is within budget,
+	 * a linear scan per eviction is cheap next to computing a spectrum.
+	 */
+	private synchronized void evict() {
+		while (bytes.get() > maximumBytes) {
+			Map.Entry<Key, Entry> eldest = null;
+			for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+				if (eldest == null || e.getValue().lastAccess < eldest.getValue().lastAccess) {
+					eldest = e;
+				}
+			}
+			if (eldest == null) {
+				return;
+			}
+			remove(eldest.getKey(), eldest.getValue());
+			evictions.increment();
+		}
+	}
+
+	/**
+	 * @return the estimated size of the stage arrays, two doubles per frequency
+	 *         and stage, plus the key's copy of the frequencies.
+	 */
+	static long weigh(ResponseSpectrum responseSpectrum) {
+		long frequencies = responseSpectrum.getFrequencySet().size();
+		return 8 * frequencies + responseSpectrum.size() * (16 * frequencies + 64);
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return the estimated bytes held by the cached spectra.
+	 */
+	public long getBytes() {
+		return bytes.get();
+	}
+
+	public long getMaximumBytes() {
+		return maximumBytes;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public synchronized void clear() {
+		for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+			remove(e.getKey(), e.getValue());
+		}
+	}
+
+	private class Entry {
+		private final ResponseSpectrum strong;
+		private final SoftReference<ResponseSpectrum> soft;
+		private final long weight;
+		private volatile long lastAccess;
+
+		Entry(ResponseSpectrum responseSpectrum, long weight) {
+			this.strong = softValues ? null : responseSpectrum;
+			this.soft = softValues ? new SoftReference<>(responseSpectrum) : null;
+			this.weight = weight;
+		}
+
+		ResponseSpectrum get() {
+			return soft == null ? strong : soft.get();
+		}
+	}
+
+	private static final class Key {
+		private final ResponseFingerprint fingerprint;
+		private final EvaluationMode mode;
+		private final double[] frequencies;
+		private final int hashCode;
+
+		Key(ResponseFingerprint fingerprint, EvaluationMode mode, double[] frequencies) {
+			this.fingerprint = fingerprint;
+			this.mode = mode;
+			this.frequencies = frequencies;
+			this.hashCode = 31 * (31 * fingerprint.hashCode() + mode.ordinal()) + Arrays.hashCode(frequencies);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return hashCode == other.hashCode && mode == other.mode && fingerprint.equals(other.fingerprint)
+					&& Arrays.equals(frequencies, other.frequencies);
+		}
+	}
+}
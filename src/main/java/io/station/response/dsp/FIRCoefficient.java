@@ -2,9 +2,6 @@ package io.station.response.dsp;
 
 import java.util.List;
 
-import javax.measure.Quantity;
-import javax.measure.quantity.Time;
-
 import org.apache.commons.math3.util.FastMath;
 
 import io.station.math.ComplexType;
@@ -17,6 +14,7 @@ import io.station.model.Numerator;
 import io.station.model.PoleZero;
 import io.station.model.StageGain;
 import io.station.model.Symmetry;
+import io.station.response.ResolvedDecimation;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -24,11 +22,13 @@ public class FIRCoefficient implements TransferFunction {
 	private FIR fir;
 	private StageGain stageGain;
 	private Decimation decimation;
+	private ResolvedDecimation resolvedDecimation;
 
 	public FIRCoefficient(FIR fir, StageGain stageGain, Decimation decimation) {
 		this.fir = fir;
 		this.stageGain = stageGain;
 		this.decimation = decimation;
+		this.resolvedDecimation = ResolvedDecimation.of(decimation);
 	}
 
 	@Override
@@ -49,9 +49,7 @@ public class FIRCoefficient implements TransferFunction {
 		if (decimation == null) {
 
 		}
-		Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-
-		double interval = samplingInterval.getValue().doubleValue();
+		double interval = resolvedDecimation.getSamplingInterval();
 		double w = interval * 2 * Math.PI * frequency;
 
 		ComplexType ct = null;
@@ -72,6 +70,17 @@ public class FIRCoefficient implements TransferFunction {
 		return ct.multiply(factor);
 	}
 
+	/**
+	 * Same as {@link #transform(double)} for every frequency, see
+	 * {@link FiniteImpulseResponse#transform(double[], double[], double[])}.
+	 */
+	@Override
+	public void transform(double[] frequencies, double[] real, double[] imaginary) {
+		FiniteImpulseResponse.transform(fir.getNumerators(), fir.getSymmetry(), resolvedDecimation,
+				(stageGain == null || stageGain.getValue() == null) ? 1.0 : stageGain.getValue(), frequencies, real,
+				imaginary);
+	}
+
 	private ComplexType none(List<Numerator> numerators, double w, int M, int start, int end) {
 		ComplexType ct = new ComplexType(0.0);
 		for (int n = start; n < end; n++) {
@@ -82,9 +91,7 @@ public class FIRCoefficient implements TransferFunction {
 
 	// http://pioneer.netserv.chula.ac.th/~nsuvit/423/Ch7(2)Handouts_3e.pdf
 	private ComplexType odd1(double frequency, double factor) {
-		Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-
-		double interval = samplingInterval.getValue().doubleValue();
+		double interval = resolvedDecimation.getSamplingInterval();
 		double w = interval * 2 * Math.PI * frequency;
 
 		List<Numerator> numerators = fir.getNumerators();
@@ -102,9 +109,7 @@ public class FIRCoefficient implements TransferFunction {
 
 	// http://eeweb.poly.edu/iselesni/EL713/zoom/linphase.pdf
 	private ComplexType odd(double frequency, double factor) {
-		Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-
-		double interval = samplingInterval.getValue().doubleValue();
+		double interval = resolvedDecimation.getSamplingInterval();
 		double w = interval * 2 * Math.PI * frequency;
 
 		List<Numerator> numerators = fir.getNumerators();
@@ -123,9 +128,7 @@ public class FIRCoefficient implements TransferFunction {
 
 	// http://eeweb.poly.edu/iselesni/EL713/zoom/linphase.pdf
 	private ComplexType even(double frequency, double factor) {
-		Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-
-		double interval = samplingInterval.getValue().doubleValue();
+		double interval = resolvedDecimation.getSamplingInterval();
 		double w = interval * 2 * Math.PI * frequency;
 
 		List<Numerator> numerators = fir.getNumerators();
@@ -140,7 +143,6 @@ public class FIRCoefficient implements TransferFunction {
 			ct = ct.add(numerators.get(index).doubleValue() * FastMath.cos((M - index) * w));
 			// ct = ct.add(z.multiply(numerators.get(index).doubleValue() * FastMath.cos((M
 			// - index) * w)));
-			System.out.println("numerators.get(" + index + ").doubleValue() * FastMath.cos(" + (M - index) + " * w)");
 		}
 		return ct.multiply(2);// .multiply(new ComplexType(FastMath.cos(angle),FastMath.sin(angle)));
 	}
@@ -157,9 +159,7 @@ public class FIRCoefficient implements TransferFunction {
 		if (decimation == null) {
 
 		}
-		Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-
-		double interval = samplingInterval.getValue().doubleValue();
+		double interval = resolvedDecimation.getSamplingInterval();
 		double w = interval * 2 * Math.PI * frequency;
 
 		ComplexType numerator = new ComplexType(0.0);
@@ -1,10 +1,8 @@
 package io.station.response.dsp;
 
+import java.util.Arrays;
 import java.util.List;
 
-import javax.measure.Quantity;
-import javax.measure.quantity.Time;
-
 import org.apache.commons.math3.util.FastMath;
 
 import io.station.math.ComplexType;
@@ -13,17 +11,20 @@ import io.station.model.FIR;
 import io.station.model.Numerator;
 import io.station.model.StageGain;
 import io.station.model.Symmetry;
+import io.station.response.ResolvedDecimation;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class FiniteImpulseResponse implements TransferFunction {
 	private FIR fir;
 	private Decimation decimation;
+	private ResolvedDecimation resolvedDecimation;
 	private StageGain stageGain;
 
 	FiniteImpulseResponse(FIR fir, Decimation decimation, StageGain stageGain) {
 		this.fir = fir;
 		this.decimation = decimation;
+		this.resolvedDecimation = ResolvedDecimation.of(decimation);
 		this.stageGain = stageGain;
 	}
 
@@ -45,9 +46,7 @@ public class FiniteImpulseResponse implements TransferFunction {
 		if (decimation == null) {
 
 		}
-		Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-
-		double interval = samplingInterval.getValue().doubleValue();
+		double interval = resolvedDecimation.getSamplingInterval();
 		double w = interval * 2 * Math.PI * frequency;
 
 		ComplexType ct = null;
@@ -68,6 +67,77 @@ public class FiniteImpulseResponse implements TransferFunction {
 		return ct.multiply(factor);
 	}
 
+	/**
+	 * Same as {@link #transform(double)} for every frequency. The sampling
+	 * interval, coefficient values and symmetry are resolved once, the
+	 * coefficients are then applied to the whole frequency array one at a time.
+	 */
+	@Override
+	public void transform(double[] frequencies, double[] real, double[] imaginary) {
+		transform(fir.getNumerators(), fir.getSymmetry(), resolvedDecimation,
+				(stageGain == null || stageGain.getValue() == null) ? 1.0 : stageGain.getValue(), frequencies, real,
+				imaginary);
+	}
+
+	static void transform(List<Numerator> numerators, Symmetry symmetry, ResolvedDecimation decimation,
+			double factor, double[] frequencies, double[] real, double[] imaginary) {
+		final int n = frequencies.length;
+		Arrays.fill(imaginary, 0, n, 0.0);
+		Arrays.fill(real, 0, n, 0.0);
+		if (numerators == null || numerators.isEmpty()) {
+			return;
+		}
+		double[] c = new double[numerators.size()];
+		for (int index = 0; index < c.length; index++) {
+			c[index] = numerators.get(index).doubleValue();
+		}
+		double interval = decimation.getSamplingInterval();
+		double[] w = new double[n];
+		for (int i = 0; i < n; i++) {
+			w[i] = interval * 2 * Math.PI * frequencies[i];
+		}
+
+		if (Symmetry.EVEN == symmetry) {
+			int M = c.length;
+			for (int index = 0; index < M; index++) {
+				final double value = c[index];
+				final int k = M - index;
+				for (int i = 0; i < n; i++) {
+					real[i] += value * FastMath.cos(k * w[i]);
+				}
+			}
+			for (int i = 0; i < n; i++) {
+				real[i] = real[i] * 2 * factor;
+			}
+		} else if (Symmetry.ODD == symmetry) {
+			int M = c.length - 1;
+			for (int index = 0; index < M; index++) {
+				final double value = c[index];
+				final int k = M - index;
+				for (int i = 0; i < n; i++) {
+					real[i] += value * FastMath.cos(k * w[i]);
+				}
+			}
+			final double center = c[M];
+			for (int i = 0; i < n; i++) {
+				real[i] = (real[i] * 2 + center) * factor;
+			}
+		} else {
+			int M = (c.length - 1) / 2;
+			int end = (c.length % 2 == 0) ? (c.length / 2) - 1 : M - 1;
+			for (int index = 0; index < end; index++) {
+				final double value = c[index];
+				final int k = M - index;
+				for (int i = 0; i < n; i++) {
+					real[i] += value * FastMath.sin(k * w[i]);
+				}
+			}
+			for (int i = 0; i < n; i++) {
+				real[i] = real[i] * 2 * factor;
+			}
+		}
+	}
+
 	private ComplexType none(List<Numerator> numerators, double w, int M, int start, int end) {
 		ComplexType ct = new ComplexType(0.0);
 		for (int n = start; n < end; n++) {
@@ -78,9 +148,7 @@ public class FiniteImpulseResponse implements TransferFunction {
 
 	// http://pioneer.netserv.chula.ac.th/~nsuvit/423/Ch7(2)Handouts_3e.pdf
 	private ComplexType odd1(double frequency, double factor) {
-		Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-
-		double interval = samplingInterval.getValue().doubleValue();
+		double interval = resolvedDecimation.getSamplingInterval();
 		double w = interval * 2 * Math.PI * frequency;
 
 		List<Numerator> numerators = fir.getNumerators();
@@ -98,9 +166,7 @@ public class FiniteImpulseResponse implements TransferFunction {
 
 	// http://eeweb.poly.edu/iselesni/EL713/zoom/linphase.pdf
 	private ComplexType odd(double frequency, double factor) {
-		Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-
-		double interval = samplingInterval.getValue().doubleValue();
+		double interval = resolvedDecimation.getSamplingInterval();
 		double w = interval * 2 * Math.PI * frequency;
 
 		List<Numerator> numerators = fir.getNumerators();
@@ -119,9 +185,7 @@ public class FiniteImpulseResponse implements TransferFunction {
 
 	// http://eeweb.poly.edu/iselesni/EL713/zoom/linphase.pdf
 	private ComplexType even(double frequency, double factor) {
-		Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-
-		double interval = samplingInterval.getValue().doubleValue();
+		double interval = resolvedDecimation.getSamplingInterval();
 		double w = interval * 2 * Math.PI * frequency;
 
 		List<Numerator> numerators = fir.getNumerators();
@@ -136,7 +200,6 @@ public class FiniteImpulseResponse implements TransferFunction {
 			ct = ct.add(numerators.get(index).doubleValue() * FastMath.cos((M - index) * w));
 			// ct = ct.add(z.multiply(numerators.get(index).doubleValue() * FastMath.cos((M
 			// - index) * w)));
-			System.out.println("numerators.get(" + index + ").doubleValue() * FastMath.cos(" + (M - index) + " * w)");
 		}
 		return ct.multiply(2);// .multiply(new ComplexType(FastMath.cos(angle),FastMath.sin(angle)));
 	}
@@ -153,9 +216,7 @@ public class FiniteImpulseResponse implements TransferFunction {
 		if (decimation == null) {
 
 		}
-		Quantity<Time> samplingInterval = decimation.getInputSampleRate().calculateSamplingInterval();
-
-		double interval = samplingInterval.getValue().doubleValue();
+		double interval = resolvedDecimation.getSamplingInterval();
 		double w = interval * 2 * Math.PI * frequency;
 
 		ComplexType numerator = new ComplexType(0.0);
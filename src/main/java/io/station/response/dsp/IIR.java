@@ -1,11 +1,9 @@
 package io.station.response.dsp;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
-import javax.measure.Quantity;
-import javax.measure.quantity.Time;
-
 import org.apache.commons.math3.complex.Complex;
 import org.apache.commons.math3.util.FastMath;
 
@@ -19,6 +17,7 @@ import io.station.model.PolesZeros;
 import io.station.model.PzTransferFunctionType;
 import io.station.model.ResponseStage;
 import io.station.model.StageGain;
+import io.station.response.ResolvedDecimation;
 import io.station.response.dsp.PolesZerosIIR.PolesZerosIIRBuilder;
 import lombok.extern.slf4j.Slf4j;
 
@@ -37,6 +36,7 @@ public class IIR implements TransferFunction {
 	private PolesZeros polesZeros;
 	private StageGain stageGain;
 	private Decimation decimation;
+	private ResolvedDecimation resolvedDecimation;
 
 	public IIR(PolesZeros polesZeros, StageGain stageGain, Decimation decimation) {
 		Objects.requireNonNull(polesZeros, "polesZeros cannot be null.");
@@ -49,6 +49,7 @@ public class IIR implements TransferFunction {
 		this.polesZeros = polesZeros;
 		this.stageGain = stageGain;
 		this.decimation = decimation;
+		this.resolvedDecimation = ResolvedDecimation.of(decimation);
 	}
 
 	@Override
@@ -72,9 +73,9 @@ public class IIR implements TransferFunction {
 		if (decimation == null) {
 
 		}
-		Quantity<Time> i = decimation.getInputSampleRate().calculateSamplingInterval();
+		double i = resolvedDecimation.getSamplingInterval();
 		// s = i 2 π f
-		double w = i.getValue().doubleValue() * 2 * Math.PI * polesZeros.getNormalizationFrequency().getValue();// frequency;
+		double w = i * 2 * Math.PI * polesZeros.getNormalizationFrequency().getValue();// frequency;
 
 		ComplexType z = new ComplexType(Math.cos(w), Math.sin(w));
 
@@ -102,6 +103,20 @@ public class IIR implements TransferFunction {
 
 	}
 
+	/**
+	 * The response is evaluated at the normalization frequency of the stage and
+	 * does not depend on the requested frequency, it is computed once and copied.
+	 */
+	@Override
+	public void transform(double[] frequencies, double[] real, double[] imaginary) {
+		if (frequencies.length == 0) {
+			return;
+		}
+		ComplexType ct = transform(frequencies[0]);
+		Arrays.fill(real, 0, frequencies.length, ct.getReal());
+		Arrays.fill(imaginary, 0, frequencies.length, ct.getImaginary());
+	}
+
 	public ComplexType transform1(double frequency, double factor) {
 
 		if (log.isDebugEnabled()) {
@@ -116,9 +131,9 @@ public class IIR implements TransferFunction {
 		if (decimation == null) {
 
 		}
-		Quantity<Time> i = decimation.getInputSampleRate().calculateSamplingInterval();
+		double i = resolvedDecimation.getSamplingInterval();
 		// s = i 2 π f
-		double w = i.getValue().doubleValue() * 2 * Math.PI * frequency;
+		double w = i * 2 * Math.PI * frequency;
 
 		double amplitude = 1.0;
 		double phase = 0.0;
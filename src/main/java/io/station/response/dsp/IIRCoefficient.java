@@ -2,9 +2,6 @@ package io.station.response.dsp;
 
 import java.util.List;
 
-import javax.measure.Quantity;
-import javax.measure.quantity.Time;
-
 import org.apache.commons.math3.util.FastMath;
 
 import io.station.math.ComplexType;
@@ -15,6 +12,7 @@ import io.station.model.FIRType;
 import io.station.model.Numerator;
 import io.station.model.PoleZero;
 import io.station.model.StageGain;
+import io.station.response.ResolvedDecimation;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -22,11 +20,13 @@ public class IIRCoefficient implements TransferFunction {
 	private FIRType firType;
 	private StageGain stageGain;
 	private Decimation decimation;
+	private ResolvedDecimation resolvedDecimation;
 
 	public IIRCoefficient(FIRType firType, StageGain stageGain, Decimation decimation) {
 		this.firType = firType;
 		this.stageGain = stageGain;
 		this.decimation = decimation;
+		this.resolvedDecimation = ResolvedDecimation.of(decimation);
 	}
 
 	@Override
@@ -47,15 +47,16 @@ public class IIRCoefficient implements TransferFunction {
 		if (decimation == null) {
 
 		}
-		Quantity<Time> i = decimation.getInputSampleRate().calculateSamplingInterval();
-		System.out.println("i the interval: " + i.getValue());
+		double i = resolvedDecimation.getSamplingInterval();
+		if (log.isDebugEnabled()) {
+			log.debug("i the interval: {}", i);
+		}
 		// s = i 2 π f
-		double w = i.getValue().doubleValue() * 2 * Math.PI * frequency;
+		double w = i * 2 * Math.PI * frequency;
 
 		List<Numerator> numerators = firType.getNumerators();
 
 		ComplexType numerator = new ComplexType(numerators.get(0).getValue(), 0.0);
-		System.out.println("numerator[0]" + numerator);
 		double zeros = 1.0;
 		for (int index = 1; index < numerators.size(); index++) {
 			ComplexType ct = new ComplexType(w, w).cis(index);// z.reciprocal()
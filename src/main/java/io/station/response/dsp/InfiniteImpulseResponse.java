@@ -1,11 +1,9 @@
 package io.station.response.dsp;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
-import javax.measure.Quantity;
-import javax.measure.quantity.Time;
-
 import org.apache.commons.math3.util.FastMath;
 
 import io.station.math.ComplexType;
@@ -17,6 +15,7 @@ import io.station.model.PoleZero;
 import io.station.model.PolesZeros;
 import io.station.model.PzTransferFunctionType;
 import io.station.model.StageGain;
+import io.station.response.ResolvedDecimation;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -26,12 +25,14 @@ public class InfiniteImpulseResponse implements TransferFunction {
 	private Coefficients coefficients;
 	private StageGain stageGain;
 	private Decimation decimation;
+	private ResolvedDecimation resolvedDecimation;
 
 	public InfiniteImpulseResponse(Coefficients coefficients, StageGain stageGain, Decimation decimation) {
 		Objects.requireNonNull(coefficients, "coefficients cannot be null.");
 		this.coefficients = coefficients;
 		this.stageGain = stageGain;
 		this.decimation = decimation;
+		this.resolvedDecimation = ResolvedDecimation.of(decimation);
 	}
 
 	public InfiniteImpulseResponse(PolesZeros polesZeros, StageGain stageGain, Decimation decimation) {
@@ -43,6 +44,7 @@ public class InfiniteImpulseResponse implements TransferFunction {
 		this.polesZeros = polesZeros;
 		this.stageGain = stageGain;
 		this.decimation = decimation;
+		this.resolvedDecimation = ResolvedDecimation.of(decimation);
 	}
 
 	@Override
@@ -64,13 +66,41 @@ public class InfiniteImpulseResponse implements TransferFunction {
 		}
 
 		if (polesZeros != null) {
-			return polesZeros(polesZeros, decimation, stageGain, frequency, factor);
+			return polesZeros(polesZeros, resolvedDecimation, stageGain, frequency, factor);
 		} else {
-			return coefficients(coefficients, decimation, stageGain, frequency, factor);
+			return coefficients(coefficients, resolvedDecimation, stageGain, frequency, factor);
 		}
 	}
 
-	private ComplexType coefficients(Coefficients coefficients, Decimation decimation, StageGain stageGain,
+	/**
+	 * Same as {@link #transform(double)} for every frequency. The sampling
+	 * interval and the coefficient values are resolved once for the whole array;
+	 * a poles/zeros stage is evaluated at its normalization frequency and is
+	 * therefore computed only once.
+	 */
+	@Override
+	public void transform(double[] frequencies, double[] real, double[] imaginary) {
+		if (frequencies.length == 0) {
+			return;
+		}
+		double factor = (stageGain == null || stageGain.getValue() == null) ? 1.0 : stageGain.getValue();
+		if (polesZeros != null) {
+			ComplexType ct = polesZeros(polesZeros, resolvedDecimation, stageGain, frequencies[0], factor);
+			Arrays.fill(real, 0, frequencies.length, ct.getReal());
+			Arrays.fill(imaginary, 0, frequencies.length, ct.getImaginary());
+			return;
+		}
+		double interval = resolvedDecimation.getSamplingInterval();
+		double[] numerators = numerators(coefficients);
+		double[] denominators = denominators(coefficients);
+		for (int i = 0; i < frequencies.length; i++) {
+			ComplexType ct = coefficients(numerators, denominators, interval, frequencies[i], factor);
+			real[i] = ct.getReal();
+			imaginary[i] = ct.getImaginary();
+		}
+	}
+
+	private ComplexType coefficients(Coefficients coefficients, ResolvedDecimation decimation, StageGain stageGain,
 			double frequency, double factor) {
 		if (log.isDebugEnabled()) {
 			log.debug("Running iir with [factor:stageGain:{}], and [frequency:{}]", factor, frequency);
@@ -83,31 +113,35 @@ public class InfiniteImpulseResponse implements TransferFunction {
 		if (decimation == null) {
 
 		}
-		Quantity<Time> i = decimation.getInputSampleRate().calculateSamplingInterval();
-		System.out.println("i the interval: " + i.getValue());
-		// s = i 2 π f
-		double w = i.getValue().doubleValue() * 2 * Math.PI * frequency;
+		double i = decimation.getSamplingInterval();
+		if (log.isDebugEnabled()) {
+			log.debug("i the interval: {}", i);
+		}
+		return coefficients(numerators(coefficients), denominators(coefficients), i,
+				frequency, factor);
+	}
 
-		List<Numerator> numerators = coefficients.getNumerators();
+	private static ComplexType coefficients(double[] numerators, double[] denominators, double interval,
+			double frequency, double factor) {
+		// s = i 2 π f
+		double w = interval * 2 * Math.PI * frequency;
 
-		ComplexType numerator = new ComplexType(numerators.get(0).getValue(), 0.0);
-		System.out.println("numerator[0]" + numerator);
+		ComplexType numerator = new ComplexType(numerators[0], 0.0);
 		double zeros = 1.0;
-		for (int index = 1; index < numerators.size(); index++) {
+		for (int index = 1; index < numerators.length; index++) {
 			ComplexType ct = new ComplexType(w, w).cis(index);// z.reciprocal()
-			numerator = numerator.add(new ComplexType(numerators.get(index).getValue(), 0.0).multiply(ct));
+			numerator = numerator.add(new ComplexType(numerators[index], 0.0).multiply(ct));
 			zeros *= ct.getImaginary() / ct.getReal();
 		}
 
 		double poles = 1.0;
-		List<Denominator> denominators = coefficients.getDenominators();
 		ComplexType denominator = new ComplexType(1.0, 0.0);
-		if (denominators != null && !denominators.isEmpty()) {
+		if (denominators.length > 0) {
 
-			denominator = new ComplexType(numerators.get(0).getValue(), 0.0);
-			for (int index = 1; index < denominators.size(); index++) {
+			denominator = new ComplexType(numerators[0], 0.0);
+			for (int index = 1; index < denominators.length; index++) {
 				ComplexType ct = new ComplexType(w, w).cis(index);// z.reciprocal()
-				denominator = denominator.add(new ComplexType(denominators.get(index).getValue(), 0.0).multiply(ct));
+				denominator = denominator.add(new ComplexType(denominators[index], 0.0).multiply(ct));
 				poles *= ct.getImaginary() / ct.getReal();
 			}
 		}
@@ -118,8 +152,29 @@ public class InfiniteImpulseResponse implements TransferFunction {
 		return new ComplexType(magnitude, Math.sin(phase));
 	}
 
-	private ComplexType polesZeros(PolesZeros polesZeros, Decimation decimation, StageGain stageGain, double frequency,
-			double factor) {
+	private static double[] numerators(Coefficients coefficients) {
+		List<Numerator> list = coefficients.getNumerators();
+		double[] values = new double[list.size()];
+		for (int index = 0; index < values.length; index++) {
+			values[index] = list.get(index).getValue();
+		}
+		return values;
+	}
+
+	private static double[] denominators(Coefficients coefficients) {
+		List<Denominator> list = coefficients.getDenominators();
+		if (list == null) {
+			return new double[0];
+		}
+		double[] values = new double[list.size()];
+		for (int index = 0; index < values.length; index++) {
+			values[index] = list.get(index).getValue();
+		}
+		return values;
+	}
+
+	private ComplexType polesZeros(PolesZeros polesZeros, ResolvedDecimation decimation, StageGain stageGain,
+			double frequency, double factor) {
 
 		if (log.isDebugEnabled()) {
 			log.debug("Running iir with [normalizationFactor:{}], and [frequency:{}]", factor, frequency);
@@ -133,9 +188,9 @@ public class InfiniteImpulseResponse implements TransferFunction {
 		if (decimation == null) {
 
 		}
-		Quantity<Time> i = decimation.getInputSampleRate().calculateSamplingInterval();
+		double i = decimation.getSamplingInterval();
 		// s = i 2 π f
-		double w = i.getValue().doubleValue() * 2 * Math.PI * polesZeros.getNormalizationFrequency().getValue();// frequency;
+		double w = i * 2 * Math.PI * polesZeros.getNormalizationFrequency().getValue();// frequency;
 
 		ComplexType z = new ComplexType(Math.cos(w), Math.sin(w));
 
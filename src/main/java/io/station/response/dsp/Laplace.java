@@ -63,5 +63,54 @@ public class Laplace implements TransferFunction {
 		return new ComplexType(factor * numerator.divide(denominator.conjugate()).abs(),
 				FastMath.atan(zeros) - FastMath.atan(poles));
 	}
+
+	/**
+	 * Same as {@link #transform(double)} for every frequency. The loops run over
+	 * the poles and zeros on the outside so that the inner loops are plain
+	 * arithmetic over the frequency arrays; the modulus is accumulated as a
+	 * product of the factor moduli instead of through complex division.
+	 */
+	@Override
+	public void transform(double[] frequencies, double[] real, double[] imaginary) {
+		Objects.requireNonNull(polesZeros, "polesZeros cannot be null.");
+		if (!polesZeros.isLaplace()) {
+			throw new IllegalArgumentException(
+					"Expected Laplace, but received " + polesZeros.getPzTransferFunctionType());
+		}
+		final double factor = polesZeros.getNormalizationFactor() == null ? 1.0
+				: polesZeros.getNormalizationFactor();
+		final double scale = PzTransferFunctionType.LAPLACE_RADIANS_SECOND == polesZeros.getPzTransferFunctionType()
+				? 2 * Math.PI
+				: 1.0;
+		final int n = frequencies.length;
+		final double[] zeros = new double[n];
+		final double[] poles = new double[n];
+		for (int i = 0; i < n; i++) {
+			real[i] = factor;
+			zeros[i] = 1.0;
+			poles[i] = 1.0;
+		}
+		for (PoleZero zero : polesZeros.getZero()) {
+			final double re = 0.0 - zero.getReal();
+			final double zi = zero.getImaginaryType() == null ? 0.0 : zero.getImaginary();
+			for (int i = 0; i < n; i++) {
+				double im = frequencies[i] * scale - zi;
+				real[i] *= Math.sqrt(re * re + im * im);
+				zeros[i] *= im / re;
+			}
+		}
+		for (PoleZero pole : polesZeros.getPole()) {
+			final double re = 0.0 - pole.getReal();
+			final double pi = pole.getImaginaryType() == null ? 0.0 : pole.getImaginary();
+			for (int i = 0; i < n; i++) {
+				double im = frequencies[i] * scale - pi;
+				real[i] /= Math.sqrt(re * re + im * im);
+				poles[i] *= im / re;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			imaginary[i] = FastMath.atan(zeros[i]) - FastMath.atan(poles[i]);
+		}
+	}
 	
 }
\ No newline at end of file
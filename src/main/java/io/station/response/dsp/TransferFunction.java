@@ -16,6 +16,19 @@ public interface TransferFunction {
 
 	public ComplexType transform(double frequency, double factor);
 
+	/**
+	 * Evaluates the function at every frequency, writing the result for
+	 * frequencies[i] to real[i] and imaginary[i]. Implementations hoist the work
+	 * that does not depend on the frequency out of the loop.
+	 */
+	public default void transform(double[] frequencies, double[] real, double[] imaginary) {
+		for (int i = 0; i < frequencies.length; i++) {
+			ComplexType ct = transform(frequencies[i]);
+			real[i] = ct.getReal();
+			imaginary[i] = ct.getImaginary();
+		}
+	}
+
 	// public ComplexType phase(double frequency);
 
 	/**
@@ -0,0 +1,99 @@
+package io.station.response.kernel;
+
+import org.apache.commons.math3.transform.DftNormalization;
+import org.apache.commons.math3.transform.FastFourierTransformer;
+import org.apache.commons.math3.transform.TransformType;
+
+/**
+ * Bluestein's chirp-z transform: the DTFT of a finite sequence at equally
+ * spaced points of the unit circle, computed through three power of two FFTs.
+ * Unlike a zero padded FFT the points do not have to fall on the FFT grid, so
+ * the response is evaluated exactly at the requested frequencies.
+ */
+final class ChirpZ {
+
+	private ChirpZ() {
+	}
+
+	/**
+	 * Writes sum(x[n] * e^(-i(theta0 + k * dTheta)n)) to real[k] and
+	 * imaginary[k] for k less than m.
+	 */
+	static void transform(double[] x, double theta0, double dTheta, int m, double[] real, double[] imaginary) {
+		final int n = x.length;
+		final int l = size(n, m);
+		final double half = 0.5 * dTheta;
+
+		double[][] y = new double[2][l];
+		for (int i = 0; i < n; i++) {
+			double angle = -(theta0 * i + half * ((long) i * i));
+			y[0][i] = x[i] * Math.cos(angle);
+			y[1][i] = x[i] * Math.sin(angle);
+		}
+		// e^(i dTheta j^2 / 2) for j in (-n, m), wrapped around the circular buffer
+		double[][] b = new double[2][l];
+		for (int j = 0; j < m; j++) {
+			double angle = half * ((long) j * j);
+			b[0][j] = Math.cos(angle);
+			b[1][j] = Math.sin(angle);
+		}
+		for (int j = 1; j < n; j++) {
+			double angle = half * ((long) j * j);
+			b[0][l - j] = Math.cos(angle);
+			b[1][l - j] = Math.sin(angle);
+		}
+
+		FastFourierTransformer.transformInPlace(y, DftNormalization.STANDARD, TransformType.FORWARD);
+		FastFourierTransformer.transformInPlace(b, DftNormalization.STANDARD, TransformType.FORWARD);
+		for (int i = 0; i < l; i++) {
+			double re = y[0][i] * b[0][i] - y[1][i] * b[1][i];
+			double im = y[0][i] * b[1][i] + y[1][i] * b[0][i];
+			y[0][i] = re;
+			y[1][i] = im;
+		}
+		FastFourierTransformer.transformInPlace(y, DftNormalization.STANDARD, TransformType.INVERSE);
+
+		for (int k = 0; k < m; k++) {
+			double angle = -half * ((long) k * k);
+			double cos = Math.cos(angle);
+			double sin = Math.sin(angle);
+			real[k] = y[0][k] * cos - y[1][k] * sin;
+			imaginary[k] = y[0][k] * sin + y[1][k] * cos;
+		}
+	}
+
+	/**
+	 * @return the power of two FFT length needed for a sequence of n values
+	 *         evaluated at m points.
+	 */
+	static int size(int n, int m) {
+		int l = 1;
+		while (l < n + m - 1) {
+			l <<= 1;
+		}
+		return l;
+	}
+
+	/**
+	 * @return true if the frequencies are equally spaced, as produced for
+	 *         {@link io.station.response.FrequencySpacing#LINEAR}.
+	 */
+	static boolean isLinear(double[] frequencies) {
+		final int m = frequencies.length;
+		if (m < 3) {
+			return false;
+		}
+		final double first = frequencies[0];
+		final double step = (frequencies[m - 1] - first) / (m - 1);
+		if (!(step > 0)) {
+			return false;
+		}
+		final double tolerance = 1e-9 * Math.max(Math.abs(first), Math.abs(frequencies[m - 1]));
+		for (int k = 1; k < m - 1; k++) {
+			if (Math.abs(frequencies[k] - (first + k * step)) > tolerance) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,46 @@
+package io.station.response.kernel;
+
+import java.util.Objects;
+
+import org.apache.commons.math3.complex.Complex;
+
+/**
+ * A frequency independent response, used for polynomial stages.
+ */
+public class ConstantKernel implements StageKernel {
+
+	final Complex value;
+
+	public ConstantKernel(Complex value) {
+		this.value = Objects.requireNonNull(value, "value cannot be null.");
+	}
+
+	@Override
+	public Complex transform(double frequency, int index) {
+		return value;
+	}
+
+	@Override
+	public boolean transform(double frequency, int index, double[] real, double[] imaginary, int slot) {
+		real[slot] = value.getReal();
+		imaginary[slot] = value.getImaginary();
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		return value.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ConstantKernel)) {
+			return false;
+		}
+		ConstantKernel other = (ConstantKernel) obj;
+		return value.equals(other.value);
+	}
+}
@@ -0,0 +1,70 @@
+package io.station.response.kernel;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.commons.math3.complex.Complex;
+
+import io.station.response.EvalRespUtil;
+
+/**
+ * Digital (Z-transform) poles and zeros, see
+ * {@link EvalRespUtil#iirPzTrans(double[], double[], double[], double[], double, double, double)}.
+ */
+public class DigitalPolesZerosKernel implements StageKernel {
+
+	final double[] zeroReal;
+	final double[] zeroImaginary;
+	final double[] poleReal;
+	final double[] poleImaginary;
+	final double normalizationFactor;
+	final double samplingInterval;
+
+	public DigitalPolesZerosKernel(double[] zeroReal, double[] zeroImaginary, double[] poleReal,
+			double[] poleImaginary, double normalizationFactor, double samplingInterval) {
+		this.zeroReal = Objects.requireNonNull(zeroReal, "zeroReal cannot be null.");
+		this.zeroImaginary = Objects.requireNonNull(zeroImaginary, "zeroImaginary cannot be null.");
+		this.poleReal = Objects.requireNonNull(poleReal, "poleReal cannot be null.");
+		this.poleImaginary = Objects.requireNonNull(poleImaginary, "poleImaginary cannot be null.");
+		this.normalizationFactor = normalizationFactor;
+		this.samplingInterval = samplingInterval;
+	}
+
+	@Override
+	public Complex transform(double frequency, int index) {
+		return EvalRespUtil.iirPzTrans(zeroReal, zeroImaginary, poleReal, poleImaginary, normalizationFactor,
+				samplingInterval, 2 * Math.PI * frequency);
+	}
+
+	@Override
+	public boolean transform(double frequency, int index, double[] real, double[] imaginary, int slot) {
+		EvalRespUtil.iirPzTrans(zeroReal, zeroImaginary, poleReal, poleImaginary, normalizationFactor,
+				samplingInterval, 2 * Math.PI * frequency, real, imaginary, slot);
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Arrays.hashCode(zeroReal);
+		result = 31 * result + Arrays.hashCode(zeroImaginary);
+		result = 31 * result + Arrays.hashCode(poleReal);
+		result = 31 * result + Arrays.hashCode(poleImaginary);
+		result = 31 * result + Double.hashCode(normalizationFactor);
+		return 31 * result + Double.hashCode(samplingInterval);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof DigitalPolesZerosKernel)) {
+			return false;
+		}
+		DigitalPolesZerosKernel other = (DigitalPolesZerosKernel) obj;
+		return Arrays.equals(zeroReal, other.zeroReal) && Arrays.equals(zeroImaginary, other.zeroImaginary)
+				&& Arrays.equals(poleReal, other.poleReal) && Arrays.equals(poleImaginary, other.poleImaginary)
+				&& Double.compare(normalizationFactor, other.normalizationFactor) == 0
+				&& Double.compare(samplingInterval, other.samplingInterval) == 0;
+	}
+}
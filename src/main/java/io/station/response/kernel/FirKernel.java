@@ -0,0 +1,185 @@
+package io.station.response.kernel;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.commons.math3.complex.Complex;
+
+import io.station.model.Symmetry;
+import io.station.response.EvalRespUtil;
+import io.station.response.EvaluationMode;
+
+/**
+ * FIR coefficients (numerators only), see
+ * {@link EvalRespUtil#firTrans(double[], double, double, double, Symmetry)}.
+ * Asymmetric filters are corrected by the decimation delay.
+ * <p>
+ * With {@link EvaluationMode#TRANSFORM} or {@link EvaluationMode#AUTO} an
+ * equally spaced frequency array is evaluated through a chirp-z transform of
+ * the full (unfolded) taps H(θ). Every symmetry evaluated by firTrans is
+ * H(θ)·e^(iθ(N-1)/2), real for the symmetric types.
+ */
+public class FirKernel implements StageKernel {
+
+	final double[] coefficients;
+	final double normalizationFactor;
+	final double samplingInterval;
+	final Symmetry symmetry;
+	final double delay;
+	final EvaluationMode mode;
+	/**
+	 * The unfolded filter taps, null when the stage is never transformed.
+	 */
+	private final double[] taps;
+
+	/**
+	 * @param delay the delay correction in seconds, only applied when symmetry is
+	 *              {@link Symmetry#NONE}.
+	 */
+	public FirKernel(double[] coefficients, double normalizationFactor, double samplingInterval, Symmetry symmetry,
+			double delay) {
+		this(coefficients, normalizationFactor, samplingInterval, symmetry, delay, EvaluationMode.DIRECT);
+	}
+
+	public FirKernel(double[] coefficients, double normalizationFactor, double samplingInterval, Symmetry symmetry,
+			double delay, EvaluationMode mode) {
+		this.coefficients = Objects.requireNonNull(coefficients, "coefficients cannot be null.");
+		this.normalizationFactor = normalizationFactor;
+		this.samplingInterval = samplingInterval;
+		this.symmetry = Objects.requireNonNull(symmetry, "symmetry cannot be null.");
+		this.delay = delay;
+		this.mode = Objects.requireNonNull(mode, "mode cannot be null.");
+		this.taps = (mode == EvaluationMode.TRANSFORM || mode == EvaluationMode.AUTO) ? unfold(coefficients, symmetry)
+				: null;
+	}
+
+	@Override
+	public Complex transform(double frequency, int index) {
+		double[] real = new double[1];
+		double[] imaginary = new double[1];
+		transform(frequency, index, real, imaginary, 0);
+		return new Complex(real[0], imaginary[0]);
+	}
+
+	@Override
+	public boolean transform(double frequency, int index, double[] real, double[] imaginary, int slot) {
+		double wVal = 2 * Math.PI * frequency;
+		EvalRespUtil.firTrans(coefficients, normalizationFactor, samplingInterval, wVal, symmetry, mode, real,
+				imaginary, slot);
+		if (symmetry == Symmetry.NONE) {
+			double re = real[slot];
+			double im = imaginary[slot];
+			double cos = Math.cos(wVal * delay);
+			double sin = Math.sin(wVal * delay);
+			real[slot] = re * cos - im * sin;
+			imaginary[slot] = re * sin + im * cos;
+		}
+		return true;
+	}
+
+	@Override
+	public void transform(double[] frequencies, double[] real, double[] imaginary) {
+		if (!useTransform(frequencies)) {
+			for (int i = 0; i < frequencies.length; i++) {
+				transform(frequencies[i], i, real, imaginary, i);
+			}
+			return;
+		}
+		final int m = frequencies.length;
+		final double step = (frequencies[m - 1] - frequencies[0]) / (m - 1);
+		ChirpZ.transform(taps, 2 * Math.PI * frequencies[0] * samplingInterval, 2 * Math.PI * step * samplingInterval,
+				m, real, imaginary);
+		final double center = (taps.length - 1) / 2.0;
+		for (int k = 0; k < m; k++) {
+			double wVal = 2 * Math.PI * frequencies[k];
+			double shift = wVal * center * samplingInterval;
+			double cos = Math.cos(shift);
+			double sin = Math.sin(shift);
+			double re = (real[k] * cos - imaginary[k] * sin) * normalizationFactor;
+			double im = (real[k] * sin + imaginary[k] * cos) * normalizationFactor;
+			if (symmetry == Symmetry.NONE) {
+				cos = Math.cos(wVal * delay);
+				sin = Math.sin(wVal * delay);
+				real[k] = re * cos - im * sin;
+				imaginary[k] = re * sin + im * cos;
+			} else {
+				real[k] = re;
+				imaginary[k] = 0.0;
+			}
+		}
+	}
+
+	private boolean useTransform(double[] frequencies) {
+		if (taps == null || taps.length < 2 || !ChirpZ.isLinear(frequencies)) {
+			return false;
+		}
+		if (mode == EvaluationMode.TRANSFORM) {
+			return true;
+		}
+		// direct: one cos/sin per folded coefficient and frequency; transform:
+		// three FFTs of the padded length
+		int m = frequencies.length;
+		int l = ChirpZ.size(taps.length, m);
+		int folded = symmetry == Symmetry.NONE ? taps.length : (taps.length + 1) / 2;
+		return (double) folded * m > 4.0 * l * (Integer.numberOfTrailingZeros(l) + 1);
+	}
+
+	/**
+	 * @return the full impulse response, or null if the coefficients are all equal
+	 *         and firTrans uses its closed form instead.
+	 */
+	private static double[] unfold(double[] coefficients, Symmetry symmetry) {
+		final int numCoeffs = coefficients.length;
+		if (numCoeffs == 0) {
+			return null;
+		}
+		if (symmetry == Symmetry.ODD) {
+			int m = (numCoeffs + 1) / 2;
+			double[] taps = new double[2 * m - 1];
+			for (int i = 0; i < m; i++) {
+				taps[i] = coefficients[i];
+				taps[2 * m - 2 - i] = coefficients[i];
+			}
+			return taps;
+		} else if (symmetry == Symmetry.EVEN) {
+			int m = numCoeffs / 2;
+			double[] taps = new double[2 * m];
+			for (int i = 0; i < m; i++) {
+				taps[i] = coefficients[i];
+				taps[2 * m - 1 - i] = coefficients[i];
+			}
+			return taps;
+		}
+		for (int i = 1; i < numCoeffs; i++) {
+			if (coefficients[i] != coefficients[0]) {
+				return coefficients.clone();
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Arrays.hashCode(coefficients);
+		result = 31 * result + Double.hashCode(normalizationFactor);
+		result = 31 * result + Double.hashCode(samplingInterval);
+		result = 31 * result + Objects.hashCode(symmetry);
+		result = 31 * result + Double.hashCode(delay);
+		return 31 * result + Objects.hashCode(mode);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof FirKernel)) {
+			return false;
+		}
+		FirKernel other = (FirKernel) obj;
+		return Arrays.equals(coefficients, other.coefficients)
+				&& Double.compare(normalizationFactor, other.normalizationFactor) == 0
+				&& Double.compare(samplingInterval, other.samplingInterval) == 0 && symmetry == other.symmetry
+				&& Double.compare(delay, other.delay) == 0 && mode == other.mode;
+	}
+}
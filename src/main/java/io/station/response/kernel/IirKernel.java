@@ -0,0 +1,74 @@
+package io.station.response.kernel;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.commons.math3.complex.Complex;
+
+import io.station.response.EvalRespUtil;
+import io.station.response.EvaluationMode;
+
+/**
+ * Digital IIR coefficients, see
+ * {@link EvalRespUtil#iirTrans(double[], double[], double, double, double)}.
+ */
+public class IirKernel implements StageKernel {
+
+	final double[] numerators;
+	final double[] denominators;
+	final double normalizationFactor;
+	final double samplingInterval;
+	final EvaluationMode mode;
+
+	public IirKernel(double[] numerators, double[] denominators, double normalizationFactor,
+			double samplingInterval) {
+		this(numerators, denominators, normalizationFactor, samplingInterval, EvaluationMode.DIRECT);
+	}
+
+	public IirKernel(double[] numerators, double[] denominators, double normalizationFactor,
+			double samplingInterval, EvaluationMode mode) {
+		this.numerators = Objects.requireNonNull(numerators, "numerators cannot be null.");
+		this.denominators = Objects.requireNonNull(denominators, "denominators cannot be null.");
+		this.normalizationFactor = normalizationFactor;
+		this.samplingInterval = samplingInterval;
+		this.mode = Objects.requireNonNull(mode, "mode cannot be null.");
+	}
+
+	@Override
+	public Complex transform(double frequency, int index) {
+		double[] real = new double[1];
+		double[] imaginary = new double[1];
+		transform(frequency, index, real, imaginary, 0);
+		return new Complex(real[0], imaginary[0]);
+	}
+
+	@Override
+	public boolean transform(double frequency, int index, double[] real, double[] imaginary, int slot) {
+		EvalRespUtil.iirTrans(numerators, denominators, normalizationFactor, samplingInterval,
+				2 * Math.PI * frequency, mode, real, imaginary, slot);
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Arrays.hashCode(numerators);
+		result = 31 * result + Arrays.hashCode(denominators);
+		result = 31 * result + Double.hashCode(normalizationFactor);
+		result = 31 * result + Double.hashCode(samplingInterval);
+		return 31 * result + Objects.hashCode(mode);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof IirKernel)) {
+			return false;
+		}
+		IirKernel other = (IirKernel) obj;
+		return Arrays.equals(numerators, other.numerators) && Arrays.equals(denominators, other.denominators)
+				&& Double.compare(normalizationFactor, other.normalizationFactor) == 0
+				&& Double.compare(samplingInterval, other.samplingInterval) == 0 && mode == other.mode;
+	}
+}
@@ -0,0 +1,115 @@
+package io.station.response.kernel;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.commons.math3.analysis.interpolation.SplineInterpolator;
+import org.apache.commons.math3.analysis.polynomials.PolynomialSplineFunction;
+import org.apache.commons.math3.complex.Complex;
+
+/**
+ * Tabulated amplitude/phase values interpolated at the requested frequency.
+ * The splines are fitted once, when the kernel is created, and do not depend
+ * on the frequencies they are evaluated at. Frequencies outside of the table
+ * are clamped to its first or last entry.
+ */
+public class InterpolatedResponseListKernel implements StageKernel {
+
+	private final double minimumFrequency;
+	private final double maximumFrequency;
+	private final PolynomialSplineFunction amplitude;
+	private final PolynomialSplineFunction phase;
+	// the table the splines were fitted to, for equals and hashCode
+	final double[] frequencyTable;
+	final double[] amplitudeTable;
+	final double[] phaseTable;
+
+	/**
+	 * @param frequency the tabulated frequencies, strictly increasing or strictly
+	 *                  decreasing.
+	 * @param amplitude the amplitude at each frequency.
+	 * @param phase     the unwrapped phase, in degrees, at each frequency.
+	 */
+	public InterpolatedResponseListKernel(double[] frequency, double[] amplitude, double[] phase) {
+		Objects.requireNonNull(frequency, "frequency cannot be null.");
+		Objects.requireNonNull(amplitude, "amplitude cannot be null.");
+		Objects.requireNonNull(phase, "phase cannot be null.");
+		if (frequency.length != amplitude.length || frequency.length != phase.length) {
+			throw new IllegalArgumentException("frequency[" + frequency.length + "], amplitude[" + amplitude.length
+					+ "] and phase[" + phase.length + "] differ in length");
+		}
+		if (frequency.length < 3) {
+			throw new IllegalArgumentException(
+					"at least 3 values are needed for interpolation but found " + frequency.length);
+		}
+		if (frequency[0] > frequency[frequency.length - 1]) {
+			frequency = reverse(frequency);
+			amplitude = reverse(amplitude);
+			phase = reverse(phase);
+		}
+		SplineInterpolator interpolator = new SplineInterpolator();
+		this.amplitude = interpolator.interpolate(frequency, amplitude);
+		this.phase = interpolator.interpolate(frequency, phase);
+		this.minimumFrequency = frequency[0];
+		this.maximumFrequency = frequency[frequency.length - 1];
+		this.frequencyTable = frequency;
+		this.amplitudeTable = amplitude;
+		this.phaseTable = phase;
+	}
+
+	@Override
+	public Complex transform(double frequency, int index) {
+		double f = Math.min(Math.max(frequency, minimumFrequency), maximumFrequency);
+		double amp = amplitude.value(f);
+		double pha = Math.toRadians(wrap(phase.value(f)));
+		return new Complex(amp * Math.cos(pha), amp * Math.sin(pha));
+	}
+
+	@Override
+	public boolean transform(double frequency, int index, double[] real, double[] imaginary, int slot) {
+		double f = Math.min(Math.max(frequency, minimumFrequency), maximumFrequency);
+		double amp = amplitude.value(f);
+		double pha = Math.toRadians(wrap(phase.value(f)));
+		real[slot] = amp * Math.cos(pha);
+		imaginary[slot] = amp * Math.sin(pha);
+		return true;
+	}
+
+	/**
+	 * Brings an unwrapped phase back to the -180/+180 range of the table.
+	 */
+	static double wrap(double phase) {
+		if (phase >= -180 && phase <= 180) {
+			return phase;
+		}
+		return phase - 360 * Math.floor((phase + 180) / 360);
+	}
+
+	private static double[] reverse(double[] array) {
+		double[] reversed = new double[array.length];
+		for (int i = 0; i < array.length; i++) {
+			reversed[i] = array[array.length - 1 - i];
+		}
+		return reversed;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Arrays.hashCode(frequencyTable);
+		result = 31 * result + Arrays.hashCode(amplitudeTable);
+		return 31 * result + Arrays.hashCode(phaseTable);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof InterpolatedResponseListKernel)) {
+			return false;
+		}
+		InterpolatedResponseListKernel other = (InterpolatedResponseListKernel) obj;
+		return Arrays.equals(frequencyTable, other.frequencyTable)
+				&& Arrays.equals(amplitudeTable, other.amplitudeTable) && Arrays.equals(phaseTable, other.phaseTable);
+	}
+}
@@ -0,0 +1,189 @@
+package io.station.response.kernel;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import org.apache.commons.math3.complex.Complex;
+
+import io.station.model.Symmetry;
+import io.station.response.EvaluationMode;
+
+/**
+ * Binary form of the kernels, a tag byte followed by the primitive values the
+ * kernel was built from, big endian. Kernels are written with a
+ * {@link DataOutput} and read back from a {@link ByteBuffer}, usually a mapped
+ * file; a kernel read back is equal to the one written and evaluates to the
+ * same bits.
+ */
+public final class KernelCodec {
+
+	private static final byte NONE = 0;
+	private static final byte LAPLACE = 1;
+	private static final byte DIGITAL_POLES_ZEROS = 2;
+	private static final byte FIR = 3;
+	private static final byte IIR = 4;
+	private static final byte RESPONSE_LIST = 5;
+	private static final byte INTERPOLATED_RESPONSE_LIST = 6;
+	private static final byte CONSTANT = 7;
+
+	private KernelCodec() {
+	}
+
+	/**
+	 * @param kernel may be null, for stages without filter.
+	 * @throws IllegalArgumentException if kernel is not one of this package.
+	 */
+	public static void write(StageKernel kernel, DataOutput out) throws IOException {
+		Objects.requireNonNull(out, "out cannot be null.");
+		if (kernel == null) {
+			out.writeByte(NONE);
+		} else if (kernel instanceof LaplaceKernel) {
+			LaplaceKernel k = (LaplaceKernel) kernel;
+			out.writeByte(LAPLACE);
+			writeDoubles(k.zeroReal, out);
+			writeDoubles(k.zeroImaginary, out);
+			writeDoubles(k.poleReal, out);
+			writeDoubles(k.poleImaginary, out);
+			out.writeDouble(k.normalizationFactor);
+			out.writeBoolean(k.radians);
+		} else if (kernel instanceof DigitalPolesZerosKernel) {
+			DigitalPolesZerosKernel k = (DigitalPolesZerosKernel) kernel;
+			out.writeByte(DIGITAL_POLES_ZEROS);
+			writeDoubles(k.zeroReal, out);
+			writeDoubles(k.zeroImaginary, out);
+			writeDoubles(k.poleReal, out);
+			writeDoubles(k.poleImaginary, out);
+			out.writeDouble(k.normalizationFactor);
+			out.writeDouble(k.samplingInterval);
+		} else if (kernel instanceof FirKernel) {
+			FirKernel k = (FirKernel) kernel;
+			out.writeByte(FIR);
+			writeDoubles(k.coefficients, out);
+			out.writeDouble(k.normalizationFactor);
+			out.writeDouble(k.samplingInterval);
+			writeString(k.symmetry.name(), out);
+			out.writeDouble(k.delay);
+			writeString(k.mode.name(), out);
+		} else if (kernel instanceof IirKernel) {
+			IirKernel k = (IirKernel) kernel;
+			out.writeByte(IIR);
+			writeDoubles(k.numerators, out);
+			writeDoubles(k.denominators, out);
+			out.writeDouble(k.normalizationFactor);
+			out.writeDouble(k.samplingInterval);
+			writeString(k.mode.name(), out);
+		} else if (kernel instanceof ResponseListKernel) {
+			ResponseListKernel k = (ResponseListKernel) kernel;
+			out.writeByte(RESPONSE_LIST);
+			writeDoubles(k.amplitude, out);
+			writeDoubles(k.phase, out);
+		} else if (kernel instanceof InterpolatedResponseListKernel) {
+			InterpolatedResponseListKernel k = (InterpolatedResponseListKernel) kernel;
+			out.writeByte(INTERPOLATED_RESPONSE_LIST);
+			// the tables are increasing, the splines are fitted to the same values
+			writeDoubles(k.frequencyTable, out);
+			writeDoubles(k.amplitudeTable, out);
+			writeDoubles(k.phaseTable, out);
+		} else if (kernel instanceof ConstantKernel) {
+			ConstantKernel k = (ConstantKernel) kernel;
+			out.writeByte(CONSTANT);
+			out.writeDouble(k.value.getReal());
+			out.writeDouble(k.value.getImaginary());
+		} else {
+			throw new IllegalArgumentException("Cannot write kernel " + kernel.getClass().getName());
+		}
+	}
+
+	/**
+	 * Reads a kernel at the position of buffer and moves past it.
+	 *
+	 * @return the kernel, null for stages without filter.
+	 */
+	public static StageKernel read(ByteBuffer buffer) throws IOException {
+		Objects.requireNonNull(buffer, "buffer cannot be null.");
+		byte tag = buffer.get();
+		switch (tag) {
+		case NONE:
+			return null;
+		case LAPLACE:
+			return new LaplaceKernel(readDoubles(buffer), readDoubles(buffer), readDoubles(buffer),
+					readDoubles(buffer), buffer.getDouble(), buffer.get() != 0);
+		case DIGITAL_POLES_ZEROS:
+			return new DigitalPolesZerosKernel(readDoubles(buffer), readDoubles(buffer), readDoubles(buffer),
+					readDoubles(buffer), buffer.getDouble(), buffer.getDouble());
+		case FIR:
+			return new FirKernel(readDoubles(buffer), buffer.getDouble(), buffer.getDouble(),
+					Symmetry.valueOf(readString(buffer)), buffer.getDouble(),
+					EvaluationMode.valueOf(readString(buffer)));
+		case IIR:
+			return new IirKernel(readDoubles(buffer), readDoubles(buffer), buffer.getDouble(), buffer.getDouble(),
+					EvaluationMode.valueOf(readString(buffer)));
+		case RESPONSE_LIST:
+			return new ResponseListKernel(readDoubles(buffer), readDoubles(buffer));
+		case INTERPOLATED_RESPONSE_LIST:
+			return new InterpolatedResponseListKernel(readDoubles(buffer), readDoubles(buffer), readDoubles(buffer));
+		case CONSTANT:
+			return new ConstantKernel(new Complex(buffer.getDouble(), buffer.getDouble()));
+		default:
+			throw new IOException("Unknown kernel type " + tag + " at " + (buffer.position() - 1));
+		}
+	}
+
+	public static void writeDoubles(double[] values, DataOutput out) throws IOException {
+		out.writeInt(values.length);
+		for (double value : values) {
+			out.writeDouble(value);
+		}
+	}
+
+	/**
+	 * Reads the array with a single bulk copy.
+	 *
+	 * @throws BufferUnderflowException if the length read is negative or larger
+	 *                                  than what remains in buffer.
+	 */
+	public static double[] readDoubles(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining() / 8) {
+			throw new BufferUnderflowException();
+		}
+		double[] values = new double[length];
+		buffer.asDoubleBuffer().get(values);
+		buffer.position(buffer.position() + 8 * values.length);
+		return values;
+	}
+
+	/**
+	 * Writes value as its UTF-8 length and bytes, -1 for null.
+	 */
+	public static void writeString(String value, DataOutput out) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * @throws BufferUnderflowException if the length read is larger than what
+	 *                                  remains in buffer.
+	 */
+	public static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
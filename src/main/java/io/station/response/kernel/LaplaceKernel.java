@@ -0,0 +1,119 @@
+package io.station.response.kernel;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.commons.math3.complex.Complex;
+
+import io.station.response.EvalRespUtil;
+
+/**
+ * Analog (Laplace) poles and zeros, see
+ * {@link EvalRespUtil#analogTrans(double[], double[], double[], double[], double, double)}.
+ */
+public class LaplaceKernel implements StageKernel {
+
+	final double[] zeroReal;
+	final double[] zeroImaginary;
+	final double[] poleReal;
+	final double[] poleImaginary;
+	final double normalizationFactor;
+	final boolean radians;
+
+	/**
+	 * @param radians true if the transfer function is expressed in rad/sec, in
+	 *                which case frequencies are multiplied by 2*pi.
+	 */
+	public LaplaceKernel(double[] zeroReal, double[] zeroImaginary, double[] poleReal, double[] poleImaginary,
+			double normalizationFactor, boolean radians) {
+		this.zeroReal = Objects.requireNonNull(zeroReal, "zeroReal cannot be null.");
+		this.zeroImaginary = Objects.requireNonNull(zeroImaginary, "zeroImaginary cannot be null.");
+		this.poleReal = Objects.requireNonNull(poleReal, "poleReal cannot be null.");
+		this.poleImaginary = Objects.requireNonNull(poleImaginary, "poleImaginary cannot be null.");
+		this.normalizationFactor = normalizationFactor;
+		this.radians = radians;
+	}
+
+	@Override
+	public Complex transform(double frequency, int index) {
+		return EvalRespUtil.analogTrans(zeroReal, zeroImaginary, poleReal, poleImaginary, normalizationFactor,
+				(radians ? 2 * Math.PI * frequency : frequency));
+	}
+
+	@Override
+	public boolean transform(double frequency, int index, double[] real, double[] imaginary, int slot) {
+		EvalRespUtil.analogTrans(zeroReal, zeroImaginary, poleReal, poleImaginary, normalizationFactor,
+				(radians ? 2 * Math.PI * frequency : frequency), real, imaginary, slot);
+		return true;
+	}
+
+	/**
+	 * Same operations as the single frequency kernel, but each zero and pole is
+	 * applied to the whole frequency array before moving to the next one.
+	 */
+	@Override
+	public void transform(double[] frequencies, double[] real, double[] imaginary) {
+		final int n = frequencies.length;
+		final double[] omega = new double[n];
+		final double[] denRe = new double[n];
+		final double[] denIm = new double[n];
+		for (int i = 0; i < n; i++) {
+			omega[i] = radians ? 2 * Math.PI * frequencies[i] : frequencies[i];
+			real[i] = 1.0;
+			imaginary[i] = 1.0;
+			denRe[i] = 1.0;
+			denIm[i] = 1.0;
+		}
+		for (int z = 0; z < zeroReal.length; z++) {
+			final double dRe = 0.0 - zeroReal[z];
+			final double zi = zeroImaginary[z];
+			for (int i = 0; i < n; i++) {
+				double dIm = omega[i] - zi;
+				double t = real[i] * dRe - imaginary[i] * dIm;
+				imaginary[i] = real[i] * dIm + imaginary[i] * dRe;
+				real[i] = t;
+			}
+		}
+		for (int p = 0; p < poleReal.length; p++) {
+			final double dRe = 0.0 - poleReal[p];
+			final double pi = poleImaginary[p];
+			for (int i = 0; i < n; i++) {
+				double dIm = omega[i] - pi;
+				double t = denRe[i] * dRe - denIm[i] * dIm;
+				denIm[i] = denRe[i] * dIm + denIm[i] * dRe;
+				denRe[i] = t;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			final double tempRe = denRe[i] * real[i] - (-denIm[i]) * imaginary[i];
+			final double tempIm = denRe[i] * imaginary[i] + (-denIm[i]) * real[i];
+			final double modSquared = denRe[i] * denRe[i] + denIm[i] * denIm[i];
+			real[i] = tempRe / modSquared * normalizationFactor;
+			imaginary[i] = tempIm / modSquared * normalizationFactor;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Arrays.hashCode(zeroReal);
+		result = 31 * result + Arrays.hashCode(zeroImaginary);
+		result = 31 * result + Arrays.hashCode(poleReal);
+		result = 31 * result + Arrays.hashCode(poleImaginary);
+		result = 31 * result + Double.hashCode(normalizationFactor);
+		return 31 * result + Boolean.hashCode(radians);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof LaplaceKernel)) {
+			return false;
+		}
+		LaplaceKernel other = (LaplaceKernel) obj;
+		return Arrays.equals(zeroReal, other.zeroReal) && Arrays.equals(zeroImaginary, other.zeroImaginary)
+				&& Arrays.equals(poleReal, other.poleReal) && Arrays.equals(poleImaginary, other.poleImaginary)
+				&& Double.compare(normalizationFactor, other.normalizationFactor) == 0 && radians == other.radians;
+	}
+}
@@ -0,0 +1,80 @@
+package io.station.response.kernel;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.commons.math3.complex.Complex;
+
+/**
+ * Tabulated amplitude/phase values; the value at a frequency index is taken
+ * from the element with the same index, the phase is in degrees. A frequency
+ * set longer than the table cannot be evaluated.
+ */
+public class ResponseListKernel implements StageKernel {
+
+	final double[] amplitude;
+	final double[] phase;
+
+	public ResponseListKernel(double[] amplitude, double[] phase) {
+		this.amplitude = Objects.requireNonNull(amplitude, "amplitude cannot be null.");
+		this.phase = Objects.requireNonNull(phase, "phase cannot be null.");
+		if (amplitude.length != phase.length) {
+			throw new IllegalArgumentException(
+					"amplitude[" + amplitude.length + "] and phase[" + phase.length + "] differ in length");
+		}
+	}
+
+	@Override
+	public Complex transform(double frequency, int index) {
+		checkIndex(index);
+		double pha = Math.toRadians(phase[index]);
+		return new Complex(amplitude[index] * Math.cos(pha), amplitude[index] * Math.sin(pha));
+	}
+
+	@Override
+	public boolean transform(double frequency, int index, double[] real, double[] imaginary, int slot) {
+		checkIndex(index);
+		double pha = Math.toRadians(phase[index]);
+		real[slot] = amplitude[index] * Math.cos(pha);
+		imaginary[slot] = amplitude[index] * Math.sin(pha);
+		return true;
+	}
+
+	@Override
+	public void transform(double[] frequencies, double[] real, double[] imaginary) {
+		if (frequencies.length > amplitude.length) {
+			throw new IllegalArgumentException(
+					frequencies.length + " frequencies but the response list has " + amplitude.length + " values");
+		}
+		for (int i = 0; i < frequencies.length; i++) {
+			double pha = Math.toRadians(phase[i]);
+			real[i] = amplitude[i] * Math.cos(pha);
+			imaginary[i] = amplitude[i] * Math.sin(pha);
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= amplitude.length) {
+			throw new IllegalArgumentException(
+					"frequency index " + index + " but the response list has " + amplitude.length + " values");
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Arrays.hashCode(amplitude);
+		return 31 * result + Arrays.hashCode(phase);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ResponseListKernel)) {
+			return false;
+		}
+		ResponseListKernel other = (ResponseListKernel) obj;
+		return Arrays.equals(amplitude, other.amplitude) && Arrays.equals(phase, other.phase);
+	}
+}
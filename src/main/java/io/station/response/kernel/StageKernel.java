@@ -0,0 +1,51 @@
+package io.station.response.kernel;
+
+import org.apache.commons.math3.complex.Complex;
+
+/**
+ * A single response stage reduced to primitive values. Kernels are immutable
+ * and are evaluated without going back to the io.station.model objects they
+ * were built from. Kernels built from the same values are equal, so that a
+ * stage shared by several epochs can be evaluated once.
+ */
+public interface StageKernel {
+
+	/**
+	 * @param frequency the frequency in Hz.
+	 * @param index     the index of the frequency within the set being evaluated.
+	 * @return the stage response, or null if the stage does not alter the
+	 *         response.
+	 */
+	public Complex transform(double frequency, int index);
+
+	/**
+	 * Writes the stage response to real[slot] and imaginary[slot]. Kernels
+	 * override this to evaluate without allocating.
+	 * 
+	 * @return false, leaving the slot untouched, if the stage does not alter the
+	 *         response.
+	 */
+	public default boolean transform(double frequency, int index, double[] real, double[] imaginary, int slot) {
+		Complex c = transform(frequency, index);
+		if (c == null) {
+			return false;
+		}
+		real[slot] = c.getReal();
+		imaginary[slot] = c.getImaginary();
+		return true;
+	}
+
+	/**
+	 * Evaluates the stage at every frequency, writing the response for
+	 * frequencies[i] to real[i] and imaginary[i]. Frequencies the stage does not
+	 * alter are set to unity.
+	 */
+	public default void transform(double[] frequencies, double[] real, double[] imaginary) {
+		for (int i = 0; i < frequencies.length; i++) {
+			if (!transform(frequencies[i], i, real, imaginary, i)) {
+				real[i] = 1;
+				imaginary[i] = 0;
+			}
+		}
+	}
+}
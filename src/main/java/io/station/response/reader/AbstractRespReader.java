@@ -1,8 +1,11 @@
 package io.station.response.reader;
 
+import java.io.IOException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Objects;
 
 import javax.measure.Unit;
 
@@ -13,15 +16,31 @@ import io.station.uom.StationUnitFormat;
 public abstract class AbstractRespReader implements RespReader {
 
 	protected int stageSequenceNumber;
+	protected final RespLineTokenizer tokenizer;
 
 	public AbstractRespReader() {
+		this(new RespLineTokenizer());
+	}
 
+	public AbstractRespReader(RespLineTokenizer tokenizer) {
+		this.tokenizer = Objects.requireNonNull(tokenizer, "tokenizer cannot be null.");
 	}
 
 	public int getStageSequenceNumber() {
 		return this.stageSequenceNumber;
 	}
 
+	/**
+	 * Reads the next header line into the shared tokenizer.
+	 */
+	RespLineTokenizer nextHeader(Iterator<String> it) throws IOException {
+		String line = it.next();
+		if (line == null || line.startsWith("#")) {
+			throw new IOException();
+		}
+		return tokenizer.reset(line);
+	}
+
 	ZonedDateTime parseDateTime(String value) {
 		if (value == null) {
 			return null;
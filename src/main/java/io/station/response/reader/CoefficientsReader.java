@@ -1,9 +1,7 @@
 package io.station.response.reader;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 
 import io.station.model.CfTransferFunctionType;
 import io.station.model.Coefficients;
@@ -12,12 +10,12 @@ import io.station.model.Numerator;
 
 public class CoefficientsReader extends AbstractRespReader {
 
-	private static final String B054F03 = "B054F03";
-	private static final String B054F04 = "B054F04";
-	private static final String B054F05 = "B054F05";
-	private static final String B054F06 = "B054F06";
-	private static final String B054F07 = "B054F07";
-	private static final String B054F10 = "B054F10";
+	public CoefficientsReader() {
+	}
+
+	public CoefficientsReader(RespLineTokenizer tokenizer) {
+		super(tokenizer);
+	}
 
 	/*-
 	B054F03     Transfer function type:                D
@@ -37,41 +35,52 @@ public class CoefficientsReader extends AbstractRespReader {
 			throw new IllegalArgumentException("reader cannot be null");
 		}
 
-		Map<String, String> pairs = new HashMap<>();
+		Coefficients coefficients = new Coefficients();
+		int stage = -1;
+		char type = 0;
+		int numberOfNumerators = 0;
+		int numberOfDenominators = 0;
 		int expectedNUmberOfLines = 6;
 		int index = 0;
-		while (index < expectedNUmberOfLines && it.hasNext()) {
-			String line = it.next();
-			if (line == null || line.startsWith("#")) {
-				throw new IOException();
-			}
-			String[] array = line.split(":");
-			if (array.length < 1) {
-				throw new IOException();
-			}
-			String value = null;
-			if (array.length == 2) {
-				value = array[1];
-			}
-			array = array[0].split("\\s+");
-			if (array.length < 1) {
-				throw new IOException();
-			}
-			pairs.put(array[0], value);
-			index++;
-		}
 		try {
-			String value = pairs.get(B054F04);
-			if (value == null || value.trim().isEmpty()) {
+			while (index < expectedNUmberOfLines && it.hasNext()) {
+				RespLineTokenizer line = nextHeader(it);
+				switch (line.field(54)) {
+				case 3:
+					if (line.hasValue()) {
+						type = line.charValue();
+					}
+					break;
+				case 4:
+					if (line.hasValue()) {
+						stage = line.intValue();
+					}
+					break;
+				case 5:
+					coefficients.setInputUnits(parseUnit(line.value()));
+					break;
+				case 6:
+					coefficients.setOutputUnits(parseUnit(line.value()));
+					break;
+				case 7:
+					numberOfNumerators = line.hasValue() ? line.intValue() : 0;
+					break;
+				case 10:
+					numberOfDenominators = line.hasValue() ? line.intValue() : 0;
+					break;
+				default:
+					break;
+				}
+				index++;
+			}
+			if (stage < 0) {
 				throw new IOException("Couldn't determine stage sequence number");
 			}
-			this.stageSequenceNumber = Integer.parseInt(value.trim());
-			Coefficients coefficients = build(pairs);
-			if (coefficients == null) {
-				throw new IOException("Couldn't build Coefficients - header");
+			this.stageSequenceNumber = stage;
+			if (type == 0) {
+				throw new IOException("Expected B054F03 but found none");
 			}
-			value = pairs.get(B054F07);
-			int numberOfNumerators = (value == null ? 0 : parseInt(value));
+			coefficients.setCfTransferFunctionType(CfTransferFunctionType.fromValue(type));
 
 			index = 0;
 			while (index < numberOfNumerators && it.hasNext()) {
@@ -88,8 +97,6 @@ public class CoefficientsReader extends AbstractRespReader {
 				}
 				index++;
 			}
-			value = pairs.get(B054F10);
-			int numberOfDenominators = (value == null ? 0 : parseInt(value));
 			index = 0;
 			while (index < numberOfDenominators && it.hasNext()) {
 				String line = it.next();
@@ -111,32 +118,6 @@ public class CoefficientsReader extends AbstractRespReader {
 		}
 	}
 
-	/*-
-	B054F03     Transfer function type:                D
-	B054F04     Stage sequence number:                 3
-	B054F05     Response in units lookup:              counts - Digital Counts
-	B054F06     Response out units lookup:             counts - Digital Counts
-	B054F07     Number of numerators:                  64
-	B054F10     Number of denominators:                0
-	*/
-	private Coefficients build(Map<String, String> lines) throws IOException {
-		if (lines == null || lines.isEmpty()) {
-			return null;
-		}
-		Coefficients coefficients = new Coefficients();
-		String value = clean(lines.get(B054F03));
-		if (value == null) {
-			throw new IOException("Expected B054F03 but found none");
-		}
-		char type = value.trim().charAt(0);
-
-		coefficients.setCfTransferFunctionType(value == null ? null : CfTransferFunctionType.fromValue(type));
-
-		coefficients.setInputUnits(parseUnit(lines.get(B054F05)));
-		coefficients.setOutputUnits(parseUnit(lines.get(B054F06)));
-		return coefficients;
-	}
-
 	/*-
 	 *#              i  coefficient   error
 	 *B054F08-09     0  -1.09707E-03  +0.00000E+00
@@ -152,12 +133,12 @@ public class CoefficientsReader extends AbstractRespReader {
 			if (!line.startsWith("B054F08")) {
 				throw new IOException("Coefficients:Invalid numerator line" + line);
 			}
-			String[] array = line.split("\\s+");
-			if (array.length != 4) {
+			RespLineTokenizer tokens = tokenizer.reset(line);
+			if (tokens.size() != 4) {
 				throw new IOException("Coefficients:Invalid numerator line" + line);
 			}
 
-			return Numerator.valueOf(Integer.parseInt(array[1]),parseDouble(array[2].trim()), parseDouble(array[3]), 0, null);
+			return Numerator.valueOf(tokens.intToken(1), tokens.doubleToken(2), tokens.doubleToken(3), 0, null);
 		} catch (NumberFormatException e) {
 			throw new IOException("Coefficients:Invalid numerator line" + line, e);
 		}
@@ -182,12 +163,12 @@ public class CoefficientsReader extends AbstractRespReader {
 			if (!line.startsWith("B053F10-13")) {
 				throw new IOException("Coefficients:Invalid denominator line" + line);
 			}
-			String[] array = line.split("\\s+");
-			if (array.length != 4) {
+			RespLineTokenizer tokens = tokenizer.reset(line);
+			if (tokens.size() != 4) {
 				throw new IOException("Coefficients:Invalid denominator line" + line);
 			}
 
-			return Denominator.valueOf(Integer.parseInt(array[1]),parseDouble(array[2]), parseDouble(array[3]), 0, null);
+			return Denominator.valueOf(tokens.intToken(1), tokens.doubleToken(2), tokens.doubleToken(3), 0, null);
 		} catch (NumberFormatException e) {
 			throw new IOException("Coefficients:Invalid denominator line" + line, e);
 		}
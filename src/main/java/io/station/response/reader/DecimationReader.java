@@ -3,63 +3,41 @@ package io.station.response.reader;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
 import java.math.BigInteger;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 
 import io.station.model.Decimation;
+import io.station.model.Frequency;
 
 public class DecimationReader extends AbstractRespReader {
 
-	private static final String B057F03 = "B057F03";
-	private static final String B057F04 = "B057F04";
-	private static final String B057F05 = "B057F05";
-	private static final String B057F06 = "B057F06";
-	private static final String B057F07 = "B057F07";
-	private static final String B057F08 = "B057F08";
+	public DecimationReader() {
+	}
+
+	public DecimationReader(RespLineTokenizer tokenizer) {
+		super(tokenizer);
+	}
 
 	public Decimation read(Iterator<String> it) throws IOException {
 
-		Map<String, String> pairs = new HashMap<>();
+		Decimation decimation = new Decimation();
+		int stage = -1;
 		int expectedNUmberOfLines = 6;
 
 		int index = 0;
-		while (index < expectedNUmberOfLines && it.hasNext()) {
-			String line = it.next();
-			if (line == null || line.startsWith("#")) {
-				throw new IOException();
-			}
-			String[] array = line.split(":");
-			if (array.length < 1) {
-				throw new IOException();
-			}
-			String value = null;
-			if (array.length == 2) {
-				value = array[1];
-			}
-			array = array[0].split("\\s+");
-			if (array.length < 1) {
-				throw new IOException();
-			}
-			pairs.put(array[0], value);
-			index++;
-		}
-		String value = pairs.get(B057F03);
-		if (value == null || value.trim().isEmpty()) {
-			throw new IOException("Couldn't determine stage sequence number");
-		}
 		try {
-			this.stageSequenceNumber = Integer.parseInt(value.trim());
-			Decimation decimation = build(pairs);
-			if (decimation == null) {
-				throw new IOException("Couldn't build Decimation - header");
+			while (index < expectedNUmberOfLines && it.hasNext()) {
+				stage = readHeader(nextHeader(it), decimation, stage);
+				index++;
 			}
-			return decimation;
 		} catch (NumberFormatException e) {
 			throw new IOException(e);
 		}
+		if (stage < 0) {
+			throw new IOException("Couldn't determine stage sequence number");
+		}
+		this.stageSequenceNumber = stage;
+		return decimation;
 	}
 
 	public Decimation read(Reader reader) throws IOException {
@@ -73,36 +51,24 @@ public class DecimationReader extends AbstractRespReader {
 			theReader = new BufferedReader(reader);
 		}
 
-		Map<String, String> pairs = new HashMap<>();
+		Decimation decimation = new Decimation();
+		int stage = -1;
 		int expectedNUmberOfLines = 6;
-		for (int i = 0; i < expectedNUmberOfLines; i++) {
-			String line = theReader.readLine();
-			if (line == null) {
-				throw new IOException();
-			}
-			String[] array = line.split(":");
-			if (array.length < 1) {
-				throw new IOException();
-			}
-			String value = null;
-			if (array.length == 2) {
-				value = array[1];
-			}
-			array = array[0].split("\\s+");
-			if (array.length < 1) {
-				throw new IOException();
+		try {
+			for (int i = 0; i < expectedNUmberOfLines; i++) {
+				String line = theReader.readLine();
+				if (line == null) {
+					throw new IOException();
+				}
+				stage = readHeader(tokenizer.reset(line), decimation, stage);
 			}
-			pairs.put(array[0], value);
+		} catch (NumberFormatException e) {
+			throw new IOException(e);
 		}
-		String value = pairs.get(B057F03);
-		if (value == null || value.trim().isEmpty()) {
+		if (stage < 0) {
 			throw new IOException("Couldn't determine stage sequence number");
 		}
-		this.stageSequenceNumber = Integer.parseInt(value.trim());
-		Decimation decimation = build(pairs);
-		if (decimation == null) {
-			throw new IOException("Couldn't build Decimation - header");
-		}
+		this.stageSequenceNumber = stage;
 		return decimation;
 	}
 
@@ -114,37 +80,31 @@ public class DecimationReader extends AbstractRespReader {
 	B057F07     Estimated delay (seconds):             +7.8800E-01
 	B057F08     Correction applied (seconds):          +7.6250E-01
 	*/
-	private Decimation build(Map<String, String> lines) throws IOException {
-		if (lines == null || lines.isEmpty()) {
-			return null;
+	private int readHeader(RespLineTokenizer line, Decimation decimation, int stage) {
+		if (!line.hasValue()) {
+			return stage;
 		}
-		try {
-			Decimation decimation = new Decimation();
-
-			String value = lines.get(B057F04);
-			if (value != null && !value.trim().isEmpty()) {
-				decimation.setInputSampleRate(super.parseFrequency(value.trim()));
-			}
-			value = lines.get(B057F05);
-			if (value != null && !value.trim().isEmpty()) {
-				decimation.setFactor(new BigInteger(value.trim()));
-			}
-			value = lines.get(B057F06);
-			if (value != null && !value.trim().isEmpty()) {
-				decimation.setOffset(new BigInteger(value.trim()));
-			}
-
-			value = lines.get(B057F07);
-			if (value != null && !value.trim().isEmpty()) {
-				decimation.setDelay(this.parseFloatType(value));
-			}
-			value = lines.get(B057F08);
-			if (value != null && !value.trim().isEmpty()) {
-				decimation.setCorrection(this.parseFloatType(value));
-			}
-			return decimation;
-		} catch (NumberFormatException e) {
-			throw new IOException("", e);
+		switch (line.field(57)) {
+		case 3:
+			return line.intValue();
+		case 4:
+			decimation.setInputSampleRate(Frequency.valueOf(line.doubleValue()));
+			break;
+		case 5:
+			decimation.setFactor(BigInteger.valueOf(line.intValue()));
+			break;
+		case 6:
+			decimation.setOffset(BigInteger.valueOf(line.intValue()));
+			break;
+		case 7:
+			decimation.setDelay(Frequency.valueOf(line.doubleValue()));
+			break;
+		case 8:
+			decimation.setCorrection(Frequency.valueOf(line.doubleValue()));
+			break;
+		default:
+			break;
 		}
+		return stage;
 	}
 }
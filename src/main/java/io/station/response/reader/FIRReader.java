@@ -1,9 +1,7 @@
 package io.station.response.reader;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 
 import io.station.model.FIR;
 import io.station.model.Numerator;
@@ -11,14 +9,15 @@ import io.station.model.Symmetry;
 
 public class FIRReader extends AbstractRespReader {
 
-	private static final String B061F03 = "B061F03";
-	private static final String B061F04 = "B061F04";
-	private static final String B061F05 = "B061F05";
-	private static final String B061F06 = "B061F06";
-	private static final String B061F07 = "B061F07";
-	private static final String B061F08 = "B061F08";
 	private static final String B061F09 = "B061F09";
 
+	public FIRReader() {
+	}
+
+	public FIRReader(RespLineTokenizer tokenizer) {
+		super(tokenizer);
+	}
+
 	/*-
 	 * 
 	#
@@ -57,42 +56,42 @@ public class FIRReader extends AbstractRespReader {
 		if (it == null) {
 			throw new IllegalArgumentException("reader cannot be null");
 		}
-		Map<String, String> pairs = new HashMap<>();
+		FIR fir = new FIR();
+		int stage = -1;
+		int numberOfCoefficients = 0;
 		int expectedNUmberOfLines = 6;
 		int index = 0;
-		while (index < expectedNUmberOfLines && it.hasNext()) {
-			String line = it.next();
-			if (line == null || line.startsWith("#")) {
-				throw new IOException();
-			}
-			String[] array = line.split(":");
-			if (array.length < 1) {
-				throw new IOException();
-			}
-			String value = null;
-			if (array.length == 2) {
-				value = array[1];
-			}
-			array = array[0].split("\\s+");
-			if (array.length < 1) {
-				throw new IOException();
-			}
-			pairs.put(array[0], value);
-			index++;
-		}
-
 		try {
-			String value = pairs.get(B061F03);
-			if (value == null || value.trim().isEmpty()) {
-				throw new IOException("Couldn't determine stage sequence number");
+			while (index < expectedNUmberOfLines && it.hasNext()) {
+				RespLineTokenizer line = nextHeader(it);
+				switch (line.field(61)) {
+				case 3:
+					if (line.hasValue()) {
+						stage = line.intValue();
+					}
+					break;
+				case 4:
+					if (line.hasValue()) {
+						fir.setName(line.value());
+					}
+					break;
+				case 5:
+					if (line.hasValue()) {
+						fir.setSymmetry(Symmetry.fromValue(line.charValue()));
+					}
+					break;
+				case 8:
+					numberOfCoefficients = line.hasValue() ? line.intValue() : 0;
+					break;
+				default:
+					break;
+				}
+				index++;
 			}
-			this.stageSequenceNumber = Integer.parseInt(value.trim());
-			FIR fir = build(pairs);
-			if (fir == null) {
-				throw new IOException("Couldn't build FIR - header");
+			if (stage < 0) {
+				throw new IOException("Couldn't determine stage sequence number");
 			}
-			value = pairs.get(B061F08);
-			int numberOfCoefficients = (value == null ? 0 : Integer.parseInt(value.trim()));
+			this.stageSequenceNumber = stage;
 
 			index = 0;
 			while (index < numberOfCoefficients && it.hasNext()) {
@@ -114,31 +113,6 @@ public class FIRReader extends AbstractRespReader {
 		}
 	}
 
-	/*-
-	B061F03     Stage sequence number:                 4
-	B061F04     Response Name:                         GFZ_DK1980_HDR24_FIR_1
-	B061F05     Symmetry Code:                         C
-	B061F06     Response in units lookup:              COUNTS - null
-	B061F07     Response out units lookup:             COUNTS - null
-	B061F08     Number of Coefficients:                17
-	*/
-	private FIR build(Map<String, String> lines) {
-		if (lines == null || lines.isEmpty()) {
-			return null;
-		}
-		FIR fir = new FIR();
-
-		String value = lines.get(B061F04);
-		if (value != null) {
-			fir.setName(value.trim());
-		}
-		value = lines.get(B061F05);
-		if (value != null) {
-			fir.setSymmetry(Symmetry.fromValue(value.trim().charAt(0)));
-		}
-		return fir;
-	}
-
 	/*-
 	 * 	#              i  FIR Coefficient
 	       B061F09     0  +3.78878E-05
@@ -155,12 +129,12 @@ public class FIRReader extends AbstractRespReader {
 			if (!line.startsWith(B061F09)) {
 				throw new IOException("FIR:Invalid numeratorCoefficient line" + line);
 			}
-			String[] array = line.split("\\s+");
-			if (array.length != 3) {
+			RespLineTokenizer tokens = tokenizer.reset(line);
+			if (tokens.size() != 3) {
 				throw new IOException("FIR:Invalid numeratorCoefficient line" + line);
 			}
 
-			return Numerator.valueOf(Integer.parseInt(array[1]), Double.parseDouble(array[2]));
+			return Numerator.valueOf(tokens.intToken(1), tokens.doubleToken(2));
 		} catch (NumberFormatException e) {
 			throw new IOException("PolesZeros:Invalid zero line" + line, e);
 		}
@@ -1,9 +1,7 @@
 package io.station.response.reader;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 
 import io.station.model.PzTransferFunctionType;
 import io.station.model.FloatNoUnitType;
@@ -13,14 +11,12 @@ import io.station.model.PolesZeros;
 
 public class PolesZerosReader extends AbstractRespReader {
 
-	private static final String B053F03 = "B053F03";
-	private static final String B053F04 = "B053F04";
-	private static final String B053F05 = "B053F05";
-	private static final String B053F06 = "B053F06";
-	private static final String B053F07 = "B053F07";
-	private static final String B053F08 = "B053F08";
-	private static final String B053F09 = "B053F09";
-	private static final String B053F14 = "B053F14";
+	public PolesZerosReader() {
+	}
+
+	public PolesZerosReader(RespLineTokenizer tokenizer) {
+		super(tokenizer);
+	}
 
 	/*-
 	B053F03     Transfer function type:                A [Laplace Transform (Rad/sec)]
@@ -47,42 +43,53 @@ public class PolesZerosReader extends AbstractRespReader {
 		if (it == null) {
 			throw new IllegalArgumentException("reader cannot be null");
 		}
-		Map<String, String> pairs = new HashMap<>();
+		PolesZeros polesZeros = new PolesZeros();
+		int stage = -1;
+		int numberOfZeros = 0;
+		int numberOfPoles = 0;
 		int expectedNUmberOfLines = 8;
 		int index = 0;
-		while (index < expectedNUmberOfLines && it.hasNext()) {
-			String line = it.next();
-			if (line == null || line.startsWith("#")) {
-				throw new IOException();
-			}
-			String[] array = line.split(":");
-			if (array.length < 1) {
-				throw new IOException();
-			}
-			String value = null;
-			if (array.length == 2) {
-				value = array[1];
-			}
-			array = array[0].split("\\s+");
-			if (array.length < 1) {
-				throw new IOException();
-			}
-			pairs.put(array[0], value);
-			index++;
-		}
-
 		try {
-			String value = pairs.get(B053F04);
-			if (value == null || value.trim().isEmpty()) {
-				throw new IOException("Couldn't determine stage sequence number");
+			while (index < expectedNUmberOfLines && it.hasNext()) {
+				RespLineTokenizer line = nextHeader(it);
+				switch (line.field(53)) {
+				case 3:
+					polesZeros.setPzTransferFunctionType(
+							line.hasValue() ? PzTransferFunctionType.fromValue(line.charValue()) : null);
+					break;
+				case 4:
+					if (line.hasValue()) {
+						stage = line.intValue();
+					}
+					break;
+				case 5:
+					polesZeros.setInputUnits(parseUnit(line.value()));
+					break;
+				case 6:
+					polesZeros.setOutputUnits(parseUnit(line.value()));
+					break;
+				case 7:
+					polesZeros.setNormalizationFactor(line.hasValue() ? line.doubleValue() : null);
+					break;
+				case 8:
+					polesZeros.setNormalizationFrequency(
+							line.hasValue() ? Frequency.valueOf(line.doubleValue()) : null);
+					break;
+				case 9:
+					numberOfZeros = line.hasValue() ? line.intValue() : 0;
+					break;
+				case 14:
+					numberOfPoles = line.hasValue() ? line.intValue() : 0;
+					break;
+				default:
+					break;
+				}
+				index++;
 			}
-			this.stageSequenceNumber = Integer.parseInt(value.trim());
-			PolesZeros polesZeros = build(pairs);
-			if (polesZeros == null) {
-				throw new IOException("Couldn't build PolesZeros - header");
+			if (stage < 0) {
+				throw new IOException("Couldn't determine stage sequence number");
 			}
-			value = pairs.get(B053F09);
-			int numberOfZeros = (value == null ? 0 : Integer.parseInt(value.trim()));
+			this.stageSequenceNumber = stage;
 
 			index = 0;
 			while (index < numberOfZeros && it.hasNext()) {
@@ -99,8 +106,6 @@ public class PolesZerosReader extends AbstractRespReader {
 				}
 				index++;
 			}
-			value = pairs.get(B053F14);
-			int numberOfPoles = (value == null ? 0 : Integer.parseInt(value.trim()));
 			index = 0;
 			while (index < numberOfPoles && it.hasNext()) {
 				String line = it.next();
@@ -122,36 +127,6 @@ public class PolesZerosReader extends AbstractRespReader {
 		}
 	}
 
-	/*-
-	B053F03     Transfer function type:                A [Laplace Transform (Rad/sec)]
-	B053F04     Stage sequence number:                 1
-	B053F05     Response in units lookup:              M/S - Velocity in Meters Per Second
-	B053F06     Response out units lookup:             V - Volts
-	B053F07     A0 normalization factor:               3948.58
-	B053F08     Normalization frequency:               0.02
-	B053F09     Number of zeroes:                      2
-	B053F14     Number of poles:                       4
-	*/
-	private PolesZeros build(Map<String, String> lines) {
-		if (lines == null || lines.isEmpty()) {
-			return null;
-		}
-		PolesZeros polesZeros = new PolesZeros();
-		String value = lines.get(B053F03);
-		polesZeros.setPzTransferFunctionType(value == null ? null : PzTransferFunctionType.fromValue(value.trim().charAt(0)));
-
-		polesZeros.setInputUnits(parseUnit(lines.get(B053F05)));
-		polesZeros.setOutputUnits(parseUnit(lines.get(B053F06)));
-
-		value = lines.get(B053F07);
-		polesZeros.setNormalizationFactor(value == null ? null : Double.parseDouble(value.trim()));
-
-		value = lines.get(B053F08);
-		polesZeros.setNormalizationFrequency(value == null ? null : Frequency.valueOf(Double.parseDouble(value.trim())));
-
-		return polesZeros;
-	}
-
 	/*-
 	 * #              i  real          imag          real_error    imag_error
 	 * B053F10-13     0  +0.00000E+00  +0.00000E+00  +0.00000E+00  +0.00000E+00
@@ -167,14 +142,14 @@ public class PolesZerosReader extends AbstractRespReader {
 			if (!line.startsWith("B053F10-13")) {
 				throw new IOException("PolesZeros:Invalid zero line" + line);
 			}
-			String[] array = line.split("\\s+");
-			if (array.length != 6) {
+			RespLineTokenizer tokens = tokenizer.reset(line);
+			if (tokens.size() != 6) {
 				throw new IOException("PolesZeros:Invalid zero line" + line);
 			}
 
 			return PoleZero.valueOf(
-					FloatNoUnitType.valueOf(Double.parseDouble(array[2]), Double.parseDouble(array[4]), 0, null),
-					FloatNoUnitType.valueOf(Double.parseDouble(array[3]), Double.parseDouble(array[5]), 0, null));
+					FloatNoUnitType.valueOf(tokens.doubleToken(2), tokens.doubleToken(4), 0, null),
+					FloatNoUnitType.valueOf(tokens.doubleToken(3), tokens.doubleToken(5), 0, null));
 		} catch (NumberFormatException e) {
 			throw new IOException("PolesZeros:Invalid zero line" + line, e);
 		}
@@ -195,13 +170,13 @@ public class PolesZerosReader extends AbstractRespReader {
 			if (!line.startsWith("B053F15-18")) {
 				throw new IOException("PolesZeros:Invalid pole line" + line);
 			}
-			String[] array = line.split("\\s+");
-			if (array.length != 6) {
+			RespLineTokenizer tokens = tokenizer.reset(line);
+			if (tokens.size() != 6) {
 				throw new IOException("PolesZeros:Invalid pole line" + line);
 			}
 			return PoleZero.valueOf(
-					FloatNoUnitType.valueOf(Double.parseDouble(array[2]), Double.parseDouble(array[4]), 0, null),
-					FloatNoUnitType.valueOf(Double.parseDouble(array[3]), Double.parseDouble(array[5]), 0, null));
+					FloatNoUnitType.valueOf(tokens.doubleToken(2), tokens.doubleToken(4), 0, null),
+					FloatNoUnitType.valueOf(tokens.doubleToken(3), tokens.doubleToken(5), 0, null));
 		} catch (NumberFormatException e) {
 			throw new IOException("PolesZeros:Invalid zero line" + line, e);
 		}
@@ -1,30 +1,23 @@
 package io.station.response.reader;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 
 import io.station.model.Coefficients;
 import io.station.model.Denominator;
+import io.station.model.Frequency;
 import io.station.model.Numerator;
 import io.station.model.Polynomial;
 import io.station.model.Polynomial.Coefficient;
 
 public class PolynomialReader extends AbstractRespReader {
 
-	private static final String B062F03 = "B062F03";
-	private static final String B062F04 = "B062F04";
-	private static final String B062F05 = "B062F05";
-	private static final String B062F06 = "B062F06";
-	private static final String B062F07 = "B062F07";
-	private static final String B062F08 = "B062F08";
-	private static final String B062F09 = "B062F09";
-	private static final String B062F10 = "B062F10";
-	private static final String B062F11 = "B062F11";
-	private static final String B062F12 = "B062F12";
-	private static final String B062F13 = "B062F13";
-	private static final String B062F14 = "B062F14";
+	public PolynomialReader() {
+	}
+
+	public PolynomialReader(RespLineTokenizer tokenizer) {
+		super(tokenizer);
+	}
 
 	/*-
 	B054F03     Transfer function type:                D
@@ -43,54 +36,66 @@ public class PolynomialReader extends AbstractRespReader {
 		if (it == null) {
 			throw new IllegalArgumentException("reader cannot be null");
 		}
-		
-		Map<String, String> pairs = new HashMap<>();
+
+		Polynomial polynomial = new Polynomial();
+		int stage = -1;
+		int numberOfCefficients = 0;
 		int expectedNUmberOfLines = 8;
 		int index = 0;
 		while (index < expectedNUmberOfLines && it.hasNext()) {
-			String line = it.next();
-			if (line == null||line.startsWith("#")) {
-				throw new IOException();
+			RespLineTokenizer line = nextHeader(it);
+			switch (line.field(62)) {
+			case 4:
+				if (line.hasValue()) {
+					stage = line.intValue();
+				}
+				break;
+			case 5:
+				polynomial.setInputUnits(parseUnit(line.value()));
+				break;
+			case 6:
+				polynomial.setOutputUnits(parseUnit(line.value()));
+				break;
+			case 7:
+				polynomial.setApproximationType(line.value());
+				break;
+			case 9:
+				polynomial.setFrequencyLowerBound(line.hasValue() ? Frequency.valueOf(line.doubleValue()) : null);
+				break;
+			case 10:
+				polynomial.setFrequencyUpperBound(line.hasValue() ? Frequency.valueOf(line.doubleValue()) : null);
+				break;
+			case 11:
+				polynomial.setApproximationLowerBound(line.hasValue() ? line.doubleValue() : null);
+				break;
+			case 12:
+				polynomial.setApproximationUpperBound(line.hasValue() ? line.doubleValue() : null);
+				break;
+			case 13:
+				polynomial.setMaximumError(line.hasValue() ? line.doubleValue() : null);
+				break;
+			case 14:
+				numberOfCefficients = line.hasValue() ? line.intValue() : 0;
+				break;
+			default:
+				break;
 			}
-			String[] array = line.split(":");
-			if (array.length < 1) {
-				throw new IOException();
-			}
-			String value = null;
-			if (array.length == 2) {
-				value = array[1];
-			}
-			array = array[0].split("\\s+");
-			if (array.length < 1) {
-				throw new IOException();
-			}
-			pairs.put(array[0], value);
 			index++;
 		}
-		String value = pairs.get(B062F04);
-		if (value == null || value.trim().isEmpty()) {
+		if (stage < 0) {
 			throw new IOException("Couldn't determine stage sequence number");
 		}
-		this.stageSequenceNumber = Integer.parseInt(value.trim());
-		Polynomial polynomial = build(pairs);
-		if (polynomial == null) {
-			throw new IOException("Couldn't build Polynomial - header");
-		}
-		value = pairs.get(B062F14);
-		int numberOfCefficients = (value == null ? 0 : Integer.parseInt(value));
+		this.stageSequenceNumber = stage;
 		index = 0;
 		while (index < numberOfCefficients && it.hasNext()) {
 			String line = it.next();
 			if (line == null||line.startsWith("#")) {
 				throw new IOException();
 			}
-			String[] array = line.split("\\s+");
-			if (array.length != 4) {
-
-			}
+			RespLineTokenizer tokens = tokenizer.reset(line);
 			// B062F15-16 i, coefficient, error
-			Coefficient coefficient = Coefficient.valueOf(Double.parseDouble(array[2]), Double.parseDouble(array[3]),
-					Double.parseDouble(array[3]), null);
+			Coefficient coefficient = Coefficient.valueOf(tokens.doubleToken(2), tokens.doubleToken(3),
+					tokens.doubleToken(3), null);
 			if (coefficient != null) {
 				polynomial.getCoefficient().add(coefficient);
 			}
@@ -99,36 +104,6 @@ public class PolynomialReader extends AbstractRespReader {
 		return polynomial;
 	}
 
-	/*-
-	B054F03     Transfer function type:                D
-	B054F04     Stage sequence number:                 3
-	B054F05     Response in units lookup:              counts - Digital Counts
-	B054F06     Response out units lookup:             counts - Digital Counts
-	B054F07     Number of numerators:                  64
-	B054F10     Number of denominators:                0
-	*/
-	private Polynomial build(Map<String, String> lines) {
-		if (lines == null || lines.isEmpty()) {
-			return null;
-		}
-		Polynomial polynomial = new Polynomial();
-
-		// B062F03 Transfer function type: P");
-		// out.println("B062F04 Stage sequence number: " + stage);
-
-		polynomial.setInputUnits(parseUnit(lines.get(B062F05)));
-		polynomial.setOutputUnits(parseUnit(lines.get(B062F06)));
-		polynomial.setApproximationType(lines.get(B062F07));
-		lines.get(B062F08);// valid frequency unit
-
-		polynomial.setFrequencyLowerBound(parseFrequency(lines.get(B062F09)));
-		polynomial.setFrequencyUpperBound(parseFrequency(lines.get(B062F10)));
-		polynomial.setApproximationLowerBound(parseDouble(lines.get(B062F11)));
-		polynomial.setApproximationUpperBound(parseDouble(lines.get(B062F12)));
-		polynomial.setMaximumError(parseDouble(lines.get(B062F13)));
-		return polynomial;
-	}
-
 	/*-
 	 *#              i  coefficient   error
 	 *B054F08-09     0  -1.09707E-03  +0.00000E+00
@@ -0,0 +1,293 @@
+package io.station.response.reader;
+
+import java.util.Objects;
+
+/**
+ * Splits a RESP line into whitespace separated tokens and exposes the
+ * blockette field, the value after the first colon and numeric tokens without
+ * creating intermediate Strings. The line is copied into a buffer that is
+ * reused from one line to the next, so a single tokenizer should be shared by
+ * all the readers of a file.
+ *
+ * <pre>
+ * B053F07     A0 normalization factor:               3948.58
+ * B053F15-18    0 -1.234000E-02  1.234000E-02  0.000000E+00  0.000000E+00
+ * </pre>
+ */
+public class RespLineTokenizer {
+
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private char[] buffer = new char[128];
+	private int length;
+	private int[] starts = new int[16];
+	private int[] ends = new int[16];
+	private int size;
+	private int colon;
+
+	public RespLineTokenizer reset(String line) {
+		Objects.requireNonNull(line, "line cannot be null.");
+		length = line.length();
+		if (buffer.length < length) {
+			buffer = new char[Math.max(length, 2 * buffer.length)];
+		}
+		line.getChars(0, length, buffer, 0);
+		size = 0;
+		colon = -1;
+		int i = 0;
+		while (i < length) {
+			if (buffer[i] <= ' ') {
+				i++;
+				continue;
+			}
+			int start = i;
+			while (i < length && buffer[i] > ' ') {
+				if (colon < 0 && buffer[i] == ':') {
+					colon = i;
+				}
+				i++;
+			}
+			if (size == starts.length) {
+				int[] temp = new int[2 * size];
+				System.arraycopy(starts, 0, temp, 0, size);
+				starts = temp;
+				temp = new int[2 * size];
+				System.arraycopy(ends, 0, temp, 0, size);
+				ends = temp;
+			}
+			starts[size] = start;
+			ends[size] = i;
+			size++;
+		}
+		return this;
+	}
+
+	/**
+	 * @return the number of whitespace separated tokens.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the blockette type of the first token, 53 for B053F07, or -1 if it
+	 *         is not a blockette field.
+	 */
+	public int blockette() {
+		if (size == 0 || ends[0] - starts[0] < 7) {
+			return -1;
+		}
+		final int s = starts[0];
+		if (buffer[s] != 'B' || buffer[s + 4] != 'F') {
+			return -1;
+		}
+		return digits(s + 1, s + 4);
+	}
+
+	/**
+	 * @param blockette the expected blockette type, 53 for B053F07
+	 * @return the field number of the first token, 7 for B053F07 and 15 for
+	 *         B053F15-18, or -1 if the line does not belong to the blockette.
+	 */
+	public int field(int blockette) {
+		if (blockette() != blockette) {
+			return -1;
+		}
+		return digits(starts[0] + 5, starts[0] + 7);
+	}
+
+	private int digits(int from, int to) {
+		int value = 0;
+		for (int i = from; i < to; i++) {
+			char c = buffer[i];
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = 10 * value + (c - '0');
+		}
+		return value;
+	}
+
+	public String token(int index) {
+		checkIndex(index);
+		return new String(buffer, starts[index], ends[index] - starts[index]);
+	}
+
+	public int intToken(int index) {
+		checkIndex(index);
+		return parseInt(buffer, starts[index], ends[index]);
+	}
+
+	public double doubleToken(int index) {
+		checkIndex(index);
+		return parseDouble(buffer, starts[index], ends[index]);
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + " but found " + size + " tokens");
+		}
+	}
+
+	/**
+	 * @return true if there is a non blank value after the first colon.
+	 */
+	public boolean hasValue() {
+		return valueStart() < valueEnd();
+	}
+
+	/**
+	 * @return the trimmed text after the first colon, null if blank.
+	 */
+	public String value() {
+		int from = valueStart();
+		int to = valueEnd();
+		if (from >= to) {
+			return null;
+		}
+		return new String(buffer, from, to - from);
+	}
+
+	public char charValue() {
+		int from = valueStart();
+		if (from >= valueEnd()) {
+			throw new NumberFormatException("Expected a value after ':' but found none");
+		}
+		return buffer[from];
+	}
+
+	public int intValue() {
+		return parseInt(buffer, valueStart(), valueEnd());
+	}
+
+	public double doubleValue() {
+		return parseDouble(buffer, valueStart(), valueEnd());
+	}
+
+	private int valueStart() {
+		if (colon < 0) {
+			return length;
+		}
+		int i = colon + 1;
+		while (i < length && buffer[i] <= ' ') {
+			i++;
+		}
+		return i;
+	}
+
+	private int valueEnd() {
+		if (colon < 0) {
+			return length;
+		}
+		int i = length;
+		while (i > colon + 1 && buffer[i - 1] <= ' ') {
+			i--;
+		}
+		return i;
+	}
+
+	static int parseInt(char[] chars, int from, int to) {
+		int i = from;
+		boolean negative = false;
+		if (i < to && (chars[i] == '+' || chars[i] == '-')) {
+			negative = chars[i] == '-';
+			i++;
+		}
+		if (i == to || to - i > 9) {
+			return Integer.parseInt(new String(chars, from, to - from));
+		}
+		int value = 0;
+		for (; i < to; i++) {
+			char c = chars[i];
+			if (c < '0' || c > '9') {
+				throw new NumberFormatException("For input string: \"" + new String(chars, from, to - from) + "\"");
+			}
+			value = 10 * value + (c - '0');
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Parses the decimal forms written in RESP files, +1.23456E-05 or 3948.58.
+	 * When the digits fit in 53 bits and the decimal exponent is at most 22 both
+	 * are exactly representable and a single multiplication or division gives the
+	 * correctly rounded result (Clinger's fast path), everything else falls back
+	 * to {@link Double#parseDouble(String)}.
+	 */
+	static double parseDouble(char[] chars, int from, int to) {
+		int i = from;
+		boolean negative = false;
+		if (i < to && (chars[i] == '+' || chars[i] == '-')) {
+			negative = chars[i] == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean fraction = false;
+		boolean found = false;
+		for (; i < to; i++) {
+			char c = chars[i];
+			if (c >= '0' && c <= '9') {
+				found = true;
+				if (mantissa != 0 || c != '0') {
+					if (++digits > 18) {
+						return slowParseDouble(chars, from, to);
+					}
+					mantissa = 10 * mantissa + (c - '0');
+				}
+				if (fraction) {
+					exponent--;
+				}
+			} else if (c == '.' && !fraction) {
+				fraction = true;
+			} else {
+				break;
+			}
+		}
+		if (!found) {
+			return slowParseDouble(chars, from, to);
+		}
+		if (i < to && (chars[i] == 'E' || chars[i] == 'e')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < to && (chars[i] == '+' || chars[i] == '-')) {
+				negativeExponent = chars[i] == '-';
+				i++;
+			}
+			int value = 0;
+			boolean exponentFound = false;
+			for (; i < to; i++) {
+				char c = chars[i];
+				if (c < '0' || c > '9') {
+					break;
+				}
+				exponentFound = true;
+				if (value < 10000) {
+					value = 10 * value + (c - '0');
+				}
+			}
+			if (!exponentFound) {
+				return slowParseDouble(chars, from, to);
+			}
+			exponent += negativeExponent ? -value : value;
+		}
+		if (i != to) {
+			return slowParseDouble(chars, from, to);
+		}
+		double value;
+		if (mantissa == 0) {
+			value = 0;
+		} else if (mantissa <= (1L << 53) && exponent >= -22 && exponent <= 22) {
+			value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+		} else {
+			return slowParseDouble(chars, from, to);
+		}
+		return negative ? -value : value;
+	}
+
+	private static double slowParseDouble(char[] chars, int from, int to) {
+		return Double.parseDouble(new String(chars, from, to - from));
+	}
+}
@@ -5,25 +5,33 @@ import java.io.IOException;
 public class ResponseTypeReaderFactory {
 
 	public static RespReader create(int type) throws IOException {
+		return create(type, new RespLineTokenizer());
+	}
+
+	/**
+	 * @param tokenizer shared by the readers of a file, so the line buffers are
+	 *                  allocated once.
+	 */
+	public static RespReader create(int type, RespLineTokenizer tokenizer) throws IOException {
 		switch (type) {
 		case 53:
-			return new PolesZerosReader();
+			return new PolesZerosReader(tokenizer);
 		case 54:
-			return new CoefficientsReader();
+			return new CoefficientsReader(tokenizer);
 		case 55:
 			break;
 		case 56:
 			break;
 		case 57:
-			return new DecimationReader();
+			return new DecimationReader(tokenizer);
 		case 58:
-			return new SensitivityReader();
+			return new SensitivityReader(tokenizer);
 		case 60:
 			break;
 		case 61:
-			return new FIRReader();
+			return new FIRReader(tokenizer);
 		case 62:
-			return new PolynomialReader();
+			return new PolynomialReader(tokenizer);
 		default:
 			throw new IOException("Expected a valid blockette type but was " + type);
 		}
@@ -4,11 +4,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Map;
 
 import io.station.model.Channel;
 import io.station.model.Network;
@@ -19,14 +15,17 @@ import io.station.model.ResponseType;
 import io.station.model.Sensitivity;
 import io.station.model.StageGain;
 import io.station.model.Station;
+import io.station.response.reader.RespLineTokenizer;
 import io.station.response.reader.RespReader;
 import io.station.response.reader.ResponseTypeReaderFactory;
+import io.station.time.DateTimeUtil;
 import io.station.util.ChannelReader;
 import io.station.util.RewindableLineIterator;
 
 public class RespChannelReader implements ChannelReader {
 
 	private RewindableLineIterator lineIterator;
+	private final RespLineTokenizer tokenizer = new RespLineTokenizer();
 
 	Network network = null;
 	Station station = null;
@@ -54,24 +53,26 @@ public class RespChannelReader implements ChannelReader {
 						return channel;
 					}
 					if (line.startsWith("B050F16")) {
-						String[] array = line.split("\\s+");
-						if (array.length < 3) {
+						if (tokenizer.reset(line).size() < 3) {
 							throw new IOException(
 									"Invalid Resp format, expected to find a network code at index 2 but found none");
 						}
-						String networkCode = array[2];
+						String networkCode = tokenizer.token(2);
 						if (network == null || !networkCode.equals(network.getCode())) {
 							network = new Network();
 							network.setCode(networkCode);
 							network.addStation(station);
 						}
+						// the station line precedes the network line
+						if (station != null) {
+							station.setNetwork(network);
+						}
 					} else if (line.startsWith("B050F03")) {
-						String[] array = line.split("\\s+");
-						if (array.length < 3) {
+						if (tokenizer.reset(line).size() < 3) {
 							throw new IOException(
 									"Invalid Resp format, expected to find a station code at index 2 but found none");
 						}
-						String stationCode = array[2];
+						String stationCode = tokenizer.token(2);
 						if (station == null || !stationCode.equals(station.getCode())) {
 							station = new Station();
 							station.setCode(stationCode);
@@ -108,12 +109,13 @@ public class RespChannelReader implements ChannelReader {
 					channel.setResponse(response);
 				}
 
-				String value = line.substring(2, 4).trim();
-				int type = 0;
+				int type = tokenizer.reset(line).blockette();
+				if (type < 0) {
+					throw new IOException("Invalid Resp format, expected B0XX but was " + line);
+				}
 				try {
 					lineIterator.rewind();
-					type = Integer.parseInt(value);
-					RespReader respReader = ResponseTypeReaderFactory.create(type);
+					RespReader respReader = ResponseTypeReaderFactory.create(type, tokenizer);
 					ResponseType responseType = respReader.read(lineIterator);
 					if (responseType == null) {
 						throw new IOException("Failed to read response of type:" + type);
@@ -147,12 +149,11 @@ public class RespChannelReader implements ChannelReader {
 	}
 
 	private Channel readChannel() throws IOException {
-		String B052F03 = "B052F03";
-		String B052F04 = "B052F04";
-		String B052F22 = "B052F22";
-		String B052F23 = "B052F23";
 		try {
-			Map<String, String> pairs = new HashMap<>();
+			String location = null;
+			String code = null;
+			String start = null;
+			String end = null;
 			int expectedNUmberOfLines = 4;
 
 			int index = 0;
@@ -161,64 +162,56 @@ public class RespChannelReader implements ChannelReader {
 				if (line == null || line.startsWith("#")) {
 					throw new IOException(line);
 				}
-				String[] array = line.split(":", 2);
-				if (array.length < 2) {
-					throw new IOException("Invalid Resp format, expected startDate but was empty");
+				tokenizer.reset(line);
+				switch (tokenizer.field(52)) {
+				case 3:
+					location = tokenizer.value();
+					break;
+				case 4:
+					code = tokenizer.value();
+					break;
+				case 22:
+					start = tokenizer.value();
+					break;
+				case 23:
+					end = tokenizer.value();
+					break;
+				default:
+					break;
 				}
-				String value = null;
-				if (array.length == 2) {
-					value = array[1];
-				}
-				array = array[0].split("\\s+");
-				if (array.length < 1) {
-					throw new IOException();
-				}
-				pairs.put(array[0], value);
 				index++;
 			}
 
 			Channel channel = new Channel();
-			String value = pairs.get(B052F03);
-			if (value == null || value.trim().isEmpty()) {
+			if (location == null) {
 				throw new IOException("Couldn't determine location");
 			}
-			value = value.trim();
-			if ("??".equalsIgnoreCase(value)) {
-				value = "";
+			if ("??".equalsIgnoreCase(location)) {
+				location = "";
 			}
-			channel.setLocationCode(value);
-			value = extractValue(pairs.get(B052F04));
-			if (value == null || value.trim().isEmpty()) {
+			channel.setLocationCode(location);
+			if (code == null) {
 				throw new IOException("Couldn't determine code");
 			}
-			channel.setCode(value);
-			value = extractValue(pairs.get(B052F22));
-			if (value.isEmpty()) {
+			channel.setCode(code);
+			if (start == null) {
 				throw new IOException("Invalid Resp format, expected startDate but was empty");
 			}
-			ZonedDateTime start = parseDateTime(value);
-			if (start == null) {
+			ZonedDateTime startDate = parseDateTime(start);
+			if (startDate == null) {
 				throw new IOException("Expected a valid starttime but was null or empty");
 			}
-			channel.setStartDate(start);
-			value = pairs.get(B052F23);
-			if (value == null || value.trim().isEmpty()) {
+			channel.setStartDate(startDate);
+			if (end == null) {
 				throw new IOException("Couldn't determine stage sequence number");
 			}
-			channel.setEndDate(parseDateTime(value));
+			channel.setEndDate(parseDateTime(end));
 			return channel;
 		} catch (NumberFormatException e) {
 			throw new IOException(e);
 		}
 	}
 
-	static String extractValue(String value) throws IOException {
-		if (value == null) {
-			return null;
-		}
-		return value.trim();
-	}
-
 	static ZonedDateTime parseDateTime(String value) {
 		if (value == null) {
 			return null;
@@ -231,8 +224,7 @@ public class RespChannelReader implements ChannelReader {
 				|| "undefined".equalsIgnoreCase(value) || "unknown".equalsIgnoreCase(value)) {
 			return null;
 		}
-		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy,DDD,HH:mm:ss").withZone(ZoneId.of("UTC"));
-		return ZonedDateTime.parse(value, formatter);
+		return DateTimeUtil.parseAny(value);
 	}
 
 	@Override
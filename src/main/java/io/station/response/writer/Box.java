@@ -35,6 +35,10 @@ public class Box {
 	}
 
 	private String doTop() {
+		return top(width);
+	}
+
+	static String top(int width) {
 		char[] kars = new char[width];
 		Arrays.fill(kars, '-');
 		kars[0] = '+';
@@ -43,6 +47,14 @@ public class Box {
 	}
 
 	private String doLine(String text) {
+		return line(width, text);
+	}
+
+	/**
+	 * @return text centered between two '|', the text cannot be longer than
+	 *         width - 2.
+	 */
+	static String line(int width, String text) {
 		int leftPadding = Math.floorDiv(width - 2 - text.length(), 2);
 		int rightPadding = width - 2 - text.length() - leftPadding;
 		// int length = width + 2 + (2 * padding);
@@ -0,0 +1,688 @@
+package io.station.response.writer;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import javax.measure.Unit;
+
+import io.station.model.CfTransferFunctionType;
+import io.station.model.Channel;
+import io.station.model.Coefficients;
+import io.station.model.Decimation;
+import io.station.model.Denominator;
+import io.station.model.FDSNStationXML;
+import io.station.model.FIR;
+import io.station.model.FloatNoUnitType;
+import io.station.model.Gain;
+import io.station.model.Network;
+import io.station.model.Numerator;
+import io.station.model.PoleZero;
+import io.station.model.PolesZeros;
+import io.station.model.Polynomial;
+import io.station.model.Polynomial.Coefficient;
+import io.station.model.PzTransferFunctionType;
+import io.station.model.Response;
+import io.station.model.ResponseList;
+import io.station.model.ResponseListElement;
+import io.station.model.ResponseStage;
+import io.station.model.Station;
+import io.station.model.Symmetry;
+import io.station.uom.Describable;
+
+/**
+ * Writes the same bytes as {@link RespWriter}, quirks included, for exporting
+ * large inventories. The text of a channel is appended to a single reused
+ * StringBuilder, numbers go through {@link ScientificFormat} instead of a
+ * DecimalFormat per value, the header boxes are drawn once per title and per
+ * channel, and the text is encoded with the platform charset into a direct
+ * ByteBuffer that is written to the channel when full.
+ * <p>
+ * Unlike RespWriter, IO errors are thrown rather than recorded, and the
+ * elements of response lists are written where RespWriter fails on them. A
+ * channel that fails to be written leaves nothing behind.
+ */
+public class RespBulkWriter implements Closeable, Flushable {
+
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+	private static final int BOX_WIDTH = 40;
+	private static final int LINE_WIDTH = 84;
+
+	private static final String TOP = row(Box.top(BOX_WIDTH));
+	private static final String POLES_ZEROS_TITLE = title("Response (Poles and Zeros)");
+	private static final String COEFFICIENTS_TITLE = title("Response (Coefficients) ");
+	private static final String RESPONSE_LIST_TITLE = title("Response (ResponseList) ");
+	private static final String DECIMATION_TITLE = title("Decimation");
+	private static final String GAIN_TITLE = title("Channel Sensitivity/Gain");
+	private static final String FIR_TITLE = title("Response (FIR) ");
+	private static final String POLYNOMIAL_TITLE = title("Response (Polynomial) ");
+
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer;
+	private final CharsetEncoder encoder;
+	private final ScientificFormat scientificFormat = new ScientificFormat();
+	private final DateTimeFormatter fieldDateFormatter = DateTimeFormatter.ofPattern("YYYY,DDD,HH:MM:SS");
+	private final DateTimeFormatter boxDateFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+	private final StringBuilder text = new StringBuilder(1 << 16);
+	private char[] chars = new char[1 << 16];
+	private long bytes;
+
+	private Channel boxChannel;
+	private String boxRows;
+
+	public RespBulkWriter(WritableByteChannel channel) {
+		this(channel, 1 << 20);
+	}
+
+	/**
+	 * @param bufferSize size of the direct buffer the text is encoded to.
+	 */
+	public RespBulkWriter(WritableByteChannel channel, int bufferSize) {
+		this.channel = Objects.requireNonNull(channel, "channel cannot be null.");
+		if (bufferSize < 16) {
+			throw new IllegalArgumentException("bufferSize must be at least 16 but was " + bufferSize);
+		}
+		this.buffer = ByteBuffer.allocateDirect(bufferSize);
+		// same replacement as the stream encoder of a PrintWriter
+		this.encoder = Charset.defaultCharset().newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	public static RespBulkWriter open(Path path) throws IOException {
+		Objects.requireNonNull(path, "path cannot be null.");
+		return new RespBulkWriter(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING));
+	}
+
+	public void write(FDSNStationXML doc) throws IOException {
+		if (doc == null) {
+			throw new IllegalStateException("FDSNStationXML is null");
+		}
+		write(doc.getNetwork());
+	}
+
+	public void write(List<Network> networks) throws IOException {
+		if (networks == null) {
+			throw new IllegalStateException("networks is null");
+		}
+		for (Network n : networks) {
+			write(n);
+		}
+	}
+
+	public void write(Network network) throws IOException {
+		if (network == null) {
+			throw new IllegalStateException("networks is null");
+		}
+		for (Station station : network.getStations()) {
+			write(station);
+		}
+	}
+
+	public void write(Station station) throws IOException {
+		if (station == null) {
+			throw new IllegalStateException("Station cannot be null");
+		}
+		writeHeader(station);
+		if (station.getChannels() != null) {
+			for (Channel channel : station.getChannels()) {
+				write(channel);
+			}
+		}
+	}
+
+	/**
+	 * Writes the station lines {@link #write(Station)} writes before the
+	 * channels.
+	 */
+	void writeHeader(Station station) throws IOException {
+		Network network = station.getNetwork();
+		stringField("B050F03", "Station", station.getCode());
+		stringField("B050F16", "Network", network.getCode());
+		drain();
+	}
+
+	public void write(Channel channel) throws IOException {
+		if (channel == null) {
+			throw new IllegalStateException("Channel cannot be null");
+		}
+		boxChannel = null;
+		int start = text.length();
+		try {
+			Station station = channel.getStation();
+			field("B050F03", "Station").append(station == null ? "" : station.getCode());
+			newLine();
+			Network network = station == null ? null : station.getNetwork();
+			field("B050F16", "Network").append(network == null ? "" : network.getCode());
+			newLine();
+
+			stringField("B052F03", "Location", channel.getLocationCode());
+			stringField("B052F04", "Channel", channel.getCode());
+			dateField("B052F22", "Start date", channel.getStartDate());
+			dateField("B052F23", "End date", channel.getEndDate());
+
+			Response response = channel.getResponse();
+			if (response != null) {
+				append(channel, response.getInstrumentSensitivity(), 0);
+				append(channel, response.getInstrumentPolynomial(), 0);
+				List<ResponseStage> stages = response.getStages();
+				if (stages != null && !stages.isEmpty()) {
+					for (ResponseStage r : stages) {
+						append(channel, r);
+					}
+				}
+			}
+		} catch (RuntimeException e) {
+			// nothing of a channel that fails is written
+			text.setLength(start);
+			throw e;
+		}
+		drain();
+	}
+
+	public void write(Channel channel, ResponseStage stage) throws IOException {
+		boxChannel = null;
+		int start = text.length();
+		try {
+			append(channel, stage);
+		} catch (RuntimeException e) {
+			text.setLength(start);
+			throw e;
+		}
+		drain();
+	}
+
+	private void append(Channel channel, ResponseStage stage) {
+		append(channel, stage.getPolesZeros(), stage.getNumber().intValue());
+		append(channel, stage.getCoefficients(), stage.getNumber().intValue());
+		append(channel, stage.getResponseList(), stage.getNumber().intValue());
+		append(channel, stage.getDecimation(), stage.getNumber().intValue());
+		append(channel, stage.getStageGain(), stage.getNumber().intValue());
+		append(channel, stage.getFIR(), stage.getNumber().intValue());
+		append(channel, stage.getPolynomial(), stage.getNumber().intValue());
+	}
+
+	private void box(String title, Channel channel) {
+		if (channel == null) {
+			throw new IllegalStateException("Channel cannot be null");
+		}
+		// the channel rows are drawn once per write
+		if (channel != boxChannel) {
+			String channelIdentifierString = channel.getLocationCode() + "  " + channel.getCode();
+			Station station = channel.getStation();
+			if (station != null) {
+				channelIdentifierString = station.getCode() + "  " + channelIdentifierString;
+				Network network = station.getNetwork();
+				if (network != null) {
+					channelIdentifierString = network.getCode() + "  " + channelIdentifierString;
+				}
+			}
+			String dates = (channel.getStartDate() == null ? "No Starting Time"
+					: channel.getStartDate().format(boxDateFormatter)) + " to "
+					+ (channel.getEndDate() == null ? "No Ending Time" : channel.getEndDate().format(boxDateFormatter));
+			boxRows = title(channelIdentifierString) + title(dates) + TOP + "#" + LINE_SEPARATOR;
+			boxChannel = channel;
+		}
+		text.append('#').append(LINE_SEPARATOR).append(TOP).append(title).append(boxRows);
+	}
+
+	private static String title(String line) {
+		return row(Box.line(BOX_WIDTH, line));
+	}
+
+	/**
+	 * @return a box line shifted right within a comment line, as RespWriter
+	 *         lays it out.
+	 */
+	private static String row(String boxLine) {
+		char[] kars = new char[LINE_WIDTH];
+		Arrays.fill(kars, ' ');
+		kars[0] = '#';
+		boxLine.getChars(0, boxLine.length(), kars, Math.floorDiv(LINE_WIDTH - BOX_WIDTH - 1, 2));
+		return new String(kars) + LINE_SEPARATOR;
+	}
+
+	private void append(Channel channel, PolesZeros polesZeros, int stage) {
+		if (polesZeros == null) {
+			return;
+		}
+		box(POLES_ZEROS_TITLE, channel);
+		String fType;
+		if (PzTransferFunctionType.LAPLACE_RADIANS_SECOND == polesZeros.getPzTransferFunctionType()) {
+			fType = "A";
+		} else if (PzTransferFunctionType.LAPLACE_HERTZ == polesZeros.getPzTransferFunctionType()) {
+			fType = "B";
+		} else if (PzTransferFunctionType.DIGITAL_Z_TRANSFORM == polesZeros.getPzTransferFunctionType()) {
+			fType = "D";
+		} else {
+			fType = "Undefined";
+		}
+		stringField("B053F03", "Transfer function type:", fType);
+		intField("B053F04", "Stage sequence number:", stage);
+		unitField("B053F05", "Response in units lookup:", polesZeros.getInputUnits());
+		unitField("B053F06", "Response out units lookup:", polesZeros.getOutputUnits());
+		numberField("B053F07", "A0 normalization factor:", polesZeros.getNormalizationFactor());
+		numberField("B053F08", "Normalization frequency:", polesZeros.getNormalizationFrequency() == null ? null
+				: polesZeros.getNormalizationFrequency().getValue());
+		intField("B053F09", "Number of zeroes:", polesZeros.getZero() == null ? 0 : polesZeros.getZero().size());
+		intField("B053F14", "Number of poles:", polesZeros.getPole() == null ? 0 : polesZeros.getPole().size());
+
+		// RespWriter lists the poles under the zeros header too
+		poleZeros("#              Complex zeros:", "B053F10-13", polesZeros.getPole());
+		poleZeros("#              Complex poles:", "B053F15-18", polesZeros.getPole());
+	}
+
+	private void poleZeros(String header, String key, List<PoleZero> list) {
+		if (list == null || list.isEmpty()) {
+			return;
+		}
+		text.append(header);
+		newLine();
+		column("#", 15);
+		column("i", 3);
+		column("real", 14);
+		column("imag", 14);
+		column("real_error", 14);
+		text.append("imag_error");
+		newLine();
+		for (PoleZero pz : list) {
+			if (pz == null) {
+				continue;
+			}
+			column(key, 15);
+			column(pz.getNumber() == null ? 0 : pz.getNumber().intValue(), 3);
+			number(pz.getRealType(), 14);
+			number(pz.getImaginaryType(), 14);
+			number(pz.getRealType() == null ? null : pz.getRealType().getMinusError(), 14);
+			number(pz.getImaginaryType() == null ? null : pz.getImaginaryType().getMinusError(), 12);
+			newLine();
+		}
+	}
+
+	private void append(Channel channel, Coefficients coefficients, int stage) {
+		if (coefficients == null) {
+			return;
+		}
+		box(COEFFICIENTS_TITLE, channel);
+		String fType;
+		if (CfTransferFunctionType.ANALOG_RADIANS_SECOND.equals(coefficients.getCfTransferFunctionType())) {
+			fType = "A";
+		} else if (CfTransferFunctionType.ANALOG_HERTZ.equals(coefficients.getCfTransferFunctionType())) {
+			fType = "B";
+		} else if (CfTransferFunctionType.DIGITAL.equals(coefficients.getCfTransferFunctionType())) {
+			fType = "D";
+		} else {
+			fType = "Undefined";
+		}
+		stringField("B054F03", "Transfer function type:", fType);
+		intField("B054F04", "Stage sequence number:", stage);
+		unitField("B054F05", "Response in units lookup:", coefficients.getInputUnits());
+		unitField("B054F06", "Response out units lookup:", coefficients.getOutputUnits());
+		intField("B054F07", "Number of numerators:",
+				coefficients.getNumerators() == null ? 0 : coefficients.getNumerators().size());
+		intField("B054F10", "Number of denominators:",
+				coefficients.getDenominators() == null ? 0 : coefficients.getDenominators().size());
+
+		List<Numerator> numerators = coefficients.getNumerators();
+		if (numerators != null && !numerators.isEmpty()) {
+			coefficientsHeader("#              Numerator coefficients:");
+			int index = 1;
+			for (Numerator n : numerators) {
+				coefficient("B054F08-09", index++, n);
+			}
+		}
+		List<Denominator> denominators = coefficients.getDenominators();
+		if (denominators != null && !denominators.isEmpty()) {
+			coefficientsHeader("#              Denominator coefficients:");
+			int index = 1;
+			for (Denominator d : denominators) {
+				coefficient("B054F11-12", index++, d);
+			}
+		}
+	}
+
+	private void coefficientsHeader(String header) {
+		text.append(header);
+		newLine();
+		column("#", 15);
+		column("i", 3);
+		column("coefficient", 14);
+		column("error", 14);
+		newLine();
+	}
+
+	private void coefficient(String key, int index, FloatNoUnitType floatNoUnitType) {
+		if (floatNoUnitType == null) {
+			return;
+		}
+		column(key, 15);
+		column(index, 3);
+		number(floatNoUnitType.getValue(), 14);
+		number(floatNoUnitType.getMinusError(), 14);
+		newLine();
+	}
+
+	private void append(Channel channel, ResponseList list, int stage) {
+		if (list == null) {
+			return;
+		}
+		box(RESPONSE_LIST_TITLE, channel);
+		intField("B055F03", "Stage sequence number:", stage);
+		unitField("B055F04", "Response in units lookup:", list.getInputUnits());
+		unitField("B055F05", "Response out units lookup:", list.getOutputUnits());
+		intField("B054F07", "Number of responses listed:",
+				list.getResponseListElement() == null ? 0 : list.getResponseListElement().size());
+		column("#", 15);
+		column("i", 3);
+		column("frequency", 14);
+		column("amplitude", 14);
+		column("amplitude err", 14);
+		column("phase angle", 14);
+		column("phase err", 14);
+		newLine();
+		if (list.getResponseListElement() == null) {
+			return;
+		}
+		// RespWriter formats the key of each element with %c and fails, the
+		// elements are written in the layout of the coefficients instead
+		int index = 0;
+		for (ResponseListElement e : list.getResponseListElement()) {
+			if (e == null) {
+				continue;
+			}
+			column("B055F07-11", 15);
+			column(index++, 3);
+			number(e.getFrequency() == null ? null : e.getFrequency().getValue(), 14);
+			number(e.getAmplitude() == null ? null : e.getAmplitude().getValue(), 14);
+			number(e.getAmplitude() == null ? null : e.getAmplitude().getMinusError(), 14);
+			number(e.getPhase() == null ? null : e.getPhase().getValue(), 14);
+			number(e.getPhase() == null ? null : e.getPhase().getMinusError(), 14);
+			newLine();
+		}
+	}
+
+	private void append(Channel channel, Decimation decimation, int stage) {
+		if (decimation == null) {
+			return;
+		}
+		box(DECIMATION_TITLE, channel);
+		intField("B057F03", "Stage sequence number:", stage);
+		field("B057F04", "Input sample rate (HZ):");
+		number(decimation.getInputSampleRate() == null ? 0 : decimation.getInputSampleRate().getValue());
+		newLine();
+		intField("B057F05", "Decimation factor:",
+				decimation.getFactor() == null ? 0 : decimation.getFactor().intValue());
+		intField("B057F06", "Decimation offset: ",
+				decimation.getOffset() == null ? 0 : decimation.getOffset().intValue());
+		field("B057F07", "Estimated delay (seconds):");
+		number(decimation.getDelay() == null ? 0 : decimation.getDelay().getValue());
+		newLine();
+		field("B057F08", "Correction applied (seconds):");
+		number(decimation.getCorrection() == null ? 0 : decimation.getCorrection().getValue());
+		newLine();
+	}
+
+	private void append(Channel channel, Gain sensitivity, int stage) {
+		if (sensitivity == null) {
+			return;
+		}
+		box(GAIN_TITLE, channel);
+		intField("B058F03", "Stage sequence number:", stage);
+		field("B058F04", "Sensitivity:");
+		number(sensitivity.getValue() == null ? 0 : sensitivity.getValue());
+		newLine();
+		field("B058F05", "Frequency of sensitivity:");
+		number(sensitivity.getFrequency() == null ? 0 : sensitivity.getFrequency());
+		newLine();
+		intField("B058F06", "Number of calibrations:", 0);
+	}
+
+	private void append(Channel channel, FIR fir, int stage) {
+		if (fir == null) {
+			return;
+		}
+		box(FIR_TITLE, channel);
+		intField("B061F03", "Stage sequence number:", stage);
+		stringField("B061F04", "Response Name:", fir.getName());
+		String symmetry;
+		if (Symmetry.EVEN == fir.getSymmetry()) {
+			symmetry = "C";
+		} else if (Symmetry.ODD == fir.getSymmetry()) {
+			symmetry = "B";
+		} else {
+			symmetry = "A";
+		}
+		stringField("B061F05", "Symmetry Code:", symmetry);
+		unitField("B061F06", "Response in units lookup:", fir.getInputUnits());
+		unitField("B061F07", "Response out units lookup:", fir.getOutputUnits());
+		intField("B061F08", "Number of Coefficients:", fir.getNumerators() == null ? 0 : fir.getNumerators().size());
+		// RespWriter does not end the header line, the first coefficient follows
+		column("#", 15);
+		column("i", 3);
+		column("FIR Coefficient", 14);
+		int index = 1;
+		for (Numerator n : fir.getNumerators()) {
+			column("B061F09", 15);
+			column(index++, 3);
+			number(n.getValue() == null ? 0 : n.getValue(), 14);
+			newLine();
+		}
+	}
+
+	private void append(Channel channel, Polynomial polynomial, int stage) {
+		if (polynomial == null) {
+			return;
+		}
+		box(POLYNOMIAL_TITLE, channel);
+		// RespWriter prints the codes of the 'P', 'M' and 'B' chars
+		intField("B062F03", "Transfer function type:", 'P');
+		intField("B062F04", "Stage sequence number:", stage);
+		unitField("B062F05", "Response in units lookup:", polynomial.getInputUnits());
+		unitField("B062F06", "Response out units lookup:", polynomial.getOutputUnits());
+		intField("B062F07", "Polynomial Approximation Type:", 'M');
+		intField("B062F08", "Valid Frequency Units:", 'B');
+		field("B062F09", "Lower Valid Frequency Bound:");
+		number(polynomial.getFrequencyLowerBound() == null ? 0 : polynomial.getFrequencyLowerBound().getValue());
+		newLine();
+		field("B062F10", "Upper Valid Frequency Bound:");
+		number(polynomial.getFrequencyUpperBound() == null ? 0 : polynomial.getFrequencyUpperBound().getValue());
+		newLine();
+		field("B062F11", "Lower Bound of Approximation:");
+		number(polynomial.getApproximationLowerBound() == null ? 0 : polynomial.getApproximationLowerBound());
+		newLine();
+		field("B062F12", "Upper Bound of Approximation:");
+		number(polynomial.getApproximationUpperBound() == null ? 0 : polynomial.getApproximationUpperBound());
+		newLine();
+		field("B062F13", "Maximum Absolute Error:");
+		number(polynomial.getMaximumError() == null ? 0 : polynomial.getMaximumError());
+		newLine();
+		intField("B062F14", "Number of Coefficients:",
+				polynomial.getCoefficient() == null ? 0 : polynomial.getCoefficient().size());
+		column("#", 15);
+		text.append("Polynomial Coefficient");
+		newLine();
+		column("#", 15);
+		column("i", 3);
+		column("coefficient", 14);
+		column("error", 14);
+		newLine();
+		if (polynomial.getCoefficient() != null) {
+			// RespWriter does not end the coefficient lines
+			for (Coefficient coefficient : polynomial.getCoefficient()) {
+				column("B062F15-16", 15);
+				column(coefficient.getNumber().intValue(), 3);
+				number(coefficient.getValue() == null ? 0 : coefficient.getValue(), 14);
+				number(coefficient.getMinusError() == null ? 0 : coefficient.getMinusError(), 14);
+			}
+		}
+	}
+
+	/**
+	 * Appends "%-11s %-38s".
+	 */
+	private StringBuilder field(String key, String description) {
+		column(key, 11);
+		text.append(' ');
+		column(description, 38);
+		return text;
+	}
+
+	private void stringField(String key, String description, String value) {
+		field(key, description).append(value == null ? "" : value);
+		newLine();
+	}
+
+	private void intField(String key, String description, int value) {
+		field(key, description).append(value);
+		newLine();
+	}
+
+	private void numberField(String key, String description, Double value) {
+		field(key, description);
+		number(value, 12);
+		newLine();
+	}
+
+	private void dateField(String key, String description, ZonedDateTime value) {
+		column(key, 11);
+		text.append(' ');
+		column(description, 11);
+		text.append(' ');
+		if (value != null) {
+			fieldDateFormatter.formatTo(value, text);
+		}
+		newLine();
+	}
+
+	private void unitField(String key, String description, Unit<?> units) {
+		field(key, description);
+		if (units != null && units.getName() != null) {
+			text.append(units.getName());
+			if (units instanceof Describable) {
+				String unitDescription = ((Describable) units).getDescription();
+				if (unitDescription != null) {
+					text.append(" - ").append(unitDescription);
+				}
+			}
+		}
+		newLine();
+	}
+
+	private void column(String value, int width) {
+		int start = text.length();
+		text.append(value);
+		pad(start, width);
+	}
+
+	private void column(int value, int width) {
+		int start = text.length();
+		text.append(value);
+		pad(start, width);
+	}
+
+	private void number(double value) {
+		scientificFormat.format(value, text);
+	}
+
+	private void number(Double value, int width) {
+		int start = text.length();
+		scientificFormat.format(value == null ? 0 : value, text);
+		pad(start, width);
+	}
+
+	private void number(FloatNoUnitType value, int width) {
+		number(value == null ? null : value.getValue(), width);
+	}
+
+	private void pad(int start, int width) {
+		for (int i = text.length() - start; i < width; i++) {
+			text.append(' ');
+		}
+	}
+
+	private void newLine() {
+		text.append(LINE_SEPARATOR);
+	}
+
+	/**
+	 * Encodes the text appended so far into the buffer, writing the buffer out
+	 * whenever it fills up.
+	 */
+	private void drain() throws IOException {
+		final int length = text.length();
+		if (length == 0) {
+			return;
+		}
+		if (chars.length < length) {
+			chars = new char[Math.max(length, 2 * chars.length)];
+		}
+		text.getChars(0, length, chars, 0);
+		text.setLength(0);
+		CharBuffer in = CharBuffer.wrap(chars, 0, length);
+		encoder.reset();
+		CoderResult result;
+		while ((result = encoder.encode(in, buffer, true)).isOverflow()) {
+			writeBuffer();
+		}
+		if (result.isError()) {
+			result.throwException();
+		}
+		while (encoder.flush(buffer).isOverflow()) {
+			writeBuffer();
+		}
+	}
+
+	private void writeBuffer() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			bytes += channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Discards the text and the bytes not written to the channel yet.
+	 */
+	void reset() {
+		text.setLength(0);
+		buffer.clear();
+		boxChannel = null;
+	}
+
+	/**
+	 * @return the number of bytes written to the channel so far.
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		drain();
+		writeBuffer();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
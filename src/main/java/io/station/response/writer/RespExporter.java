@@ -0,0 +1,273 @@
+package io.station.response.writer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import io.station.model.Channel;
+import io.station.model.FDSNStationXML;
+import io.station.model.Network;
+import io.station.model.Station;
+
+/**
+ * Exports documents to RESP with the channels rendered concurrently. Each
+ * channel is rendered by a {@link RespBulkWriter} of the worker thread into
+ * its own buffer, the buffers are written out in document order by the
+ * calling thread. At most window channels are rendered or waiting to be
+ * written at any time, which bounds memory whatever the size of the
+ * document.
+ */
+public class RespExporter {
+
+	private final Executor executor;
+	private final int window;
+	private final ThreadLocal<Renderer> renderers = ThreadLocal.withInitial(Renderer::new);
+
+	public RespExporter(ForkJoinPool pool) {
+		this(pool, 4 * Objects.requireNonNull(pool, "pool cannot be null.").getParallelism());
+	}
+
+	/**
+	 * @param window the number of channels allowed to be rendered ahead of the
+	 *               one being written.
+	 */
+	public RespExporter(Executor executor, int window) {
+		this.executor = Objects.requireNonNull(executor, "executor cannot be null.");
+		if (window < 1) {
+			throw new IllegalArgumentException("window:[" + window + "] must be greater than 0");
+		}
+		this.window = window;
+	}
+
+	/**
+	 * Writes the same bytes as {@link RespWriter#write(FDSNStationXML)}. The
+	 * output stream is neither flushed nor closed.
+	 *
+	 * @return the number of bytes written.
+	 */
+	public long export(FDSNStationXML document, OutputStream outputStream)
+			throws IOException, InterruptedException {
+		Objects.requireNonNull(outputStream, "outputStream cannot be null.");
+		if (document == null) {
+			throw new IllegalStateException("FDSNStationXML is null");
+		}
+		if (document.getNetwork() == null) {
+			throw new IllegalStateException("networks is null");
+		}
+		Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+		long count = 0;
+		try {
+			for (Network network : document.getNetwork()) {
+				if (network == null) {
+					throw new IllegalStateException("networks is null");
+				}
+				for (Station station : network.getStations()) {
+					if (station == null) {
+						throw new IllegalStateException("Station cannot be null");
+					}
+					// the two station lines are rendered in place
+					if (pending.size() == window) {
+						count += write(pending.poll(), outputStream);
+					}
+					pending.add(CompletableFuture.completedFuture(renderers.get().render(station)));
+					if (station.getChannels() == null) {
+						continue;
+					}
+					for (Channel channel : station.getChannels()) {
+						if (pending.size() == window) {
+							count += write(pending.poll(), outputStream);
+						}
+						pending.add(CompletableFuture.supplyAsync(() -> renderers.get().render(channel), executor));
+					}
+				}
+			}
+			while (!pending.isEmpty()) {
+				count += write(pending.poll(), outputStream);
+			}
+		} finally {
+			for (CompletableFuture<byte[]> future : pending) {
+				future.cancel(false);
+			}
+		}
+		return count;
+	}
+
+	private static int write(CompletableFuture<byte[]> future, OutputStream outputStream)
+			throws IOException, InterruptedException {
+		byte[] bytes = get(future);
+		outputStream.write(bytes);
+		return bytes.length;
+	}
+
+	/**
+	 * Writes every channel of the document to its own file in directory, named
+	 * after {@link #fileName(Channel)}. The epochs of a channel go to the same
+	 * file, in document order, each as {@link RespWriter#write(Channel)} writes
+	 * it. Files are written concurrently.
+	 *
+	 * @return the number of files written.
+	 */
+	public int exportFiles(FDSNStationXML document, Path directory) throws IOException, InterruptedException {
+		Objects.requireNonNull(document, "document cannot be null.");
+		Objects.requireNonNull(directory, "directory cannot be null.");
+		Map<String, List<Channel>> files = new LinkedHashMap<>();
+		if (document.getNetwork() != null) {
+			for (Network network : document.getNetwork()) {
+				if (network.getStations() == null) {
+					continue;
+				}
+				for (Station station : network.getStations()) {
+					if (station.getChannels() == null) {
+						continue;
+					}
+					for (Channel channel : station.getChannels()) {
+						files.computeIfAbsent(fileName(channel), k -> new ArrayList<>()).add(channel);
+					}
+				}
+			}
+		}
+		Files.createDirectories(directory);
+		Deque<CompletableFuture<Void>> pending = new ArrayDeque<>();
+		try {
+			for (Map.Entry<String, List<Channel>> file : files.entrySet()) {
+				if (pending.size() == window) {
+					get(pending.poll());
+				}
+				Path path = directory.resolve(file.getKey());
+				List<Channel> channels = file.getValue();
+				pending.add(CompletableFuture.runAsync(() -> renderers.get().write(channels, path), executor));
+			}
+			while (!pending.isEmpty()) {
+				get(pending.poll());
+			}
+		} finally {
+			for (CompletableFuture<Void> future : pending) {
+				future.cancel(false);
+			}
+		}
+		return files.size();
+	}
+
+	/**
+	 * @return RESP.NET.STA.LOC.CHA, with an empty location for channels without
+	 *         location code.
+	 */
+	public static String fileName(Channel channel) {
+		Objects.requireNonNull(channel, "channel cannot be null.");
+		Station station = channel.getStation();
+		Network network = station == null ? null : station.getNetwork();
+		return "RESP." + (network == null ? "" : network.getCode()) + "."
+				+ (station == null ? "" : station.getCode()) + "."
+				+ (channel.getLocationCode() == null ? "" : channel.getLocationCode()) + "." + channel.getCode();
+	}
+
+	private static <T> T get(CompletableFuture<T> future) throws IOException, InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) cause).getCause();
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * A writer rendering to memory, one per thread. The writer and the memory
+	 * are emptied after every render, whether it fails or not, so that nothing
+	 * of a failed channel reaches the next one. Memory grown past
+	 * {@link #RETAINED_SIZE} by a large channel or file is released.
+	 */
+	private static class Renderer {
+		private static final int INITIAL_SIZE = 1 << 16;
+		private static final int RETAINED_SIZE = 1 << 20;
+
+		private final Buffer outputStream = new Buffer();
+		private final RespBulkWriter writer = new RespBulkWriter(Channels.newChannel(outputStream), INITIAL_SIZE);
+
+		byte[] render(Station station) {
+			try {
+				writer.writeHeader(station);
+				writer.flush();
+				return outputStream.toByteArray();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} finally {
+				reset();
+			}
+		}
+
+		byte[] render(Channel channel) {
+			try {
+				writer.write(channel);
+				writer.flush();
+				return outputStream.toByteArray();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} finally {
+				reset();
+			}
+		}
+
+		void write(List<Channel> channels, Path path) {
+			try {
+				for (Channel channel : channels) {
+					writer.write(channel);
+				}
+				writer.flush();
+				try (OutputStream out = Files.newOutputStream(path)) {
+					outputStream.writeTo(out);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} finally {
+				reset();
+			}
+		}
+
+		private void reset() {
+			writer.reset();
+			outputStream.reset();
+			outputStream.trim();
+		}
+	}
+
+	private static class Buffer extends ByteArrayOutputStream {
+
+		Buffer() {
+			super(Renderer.INITIAL_SIZE);
+		}
+
+		/**
+		 * Drops the array once it grew past {@link Renderer#RETAINED_SIZE}, the
+		 * buffer must be empty.
+		 */
+		void trim() {
+			if (buf.length > Renderer.RETAINED_SIZE) {
+				buf = new byte[Renderer.INITIAL_SIZE];
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package io.station.response.writer;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Formats doubles as RespWriter does, +1.23456E-05: the sign is always shown,
+ * one integer digit, five or six fraction digits and a signed exponent of at
+ * least two digits. The digits are rounded half even from the exact value of
+ * the double, like {@link DecimalFormat}, in double arithmetic. The few values
+ * that fall too close to a tie for double arithmetic to decide, as well as NaN
+ * and infinities, are formatted by a {@link DecimalFormat} set up like
+ * RespWriter's.
+ * <p>
+ * Not thread safe.
+ */
+final class ScientificFormat {
+
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+	/**
+	 * The scaled value is within a few ulps of 10^7 of the exact one, values
+	 * closer than this to a tie are left to DecimalFormat.
+	 */
+	private static final double TIE_MARGIN = 1e-6;
+
+	private final DecimalFormat decimalFormat;
+
+	ScientificFormat() {
+		decimalFormat = new DecimalFormat("0.######E00");
+		DecimalFormatSymbols symbols = new DecimalFormatSymbols(Locale.US);
+		symbols.setExponentSeparator("E");
+		decimalFormat.setDecimalFormatSymbols(symbols);
+		decimalFormat.setMinimumFractionDigits(5);
+		decimalFormat.setPositivePrefix("+");
+	}
+
+	String format(double value) {
+		StringBuilder b = new StringBuilder(13);
+		format(value, b);
+		return b.toString();
+	}
+
+	void format(double value, StringBuilder out) {
+		if (value == 0) {
+			out.append(1 / value < 0 ? '-' : '+').append("0.00000E+00");
+			return;
+		}
+		final double a = Math.abs(value);
+		int exponent = (int) Math.floor(Math.log10(a));
+		double scaled = scale(a, 6 - exponent);
+		if (scaled < 1e6) {
+			exponent--;
+			scaled = scale(a, 6 - exponent);
+		} else if (scaled >= 1e7) {
+			exponent++;
+			scaled = scale(a, 6 - exponent);
+		}
+		final double floor = Math.floor(scaled);
+		final double fraction = scaled - floor;
+		// NaN, infinities and out of range scales fail the first test
+		if (!(scaled >= 1e6 && scaled < 1e7) || Math.abs(fraction - 0.5) < TIE_MARGIN) {
+			out.append(formatSlowly(value));
+			return;
+		}
+		long digits = (long) floor + (fraction > 0.5 ? 1 : 0);
+		if (digits == 10000000L) {
+			digits = 1000000L;
+			exponent++;
+		}
+		out.append(value < 0 ? '-' : '+');
+		out.append((char) ('0' + digits / 1000000L)).append('.');
+		long divisor = 100000L;
+		for (int i = 0; i < 5; i++, divisor /= 10) {
+			out.append((char) ('0' + (digits / divisor) % 10));
+		}
+		if (digits % 10 != 0) {
+			out.append((char) ('0' + digits % 10));
+		}
+		out.append('E').append(exponent < 0 ? '-' : '+');
+		int e = Math.abs(exponent);
+		if (e < 10) {
+			out.append('0');
+		}
+		out.append(e);
+	}
+
+	/**
+	 * @return a * 10^power with at most two roundings, NaN if out of range.
+	 */
+	private static double scale(double a, int power) {
+		if (power >= 0) {
+			if (power <= 22) {
+				return a * POWERS_OF_TEN[power];
+			}
+			return power <= 44 ? a * POWERS_OF_TEN[22] * POWERS_OF_TEN[power - 22] : Double.NaN;
+		}
+		if (power >= -22) {
+			return a / POWERS_OF_TEN[-power];
+		}
+		return power >= -44 ? a / POWERS_OF_TEN[22] / POWERS_OF_TEN[-power - 22] : Double.NaN;
+	}
+
+	/**
+	 * Same steps as RespWriter.
+	 */
+	String formatSlowly(double value) {
+		String s = decimalFormat.format(value);
+		if (!s.contains("E-")) { // don't blast a negative sign
+			return s.replace("E", "E+");
+		}
+		return s;
+	}
+}
@@ -0,0 +1,61 @@
+package io.station.response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+import org.junit.jupiter.api.Test;
+
+import io.station.model.Channel;
+import io.station.model.StageGain;
+import io.station.response.ResponseSpectrum.StageSpectrum;
+import io.station.response.util.FrequencySet;
+
+public class EpochBatchEvaluatorTest {
+
+	@Test
+	public void sharedStages() throws Exception {
+		FrequencySet frequencySet = EvalRespUtil.createFrequency(0.001, 20, 500, FrequencySpacing.LOGARITHMIC);
+		List<NormalizedResponse> epochs = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Channel channel = read("iu.anmo.bhz.one.epoch.resp");
+			if (i == 2) {
+				// a gain only edit keeps every kernel
+				StageGain stageGain = channel.getResponse().getStage(2).getStageGain();
+				stageGain.setValue(2 * stageGain.getValue());
+			}
+			epochs.add(NormalizedResponse.wrap(channel));
+		}
+
+		EpochBatchEvaluator single = new EpochBatchEvaluator();
+		single.evaluate(Collections.singletonList(epochs.get(0)), frequencySet);
+
+		EpochBatchEvaluator evaluator = new EpochBatchEvaluator();
+		List<ResponseSpectrum> actual = evaluator.evaluate(epochs, frequencySet);
+		assertEquals(3, actual.size());
+		assertEquals(3 * single.getStages(), evaluator.getStages());
+		assertEquals(single.getTransforms(), evaluator.getTransforms());
+
+		for (int i = 0; i < epochs.size(); i++) {
+			ResponseSpectrum expected = CompiledResponse.compile(epochs.get(i)).evaluate(frequencySet);
+			assertEquals(expected.size(), actual.get(i).size());
+			for (StageSpectrum stageSpectrum : expected.getAll()) {
+				Complex[] e = stageSpectrum.getAll();
+				Complex[] a = actual.get(i).get(stageSpectrum.getStageNumber()).getAll();
+				for (int k = 0; k < e.length; k++) {
+					assertEquals(e[k], a[k], i + ":" + stageSpectrum.getStageNumber() + ":" + k);
+				}
+			}
+		}
+	}
+
+	private Channel read(String resource) throws Exception {
+		try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+			return RespIO.read(inputStream).getNetwork().get(0).getStations().get(0).getChannels().get(0);
+		}
+	}
+}
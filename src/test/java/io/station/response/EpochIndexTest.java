@@ -0,0 +1,123 @@
+package io.station.response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.InputStream;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.station.model.Channel;
+import io.station.model.FDSNStationXML;
+import io.station.model.Network;
+import io.station.model.Station;
+import io.station.util.ChannelIterator;
+
+public class EpochIndexTest {
+
+	@Test
+	public void find() throws Exception {
+		FDSNStationXML document = read("IU.ANMO.resp");
+		RespFile.merge(document, read("iu.anmo.bhz.one.epoch.resp"));
+		RespFile.merge(document, read("1E.AXF.FIR.odd.resp"));
+		EpochIndex index = EpochIndex.of(document);
+		assertEquals(2, index.size());
+
+		assertEquals(2002, index.getChannel("IU", "ANMO", "00", "BHZ", time(2005, 1)).getStartDate().getYear());
+		assertNull(index.getChannel("IU", "ANMO", "00", "BHZ", time(2010, 1)));
+		assertNull(index.getChannel("IU", "ANMO", "00", "BHZ", time(2001, 1)));
+		// end dates are exclusive
+		assertNull(index.getChannel("IU", "ANMO", "00", "BHZ", time(2008, 182)));
+		// open ended
+		assertEquals(2018, index.getChannel("IU", "ANMO", "00", "BHZ", time(2100, 1)).getStartDate().getYear());
+		assertNull(index.getChannel("IU", "ANMO", "10", "BHZ", time(2005, 1)));
+		assertNotNull(index.getChannel("1E", "AXF", "??", "BHE", time(2011, 1)));
+		assertNotNull(index.getChannel("1E", "AXF", null, "BHE", time(2011, 1)));
+
+		CompiledResponse compiledResponse = index.getCompiledResponse("IU", "ANMO", "00", "BHZ", time(2020, 1));
+		assertEquals(2018, compiledResponse.getStart().getYear());
+		assertSame(compiledResponse, index.getCompiledResponse("IU", "ANMO", "00", "BHZ", time(2021, 1)));
+		assertSame(index.getNormalizedResponse("IU", "ANMO", "00", "BHZ", time(2020, 1)),
+				index.getNormalizedResponse("IU", "ANMO", "00", "BHZ", time(2021, 1)));
+	}
+
+	@Test
+	public void iterate() throws Exception {
+		EpochIndex index;
+		try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("IU.ANMO.resp");
+				ChannelIterator it = RespIO.iterateChannels(inputStream)) {
+			index = EpochIndex.of(it);
+		}
+		assertEquals(1, index.size());
+		assertNotNull(index.getNormalizedResponse("IU", "ANMO", "00", "BHZ", time(2005, 1)));
+	}
+
+	@Test
+	public void overlappingEpochs() throws Exception {
+		Network network = new Network();
+		network.setCode("XX");
+		Station station = new Station();
+		station.setCode("STA");
+		station.setNetwork(network);
+		network.addStation(station);
+		List<Channel> channels = new ArrayList<>();
+		// open ended from 2000, nested 2002-2004 inside 2001-2010, 2008-2012 overlapping its end
+		channels.add(channel(station, 2000, 0));
+		channels.add(channel(station, 2001, 2010));
+		channels.add(channel(station, 2002, 2004));
+		channels.add(channel(station, 2008, 2012));
+		Collections.reverse(channels);
+		EpochIndex index = EpochIndex.of(channels.iterator());
+
+		assertNull(index.getChannel("XX", "STA", "", "BHZ", time(1999, 1)));
+		assertSame(channels.get(3), index.getChannel("XX", "STA", "", "BHZ", time(2000, 100)));
+		assertSame(channels.get(2), index.getChannel("XX", "STA", "", "BHZ", time(2001, 1)));
+		assertSame(channels.get(1), index.getChannel("XX", "STA", "", "BHZ", time(2003, 1)));
+		// back to the enclosing epoch once the nested one ends
+		assertSame(channels.get(2), index.getChannel("XX", "STA", "", "BHZ", time(2004, 1)));
+		assertSame(channels.get(0), index.getChannel("XX", "STA", "", "BHZ", time(2009, 1)));
+		assertSame(channels.get(0), index.getChannel("XX", "STA", "", "BHZ", time(2011, 1)));
+		// then to the open ended one
+		assertSame(channels.get(3), index.getChannel("XX", "STA", "", "BHZ", time(2012, 1)));
+		assertSame(channels.get(3), index.getChannel("XX", "STA", "", "BHZ", time(2100, 1)));
+	}
+
+	@Test
+	public void channelWithoutNetwork() throws Exception {
+		Station station = new Station();
+		station.setCode("STA");
+		List<Channel> channels = Collections.singletonList(channel(station, 2000, 0));
+		assertThrows(IllegalArgumentException.class, () -> EpochIndex.of(channels.iterator()));
+	}
+
+	/**
+	 * @param end 0 for an open ended epoch.
+	 */
+	private static Channel channel(Station station, int start, int end) {
+		Channel channel = new Channel();
+		channel.setCode("BHZ");
+		channel.setLocationCode("");
+		channel.setStartDate(time(start, 1));
+		channel.setEndDate(end == 0 ? null : time(end, 1));
+		channel.setStation(station);
+		return channel;
+	}
+
+	private static ZonedDateTime time(int year, int dayOfYear) {
+		return ZonedDateTime.of(year, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).withDayOfYear(dayOfYear);
+	}
+
+	private FDSNStationXML read(String resource) throws Exception {
+		try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+			return RespIO.read(inputStream);
+		}
+	}
+}
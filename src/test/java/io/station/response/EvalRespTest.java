@@ -1,11 +1,25 @@
 package io.station.response;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.DoubleBuffer;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.math3.complex.Complex;
 import org.junit.jupiter.api.Test;
@@ -13,9 +27,16 @@ import org.opentest4j.AssertionFailedError;
 
 import io.station.math.Spectrum;
 import io.station.model.Channel;
+import io.station.model.Coefficients;
 import io.station.model.FDSNStationXML;
+import io.station.model.Gain;
+import io.station.model.PolesZeros;
+import io.station.model.Polynomial;
+import io.station.model.PzTransferFunctionType;
+import io.station.model.StageGain;
 import io.station.response.ResponseSpectrum.StageSpectrum;
 import io.station.response.util.FrequencySet;
+import io.station.uom.StationUnits;
 import io.station.util.DoubleDataSet;
 
 public class EvalRespTest {
@@ -55,6 +76,404 @@ public class EvalRespTest {
 		
 	}
 
+	@Test
+	public void stageTable() throws Exception {
+		Path path = Paths.get(this.getClass().getClassLoader().getResource("iu.anmo.bhz.one.epoch.resp").toURI());
+		List<Channel> channels = RespFile.read(path).find("IU", "ANMO", "00", "BHZ");
+		NormalizedResponse normalizedResponse = EvalResp.normalize(channels.get(0));
+
+		assertEquals(3, normalizedResponse.getStage(3).getNumber().intValue());
+		assertEquals(null, normalizedResponse.getStage(4));
+		assertEquals(FilterType.POLES_ZEROS, normalizedResponse.getFilterType(1));
+		assertEquals(FilterType.COEFFICIENTS, normalizedResponse.getFilterType(3));
+		assertEquals(FilterType.NONE, normalizedResponse.getFilterType(-1));
+		assertEquals(0.025, normalizedResponse.getSamplingInterval(2), 1e-12);
+		assertTrue(normalizedResponse.getStageFilter(1) instanceof PolesZeros);
+		assertEquals(null, normalizedResponse.getStageFilter(4));
+		assertEquals(null, normalizedResponse.getStageFilter(7));
+		assertEquals(normalizedResponse.getStageGain(BigInteger.ONE), normalizedResponse.getStageGain(1));
+		assertEquals(0, normalizedResponse.getNormalizationFactor(7));
+
+		ResolvedDecimation decimation = normalizedResponse.getResolvedDecimation(3);
+		assertEquals(40, decimation.getInputSampleRate());
+		assertEquals(0.025, decimation.getSamplingInterval(), 1e-12);
+		assertEquals(1, decimation.getFactor());
+		assertEquals(0, decimation.getOffset());
+		assertEquals(0.43046, decimation.getDelay(true), 1e-12);
+		assertEquals(0.43046, decimation.getCorrection(), 1e-12);
+		assertEquals(null, normalizedResponse.getResolvedDecimation(7));
+	}
+
+	@Test
+	public void stageNumberTooLarge() throws Exception {
+		Path path = Paths.get(this.getClass().getClassLoader().getResource("iu.anmo.bhz.one.epoch.resp").toURI());
+		Channel channel = RespFile.read(path).find("IU", "ANMO", "00", "BHZ").get(0);
+		channel.getResponse().computeIfAbsent(NormalizedResponse.MAXIMUM_STAGE_NUMBER + 1);
+		InvalidResponseException e = assertThrows(InvalidResponseException.class,
+				() -> EvalResp.normalize(channel));
+		assertTrue(e.getMessage().contains("larger than"), e.getMessage());
+		assertThrows(IllegalArgumentException.class, () -> new NormalizedResponse("IU", "ANMO", channel));
+	}
+
+	@Test
+	public void compiledMatchesReference() throws Exception {
+		FrequencySet logarithmic = EvalRespUtil.createFrequency();
+		FrequencySet linear = EvalRespUtil.createFrequency(0.1, 10, 50, FrequencySpacing.LINEAR);
+		for (String resource : new String[] { "iu.anmo.bhz.one.epoch.resp", "1E.AXF.FIR.odd.resp",
+				"3A.L001.HHE.FIR.even.resp", "digital.pz.OO.AXCC2.MNZ.resp" }) {
+			Channel channel = read(resource).getNetwork().get(0).getStations().get(0).getChannels().get(0);
+			NormalizedResponse normalizedResponse = EvalResp.normalize(channel);
+			CompiledResponse compiledResponse = CompiledResponse.compile(normalizedResponse);
+			assertEquals(normalizedResponse.size(), compiledResponse.size());
+			for (FrequencySet frequencySet : new FrequencySet[] { logarithmic, linear }) {
+				Complex[][] expected = reference(normalizedResponse, frequencySet);
+				ResponseSpectrum actual = compiledResponse.evaluate(frequencySet);
+				for (int stage = 0; stage < expected.length; stage++) {
+					assertArrayEquals(expected[stage], stage(actual, stage, frequencySet), 0);
+				}
+				assertArrayEquals(expected[0],
+						stage(EvalResp.calculate(normalizedResponse, frequencySet), 0, frequencySet), 0);
+			}
+		}
+	}
+
+	private static Complex[] stage(ResponseSpectrum responseSpectrum, int stage, FrequencySet frequencySet) {
+		Complex[] values = new Complex[frequencySet.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = responseSpectrum.get(stage, i);
+		}
+		return values;
+	}
+
+	/**
+	 * The frequency by stage evaluation EvalResp used before responses were
+	 * compiled, kept as a reference. Returns the values of every stage, stage 0
+	 * being the total, each multiplied by its gain.
+	 */
+	private static Complex[][] reference(NormalizedResponse normalizedResponse, FrequencySet frequencySet)
+			throws Exception {
+		int stages = normalizedResponse.size() + 1;
+		Complex[][] values = new Complex[stages][frequencySet.size()];
+		for (int fIdx = 0; fIdx < frequencySet.size(); ++fIdx) {
+			double freqVal = frequencySet.get(fIdx);
+			double wVal = 2 * Math.PI * freqVal;
+			Complex total = new Complex(1, 0);
+			for (int stageNum = 1; stageNum < stages; stageNum++) {
+				double normalizationFactor = normalizedResponse.getNormalizationFactor(stageNum);
+				if (normalizationFactor == 0) {
+					normalizationFactor = 1.0;
+				}
+				Complex ofNum = null;
+				PolesZeros polesZeros = normalizedResponse.getPolesZeros(stageNum);
+				if (polesZeros != null) {
+					PzTransferFunctionType functionType = polesZeros.getPzTransferFunctionType();
+					if (functionType == PzTransferFunctionType.DIGITAL_Z_TRANSFORM) {
+						double samplingInterval = normalizedResponse.getDecimation(stageNum).getInputSampleRate()
+								.calculateSamplingInterval().getValue().doubleValue();
+						ofNum = EvalRespUtil.iirPzTrans(polesZeros, normalizationFactor, samplingInterval, wVal);
+					} else {
+						ofNum = EvalRespUtil.analogTrans(polesZeros, normalizationFactor,
+								functionType == PzTransferFunctionType.LAPLACE_RADIANS_SECOND ? wVal : freqVal);
+					}
+				}
+				Coefficients coefficients = normalizedResponse.getCoefficients(stageNum);
+				if (coefficients != null && ((coefficients.getDenominators() != null
+						&& !coefficients.getDenominators().isEmpty())
+						|| (coefficients.getNumerators() != null && !coefficients.getNumerators().isEmpty()))) {
+					ofNum = EvalRespUtil.calculateSpectrum(coefficients, normalizationFactor,
+							normalizedResponse.getDecimation(stageNum), wVal, false);
+				}
+				Polynomial polynomial = normalizedResponse.getPolynomial(stageNum);
+				if (polynomial != null) {
+					ofNum = EvalRespUtil.polynomial(polynomial, 0);
+				}
+				Complex c = ofNum == null ? new Complex(1, 0) : new Complex(1, 0).multiply(ofNum);
+				total = total.multiply(c);
+				Gain stageGain = normalizedResponse.getStageGain(stageNum);
+				values[stageNum][fIdx] = c.multiply(stageGain == null ? 1.0 : stageGain.getValue());
+			}
+			Gain sensitivity = normalizedResponse.getStageGain(0);
+			values[0][fIdx] = total.multiply(sensitivity == null ? 1.0 : sensitivity.getValue());
+		}
+		return values;
+	}
+
+	@Test
+	public void reevaluateChangedStage() throws Exception {
+		Path path = Paths.get(this.getClass().getClassLoader().getResource("iu.anmo.bhz.one.epoch.resp").toURI());
+		Channel channel = RespFile.read(path).find("IU", "ANMO", "00", "BHZ").get(0);
+		FrequencySet frequencySet = EvalRespUtil.createFrequency(0.001, 20, 500, FrequencySpacing.LOGARITHMIC);
+		CompiledResponse compiledResponse = CompiledResponse.compile(EvalResp.normalize(channel));
+		ResponseSpectrum previous = compiledResponse.evaluate(frequencySet);
+
+		StageGain stageGain = channel.getResponse().getStage(2).getStageGain();
+		stageGain.setValue(2 * stageGain.getValue());
+		NormalizedResponse edited = EvalResp.normalize(channel);
+		CompiledResponse recompiled = compiledResponse.withStage(edited, 2);
+		ResponseSpectrum actual = recompiled.reevaluate(compiledResponse, previous);
+		ResponseSpectrum expected = CompiledResponse.compile(edited).evaluate(frequencySet);
+
+		assertSame(previous.get(1).real, actual.get(1).real);
+		assertEquals(expected.size(), actual.size());
+		for (StageSpectrum stageSpectrum : expected.getAll()) {
+			Complex[] e = stageSpectrum.getAll();
+			Complex[] a = actual.get(stageSpectrum.getStageNumber()).getAll();
+			for (int i = 0; i < e.length; i++) {
+				double tolerance = e[i].abs() * 1e-12;
+				assertEquals(e[i].getReal(), a[i].getReal(), tolerance, stageSpectrum.getStageNumber() + ":" + i);
+				assertEquals(e[i].getImaginary(), a[i].getImaginary(), tolerance,
+						stageSpectrum.getStageNumber() + ":" + i);
+			}
+		}
+	}
+
+	@Test
+	public void fusedAmpPhase() throws Exception {
+		Path path = Paths.get(this.getClass().getClassLoader().getResource("iu.anmo.bhz.one.epoch.resp").toURI());
+		Channel channel = RespFile.read(path).find("IU", "ANMO", "00", "BHZ").get(0);
+		FrequencySet frequencySet = EvalRespUtil.createFrequency(0.001, 20, 500, FrequencySpacing.LOGARITHMIC);
+		ResponseSpectrum responseSpectrum = EvalResp.calculate(EvalResp.normalize(channel), frequencySet);
+		double[] amplitude = new double[frequencySet.size()];
+		double[] phase = new double[frequencySet.size()];
+
+		responseSpectrum.ampPhase(Motion.VELOCITY, false, false, true, amplitude, phase);
+		double[][] expected = EvalRespUtil.ampPase(responseSpectrum.calculateTotalSpectrum(), true);
+		for (int i = 0; i < amplitude.length; i++) {
+			assertEquals(expected[0][i], amplitude[i], expected[0][i] * 1e-12);
+			assertEquals(expected[1][i], phase[i], 1e-9);
+		}
+
+		assertTrue(responseSpectrum.ampPhase(0, Motion.DISPLACEMENT, true, true, false, amplitude, phase));
+		expected = EvalRespUtil.ampPase(responseSpectrum.asDisplacement(0), false);
+		for (int i = 0; i < amplitude.length; i++) {
+			assertEquals(20 * Math.log10(expected[0][i]), amplitude[i], 1e-9);
+			assertEquals(Math.toRadians(expected[1][i]), phase[i], 1e-9);
+		}
+		assertFalse(responseSpectrum.ampPhase(9, Motion.DISPLACEMENT, false, false, true, amplitude, phase));
+	}
+
+	@Test
+	public void stream() throws Exception {
+		FrequencySet frequencySet = EvalRespUtil.createFrequency();
+		List<ResponseSpectrum> expected;
+		try (InputStream inputStream = this.getClass().getClassLoader().getResourceAsStream("IU.ANMO.resp");) {
+			expected = EvalResp.calculate(RespIO.read(inputStream), frequencySet);
+		}
+		List<ResponseSpectrum> actual = new ArrayList<>();
+		try (InputStream inputStream = this.getClass().getClassLoader().getResourceAsStream("IU.ANMO.resp");) {
+			EvalResp.stream(inputStream, frequencySet, actual::add, 1);
+		}
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals("IU", actual.get(i).getNetwork());
+			assertEquals("ANMO", actual.get(i).getStation());
+			assertArrayEquals(expected.get(i).calculateTotalSpectrum(), actual.get(i).calculateTotalSpectrum(), 0);
+		}
+	}
+
+	@Test
+	public void streamClosesInputOnFailure() throws Exception {
+		FrequencySet frequencySet = EvalRespUtil.createFrequency();
+		AtomicBoolean closed = new AtomicBoolean();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try (InputStream inputStream = new FilterInputStream(
+				this.getClass().getClassLoader().getResourceAsStream("IU.ANMO.resp")) {
+			@Override
+			public void close() throws IOException {
+				closed.set(true);
+				super.close();
+			}
+		}) {
+			assertThrows(IllegalStateException.class, () -> EvalResp.stream(inputStream, frequencySet, spectrum -> {
+				throw new IllegalStateException();
+			}, 1, executor));
+			assertTrue(closed.get());
+		} finally {
+			executor.shutdown();
+		}
+		// the parser ended, the executor is free for another stream
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void recurrenceMatchesDirect() throws Exception {
+		FrequencySet frequencySet = EvalRespUtil.createFrequency(0.001, 20, 500, FrequencySpacing.LOGARITHMIC);
+		String[][] resources = new String[][] { { "1E.AXF.FIR.odd.resp", "1E", "AXF", "  ", "BHE" },
+				{ "3A.L001.HHE.FIR.even.resp", "3A", "L001", "  ", "HHE" },
+				{ "iu.anmo.bhz.one.epoch.resp", "IU", "ANMO", "00", "BHZ" } };
+		for (String[] resource : resources) {
+			Path path = Paths.get(this.getClass().getClassLoader().getResource(resource[0]).toURI());
+			Channel channel = RespFile.read(path).find(resource[1], resource[2], resource[3], resource[4]).get(0);
+			NormalizedResponse normalizedResponse = EvalResp.normalize(channel);
+			Complex[] direct = CompiledResponse.compile(normalizedResponse, EvaluationMode.DIRECT)
+					.evaluate(frequencySet).calculateTotalSpectrum();
+			Complex[] recurrence = CompiledResponse.compile(normalizedResponse, EvaluationMode.RECURRENCE)
+					.evaluate(frequencySet).calculateTotalSpectrum();
+			for (int i = 0; i < direct.length; i++) {
+				double tolerance = direct[i].abs() * 1e-9;
+				assertEquals(direct[i].getReal(), recurrence[i].getReal(), tolerance, resource[0] + ":" + i);
+				assertEquals(direct[i].getImaginary(), recurrence[i].getImaginary(), tolerance, resource[0] + ":" + i);
+			}
+		}
+	}
+
+	@Test
+	public void primitiveArraysMatchComplex() throws Exception {
+		FrequencySet frequencySet = EvalRespUtil.createFrequency();
+		int n = frequencySet.size();
+		for (String resource : new String[] { "iu.anmo.bhz.one.epoch.resp", "1E.AXF.FIR.odd.resp",
+				"digital.pz.OO.AXCC2.MNZ.resp" }) {
+			Channel channel = read(resource).getNetwork().get(0).getStations().get(0).getChannels().get(0);
+			ResponseSpectrum responseSpectrum = EvalResp.calculate(EvalResp.normalize(channel), frequencySet);
+
+			Complex[] total = new Complex[n];
+			for (int i = 0; i < n; i++) {
+				total[i] = Complex.ONE;
+				for (StageSpectrum stageSpectrum : responseSpectrum.getAll()) {
+					total[i] = total[i].multiply(stageSpectrum.get(i));
+				}
+			}
+			double[] real = new double[n];
+			double[] imaginary = new double[n];
+			responseSpectrum.calculateTotalSpectrum(real, imaginary);
+			assertSpectrumEquals(total, real, imaginary, resource);
+
+			for (boolean unwrap : new boolean[] { false, true }) {
+				double[][] expected = EvalRespUtil.ampPase(toComplex(real, imaginary), unwrap);
+				double[][] actual = EvalRespUtil.ampPase(real, imaginary, unwrap);
+				for (int i = 0; i < n; i++) {
+					assertEquals(expected[0][i], actual[0][i], 0, resource + ":" + i);
+					assertEquals(expected[1][i], actual[1][i], 0, resource + ":" + i);
+				}
+			}
+
+			boolean displacement = StationUnits.isDisplacement(responseSpectrum.getInputUnit());
+			boolean acceleration = !displacement && StationUnits.isAcceleration(responseSpectrum.getInputUnit());
+			for (StageSpectrum stageSpectrum : responseSpectrum.getAll()) {
+				int stage = stageSpectrum.getStageNumber();
+				DoubleBuffer stageReal = responseSpectrum.getReal(stage);
+				DoubleBuffer stageImaginary = responseSpectrum.getImaginary(stage);
+				Complex[] toDisplacement = new Complex[n];
+				Complex[] toAcceleration = new Complex[n];
+				for (int i = 0; i < n; i++) {
+					Complex c = responseSpectrum.get(stage, i);
+					assertEquals(c.getReal(), stageReal.get(i), 0);
+					assertEquals(c.getImaginary(), stageImaginary.get(i), 0);
+
+					double w = 2 * Math.PI * frequencySet.get(i);
+					if (displacement) {
+						c = w == 0 ? Complex.ZERO : c.multiply(new Complex(0, -1 / w));
+					} else if (acceleration) {
+						c = new Complex(0, w);
+					}
+					toDisplacement[i] = c.multiply(new Complex(0, w));
+					toAcceleration[i] = w == 0 ? Complex.ZERO : c.multiply(new Complex(0, -1 / w));
+				}
+				assertTrue(responseSpectrum.asDisplacement(stage, real, imaginary));
+				assertSpectrumEquals(toDisplacement, real, imaginary, resource + ":" + stage);
+				assertArrayEquals(toDisplacement, responseSpectrum.asDisplacement(stage), 0);
+				assertTrue(responseSpectrum.asAcceleration(stage, real, imaginary));
+				assertSpectrumEquals(toAcceleration, real, imaginary, resource + ":" + stage);
+				assertArrayEquals(toAcceleration, responseSpectrum.asAcceleration(stage), 0);
+			}
+			assertFalse(responseSpectrum.asDisplacement(99, real, imaginary));
+		}
+	}
+
+	private static void assertSpectrumEquals(Complex[] expected, double[] real, double[] imaginary,
+			String message) {
+		for (int i = 0; i < expected.length; i++) {
+			double tolerance = expected[i].abs() * 1e-12;
+			assertEquals(expected[i].getReal(), real[i], tolerance, message + ":" + i);
+			assertEquals(expected[i].getImaginary(), imaginary[i], tolerance, message + ":" + i);
+		}
+	}
+
+	private static Complex[] toComplex(double[] real, double[] imaginary) {
+		Complex[] array = new Complex[real.length];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = new Complex(real[i], imaginary[i]);
+		}
+		return array;
+	}
+
+	@Test
+	public void parallelMatchesSequential() throws Exception {
+		FDSNStationXML document = read("IU.ANMO.resp", "1E.AXF.FIR.odd.resp", "3A.L001.HHE.FIR.even.resp",
+				"digital.pz.OO.AXCC2.MNZ.resp");
+		FrequencySet frequencySet = EvalRespUtil.createFrequency();
+		List<ResponseSpectrum> expected = EvalResp.calculate(document, frequencySet);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			// more tasks than threads, and a task per channel
+			for (int parallelism : new int[] { 3, 100 }) {
+				CalculationResult result = EvalResp.calculate(document, frequencySet, executor, parallelism);
+				assertFalse(result.hasFailures());
+				assertEquals(expected.size(), result.getSpectra().size());
+				for (int i = 0; i < expected.size(); i++) {
+					ResponseSpectrum e = expected.get(i);
+					ResponseSpectrum a = result.getSpectra().get(i);
+					assertEquals(e.getNetwork() + e.getStation() + e.getChannel() + e.getStart(),
+							a.getNetwork() + a.getStation() + a.getChannel() + a.getStart());
+					assertArrayEquals(e.calculateTotalSpectrum(), a.calculateTotalSpectrum(), 0);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void parallelReportsFailures() throws Exception {
+		FDSNStationXML document = read("IU.ANMO.resp", "1E.AXF.FIR.odd.resp", "3A.L001.HHE.FIR.even.resp");
+		List<Channel> channels = new ArrayList<>();
+		document.getNetwork().forEach(n -> n.getStations().forEach(s -> channels.addAll(s.getChannels())));
+		Channel invalid = channels.get(1);
+		invalid.getResponse().computeIfAbsent(NormalizedResponse.MAXIMUM_STAGE_NUMBER + 1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CalculationResult result = EvalResp.calculate(document, EvalRespUtil.createFrequency(), executor, 2);
+			assertTrue(result.hasFailures());
+			assertEquals(1, result.getFailures().size());
+			assertSame(invalid, result.getFailures().get(0).getChannel());
+			assertNotNull(result.getFailures().get(0).getException());
+			assertEquals(channels.size() - 1, result.getSpectra().size());
+			assertEquals(channels.get(2).getCode(), result.getSpectra().get(1).getChannel());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void parallelRethrowsUnexpectedExceptions() throws Exception {
+		FDSNStationXML document = read("IU.ANMO.resp", "1E.AXF.FIR.odd.resp", "3A.L001.HHE.FIR.even.resp");
+		List<Channel> channels = new ArrayList<>();
+		document.getNetwork().forEach(n -> n.getStations().forEach(s -> channels.addAll(s.getChannels())));
+		channels.get(1).setResponse(null);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			assertThrows(NullPointerException.class,
+					() -> EvalResp.calculate(document, EvalRespUtil.createFrequency(), executor, 2));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private FDSNStationXML read(String... resources) throws Exception {
+		FDSNStationXML document = null;
+		for (String resource : resources) {
+			try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+				FDSNStationXML part = RespIO.read(inputStream);
+				if (document == null) {
+					document = part;
+				} else {
+					RespFile.merge(document, part);
+				}
+			}
+		}
+		return document;
+	}
+
 	private static void assertArrayEquals(Complex[] expected, Complex[] actual, double delta) {
 		if (expected == actual) {
 			return;
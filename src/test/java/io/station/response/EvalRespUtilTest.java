@@ -78,6 +78,75 @@ public class EvalRespUtilTest {
 		assertEquals(3.3822097796610406E-22, complex.getImaginary(), 0.00000000001);
 	}
 
+	@Test
+	public void primitiveKernels() {
+		PolesZeros polesZeros = createPolesZeros();
+		double[] zr = new double[polesZeros.getZero().size()];
+		double[] zi = new double[zr.length];
+		for (int i = 0; i < zr.length; i++) {
+			zr[i] = polesZeros.getZero().get(i).getReal();
+			zi[i] = polesZeros.getZero().get(i).getImaginary();
+		}
+		double[] pr = new double[polesZeros.getPole().size()];
+		double[] pi = new double[pr.length];
+		for (int i = 0; i < pr.length; i++) {
+			pr[i] = polesZeros.getPole().get(i).getReal();
+			pi[i] = polesZeros.getPole().get(i).getImaginary();
+		}
+		Coefficients coefficients = createCoefficients();
+		double[] c = new double[coefficients.getNumerators().size()];
+		for (int i = 0; i < c.length; i++) {
+			c[i] = coefficients.getNumerators().get(i).getValue();
+		}
+
+		double[] real = new double[frequencies.length];
+		double[] imaginary = new double[frequencies.length];
+		for (int i = 0; i < frequencies.length; i++) {
+			double w = 2 * Math.PI * frequencies[i];
+			EvalRespUtil.analogTrans(zr, zi, pr, pi, +5.51178E-20, w, real, imaginary, i);
+			assertComplexEquals(EvalRespUtil.analogTrans(polesZeros, +5.51178E-20, w), real[i], imaginary[i]);
+			EvalRespUtil.iirPzTrans(zr, zi, pr, pi, 1.0, 0.025, w, real, imaginary, i);
+			assertComplexEquals(EvalRespUtil.iirPzTrans(polesZeros, 1.0, 0.025, w), real[i], imaginary[i]);
+			EvalRespUtil.iirTrans(c, new double[0], +5.51178E-20, 0.025, w, real, imaginary, i);
+			assertComplexEquals(EvalRespUtil.iirTrans(coefficients, +5.51178E-20, 0.025, w), real[i], imaginary[i]);
+			for (Symmetry symmetry : Symmetry.values()) {
+				EvalRespUtil.firTrans(c, +5.51178E-20, 0.025, w, symmetry, real, imaginary, i);
+				assertComplexEquals(EvalRespUtil.firTrans(coefficients, +5.51178E-20, 0.025, w, symmetry), real[i],
+						imaginary[i]);
+			}
+		}
+	}
+
+	@Test
+	public void recurrenceLongFilter() {
+		double[] c = new double[2001];
+		for (int i = 0; i < c.length; i++) {
+			c[i] = Math.sin(0.37 * i) / (1 + i);
+		}
+		double[] real = new double[2];
+		double[] imaginary = new double[2];
+		for (double frequency : frequencies) {
+			double w = 2 * Math.PI * frequency;
+			for (Symmetry symmetry : Symmetry.values()) {
+				EvalRespUtil.firTrans(c, 1.0, 0.025, w, symmetry, EvaluationMode.DIRECT, real, imaginary, 0);
+				EvalRespUtil.firTrans(c, 1.0, 0.025, w, symmetry, EvaluationMode.RECURRENCE, real, imaginary, 1);
+				assertEquals(real[0], real[1], 1e-10);
+				assertEquals(imaginary[0], imaginary[1], 1e-10);
+			}
+			EvalRespUtil.iirTrans(c, new double[] { 1.0, -0.5 }, 1.0, 0.025, w, EvaluationMode.DIRECT, real,
+					imaginary, 0);
+			EvalRespUtil.iirTrans(c, new double[] { 1.0, -0.5 }, 1.0, 0.025, w, EvaluationMode.RECURRENCE, real,
+					imaginary, 1);
+			assertEquals(real[0], real[1], 1e-10);
+			assertEquals(imaginary[0], imaginary[1], 1e-10);
+		}
+	}
+
+	private static void assertComplexEquals(Complex expected, double real, double imaginary) {
+		assertEquals(expected.getReal(), real, Math.ulp(expected.getReal()));
+		assertEquals(expected.getImaginary(), imaginary, Math.ulp(expected.getImaginary()));
+	}
+
 	/*-
 	 * B053F03     Transfer function type:                A
 	B053F04     Stage sequence number:                 1
@@ -0,0 +1,107 @@
+package io.station.response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import io.station.model.Channel;
+import io.station.response.ResponseSpectrum.StageSpectrum;
+import io.station.response.util.FrequencySet;
+
+public class EvalWorkspaceTest {
+
+	@Test
+	public void evaluate() throws Exception {
+		CompiledResponse compiledResponse = compile("iu.anmo.bhz.one.epoch.resp");
+		FrequencySet frequencySet = EvalRespUtil.createFrequency(0.001, 20, 500, FrequencySpacing.LOGARITHMIC);
+		ResponseSpectrum expected = compiledResponse.evaluate(frequencySet);
+
+		// too small on purpose, the buffers grow on the first evaluation
+		EvalWorkspace workspace = new EvalWorkspace(1, 10);
+		workspace.evaluate(compiledResponse, frequencySet);
+		double[] real = workspace.getReal(1);
+		workspace.evaluate(compiledResponse, frequencySet);
+		assertSame(real, workspace.getReal(1));
+
+		assertEquals(frequencySet.size(), workspace.getLength());
+		assertEquals(expected.size(), workspace.getStages());
+		for (int slot = 0; slot < workspace.getStages(); slot++) {
+			StageSpectrum stageSpectrum = expected.get(workspace.getStageNumber(slot));
+			for (int i = 0; i < frequencySet.size(); i++) {
+				double tolerance = stageSpectrum.get(i).abs() * 1e-12;
+				assertEquals(stageSpectrum.real[i], workspace.getReal(slot)[i], tolerance, slot + ":" + i);
+				assertEquals(stageSpectrum.imaginary[i], workspace.getImaginary(slot)[i], tolerance, slot + ":" + i);
+			}
+		}
+
+		double[] amplitude = new double[frequencySet.size()];
+		double[] phase = new double[frequencySet.size()];
+		expected.ampPhase(0, Motion.DISPLACEMENT, true, false, true, amplitude, phase);
+		workspace.ampPhase(0, Motion.DISPLACEMENT, true, false, true);
+		for (int i = 0; i < frequencySet.size(); i++) {
+			assertEquals(amplitude[i], workspace.getAmplitude()[i], 1e-9);
+			assertEquals(phase[i], workspace.getPhase()[i], 1e-9);
+		}
+	}
+
+	@Test
+	public void noAllocationOnceWarm() throws Exception {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+		CompiledResponse compiledResponse = compile("iu.anmo.bhz.one.epoch.resp");
+		FrequencySet frequencySet = EvalRespUtil.createFrequency(0.001, 20, 500, FrequencySpacing.LOGARITHMIC);
+		EvalWorkspace workspace = new EvalWorkspace();
+		for (int i = 0; i < 1000; i++) {
+			evaluate(workspace, compiledResponse, frequencySet);
+		}
+
+		long id = Thread.currentThread().getId();
+		// the cost of reading the counter itself
+		long start = threads.getThreadAllocatedBytes(id);
+		long overhead = threads.getThreadAllocatedBytes(id) - start;
+		long before = threads.getThreadAllocatedBytes(id);
+		for (int i = 0; i < 1000; i++) {
+			evaluate(workspace, compiledResponse, frequencySet);
+		}
+		long allocated = threads.getThreadAllocatedBytes(id) - before;
+		assertTrue(allocated <= overhead, allocated + " bytes allocated");
+	}
+
+	@Test
+	public void local() throws Exception {
+		EvalWorkspace workspace = EvalWorkspace.local();
+		assertSame(workspace, EvalWorkspace.local());
+		AtomicReference<EvalWorkspace> other = new AtomicReference<>();
+		Thread thread = new Thread(() -> other.set(EvalWorkspace.local()));
+		thread.start();
+		thread.join();
+		assertNotSame(workspace, other.get());
+	}
+
+	private static void evaluate(EvalWorkspace workspace, CompiledResponse compiledResponse,
+			FrequencySet frequencySet) {
+		workspace.evaluate(compiledResponse, frequencySet);
+		for (int slot = 0; slot < workspace.getStages(); slot++) {
+			workspace.ampPhase(slot, Motion.VELOCITY, true, false, true);
+		}
+	}
+
+	private CompiledResponse compile(String resource) throws Exception {
+		try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+			Channel channel = RespIO.read(inputStream).getNetwork().get(0).getStations().get(0).getChannels().get(0);
+			return CompiledResponse.compile(NormalizedResponse.wrap(channel));
+		}
+	}
+}
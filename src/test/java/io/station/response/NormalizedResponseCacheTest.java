@@ -0,0 +1,84 @@
+package io.station.response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.InputStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.station.model.Channel;
+import io.station.model.FDSNStationXML;
+import io.station.model.Sensitivity;
+
+public class NormalizedResponseCacheTest {
+
+	@Test
+	public void sharedResponse() throws Exception {
+		Channel first = read("iu.anmo.bhz.one.epoch.resp");
+		Channel second = read("iu.anmo.bhz.one.epoch.resp");
+		Channel other = read("1E.AXF.FIR.odd.resp");
+		assertEquals(ResponseFingerprint.of(first.getResponse()), ResponseFingerprint.of(second.getResponse()));
+		assertNotEquals(ResponseFingerprint.of(first.getResponse()), ResponseFingerprint.of(other.getResponse()));
+
+		NormalizedResponseCache cache = new NormalizedResponseCache(1);
+		NormalizedResponse expected = NormalizedResponse.wrap("IU", "ANMO", first.getLocationCode(),
+				first.getCode(), first.getStartDate(), first.getEndDate(), first.getSampleRate(), first.getResponse());
+		cache.wrap("IU", "ANMO", first.getLocationCode(), first.getCode(), first.getStartDate(), first.getEndDate(),
+				first.getSampleRate(), first.getResponse());
+		NormalizedResponse hit = cache.wrap("XX", "COPY", "10", "HHZ", second.getStartDate(), second.getEndDate(),
+				second.getSampleRate(), second.getResponse());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals("XX", hit.getNetwork());
+		assertEquals("COPY", hit.getStation());
+		assertEquals("10", hit.getLocation());
+		assertEquals("HHZ", hit.getChannel());
+		for (int stage = 0; stage <= expected.size(); stage++) {
+			assertEquals(expected.getNormalizationFactor(stage), hit.getNormalizationFactor(stage));
+			assertEquals(expected.getNormalizationFrequency(stage), hit.getNormalizationFrequency(stage));
+			assertEquals(expected.getStageGain(stage).getValue(), hit.getStageGain(stage).getValue());
+		}
+
+		cache.wrap("1E", "AXF", other.getLocationCode(), other.getCode(), other.getStartDate(), other.getEndDate(),
+				other.getSampleRate(), other.getResponse());
+		assertEquals(2, cache.getMisses());
+		assertEquals(1, cache.size());
+		cache.wrap("IU", "ANMO", first.getLocationCode(), first.getCode(), first.getStartDate(), first.getEndDate(),
+				first.getSampleRate(), first.getResponse());
+		assertEquals(3, cache.getMisses());
+	}
+
+	@Test
+	public void sensitivityUnits() throws Exception {
+		Channel first = read("iu.anmo.bhz.one.epoch.resp");
+		Channel second = read("iu.anmo.bhz.one.epoch.resp");
+		Sensitivity sensitivity = second.getResponse().getInstrumentSensitivity();
+		sensitivity.setOutputUnits(sensitivity.getInputUnits());
+		assertNotEquals(ResponseFingerprint.of(first.getResponse()), ResponseFingerprint.of(second.getResponse()));
+	}
+
+	@Test
+	public void responseModifiedAfterWrap() throws Exception {
+		Channel channel = read("iu.anmo.bhz.one.epoch.resp");
+		NormalizedResponseCache cache = new NormalizedResponseCache(2);
+		NormalizedResponse before = cache.wrap("IU", "ANMO", channel.getLocationCode(), channel.getCode(),
+				channel.getStartDate(), channel.getEndDate(), channel.getSampleRate(), channel.getResponse());
+		assertEquals(ResponseFingerprint.of(channel.getResponse()), before.getFingerprint());
+
+		Sensitivity sensitivity = channel.getResponse().getInstrumentSensitivity();
+		sensitivity.setOutputUnits(sensitivity.getInputUnits());
+		NormalizedResponse after = cache.wrap("IU", "ANMO", channel.getLocationCode(), channel.getCode(),
+				channel.getStartDate(), channel.getEndDate(), channel.getSampleRate(), channel.getResponse());
+		assertEquals(2, cache.getMisses());
+		assertEquals(ResponseFingerprint.of(channel.getResponse()), after.getFingerprint());
+		assertNotEquals(before.getFingerprint(), after.getFingerprint());
+	}
+
+	private Channel read(String resource) throws Exception {
+		try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+			FDSNStationXML document = RespIO.read(inputStream);
+			return document.getNetwork().get(0).getStations().get(0).getChannels().get(0);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package io.station.response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import io.station.model.Channel;
+import io.station.model.FDSNStationXML;
+import io.station.model.Network;
+import io.station.model.Station;
+
+public class RespFileTest {
+
+	String[] resources = new String[] { "1E.AXF.FIR.odd.resp", "3A.L001.HHE.FIR.even.resp", "IU.ANMO.resp",
+			"digital.pz.OO.AXCC2.MNZ.resp", "iu.anmo.bhz.one.epoch.resp", "seed-example.resp" };
+
+	@Test
+	public void parallel() throws Exception {
+		Path path = Files.createTempFile("parallel", ".resp");
+		try {
+			try (OutputStream outputStream = Files.newOutputStream(path)) {
+				for (int i = 0; i < 2; i++) {
+					for (String resource : resources) {
+						try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+							outputStream.write(IOUtils.toByteArray(inputStream));
+							outputStream.write('\n');
+						}
+					}
+				}
+			}
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				assertEquals(13, RespFile.boundaries(channel, channel.size(), 1).size());
+				assertEquals(1, RespFile.boundaries(channel, channel.size(), channel.size()).size());
+			}
+			// the sequential reader parses the file in one pass, without RespFile.merge
+			List<String> expected = describe(RespFile.read(path));
+			assertEquals(2 * resources.length, expected.size());
+			assertEquals(expected, describe(RespFile.read(path, 4, 1)));
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	private static List<String> describe(FDSNStationXML document) throws IOException {
+		List<String> list = new ArrayList<>();
+		for (int n = 0; n < document.getNetwork().size(); n++) {
+			Network network = document.getNetwork().get(n);
+			for (int s = 0; s < network.getStations().size(); s++) {
+				Station station = network.getStations().get(s);
+				for (Channel channel : station.getChannels()) {
+					// the indexes tell how networks and stations were combined
+					list.add(n + ":" + s + " " + network.getCode() + "." + station.getCode() + "."
+							+ channel.getLocationCode() + "." + channel.getCode() + " " + channel.getStartDate() + " "
+							+ channel.getResponse().getStages().size());
+				}
+			}
+		}
+		return list;
+	}
+}
@@ -0,0 +1,104 @@
+package io.station.response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import io.station.model.Channel;
+import io.station.model.Network;
+import io.station.model.Station;
+
+public class RespIndexTest {
+
+	String[] resources = new String[] { "1E.AXF.FIR.odd.resp", "3A.L001.HHE.FIR.even.resp", "IU.ANMO.resp",
+			"digital.pz.OO.AXCC2.MNZ.resp", "iu.anmo.bhz.one.epoch.resp", "seed-example.resp" };
+
+	@Test
+	public void index() throws Exception {
+		Path path = Files.createTempFile("index", ".resp");
+		Path sidecar = RespIndex.sidecar(path);
+		try {
+			List<String> expected = new ArrayList<>();
+			try (OutputStream outputStream = Files.newOutputStream(path)) {
+				for (int i = 0; i < 2; i++) {
+					for (String resource : resources) {
+						try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+							byte[] bytes = IOUtils.toByteArray(inputStream);
+							outputStream.write(bytes);
+							outputStream.write('\n');
+							for (Network network : RespIO.read(new String(bytes)).getNetwork()) {
+								for (Station station : network.getStations()) {
+									for (Channel channel : station.getChannels()) {
+										expected.add(describe(network.getCode(), station.getCode(), channel));
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+
+			List<String> scanned = new ArrayList<>();
+			try (RespIndex index = RespIndex.open(path)) {
+				assertTrue(Files.exists(sidecar));
+				List<String> actual = new ArrayList<>();
+				for (RespIndex.Entry entry : index.getEntries()) {
+					scanned.add(entry.toString());
+					Channel channel = index.read(entry);
+					assertEquals(entry.getStartDate().toInstant(), channel.getStartDate().toInstant());
+					actual.add(describe(channel.getStation().getNetwork().getCode(), channel.getStation().getCode(),
+							channel));
+				}
+				assertEquals(expected, actual);
+
+				assertEquals(6, index.find("IU", "ANMO", "00", "BHZ").size());
+				assertEquals(2, index.find("1E", "AXF", null, "BHE").size());
+				assertEquals(0, index.find("IU", "ANMO", "10", "BHZ").size());
+				ZonedDateTime time = ZonedDateTime.of(2005, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+				List<Channel> channels = index.find("IU", "ANMO", "00", "BHZ", time);
+				assertEquals(2, channels.size());
+				assertEquals(2002, channels.get(0).getStartDate().getYear());
+			}
+
+			// loaded from the sidecar
+			try (RespIndex index = RespIndex.open(path)) {
+				List<String> loaded = new ArrayList<>();
+				for (RespIndex.Entry entry : index.getEntries()) {
+					loaded.add(entry.toString());
+				}
+				assertEquals(scanned, loaded);
+				assertEquals(6, index.find("IU", "ANMO", "00", "BHZ").size());
+			}
+
+			// a stale sidecar is rebuilt
+			try (OutputStream outputStream = Files.newOutputStream(path, StandardOpenOption.APPEND);
+					InputStream inputStream = getClass().getClassLoader().getResourceAsStream("IU.ANMO.resp")) {
+				IOUtils.copy(inputStream, outputStream);
+			}
+			try (RespIndex index = RespIndex.open(path)) {
+				assertEquals(13, index.getEntries().size());
+				assertEquals(7, index.find("IU", "ANMO", "00", "BHZ").size());
+			}
+		} finally {
+			Files.deleteIfExists(sidecar);
+			Files.delete(path);
+		}
+	}
+
+	private static String describe(String network, String station, Channel channel) {
+		return network + "." + station + "." + channel.getLocationCode() + "." + channel.getCode() + " "
+				+ channel.getStartDate().toInstant() + " " + channel.getResponse().getStages().size();
+	}
+}
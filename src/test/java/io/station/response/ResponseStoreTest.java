@@ -0,0 +1,140 @@
+package io.station.response;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.measure.Unit;
+
+import org.junit.jupiter.api.Test;
+
+import io.station.model.Channel;
+import io.station.model.SampleRate;
+import io.station.response.ResponseSpectrum.StageSpectrum;
+import io.station.response.util.FrequencySet;
+
+public class ResponseStoreTest {
+
+	@Test
+	public void roundTrip() throws Exception {
+		List<CompiledResponse> expected = new ArrayList<>();
+		for (String resource : new String[] { "1E.AXF.FIR.odd.resp", "3A.L001.HHE.FIR.even.resp",
+				"iu.anmo.bhz.one.epoch.resp" }) {
+			Channel channel = read(resource);
+			if (expected.isEmpty()) {
+				SampleRate sampleRate = new SampleRate();
+				sampleRate.setValue(40.0);
+				channel.setSampleRate(sampleRate);
+			}
+			NormalizedResponse normalizedResponse = NormalizedResponse.wrap(channel);
+			expected.add(CompiledResponse.compile(normalizedResponse));
+			expected.add(CompiledResponse.compile(normalizedResponse, EvaluationMode.RECURRENCE));
+		}
+		Path path = Files.createTempFile("responses", ".store");
+		try {
+			assertEquals(expected.size(), ResponseStore.write(path, expected));
+			ResponseStore store = ResponseStore.open(path);
+			assertEquals(expected.size(), store.size());
+
+			FrequencySet frequencySet = EvalRespUtil.createFrequency(0.001, 20, 500, FrequencySpacing.LOGARITHMIC);
+			for (int i = 0; i < expected.size(); i++) {
+				CompiledResponse e = expected.get(i);
+				CompiledResponse a = store.get(i);
+				assertEquals(e.getNetwork(), a.getNetwork());
+				assertEquals(e.getStation(), a.getStation());
+				assertEquals(e.getLocation(), a.getLocation());
+				assertEquals(e.getChannel(), a.getChannel());
+				assertEquals(e.getStart(), a.getStart());
+				assertEquals(e.getEnd(), a.getEnd());
+				if (e.getSampleRate() == null) {
+					assertNull(a.getSampleRate());
+				} else {
+					assertEquals(e.getSampleRate().getValue(), a.getSampleRate().getValue());
+				}
+				assertEquals(e.size(), a.size());
+
+				ResponseSpectrum expectedSpectrum = e.evaluate(frequencySet);
+				ResponseSpectrum actualSpectrum = a.evaluate(frequencySet);
+				assertEquals(expectedSpectrum.size(), actualSpectrum.size());
+				assertEquals(name(expectedSpectrum.getInputUnit()), name(actualSpectrum.getInputUnit()));
+				assertEquals(name(expectedSpectrum.getOutputUnit()), name(actualSpectrum.getOutputUnit()));
+				for (StageSpectrum stageSpectrum : expectedSpectrum.getAll()) {
+					StageSpectrum actual = actualSpectrum.get(stageSpectrum.getStageNumber());
+					assertEquals(stageSpectrum.getStageGain().getValue(), actual.getStageGain().getValue());
+					assertEquals(stageSpectrum.getStageGain().getFrequency(), actual.getStageGain().getFrequency());
+					assertArrayEquals(stageSpectrum.real, actual.real, i + ":" + stageSpectrum.getStageNumber());
+					assertArrayEquals(stageSpectrum.imaginary, actual.imaginary,
+							i + ":" + stageSpectrum.getStageNumber());
+				}
+			}
+
+			assertEquals(40.0, store.get(0).getSampleRate().getValue());
+			assertNotNull(store.get(4).evaluate(frequencySet).getInputUnit());
+			assertNotNull(store.get(4).evaluate(frequencySet).getOutputUnit());
+			assertEquals(2, store.find("IU", "ANMO", "00", "BHZ").size());
+			assertEquals(2, store.find("3A", "L001", null, "HHE").size());
+			assertEquals(0, store.find("IU", "ANMO", "10", "BHZ").size());
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void corrupt() throws Exception {
+		List<CompiledResponse> responses = new ArrayList<>();
+		for (String resource : new String[] { "1E.AXF.FIR.odd.resp", "iu.anmo.bhz.one.epoch.resp" }) {
+			responses.add(CompiledResponse.compile(NormalizedResponse.wrap(read(resource))));
+		}
+		Path path = Files.createTempFile("responses", ".store");
+		try {
+			ResponseStore.write(path, responses);
+			byte[] bytes = Files.readAllBytes(path);
+			int second = (int) ByteBuffer.wrap(bytes).getLong(12 + 8);
+
+			// truncated in the middle of the second response
+			Files.write(path, Arrays.copyOf(bytes, second + (bytes.length - second) / 2));
+			ResponseStore store = ResponseStore.open(path);
+			store.get(0);
+			assertThrows(IOException.class, () -> store.get(1));
+
+			// a string length larger than the file
+			byte[] corrupt = bytes.clone();
+			ByteBuffer.wrap(corrupt).putInt(second, Integer.MAX_VALUE);
+			Files.write(path, corrupt);
+			ResponseStore lengths = ResponseStore.open(path);
+			assertThrows(IOException.class, () -> lengths.get(1));
+			assertThrows(IOException.class, () -> lengths.find("IU", "ANMO", "00", "BHZ"));
+
+			// an offset out of the file
+			corrupt = bytes.clone();
+			ByteBuffer.wrap(corrupt).putLong(12, bytes.length);
+			Files.write(path, corrupt);
+			ResponseStore offsets = ResponseStore.open(path);
+			assertThrows(IOException.class, () -> offsets.get(0));
+			assertThrows(IOException.class, () -> offsets.find("IU", "ANMO", "00", "BHZ"));
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	private static String name(Unit<?> unit) {
+		return unit == null ? null : unit.getName();
+	}
+
+	private Channel read(String resource) throws Exception {
+		try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+			return RespIO.read(inputStream).getNetwork().get(0).getStations().get(0).getChannels().get(0);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package io.station.response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.InputStream;
+
+import org.apache.commons.math3.complex.Complex;
+import org.junit.jupiter.api.Test;
+
+import io.station.model.Channel;
+import io.station.response.util.FrequencySet;
+
+public class SpectrumCacheTest {
+
+	@Test
+	public void hitsAndEviction() throws Exception {
+		NormalizedResponse anmo = wrap("iu.anmo.bhz.one.epoch.resp", "IU");
+		NormalizedResponse copy = wrap("iu.anmo.bhz.one.epoch.resp", "XX");
+		NormalizedResponse axf = wrap("1E.AXF.FIR.odd.resp", "1E");
+		FrequencySet frequencySet = EvalRespUtil.createFrequency();
+
+		ResponseSpectrum expected = EvalResp.calculate(anmo, frequencySet, EvaluationMode.DIRECT);
+		long weight = SpectrumCache.weigh(expected);
+
+		SpectrumCache cache = new SpectrumCache(weight);
+		cache.get(anmo, frequencySet);
+		ResponseSpectrum hit = cache.get(copy, EvalRespUtil.createFrequency());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals("XX", hit.getNetwork());
+		assertArrayEquals(expected.calculateTotalSpectrum(), hit.calculateTotalSpectrum());
+		assertEquals(weight, cache.getBytes());
+
+		cache.get(anmo, frequencySet, EvaluationMode.RECURRENCE);
+		assertEquals(2, cache.getMisses());
+		assertEquals(1, cache.getEvictions());
+		assertEquals(1, cache.size());
+
+		SpectrumCache soft = new SpectrumCache(Long.MAX_VALUE, true);
+		soft.get(axf, frequencySet);
+		soft.get(axf, frequencySet);
+		soft.get(anmo, frequencySet);
+		assertEquals(1, soft.getHits());
+		assertEquals(2, soft.size());
+		soft.clear();
+		assertEquals(0, soft.getBytes());
+	}
+
+	@Test
+	public void returnedSpectraAreIndependent() throws Exception {
+		NormalizedResponse anmo = wrap("iu.anmo.bhz.one.epoch.resp", "IU");
+		FrequencySet frequencySet = EvalRespUtil.createFrequency();
+		SpectrumCache cache = new SpectrumCache(Long.MAX_VALUE);
+
+		ResponseSpectrum miss = cache.get(anmo, frequencySet);
+		Complex expected = miss.get(0, 0);
+		miss.add(0, miss.get(0).getStageGain(), 0, 42, 42);
+		ResponseSpectrum hit = cache.get(anmo, frequencySet);
+		assertEquals(expected, hit.get(0, 0));
+
+		hit.add(0, hit.get(0).getStageGain(), 0, 43, 43);
+		assertEquals(expected, cache.get(anmo, frequencySet).get(0, 0));
+		assertEquals(new Complex(42, 42), miss.get(0, 0));
+	}
+
+	private NormalizedResponse wrap(String resource, String network) throws Exception {
+		try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+			Channel channel = RespIO.read(inputStream).getNetwork().get(0).getStations().get(0).getChannels().get(0);
+			return NormalizedResponse.wrap(network, "STA", channel.getLocationCode(), channel.getCode(),
+					channel.getStartDate(), channel.getEndDate(), channel.getSampleRate(), channel.getResponse());
+		}
+	}
+
+	static void assertArrayEquals(Complex[] expected, Complex[] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], actual[i]);
+		}
+	}
+}
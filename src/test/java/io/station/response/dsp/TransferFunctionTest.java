@@ -170,4 +170,33 @@ public class TransferFunctionTest {
 		ct = TransferFunction.of(responseStage).transform(1.0, 1.0);
 		assertEquals(1.0, ct.getReal(), 0.0001);
 	}
+
+	@Test
+	public void batchMatchesScalar() throws Exception {
+		double[] frequencies = new double[] { 0.01, 0.1, 0.5, 1.0, 2.5, 5.0, 10.0 };
+		double[] real = new double[frequencies.length];
+		double[] imaginary = new double[frequencies.length];
+
+		Path path = Paths.get(this.getClass().getClassLoader().getResource("iu.anmo.bhz.one.epoch.resp").toURI());
+		FDSNStationXML fdsnStationXML = RespFile.read(path);
+		Response response = fdsnStationXML.find("IU", "ANMO", "00", "BHZ").get(0).getResponse();
+		TransferFunction laplace = TransferFunction.of(response.getStage(1));
+		laplace.transform(frequencies, real, imaginary);
+		for (int i = 0; i < frequencies.length; i++) {
+			ComplexType ct = laplace.transform(frequencies[i]);
+			assertEquals(ct.getReal(), real[i], Math.abs(ct.getReal()) * 1e-12);
+			assertEquals(ct.getImaginary(), imaginary[i], 1e-12);
+		}
+
+		path = Paths.get(this.getClass().getClassLoader().getResource("1E.AXF.FIR.odd.resp").toURI());
+		fdsnStationXML = RespFile.read(path);
+		response = fdsnStationXML.find("1E", "AXF", "  ", "BHE").get(0).getResponse();
+		TransferFunction fir = TransferFunction.of(response.getStage(3));
+		fir.transform(frequencies, real, imaginary);
+		for (int i = 0; i < frequencies.length; i++) {
+			ComplexType ct = fir.transform(frequencies[i]);
+			assertEquals(ct.getReal(), real[i], 0);
+			assertEquals(ct.getImaginary(), imaginary[i], 0);
+		}
+	}
 }
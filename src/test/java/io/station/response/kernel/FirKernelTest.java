@@ -0,0 +1,46 @@
+package io.station.response.kernel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import io.station.model.Symmetry;
+import io.station.response.EvalRespUtil;
+import io.station.response.EvaluationMode;
+import io.station.response.FrequencySpacing;
+
+public class FirKernelTest {
+
+	@Test
+	public void transformMatchesDirect() throws Exception {
+		double[] coefficients = new double[1001];
+		for (int i = 0; i < coefficients.length; i++) {
+			coefficients[i] = Math.sin(0.37 * i) / (1 + i);
+		}
+		double[] frequencies = EvalRespUtil.createFrequency(0.05, 19.5, 1500, FrequencySpacing.LINEAR).getValues();
+		double[] real = new double[frequencies.length];
+		double[] imaginary = new double[frequencies.length];
+		double[] re = new double[1];
+		double[] im = new double[1];
+		for (Symmetry symmetry : Symmetry.values()) {
+			FirKernel direct = new FirKernel(coefficients, 0.5, 0.025, symmetry, 0.01, EvaluationMode.DIRECT);
+			FirKernel transform = new FirKernel(coefficients, 0.5, 0.025, symmetry, 0.01, EvaluationMode.TRANSFORM);
+			transform.transform(frequencies, real, imaginary);
+			for (int k = 0; k < frequencies.length; k++) {
+				direct.transform(frequencies[k], k, re, im, 0);
+				assertEquals(re[0], real[k], 1e-9, symmetry + ":" + k);
+				assertEquals(im[0], imaginary[k], 1e-9, symmetry + ":" + k);
+			}
+		}
+	}
+
+	@Test
+	public void linearDetection() throws Exception {
+		assertTrue(ChirpZ.isLinear(EvalRespUtil.createFrequency(0.1, 10, 100, FrequencySpacing.LINEAR).getValues()));
+		assertFalse(ChirpZ.isLinear(EvalRespUtil.createFrequency(0.1, 10, 100, FrequencySpacing.LOGARITHMIC)
+				.getValues()));
+		assertFalse(ChirpZ.isLinear(new double[] { 1, 2 }));
+	}
+}
@@ -0,0 +1,53 @@
+package io.station.response.kernel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.apache.commons.math3.complex.Complex;
+import org.junit.jupiter.api.Test;
+
+public class InterpolatedResponseListKernelTest {
+
+	double[] frequency = new double[] { 0.1, 0.2, 0.5, 1.0, 2.0, 5.0 };
+	double[] amplitude = new double[] { 1.0, 2.0, 4.0, 4.5, 4.0, 3.0 };
+	double[] phase = new double[] { 0, -10, -20, -30, -40, -50 };
+
+	@Test
+	public void tabulatedValues() throws Exception {
+		InterpolatedResponseListKernel kernel = new InterpolatedResponseListKernel(frequency, amplitude, phase);
+		ResponseListKernel table = new ResponseListKernel(amplitude, phase);
+		for (int i = 0; i < frequency.length; i++) {
+			Complex expected = table.transform(frequency[i], i);
+			Complex actual = kernel.transform(frequency[i], -1);
+			assertEquals(expected.getReal(), actual.getReal(), 1e-12);
+			assertEquals(expected.getImaginary(), actual.getImaginary(), 1e-12);
+		}
+	}
+
+	@Test
+	public void phaseInDegrees() throws Exception {
+		InterpolatedResponseListKernel kernel = new InterpolatedResponseListKernel(frequency,
+				new double[] { 3, 3, 3, 3, 3, 3 }, new double[] { 90, 90, 90, 90, 90, 90 });
+		Complex c = kernel.transform(0.7, -1);
+		assertEquals(0, c.getReal(), 1e-12);
+		assertEquals(3, c.getImaginary(), 1e-12);
+		double[] real = new double[1];
+		double[] imaginary = new double[1];
+		kernel.transform(3.0, -1, real, imaginary, 0);
+		assertEquals(0, real[0], 1e-12);
+		assertEquals(3, imaginary[0], 1e-12);
+	}
+
+	@Test
+	public void outOfRangeIsClamped() throws Exception {
+		InterpolatedResponseListKernel kernel = new InterpolatedResponseListKernel(frequency, amplitude, phase);
+		assertEquals(kernel.transform(0.1, 0), kernel.transform(0.01, 0));
+		assertEquals(kernel.transform(5.0, 0), kernel.transform(50, 0));
+	}
+
+	@Test
+	public void wrap() throws Exception {
+		assertEquals(-170, InterpolatedResponseListKernel.wrap(190), 1e-12);
+		assertEquals(170, InterpolatedResponseListKernel.wrap(-190), 1e-12);
+		assertEquals(90, InterpolatedResponseListKernel.wrap(90), 0);
+	}
+}
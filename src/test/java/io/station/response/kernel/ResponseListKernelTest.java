@@ -0,0 +1,36 @@
+package io.station.response.kernel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.commons.math3.complex.Complex;
+import org.junit.jupiter.api.Test;
+
+public class ResponseListKernelTest {
+
+	ResponseListKernel kernel = new ResponseListKernel(new double[] { 2, 3, 4 }, new double[] { 90, 180, -90 });
+
+	@Test
+	public void phaseInDegrees() throws Exception {
+		Complex c = kernel.transform(1.0, 0);
+		assertEquals(0, c.getReal(), 1e-12);
+		assertEquals(2, c.getImaginary(), 1e-12);
+
+		double[] real = new double[3];
+		double[] imaginary = new double[3];
+		kernel.transform(new double[] { 1, 2, 3 }, real, imaginary);
+		assertEquals(-3, real[1], 1e-12);
+		assertEquals(0, imaginary[1], 1e-12);
+		assertEquals(0, real[2], 1e-12);
+		assertEquals(-4, imaginary[2], 1e-12);
+	}
+
+	@Test
+	public void moreFrequenciesThanValues() throws Exception {
+		assertThrows(IllegalArgumentException.class, () -> kernel.transform(1.0, 3));
+		assertThrows(IllegalArgumentException.class,
+				() -> kernel.transform(1.0, 3, new double[1], new double[1], 0));
+		assertThrows(IllegalArgumentException.class,
+				() -> kernel.transform(new double[4], new double[4], new double[4]));
+	}
+}
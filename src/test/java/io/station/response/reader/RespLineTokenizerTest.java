@@ -0,0 +1,88 @@
+package io.station.response.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class RespLineTokenizerTest {
+
+	@Test
+	public void header() throws Exception {
+		RespLineTokenizer tokenizer = new RespLineTokenizer();
+		tokenizer.reset("B052F22     Start date:  2002,323,21:07:00  ");
+		assertEquals(52, tokenizer.blockette());
+		assertEquals(22, tokenizer.field(52));
+		assertEquals(-1, tokenizer.field(53));
+		assertEquals("2002,323,21:07:00", tokenizer.value());
+
+		tokenizer.reset("B053F07     A0 normalization factor:               3948.58");
+		assertEquals(7, tokenizer.field(53));
+		assertEquals(3948.58, tokenizer.doubleValue(), 0);
+
+		tokenizer.reset("B057F05     Decimation factor:                      00002");
+		assertEquals(2, tokenizer.intValue());
+
+		tokenizer.reset("B053F08     Normalization frequency:   ");
+		assertFalse(tokenizer.hasValue());
+		assertNull(tokenizer.value());
+
+		tokenizer.reset("# B053F08");
+		assertEquals(-1, tokenizer.blockette());
+	}
+
+	@Test
+	public void tokens() throws Exception {
+		RespLineTokenizer tokenizer = new RespLineTokenizer();
+		tokenizer.reset("B053F15-18    3 -3.918000E+01 -4.912000E+01  0.000000E+00  0.000000E+00");
+		assertEquals(6, tokenizer.size());
+		assertEquals(15, tokenizer.field(53));
+		assertEquals(3, tokenizer.intToken(1));
+		assertEquals(-39.18, tokenizer.doubleToken(2), 0);
+		assertEquals(-49.12, tokenizer.doubleToken(3), 0);
+		assertEquals("B053F15-18", tokenizer.token(0));
+		assertThrows(IndexOutOfBoundsException.class, () -> tokenizer.token(6));
+
+		StringBuilder builder = new StringBuilder("B061F09");
+		for (int i = 0; i < 100; i++) {
+			builder.append(' ').append(i);
+		}
+		tokenizer.reset(builder.toString());
+		assertEquals(101, tokenizer.size());
+		assertEquals(99, tokenizer.intToken(100));
+	}
+
+	@Test
+	public void parseDouble() throws Exception {
+		String[] values = { "+1.23456E-05", "-0.00000E+00", "0", "1.", ".5", "+3.78878E-05", "1e300", "4.9e-324",
+				"123456789012345678901234", "0.1000000000000000055511151231257827", "2.2250738585072014E-308",
+				"9007199254740993", "NaN", "-Infinity", "1E23", "1E-23" };
+		for (String value : values) {
+			assertEquals(Double.parseDouble(value), parse(value), 0, value);
+			assertEquals(Double.doubleToLongBits(Double.parseDouble(value)),
+					Double.doubleToLongBits(parse(value)), value);
+		}
+		Random random = new Random(7);
+		for (int i = 0; i < 100000; i++) {
+			double expected = random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20);
+			for (String value : new String[] { String.format("%+.5E", expected), String.format("%.6E", expected),
+					Double.toString(expected) }) {
+				assertEquals(Double.parseDouble(value), parse(value), 0, value);
+			}
+		}
+		assertThrows(NumberFormatException.class, () -> parse("+"));
+		assertThrows(NumberFormatException.class, () -> parse("1.2.3"));
+		assertThrows(NumberFormatException.class, () -> parse("1E"));
+		assertThrows(NumberFormatException.class, () -> RespLineTokenizer.parseInt("12a".toCharArray(), 0, 3));
+		assertTrue(Double.isNaN(parse("NaN")));
+	}
+
+	private static double parse(String value) {
+		return RespLineTokenizer.parseDouble(value.toCharArray(), 0, value.length());
+	}
+}
@@ -0,0 +1,85 @@
+package io.station.response.writer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import io.station.model.Channel;
+import io.station.model.FDSNStationXML;
+import io.station.response.RespIO;
+
+public class RespBulkWriterTest {
+
+	@Test
+	public void sameBytesAsRespWriter() throws Exception {
+		for (String resource : new String[] { "IU.ANMO.resp", "1E.AXF.FIR.odd.resp", "3A.L001.HHE.FIR.even.resp",
+				"digital.pz.OO.AXCC2.MNZ.resp" }) {
+			FDSNStationXML document;
+			try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+				document = RespIO.read(inputStream);
+			}
+			ByteArrayOutputStream expected = new ByteArrayOutputStream();
+			try (RespWriter writer = new RespWriter(expected)) {
+				writer.write(document);
+			}
+			ByteArrayOutputStream actual = new ByteArrayOutputStream();
+			// a small buffer to go through several writes
+			try (RespBulkWriter writer = new RespBulkWriter(Channels.newChannel(actual), 1000)) {
+				writer.write(document);
+				writer.flush();
+				assertEquals(expected.size(), writer.getBytes(), resource);
+			}
+			assertArrayEquals(expected.toByteArray(), actual.toByteArray(), resource);
+		}
+	}
+
+	@Test
+	public void failedChannelLeavesNothing() throws Exception {
+		FDSNStationXML document = read("IU.ANMO.resp");
+		Channel channel = document.getNetwork().get(0).getStations().get(0).getChannels().get(0);
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		try (RespWriter writer = new RespWriter(expected)) {
+			writer.write(channel);
+		}
+		Channel broken = read("IU.ANMO.resp").getNetwork().get(0).getStations().get(0).getChannels().get(0);
+		broken.getResponse().getStages().add(null);
+		ByteArrayOutputStream actual = new ByteArrayOutputStream();
+		try (RespBulkWriter writer = new RespBulkWriter(Channels.newChannel(actual), 1000)) {
+			assertThrows(NullPointerException.class, () -> writer.write(broken));
+			writer.write(channel);
+		}
+		assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+	}
+
+	private FDSNStationXML read(String resource) throws Exception {
+		try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+			return RespIO.read(inputStream);
+		}
+	}
+
+	@Test
+	public void scientificFormat() {
+		ScientificFormat format = new ScientificFormat();
+		double[] values = { 0.0, -0.0, 1, -1, 0.5, 123456.75, 1234567.5, 9.9999995, 9.99999949, 1e22, 1e-20,
+				5.51178E-20, 3948.58, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY,
+				Double.NEGATIVE_INFINITY };
+		for (double value : values) {
+			assertEquals(format.formatSlowly(value), format.format(value), Double.toString(value));
+		}
+		Random random = new Random(7);
+		for (int i = 0; i < 100000; i++) {
+			double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(80) - 40);
+			assertEquals(format.formatSlowly(value), format.format(value), Double.toString(value));
+			// seven significant digits followed by a 5
+			value = Math.round(value * 1e7) / 1e7 + 5e-8;
+			assertEquals(format.formatSlowly(value), format.format(value), Double.toString(value));
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package io.station.response.writer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import io.station.model.Channel;
+import io.station.model.FDSNStationXML;
+import io.station.model.Network;
+import io.station.model.Station;
+import io.station.response.RespIO;
+
+public class RespExporterTest {
+
+	private FDSNStationXML read(String resource) throws Exception {
+		try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+			return RespIO.read(inputStream);
+		}
+	}
+
+	@Test
+	public void export() throws Exception {
+		FDSNStationXML document = read("IU.ANMO.resp");
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		try (RespWriter writer = new RespWriter(expected)) {
+			writer.write(document);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			// a window smaller than the channel count to go through the reordering
+			RespExporter exporter = new RespExporter(executor, 2);
+			ByteArrayOutputStream actual = new ByteArrayOutputStream();
+			assertEquals(expected.size(), exporter.export(document, actual));
+			assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void exportAfterFailure() throws Exception {
+		FDSNStationXML broken = read("IU.ANMO.resp");
+		broken.getNetwork().get(0).getStations().get(0).getChannels().get(0).getResponse().getStages().add(null);
+		FDSNStationXML document = read("IU.ANMO.resp");
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		try (RespWriter writer = new RespWriter(expected)) {
+			writer.write(document);
+		}
+		// a single thread renders both documents with the same writer
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			RespExporter exporter = new RespExporter(executor, 2);
+			assertThrows(NullPointerException.class, () -> exporter.export(broken, new ByteArrayOutputStream()));
+			ByteArrayOutputStream actual = new ByteArrayOutputStream();
+			exporter.export(document, actual);
+			assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void exportFiles() throws Exception {
+		FDSNStationXML document = read("IU.ANMO.resp");
+		Map<String, ByteArrayOutputStream> expected = new LinkedHashMap<>();
+		for (Network network : document.getNetwork()) {
+			for (Station station : network.getStations()) {
+				for (Channel channel : station.getChannels()) {
+					ByteArrayOutputStream bytes = expected.computeIfAbsent(RespExporter.fileName(channel),
+							k -> new ByteArrayOutputStream());
+					try (RespWriter writer = new RespWriter(bytes)) {
+						writer.write(channel);
+					}
+				}
+			}
+		}
+		Path directory = Files.createTempDirectory("resp");
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			RespExporter exporter = new RespExporter(executor, 2);
+			assertEquals(expected.size(), exporter.exportFiles(document, directory));
+			for (Map.Entry<String, ByteArrayOutputStream> file : expected.entrySet()) {
+				Path path = directory.resolve(file.getKey());
+				assertArrayEquals(file.getValue().toByteArray(), Files.readAllBytes(path), file.getKey());
+				Files.delete(path);
+			}
+			Files.delete(directory);
+		} finally {
+			executor.shutdown();
+		}
+	}
+}